@@ -498,6 +498,20 @@ public class AndroidContext implements GLDrawContext {
 			bufferlength++;
 		}
 
+		@Override
+		public void put(ByteBuffer data) {
+			if (bufferlength > 0) {
+				writeBuffer();
+				bufferstart += bufferlength;
+				bufferlength = 0;
+				buffer.position(0);
+			}
+			int length = data.remaining();
+			GLES11.glBufferSubData(GLES11.GL_ARRAY_BUFFER, bufferstart,
+					length, data);
+			bufferstart += length;
+		}
+
 		@Override
 		public void position(int position) {
 			if (bufferstart + bufferlength != position) {
@@ -476,6 +476,11 @@ public class JOGLDrawContext implements GLDrawContext {
 			buffer.put(b);
 		}
 
+		@Override
+		public void put(ByteBuffer data) {
+			buffer.put(data);
+		}
+
 		@Override
 		public void position(int position) {
 			buffer.position(position);
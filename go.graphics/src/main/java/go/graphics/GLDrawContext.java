@@ -134,6 +134,14 @@ public interface GLDrawContext {
 
 		void putByte(byte b);
 
+		/**
+		 * Writes the remaining bytes of the given buffer at the current position.
+		 * 
+		 * @param data
+		 *            The bytes to write. They have to be in the native byte order.
+		 */
+		void put(ByteBuffer data);
+
 		void position(int position);
 	}
 
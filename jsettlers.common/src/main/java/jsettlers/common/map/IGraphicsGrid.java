@@ -127,13 +127,14 @@ public interface IGraphicsGrid {
 	void setBackgroundListener(IGraphicsBackgroundListener backgroundListener);
 
 	/**
-	 * Gets the next x coordinate that might contain a drawable Object.
+	 * Gets the next x coordinate that might contain a drawable Object. That is a map object, a movable or a border.
 	 * 
 	 * @param x
+	 *            the x coordinate to start behind. It might be one less than the first x coordinate of the line to get the first drawable x.
 	 * @param y
 	 * @param maxX
 	 *            the maximum x that needs to be searched.
-	 * @return a value bigger than x, might be outside the map.
+	 * @return a value bigger than x, might be outside the map. If there is no drawable object up to maxX, a value bigger than maxX is returned.
 	 */
 	int nextDrawableX(int x, int y, int maxX);
 
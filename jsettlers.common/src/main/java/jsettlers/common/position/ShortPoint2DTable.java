@@ -0,0 +1,69 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.common.position;
+
+/**
+ * Table of canonical {@link ShortPoint2D} objects for the positions of a map. As {@link ShortPoint2D}s are immutable, the same object can be
+ * handed out every time a position is needed. This avoids allocating a new object for every step of a movable.
+ * <p />
+ * The points are created lazily on first request. Points of positions outside of the map are not cached, so the equality of the returned points
+ * must still be checked with {@link ShortPoint2D#equals(ShortPoint2D)}.
+ *
+ * @author agent
+ */
+public final class ShortPoint2DTable {
+	private final short width;
+	private final short height;
+	private final ShortPoint2D[] points;
+
+	public ShortPoint2DTable(short width, short height) {
+		this.width = width;
+		this.height = height;
+		this.points = new ShortPoint2D[width * height];
+	}
+
+	/**
+	 * Gets the canonical point of the given position.
+	 *
+	 * @param x
+	 *            x coordinate of the position.
+	 * @param y
+	 *            y coordinate of the position.
+	 * @return The point of the given position. For positions on the map, the same object is returned on every call.
+	 */
+	public ShortPoint2D get(int x, int y) {
+		if (x < 0 || y < 0 || x >= width || y >= height) {
+			return new ShortPoint2D(x, y);
+		}
+
+		int index = x + y * width;
+		ShortPoint2D point = points[index];
+		if (point == null) {
+			point = points[index] = new ShortPoint2D(x, y);
+		}
+		return point;
+	}
+
+	/**
+	 * Gets the canonical point equal to the given one.
+	 *
+	 * @param point
+	 *            The point to look up.
+	 * @return The canonical point of the position of the given point.
+	 */
+	public ShortPoint2D get(ShortPoint2D point) {
+		return get(point.x, point.y);
+	}
+}
@@ -0,0 +1,45 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.common.position;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+public class ShortPoint2DTableTest {
+	private final ShortPoint2DTable points = new ShortPoint2DTable((short) 20, (short) 10);
+
+	@Test
+	public void testCanonicalPoints() {
+		for (int y = 0; y < 10; y++) {
+			for (int x = 0; x < 20; x++) {
+				ShortPoint2D point = points.get(x, y);
+				assertEquals(new ShortPoint2D(x, y), point);
+				assertSame(point, points.get(x, y));
+				assertSame(point, points.get(new ShortPoint2D(x, y)));
+			}
+		}
+	}
+
+	@Test
+	public void testPointsOutsideOfMap() {
+		assertEquals(new ShortPoint2D(-1, 5), points.get(-1, 5));
+		assertEquals(new ShortPoint2D(20, 5), points.get(20, 5));
+		assertEquals(new ShortPoint2D(3, 10), points.get(3, 10));
+		assertNotSame(points.get(20, 5), points.get(20, 5));
+	}
+}
@@ -480,15 +480,17 @@ public final class MapContent implements RegionContent, IMapInterfaceListener, A
 
 			int endX = Math.min(area.getLineEndX(line), width - 1);
 			int startX = Math.max(area.getLineStartX(line), 0);
-			for (int x = startX; x <= endX; x = map.nextDrawableX(x, y, endX)) {
+			for (int x = map.nextDrawableX(startX - 1, y, endX); x <= endX; x = map.nextDrawableX(x, y, endX)) {
 				drawTile(x, y);
 				if (!linePartiallyVisible) {
-					double drawSpaceY = this.context.getConverter().getViewY(x, y, this.context.getHeight(x, y));
-					if (drawSpaceY > bottomDrawY) {
-						linePartiallyVisible = true;
-					}
+					linePartiallyVisible = isVisible(x, y, bottomDrawY);
 				}
 			}
+
+			// the tiles without objects have been skipped, but they might still be visible
+			for (int x = startX; x <= endX && !linePartiallyVisible; x++) {
+				linePartiallyVisible = isVisible(x, y, bottomDrawY);
+			}
 		}
 
 		if (placementBuilding != null) {
@@ -509,6 +511,11 @@ public final class MapContent implements RegionContent, IMapInterfaceListener, A
 		context.getDrawBuffer().flush();
 	}
 
+	private boolean isVisible(int x, int y, double bottomDrawY) {
+		double drawSpaceY = this.context.getConverter().getViewY(x, y, this.context.getHeight(x, y));
+		return drawSpaceY > bottomDrawY;
+	}
+
 	private void drawTile(int x, int y) {
 		IMapObject object = map.getMapObjectsAt(x, y);
 		if (object != null) {
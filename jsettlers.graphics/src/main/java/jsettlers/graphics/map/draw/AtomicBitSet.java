@@ -0,0 +1,83 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.graphics.map.draw;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed size bit set that can be changed by multiple threads without locking.
+ * 
+ * @author agent
+ */
+final class AtomicBitSet {
+	private final AtomicLongArray words;
+	private final int size;
+
+	AtomicBitSet(int size) {
+		this.size = size;
+		this.words = new AtomicLongArray((size + 63) >> 6);
+	}
+
+	/**
+	 * Sets the given bit. Bits outside of this set are ignored.
+	 * 
+	 * @param index
+	 *            The index of the bit.
+	 */
+	public void set(int index) {
+		if (index < 0 || index >= size) {
+			return;
+		}
+
+		int wordIndex = index >> 6;
+		long mask = 1L << index;
+		long word;
+		do {
+			word = words.get(wordIndex);
+			if ((word & mask) != 0) {
+				return;
+			}
+		} while (!words.compareAndSet(wordIndex, word, word | mask));
+	}
+
+	/**
+	 * Clears the given bit.
+	 * 
+	 * @param index
+	 *            The index of the bit.
+	 * @return true if the bit has been set.
+	 */
+	public boolean getAndClear(int index) {
+		int wordIndex = index >> 6;
+		long mask = 1L << index;
+		long word;
+		do {
+			word = words.get(wordIndex);
+			if ((word & mask) == 0) {
+				return false;
+			}
+		} while (!words.compareAndSet(wordIndex, word, word & ~mask));
+		return true;
+	}
+
+	public boolean isEmpty() {
+		for (int i = 0; i < words.length(); i++) {
+			if (words.get(i) != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -23,7 +23,15 @@ import go.graphics.TextureHandle;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.util.ArrayList;
 import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import jsettlers.common.CommonConstants;
 import jsettlers.common.landscape.ELandscapeType;
@@ -835,13 +843,28 @@ public class Background implements IGraphicsBackgroundListener {
 			// ...
 	};
 
-	private final BitSet fowDimmed = new BitSet();
+	/**
+	 * The number of threads that help the render thread to generate the geometry. If it is 0, the render thread generates the whole geometry
+	 * itself.
+	 */
+	public static int GEOMETRY_WORKER_THREADS = Runtime.getRuntime().availableProcessors() - 1;
+
+	/**
+	 * The number of lines a thread takes at once when generating the geometry.
+	 */
+	private static final int LINES_PER_TASK = 4;
+
+	private static ExecutorService geometryWorkers = null;
 
 	private static final short FLOAT_SIZE = 4;
 	/**
 	 * How many bytes are needed per vertex
 	 */
 	private static final short VERTEX_SIZE = 6 * FLOAT_SIZE;
+	/**
+	 * How many bytes are needed per point (two triangles)
+	 */
+	private static final int POINT_SIZE = 2 * 3 * VERTEX_SIZE;
 
 	private static final byte DIM_MAX = 20;
 
@@ -865,7 +888,18 @@ public class Background implements IGraphicsBackgroundListener {
 
 	private int geometrytirs;
 
-	private BitSet geometryInvalid = new BitSet();
+	private volatile AtomicBitSet geometryInvalid = new AtomicBitSet(0);
+
+	/**
+	 * The geometry is generated into this buffer and the changed parts are copied to the geometry of opengl afterwards.
+	 */
+	private ByteBuffer geometryStagingBuffer = ByteBuffer.allocateDirect(0);
+
+	/**
+	 * The first and the last (excluding) buffer position of every buffer line that has been changed by the last generation.
+	 */
+	private int[] changedLineStarts = new int[1];
+	private int[] changedLineEnds = new int[1];
 
 	private boolean mapViewResized;
 
@@ -1324,8 +1358,9 @@ public class Background implements IGraphicsBackgroundListener {
 				regenerateGeometry(gl, screenArea);
 			}
 
+			reloadGeometry(screenArea, context);
 			GLBuffer boundbuffer = gl.startWriteGeometry(geometryhandle);
-			reloadGeometry(boundbuffer, screenArea, context);
+			uploadChangedLines(boundbuffer);
 			gl.endWriteGeometry(geometryhandle);
 			gl.glPushMatrix();
 			try {
@@ -1338,18 +1373,12 @@ public class Background implements IGraphicsBackgroundListener {
 			} finally {
 				gl.glPopMatrix();
 			}
-
-			resetFOWDimStatus();
 		} catch (IllegalBufferException e) {
 			// TODO: Create crash report.
 			e.printStackTrace();
 		}
 	}
 
-	private void resetFOWDimStatus() {
-		fowDimmed.clear();
-	}
-
 	private void regenerateGeometry(GLDrawContext gl, MapRectangle screenArea) {
 		if (geometryhandle != null && geometryhandle.isValid()) {
 			geometryhandle.delete();
@@ -1358,8 +1387,12 @@ public class Background implements IGraphicsBackgroundListener {
 		bufferheight = niceRoundUp(screenArea.getLines());
 		int count = bufferheight * bufferwidth;
 		fogOfWarStatus = new byte[count * 4];
-		geometryInvalid = new BitSet(count);
+		geometryInvalid = new AtomicBitSet(count);
 		geometrytirs = count * 2;
+		geometryStagingBuffer = ByteBuffer.allocateDirect(count * POINT_SIZE)
+				.order(ByteOrder.nativeOrder());
+		changedLineStarts = new int[bufferheight];
+		changedLineEnds = new int[bufferheight];
 
 		geometryhandle = gl.generateGeometry(geometrytirs * 3 * VERTEX_SIZE);
 	}
@@ -1374,25 +1407,144 @@ public class Background implements IGraphicsBackgroundListener {
 	}
 
 	/**
-	 * Gets the geometry of the background as array.
+	 * Regenerates the changed parts of the geometry in the staging buffer. The lines of the buffer are distributed to the render thread and the
+	 * {@link #GEOMETRY_WORKER_THREADS}.
 	 * 
-	 * @param boundbuffer
-	 *            The buffer of opengl.
+	 * @param area
+	 *            The area of the map to show.
 	 * @param context
 	 *            The context to use.
-	 * @return The geometry as float array.
 	 */
-	private void reloadGeometry(GLBuffer boundbuffer, MapRectangle area,
-			MapDrawContext context) {
-		boolean hasInvalidFields = hasInvalidFields();
+	private void reloadGeometry(MapRectangle area, MapDrawContext context) {
+		GeometryLinesGenerator generator = new GeometryLinesGenerator(area,
+				context);
+
+		int workers = Math.min(GEOMETRY_WORKER_THREADS, bufferheight
+				/ LINES_PER_TASK - 1);
+		List<Future<?>> workerResults = new ArrayList<Future<?>>(workers);
+		for (int i = 0; i < workers; i++) {
+			workerResults.add(getGeometryWorkers().submit(generator));
+		}
+		generator.run();
+		waitForWorkers(workerResults);
+		generator.invalidateForNextPass();
 
-		int width = context.getMap().getWidth();
-		int height = context.getMap().getHeight();
-		int oldbuffertop = oldBufferPosition.getLineY(0);
-		int oldbufferbottom = oldbuffertop + bufferheight; // excluding
+		oldBufferPosition = area;
+	}
+
+	private static synchronized ExecutorService getGeometryWorkers() {
+		if (geometryWorkers == null) {
+			geometryWorkers = Executors.newCachedThreadPool(new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "background geometry");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+		return geometryWorkers;
+	}
 
+	private static void waitForWorkers(List<Future<?>> workerResults) {
+		boolean interrupted = false;
+		for (Future<?> workerResult : workerResults) {
+			while (true) {
+				try {
+					workerResult.get();
+					break;
+				} catch (InterruptedException e) {
+					interrupted = true; // the workers still write to the staging buffer, so we have to wait for them.
+				} catch (ExecutionException e) {
+					throw new RuntimeException(e.getCause());
+				}
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Copies the changed lines of the staging buffer to the geometry of opengl.
+	 * 
+	 * @param boundbuffer
+	 *            The buffer of opengl.
+	 */
+	private void uploadChangedLines(GLBuffer boundbuffer) {
+		ByteBuffer changedBytes = geometryStagingBuffer.duplicate();
 		for (int line = 0; line < bufferheight; line++) {
+			int start = changedLineStarts[line];
+			int end = changedLineEnds[line];
+			if (start < end) {
+				changedBytes.clear();
+				changedBytes.position(start * POINT_SIZE);
+				changedBytes.limit(end * POINT_SIZE);
+
+				boundbuffer.position(start * POINT_SIZE);
+				boundbuffer.put(changedBytes);
+			}
+		}
+	}
+
+	/**
+	 * Generates the lines of the geometry. The same generator is run by all threads generating the geometry, every thread takes the next
+	 * {@link Background#LINES_PER_TASK} lines that haven't been taken yet.
+	 */
+	private class GeometryLinesGenerator implements Runnable {
+		private final MapRectangle area;
+		private final MapDrawContext context;
+		private final boolean hasInvalidFields;
+		private final int width;
+		private final int height;
+		private final int oldbuffertop;
+		private final int oldbufferbottom; // excluding
+		private final AtomicInteger nextLine = new AtomicInteger();
+		/**
+		 * Points to be redrawn in the next pass. They are only invalidated after all threads are done, because another thread may still
+		 * redraw and reset them in this pass.
+		 */
+		private final BitSet nextPassInvalid = new BitSet();
+
+		GeometryLinesGenerator(MapRectangle area, MapDrawContext context) {
+			this.area = area;
+			this.context = context;
+			this.hasInvalidFields = hasInvalidFields();
+			this.width = context.getMap().getWidth();
+			this.height = context.getMap().getHeight();
+			this.oldbuffertop = oldBufferPosition.getLineY(0);
+			this.oldbufferbottom = oldbuffertop + bufferheight;
+		}
+
+		@Override
+		public void run() {
+			GLBuffer buffer = new StagingBuffer(geometryStagingBuffer);
+			BitSet invalidForNextPass = new BitSet();
+
+			for (int firstLine = nextLine.getAndAdd(LINES_PER_TASK); firstLine < bufferheight; firstLine = nextLine
+					.getAndAdd(LINES_PER_TASK)) {
+				int endLine = Math.min(firstLine + LINES_PER_TASK, bufferheight);
+				for (int line = firstLine; line < endLine; line++) {
+					reloadLine(buffer, line, invalidForNextPass);
+				}
+			}
+
+			synchronized (nextPassInvalid) {
+				nextPassInvalid.or(invalidForNextPass);
+			}
+		}
+
+		/**
+		 * Invalidates the points collected for the next pass. Must only be called after all threads finished.
+		 */
+		void invalidateForNextPass() {
+			for (int bufferPosition = nextPassInvalid.nextSetBit(0); bufferPosition >= 0; bufferPosition = nextPassInvalid
+					.nextSetBit(bufferPosition + 1)) {
+				geometryInvalid.set(bufferPosition);
+			}
+		}
 
+		private void reloadLine(GLBuffer buffer, int line, BitSet invalidForNextPass) {
 			int y = area.getLineY(line);
 			int minx = area.getLineStartX(line);
 			int maxx = minx + bufferwidth;
@@ -1404,36 +1556,77 @@ public class Background implements IGraphicsBackgroundListener {
 			}
 			boolean lineIsInMap = y >= 0 && y < height;
 
+			int changedStart = Integer.MAX_VALUE;
+			int changedEnd = 0;
+
 			for (int x = minx; x < maxx; x++) {
 				int bufferPosition = getBufferPosition(y, x);
+				boolean changed = true;
 				if (mapViewResized || oldminx > x || oldmaxx <= x) {
-					redrawPoint(boundbuffer, context, x, y, false,
-							bufferPosition);
+					redrawPoint(buffer, context, x, y, false, bufferPosition);
 				} else if (lineIsInMap && x >= 0 && x < width) {
 					if (hasInvalidFields && getAndResetInvalid(bufferPosition)) {
-						redrawPoint(boundbuffer, context, x, y, true,
-								bufferPosition);
+						redrawPoint(buffer, context, x, y, true, bufferPosition);
 					} else if (context.getVisibleStatus(x, y) != fogOfWarStatus[bufferPosition * 4]) {
-						redrawPoint(boundbuffer, context, x, y, true,
-								bufferPosition);
-						invalidatePoint(x - 1, y); // only for next pass
-						invalidatePoint(x - 1, y - 1);
-						invalidatePoint(x - 1, y - 1);
+						redrawPoint(buffer, context, x, y, true, bufferPosition);
+						invalidForNextPass.set(getBufferPosition(y, x - 1)); // only for next pass
+						invalidForNextPass.set(getBufferPosition(y - 1, x - 1));
+						invalidForNextPass.set(getBufferPosition(y - 1, x - 1));
+					} else {
+						changed = false;
 					}
+				} else {
+					changed = false;
+				}
+
+				if (changed) {
+					changedStart = Math.min(changedStart, bufferPosition);
+					changedEnd = Math.max(changedEnd, bufferPosition + 1);
 				}
 			}
+
+			int bufferLine = getBufferPosition(y, minx) / bufferwidth;
+			changedLineStarts[bufferLine] = changedStart;
+			changedLineEnds[bufferLine] = changedEnd;
 		}
+	}
 
-		oldBufferPosition = area;
+	/**
+	 * A {@link GLBuffer} writing to its own view of the staging buffer.
+	 */
+	private static final class StagingBuffer implements GLBuffer {
+		private final ByteBuffer buffer;
+
+		private StagingBuffer(ByteBuffer stagingBuffer) {
+			this.buffer = stagingBuffer.duplicate().order(ByteOrder.nativeOrder());
+		}
+
+		@Override
+		public void putFloat(float f) {
+			buffer.putFloat(f);
+		}
+
+		@Override
+		public void putByte(byte b) {
+			buffer.put(b);
+		}
+
+		@Override
+		public void put(ByteBuffer data) {
+			buffer.put(data);
+		}
+
+		@Override
+		public void position(int position) {
+			buffer.position(position);
+		}
 	}
 
-	private synchronized boolean getAndResetInvalid(int bufferPosition) {
-		boolean invalid = geometryInvalid.get(bufferPosition);
-		geometryInvalid.clear(bufferPosition);
-		return invalid;
+	private boolean getAndResetInvalid(int bufferPosition) {
+		return geometryInvalid.getAndClear(bufferPosition);
 	}
 
-	private synchronized boolean hasInvalidFields() {
+	private boolean hasInvalidFields() {
 		return !geometryInvalid.isEmpty();
 	}
 
@@ -1453,7 +1646,7 @@ public class Background implements IGraphicsBackgroundListener {
 	 */
 	private void redrawPoint(GLBuffer boundbuffer, MapDrawContext context,
 			int x, int y, boolean wasVisible, int pointOffset) {
-		boundbuffer.position(pointOffset * 2 * 3 * VERTEX_SIZE);
+		boundbuffer.position(pointOffset * POINT_SIZE);
 
 		if (x >= 0 && y >= 0 && x < context.getMap().getWidth() - 1
 				&& y < context.getMap().getHeight() - 1) {
@@ -1474,7 +1667,7 @@ public class Background implements IGraphicsBackgroundListener {
 		}
 	}
 
-	private synchronized void invalidatePoint(int x, int y) {
+	private void invalidatePoint(int x, int y) {
 		geometryInvalid.set(getBufferPosition(y, x));
 	}
 
@@ -1498,11 +1691,8 @@ public class Background implements IGraphicsBackgroundListener {
 	 */
 	private void dimFogOfWarBuffer(MapDrawContext context, int offset, int x,
 			int y) {
-		if (!fowDimmed.get(offset)) {
-			byte newFog = context.getVisibleStatus(x, y);
-			fogOfWarStatus[offset] = dim(fogOfWarStatus[offset], newFog);
-			fowDimmed.set(offset);
-		}
+		byte newFog = context.getVisibleStatus(x, y);
+		fogOfWarStatus[offset] = dim(fogOfWarStatus[offset], newFog);
 	}
 
 	private static byte dim(byte value, byte dimTo) {
@@ -144,4 +144,16 @@ public class SimpleMessage implements IMessage {
 		return new SimpleMessage(EMessageType.NOTHING_FOUND_IN_SEARCH_AREA, message, (byte) -1, building.getPos());
 	}
 
+	/**
+	 * Create a new message that a savegame could not be written.
+	 * 
+	 * @param pos
+	 *            The position the message is shown for.
+	 * @return The message object
+	 */
+	public static IMessage saveFailed(ShortPoint2D pos) {
+		String message = Labels.getString("save_failed");
+		return new SimpleMessage(EMessageType.SAVE_FAILED, message, (byte) -1, pos);
+	}
+
 }
@@ -16,8 +16,15 @@ package jsettlers.ai.highlevel;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 import jsettlers.common.logging.StatisticsStopWatch;
+import jsettlers.logic.constants.Constants;
 import jsettlers.logic.map.grid.MainGrid;
 import jsettlers.logic.player.PlayerSetting;
 import jsettlers.network.client.interfaces.ITaskScheduler;
@@ -25,34 +32,59 @@ import jsettlers.network.synchronic.timer.INetworkTimerable;
 
 /**
  * The AiExecutor holds all IWhatToDoAi high level KIs and executes them when NetworkTimer notifies it.
+ * <p />
+ * The rules of the KIs are applied in parallel on a pool of worker threads. While they run, the game clock thread waits, so the KIs see a
+ * consistent state of the game. The KIs read the live grid, buildings and movables, so the clock can't continue before the slowest KI finished
+ * without a snapshot of that state. The tasks of each KI are buffered and scheduled afterwards by the game clock thread in the order of the player
+ * ids. This way, the tasks are always scheduled in the same order for the same lockstep and the game stays deterministic. If the rules of a KI
+ * fail, its tasks of this run are dropped and the failure is thrown after the tasks of the other KIs have been scheduled.
  * 
  * @author codingberlin
  */
 public class AiExecutor implements INetworkTimerable {
 
-	private final List<IWhatToDoAi> whatToDoAis;
+	private final List<AiPlayer> aiPlayers;
 	private final AiStatistics aiStatistics;
+	private final ITaskScheduler taskScheduler;
+	private final ExecutorService workerPool;
 	private final StatisticsStopWatch updateStatisticsStopWatch = new StatisticsStopWatch();
 	private final StatisticsStopWatch applyRulesStopWatch = new StatisticsStopWatch();
 
 	public AiExecutor(PlayerSetting[] playerSettings, MainGrid mainGrid, ITaskScheduler taskScheduler) {
+		this.taskScheduler = taskScheduler;
 		aiStatistics = new AiStatistics(mainGrid);
 		aiStatistics.updateStatistics();
-		this.whatToDoAis = new ArrayList<IWhatToDoAi>();
+		this.aiPlayers = new ArrayList<AiPlayer>();
 		WhatToDoAiFactory aiFactory = new WhatToDoAiFactory();
 		for (byte playerId = 0; playerId < playerSettings.length; playerId++) {
 			PlayerSetting playerSetting = playerSettings[playerId];
 			if (playerSetting.isAvailable() && playerSetting.getPlayerType().isAi()) {
-				whatToDoAis.add(aiFactory.buildWhatToDoAi(
+				BufferingTaskScheduler playerTaskScheduler = new BufferingTaskScheduler();
+				IWhatToDoAi whatToDoAi = aiFactory.buildWhatToDoAi(
 						playerSettings[playerId].getPlayerType(),
 						playerSettings[playerId].getCivilisation(),
 						aiStatistics,
 						mainGrid.getPartitionsGrid().getPlayer(playerId),
 						mainGrid,
 						mainGrid.getMovableGrid(),
-						taskScheduler));
+						playerTaskScheduler);
+				aiPlayers.add(new AiPlayer(playerId, whatToDoAi, playerTaskScheduler));
 			}
 		}
+
+		int numberOfThreads = Constants.AI_EXECUTOR_THREADS > 0 ? Constants.AI_EXECUTOR_THREADS
+				: Math.min(aiPlayers.size(), Runtime.getRuntime().availableProcessors());
+		this.workerPool = numberOfThreads > 0 ? Executors.newFixedThreadPool(numberOfThreads, new ThreadFactory() {
+			private int threadNumber = 0;
+
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable);
+				thread.setName("AiExecutor-" + threadNumber++);
+				thread.setDaemon(true);
+				return thread;
+			}
+		}) : null;
 	}
 
 	@Override
@@ -61,17 +93,98 @@ public class AiExecutor implements INetworkTimerable {
 		aiStatistics.updateStatistics();
 		updateStatisticsStopWatch.stop("computerplayer:updateStatistics()");
 		applyRulesStopWatch.restart();
-		for (IWhatToDoAi whatToDoAi : whatToDoAis) {
-			whatToDoAi.applyRules();
-		}
+		applyRules();
 		applyRulesStopWatch.stop("computerplayer:applyRules()");
 	}
 
+	private void applyRules() {
+		if (workerPool == null) {
+			return;
+		}
+
+		List<Future<Void>> results;
+		try {
+			results = workerPool.invokeAll(aiPlayers);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return;
+		}
+
+		RuntimeException failure = null;
+		for (int i = 0; i < aiPlayers.size(); i++) {
+			AiPlayer aiPlayer = aiPlayers.get(i);
+			try {
+				results.get(i).get();
+				aiPlayer.taskScheduler.flushTo(taskScheduler);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} catch (ExecutionException e) {
+				aiPlayer.taskScheduler.clear(); // the rules did not finish, so their tasks are dropped
+				if (failure == null) {
+					failure = new RuntimeException("Error while applying the rules of the AI of player " + aiPlayer.playerId, e.getCause());
+				}
+			}
+		}
+
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	/**
+	 * Stops the worker threads of this {@link AiExecutor}.
+	 */
+	public void shutdown() {
+		if (workerPool != null) {
+			workerPool.shutdownNow();
+		}
+	}
+
 	public StatisticsStopWatch getUpdateStatisticsStopWatch() {
 		return updateStatisticsStopWatch;
 	}
 
+	/**
+	 * @return The {@link StatisticsStopWatch} measuring the time the game clock thread is blocked while the rules of all KIs are applied.
+	 */
 	public StatisticsStopWatch getApplyRulesStopWatch() {
 		return applyRulesStopWatch;
 	}
+
+	/**
+	 * @param playerId
+	 *            The id of a player controlled by a KI.
+	 * @return The {@link StatisticsStopWatch} measuring the time the rules of the KI of the given player need on their worker thread or
+	 *         <code>null</code> if the player is not controlled by a KI.
+	 */
+	public StatisticsStopWatch getApplyRulesStopWatchOf(byte playerId) {
+		for (AiPlayer aiPlayer : aiPlayers) {
+			if (aiPlayer.playerId == playerId) {
+				return aiPlayer.applyRulesStopWatch;
+			}
+		}
+		return null;
+	}
+
+	private static class AiPlayer implements Callable<Void> {
+		final byte playerId;
+		final IWhatToDoAi whatToDoAi;
+		final BufferingTaskScheduler taskScheduler;
+		final StatisticsStopWatch applyRulesStopWatch = new StatisticsStopWatch();
+
+		AiPlayer(byte playerId, IWhatToDoAi whatToDoAi, BufferingTaskScheduler taskScheduler) {
+			this.playerId = playerId;
+			this.whatToDoAi = whatToDoAi;
+			this.taskScheduler = taskScheduler;
+		}
+
+		@Override
+		public Void call() {
+			applyRulesStopWatch.restart();
+			whatToDoAi.applyRules();
+			applyRulesStopWatch.stop("computerplayer:applyRules() of player " + playerId);
+			return null;
+		}
+	}
 }
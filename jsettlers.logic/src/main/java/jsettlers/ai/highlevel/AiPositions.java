@@ -173,7 +173,7 @@ public class AiPositions implements IMapArea {
 		return new PositionsIterator();
 	}
 
-	private void ensureSorted() {
+	void ensureSorted() {
 		if (!sorted) {
 			Arrays.sort(points, 0, size);
 			sorted = true;
@@ -196,6 +196,24 @@ public class AiPositions implements IMapArea {
 		points = Arrays.copyOf(points, arraySize);
 	}
 
+	/**
+	 * Removes all positions accepted by the given filter. The order of the remaining positions is kept.
+	 * 
+	 * @param positionsToRemove
+	 *            Filter accepting the positions to be removed.
+	 */
+	public void removeAll(AiPositionFilter positionsToRemove) {
+		int newSize = 0;
+		for (int i = 0; i < size; i++) {
+			int point = points[i];
+			if (!positionsToRemove.contains(unpackX(point), unpackY(point))) {
+				points[newSize] = point;
+				newSize++;
+			}
+		}
+		size = newSize;
+	}
+
 	public void clear() {
 		size = 0;
 		points = new int[MIN_SIZE];
@@ -244,6 +262,7 @@ public class AiPositions implements IMapArea {
 	}
 
 	public ShortPoint2D get(int index) {
+		ensureSorted();
 		return new ShortPoint2D(unpackX(points[index]), unpackY(points[index]));
 	}
 
@@ -16,9 +16,11 @@ package jsettlers.ai.highlevel;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
@@ -42,12 +44,14 @@ import jsettlers.common.position.RelativePoint;
 import jsettlers.common.position.ShortPoint2D;
 import jsettlers.logic.buildings.Building;
 import jsettlers.logic.buildings.WorkAreaBuilding;
+import jsettlers.logic.map.grid.BlockChangeCounter;
 import jsettlers.logic.map.grid.MainGrid;
 import jsettlers.logic.map.grid.flags.FlagsGrid;
 import jsettlers.logic.map.grid.landscape.LandscapeGrid;
 import jsettlers.logic.map.grid.movable.MovableGrid;
 import jsettlers.logic.map.grid.objects.AbstractHexMapObject;
 import jsettlers.logic.map.grid.objects.ObjectsGrid;
+import jsettlers.logic.map.grid.partition.Partition;
 import jsettlers.logic.map.grid.partition.PartitionsGrid;
 import jsettlers.logic.movable.Movable;
 import jsettlers.logic.player.Player;
@@ -67,6 +71,10 @@ import static jsettlers.common.movable.EMovableType.SWORDSMAN_L3;
 /**
  * This class calculates statistics based on the grids which are used by highlevel and lowlevel KI. The statistics are calculated once and read
  * multiple times within one AiExecutor step triggerd by the game clock.
+ * <p />
+ * The statistics of the map are updated incrementally: Only the blocks of the map that changed since the last update (see
+ * {@link BlockChangeCounter}) are recalculated. The statistics of the positions owned by players are stored per partition, so the partition a
+ * player builds on can change without recalculating its positions.
  *
  * @author codingberlin
  */
@@ -77,9 +85,10 @@ public class AiStatistics {
 
 	private final Queue<Building>                  buildings;
 	private final PlayerStatistic[]                playerStatistics;
-	private final Map<EMapObjectType, AiPositions> sortedCuttableObjectsInDefaultPartition;
-	private final AiPositions[]                    sortedResourceTypes;
-	private final AiPositions                      sortedRiversInDefaultPartition;
+	final         Map<EMapObjectType, AiPositions> sortedCuttableObjectsInDefaultPartition; // package private for tests
+	final         AiPositions[]                    sortedResourceTypes; // package private for tests
+	final         AiPositions                      sortedRiversInDefaultPartition; // package private for tests
+	private final Map<Partition, PartitionStatistic> partitionStatistics;
 	private final MainGrid                         mainGrid;
 	private final LandscapeGrid                    landscapeGrid;
 	private final ObjectsGrid                      objectsGrid;
@@ -89,6 +98,11 @@ public class AiStatistics {
 	private final AbstractConstructionMarkableMap  constructionMarksGrid;
 	private final AiMapInformation                 aiMapInformation;
 	private final long[]                           resourceCountInDefaultPartition;
+	private final BlockChangeCounter               blockChangeCounter;
+	private final int[]                            seenChangeCounts;
+	private final BitSet                           changedBlocks;
+	private final int[]                            countedContributions;
+	private       boolean                          mapStatisticsInitialized;
 
 	public AiStatistics(MainGrid mainGrid) {
 		this.buildings = Building.getAllBuildings();
@@ -112,6 +126,11 @@ public class AiStatistics {
 			sortedResourceTypes[i] = new AiPositions();
 		}
 		resourceCountInDefaultPartition = new long[EResourceType.VALUES.length];
+		partitionStatistics = new HashMap<Partition, PartitionStatistic>();
+		blockChangeCounter = mainGrid.getBlockChangeCounter();
+		seenChangeCounts = new int[blockChangeCounter.getBlocksWidth() * blockChangeCounter.getBlocksHeight()];
+		changedBlocks = new BitSet(seenChangeCounts.length);
+		countedContributions = new int[mainGrid.getWidth() * mainGrid.getHeight()];
 	}
 
 	public byte getFlatternEffortAtPositionForBuilding(final ShortPoint2D position, final EBuildingType buildingType) {
@@ -126,14 +145,33 @@ public class AiStatistics {
 		for (PlayerStatistic playerStatistic : playerStatistics) {
 			playerStatistic.clearAll();
 		}
-		sortedRiversInDefaultPartition.clear();
-		sortedCuttableObjectsInDefaultPartition.clear();
-		for (AiPositions xCoordinatesMap : sortedResourceTypes) {
-			xCoordinatesMap.clear();
-		}
 
 		updateBuildingStatistics();
+		updatePartitionIdsToBuildOn();
+		updateMovableStatistics();
 		updateMapStatistics();
+		sortPositions();
+	}
+
+	/**
+	 * Sorts all positions, so that reading them does not modify them anymore. This allows multiple KIs to read the statistics concurrently.
+	 */
+	private void sortPositions() {
+		for (AiPositions positions : sortedCuttableObjectsInDefaultPartition.values()) {
+			positions.ensureSorted();
+		}
+		for (AiPositions positions : sortedResourceTypes) {
+			positions.ensureSorted();
+		}
+		sortedRiversInDefaultPartition.ensureSorted();
+		for (PartitionStatistic partitionStatistic : partitionStatistics.values()) {
+			partitionStatistic.ensureSorted();
+		}
+		for (PlayerStatistic playerStatistic : playerStatistics) {
+			playerStatistic.otherPartitionBorder.ensureSorted();
+			playerStatistic.stonesNearBy.ensureSorted();
+			playerStatistic.enemyTroopsInTown.ensureSorted();
+		}
 	}
 
 	private void updateBuildingStatistics() {
@@ -182,81 +220,234 @@ public class AiStatistics {
 		}
 	}
 
+	private void updateMovableStatistics() {
+		List<Movable> movables = new ArrayList<Movable>();
+		for (Movable movable : Movable.getAllMovables()) {
+			ShortPoint2D position = movable.getPos();
+			if (mainGrid.isInBounds(position.x, position.y) && movableGrid.getMovableAt(position.x, position.y) == movable) {
+				movables.add(movable);
+			}
+		}
+		// use the order of a scan over the map
+		final int height = mainGrid.getHeight();
+		Collections.sort(movables, Comparators.comparingInt(movable -> movable.getPos().x * height + movable.getPos().y));
+
+		for (Movable movable : movables) {
+			ShortPoint2D position = movable.getPos();
+			Player player = partitionsGrid.getPlayerAt(position.x, position.y);
+			byte movablePlayerId = movable.getPlayerId();
+			PlayerStatistic movablePlayerStatistic = playerStatistics[movablePlayerId];
+			EMovableType movableType = movable.getMovableType();
+			if (!movablePlayerStatistic.movablePositions.containsKey(movableType)) {
+				movablePlayerStatistic.movablePositions.put(movableType, new Vector<ShortPoint2D>());
+			}
+			movablePlayerStatistic.movablePositions.get(movableType).add(position);
+			if (player != null && player.playerId != movablePlayerId && movableType.isSoldier() && getEnemiesOf(player.playerId).contains(movablePlayerId)) {
+				playerStatistics[player.playerId].enemyTroopsInTown.addNoCollission(position.x, position.y);
+			}
+		}
+	}
+
 	private void updateMapStatistics() {
-		aiMapInformation.clear();
-		updatePartitionIdsToBuildOn();
-		short width = mainGrid.getWidth();
-		short height = mainGrid.getHeight();
-		Arrays.fill(resourceCountInDefaultPartition, 0);
-
-		for (short x = 0; x < width; x++) {
-			for (short y = 0; y < height; y++) {
-				Player player = partitionsGrid.getPlayerAt(x, y);
-				int mapInformationPlayerId;
-				if (player != null) {
-					mapInformationPlayerId = player.playerId;
-				} else {
-					mapInformationPlayerId = aiMapInformation.resourceAndGrassCount.length - 1;
-				}
-				if (landscapeGrid.getResourceAmountAt(x, y) > 0) {
-					EResourceType resourceType = landscapeGrid.getResourceTypeAt(x, y);
-					sortedResourceTypes[resourceType.ordinal].addNoCollission(x, y);
-					if (resourceType != EResourceType.FISH) {
-						aiMapInformation.resourceAndGrassCount[mapInformationPlayerId][resourceType.ordinal]++;
-						if (player != null) {
-							playerStatistics[player.playerId].resourceCount[resourceType.ordinal]++;
-						} else {
-							resourceCountInDefaultPartition[resourceType.ordinal]++;
-						}
-					} else if (landscapeGrid.getLandscapeTypeAt(x, y) == ELandscapeType.WATER1) {
-						int fishMapInformationPlayerId = mapInformationPlayerId;
-						if (mapInformationPlayerId == aiMapInformation.resourceAndGrassCount.length - 1) {
-							fishMapInformationPlayerId = mapInformationPlayerIdOfPosition((short) (x + 3), y);
+		collectChangedBlocks();
+		if (!changedBlocks.isEmpty()) {
+			removeStatisticsOfChangedBlocks();
+			for (int block = changedBlocks.nextSetBit(0); block >= 0; block = changedBlocks.nextSetBit(block + 1)) {
+				updateBlockStatistics(block);
+			}
+		}
+		mergePartitionStatistics();
+		updatePlayerLandStatistics();
+	}
+
+	private void collectChangedBlocks() {
+		changedBlocks.clear();
+		boolean allChanged = !mapStatisticsInitialized;
+		for (PlayerStatistic playerStatistic : playerStatistics) {
+			// the stones near by a player depend on the blocked partition it lives in
+			allChanged |= playerStatistic.blockedPartitionId != playerStatistic.blockedPartitionIdOfMapStatistics;
+			playerStatistic.blockedPartitionIdOfMapStatistics = playerStatistic.blockedPartitionId;
+		}
+
+		for (int block = 0; block < seenChangeCounts.length; block++) {
+			int changeCount = blockChangeCounter.getChangeCount(block);
+			if (allChanged || changeCount != seenChangeCounts[block]) {
+				seenChangeCounts[block] = changeCount;
+				changedBlocks.set(block);
+			}
+		}
+		mapStatisticsInitialized = true;
+	}
+
+	private void removeStatisticsOfChangedBlocks() {
+		final int blocksWidth = blockChangeCounter.getBlocksWidth();
+		AiPositionFilter inChangedBlock = (x, y) -> changedBlocks.get(x / BlockChangeCounter.BLOCK_SIZE + y / BlockChangeCounter.BLOCK_SIZE * blocksWidth);
+
+		for (AiPositions resourcePositions : sortedResourceTypes) {
+			resourcePositions.removeAll(inChangedBlock);
+		}
+		sortedRiversInDefaultPartition.removeAll(inChangedBlock);
+		for (AiPositions cuttableObjects : sortedCuttableObjectsInDefaultPartition.values()) {
+			cuttableObjects.removeAll(inChangedBlock);
+		}
+		for (PlayerStatistic playerStatistic : playerStatistics) {
+			playerStatistic.stonesNearBy.removeAll(inChangedBlock);
+		}
+		for (PartitionStatistic partitionStatistic : partitionStatistics.values()) {
+			partitionStatistic.removeAll(inChangedBlock);
+		}
+	}
+
+	private void updateBlockStatistics(int block) {
+		int blocksWidth = blockChangeCounter.getBlocksWidth();
+		int minX = block % blocksWidth * BlockChangeCounter.BLOCK_SIZE;
+		int minY = block / blocksWidth * BlockChangeCounter.BLOCK_SIZE;
+		int maxX = Math.min(minX + BlockChangeCounter.BLOCK_SIZE, mainGrid.getWidth());
+		int maxY = Math.min(minY + BlockChangeCounter.BLOCK_SIZE, mainGrid.getHeight());
+
+		for (short x = (short) minX; x < maxX; x++) {
+			for (short y = (short) minY; y < maxY; y++) {
+				int index = x + y * mainGrid.getWidth();
+				countContribution(countedContributions[index], -1);
+				countedContributions[index] = updatePositionStatistics(x, y);
+				countContribution(countedContributions[index], 1);
+			}
+		}
+	}
+
+	/**
+	 * Adds the statistics of the given position to the positions of the statistics.
+	 * 
+	 * @return The contribution of the position to the counted resources and grass. See {@link #countContribution(int, int)}.
+	 */
+	private int updatePositionStatistics(short x, short y) {
+		Player player = partitionsGrid.getPlayerAt(x, y);
+		int mapInformationPlayerId;
+		if (player != null) {
+			mapInformationPlayerId = player.playerId;
+		} else {
+			mapInformationPlayerId = aiMapInformation.resourceAndGrassCount.length - 1;
+		}
+		int resourceCountPlayerId = -1;
+		EResourceType resourceType = null;
+		if (landscapeGrid.getResourceAmountAt(x, y) > 0) {
+			resourceType = landscapeGrid.getResourceTypeAt(x, y);
+			sortedResourceTypes[resourceType.ordinal].addNoCollission(x, y);
+			if (resourceType != EResourceType.FISH) {
+				resourceCountPlayerId = mapInformationPlayerId;
+			} else if (landscapeGrid.getLandscapeTypeAt(x, y) == ELandscapeType.WATER1) {
+				int fishMapInformationPlayerId = mapInformationPlayerId;
+				if (mapInformationPlayerId == aiMapInformation.resourceAndGrassCount.length - 1) {
+					fishMapInformationPlayerId = mapInformationPlayerIdOfPosition((short) (x + 3), y);
+					if (fishMapInformationPlayerId == aiMapInformation.resourceAndGrassCount.length - 1) {
+						fishMapInformationPlayerId = mapInformationPlayerIdOfPosition((short) (x - 3), y);
+						if (fishMapInformationPlayerId == aiMapInformation.resourceAndGrassCount.length - 1) {
+							fishMapInformationPlayerId = mapInformationPlayerIdOfPosition(x, (short) (y + 3));
 							if (fishMapInformationPlayerId == aiMapInformation.resourceAndGrassCount.length - 1) {
-								fishMapInformationPlayerId = mapInformationPlayerIdOfPosition((short) (x - 3), y);
-								if (fishMapInformationPlayerId == aiMapInformation.resourceAndGrassCount.length - 1) {
-									fishMapInformationPlayerId = mapInformationPlayerIdOfPosition(x, (short) (y + 3));
-									if (fishMapInformationPlayerId == aiMapInformation.resourceAndGrassCount.length - 1) {
-										fishMapInformationPlayerId = mapInformationPlayerIdOfPosition(x, (short) (y - 3));
-									}
-								}
+								fishMapInformationPlayerId = mapInformationPlayerIdOfPosition(x, (short) (y - 3));
 							}
 						}
-						aiMapInformation.resourceAndGrassCount[fishMapInformationPlayerId][resourceType.ordinal]++;
-						if (fishMapInformationPlayerId == aiMapInformation.resourceAndGrassCount.length - 1) {
-							resourceCountInDefaultPartition[resourceType.ordinal]++;
-						} else {
-							playerStatistics[fishMapInformationPlayerId].resourceCount[resourceType.ordinal]++;
-						}
-					}
-				}
-				if (landscapeGrid.getLandscapeTypeAt(x, y).isGrass()) {
-					aiMapInformation.resourceAndGrassCount[mapInformationPlayerId][aiMapInformation.GRASS_INDEX]++;
-				}
-				Movable movable = movableGrid.getMovableAt(x, y);
-				if (movable != null) {
-					byte movablePlayerId = movable.getPlayerId();
-					PlayerStatistic movablePlayerStatistic = playerStatistics[movablePlayerId];
-					EMovableType movableType = movable.getMovableType();
-					if (!movablePlayerStatistic.movablePositions.containsKey(movableType)) {
-						movablePlayerStatistic.movablePositions.put(movableType, new Vector<ShortPoint2D>());
-					}
-					movablePlayerStatistic.movablePositions.get(movableType).add(movable.getPos());
-					if (player != null && player.playerId != movablePlayerId && movableType.isSoldier() && getEnemiesOf(player.playerId).contains(movablePlayerId)) {
-						playerStatistics[player.playerId].enemyTroopsInTown.addNoCollission(movable.getPos().x, movable.getPos().y);
 					}
 				}
-				if (player == null) {
-					updateFreeLand(x, y);
-				} else if (partitionsGrid.getPartitionIdAt(x, y) == playerStatistics[player.playerId].partitionIdToBuildOn) {
-					updatePlayerLand(x, y, player);
+				resourceCountPlayerId = fishMapInformationPlayerId;
+			}
+		}
+		int grassPlayerId = -1;
+		if (landscapeGrid.getLandscapeTypeAt(x, y).isGrass()) {
+			grassPlayerId = mapInformationPlayerId;
+		}
+		if (player == null) {
+			updateFreeLand(x, y);
+		} else {
+			PartitionStatistic partitionStatistic = getPartitionStatistic(partitionsGrid.getPartitionAt(x, y));
+			updatePlayerLand(x, y, player, partitionStatistic);
+			if (isBorderOf(x, y, player.playerId)) {
+				partitionStatistic.border.addNoCollission(x, y);
+			}
+		}
+
+		return (resourceCountPlayerId + 1) | (resourceType != null ? resourceType.ordinal << 8 : 0) | (grassPlayerId + 1) << 16;
+	}
+
+	/**
+	 * Adds the given contribution of a position to the counted resources and grass.
+	 * 
+	 * @param contribution
+	 *            The contribution of a position: bits 0-7 hold the player id + 1 of the counted resource (0 if it's not counted), bits 8-15 the
+	 *            ordinal of the resource type and bits 16-23 the player id + 1 of the grass (0 if the position is no grass). The id of the players
+	 *            is the index in {@link AiMapInformation#resourceAndGrassCount}.
+	 * @param delta
+	 *            1 to add the contribution, -1 to remove it.
+	 */
+	private void countContribution(int contribution, int delta) {
+		int defaultPartitionPlayerId = aiMapInformation.resourceAndGrassCount.length - 1;
+		int resourceCountPlayerId = (contribution & 0xff) - 1;
+		if (resourceCountPlayerId >= 0) {
+			int resourceType = (contribution >> 8) & 0xff;
+			aiMapInformation.resourceAndGrassCount[resourceCountPlayerId][resourceType] += delta;
+			if (resourceCountPlayerId == defaultPartitionPlayerId) {
+				resourceCountInDefaultPartition[resourceType] += delta;
+			} else {
+				playerStatistics[resourceCountPlayerId].resourceCount[resourceType] += delta;
+			}
+		}
+		int grassPlayerId = ((contribution >> 16) & 0xff) - 1;
+		if (grassPlayerId >= 0) {
+			aiMapInformation.resourceAndGrassCount[grassPlayerId][AiMapInformation.GRASS_INDEX] += delta;
+		}
+	}
+
+	private PartitionStatistic getPartitionStatistic(Partition partition) {
+		PartitionStatistic partitionStatistic = partitionStatistics.get(partition);
+		if (partitionStatistic == null) {
+			partitionStatistic = new PartitionStatistic();
+			partitionStatistics.put(partition, partitionStatistic);
+		}
+		return partitionStatistic;
+	}
+
+	/**
+	 * Moves the statistics of merged partitions to the partitions they have been merged into and removes the statistics of empty partitions.
+	 */
+	private void mergePartitionStatistics() {
+		List<Map.Entry<Partition, PartitionStatistic>> mergedPartitions = new ArrayList<Map.Entry<Partition, PartitionStatistic>>();
+		for (Iterator<Map.Entry<Partition, PartitionStatistic>> iterator = partitionStatistics.entrySet().iterator(); iterator.hasNext();) {
+			Map.Entry<Partition, PartitionStatistic> entry = iterator.next();
+			if (entry.getKey().getMergedPartition() != entry.getKey()) {
+				mergedPartitions.add(entry);
+				iterator.remove();
+			} else if (entry.getValue().isEmpty()) {
+				iterator.remove();
+			}
+		}
+
+		for (Map.Entry<Partition, PartitionStatistic> mergedPartition : mergedPartitions) {
+			getPartitionStatistic(mergedPartition.getKey().getMergedPartition()).addAll(mergedPartition.getValue());
+		}
+	}
+
+	private void updatePlayerLandStatistics() {
+		for (byte playerId = 0; playerId < playerStatistics.length; playerId++) {
+			PlayerStatistic playerStatistic = playerStatistics[playerId];
+			PartitionStatistic partitionToBuildOn = PartitionStatistic.EMPTY;
+			Partition partitionToBuildOnObject = null;
+			if (playerStatistic.referencePosition != null) {
+				partitionToBuildOnObject = partitionsGrid.getPartitionAt(playerStatistic.referencePosition.x, playerStatistic.referencePosition.y);
+				if (partitionStatistics.containsKey(partitionToBuildOnObject)) {
+					partitionToBuildOn = partitionStatistics.get(partitionToBuildOnObject);
 				}
-				if (player != null && isBorderOf(x, y, player.playerId)) {
-					if (partitionsGrid.getPartitionIdAt(x, y) == playerStatistics[player.playerId].partitionIdToBuildOn) {
-						playerStatistics[player.playerId].border.add(x, y);
-					} else {
-						playerStatistics[player.playerId].otherPartitionBorder.add(x, y);
-					}
+			}
+
+			playerStatistic.landToBuildOn = partitionToBuildOn.landToBuildOn;
+			playerStatistic.stones = partitionToBuildOn.stones;
+			playerStatistic.trees = partitionToBuildOn.trees;
+			playerStatistic.rivers = partitionToBuildOn.rivers;
+			playerStatistic.border = partitionToBuildOn.border;
+			playerStatistic.wineCount = partitionToBuildOn.wine.size();
+
+			for (Map.Entry<Partition, PartitionStatistic> entry : partitionStatistics.entrySet()) {
+				if (entry.getKey().getPlayerId() == playerId && entry.getKey() != partitionToBuildOnObject) {
+					playerStatistic.otherPartitionBorder.addAllNoCollision(entry.getValue().border);
 				}
 			}
 		}
@@ -284,27 +475,25 @@ public class AiStatistics {
 																																																	y);
 	}
 
-	private void updatePlayerLand(short x, short y, Player player) {
-		byte playerId = player.playerId;
-		PlayerStatistic playerStatistic = playerStatistics[playerId];
+	private void updatePlayerLand(short x, short y, Player player, PartitionStatistic partitionStatistic) {
 		if (mainGrid.getFlagsGrid().isProtected(x, y)) {
 			AbstractHexMapObject o = objectsGrid.getObjectsAt(x, y);
 			if (o != null) {
 				if (o.hasCuttableObject(STONE) && isCuttableByPlayer(x, y, player.playerId)) {
-					playerStatistic.stones.addNoCollission(x, y);
+					partitionStatistic.stones.addNoCollission(x, y);
 				} else if (o.hasMapObjectTypes(TREE_GROWING, TREE_ADULT) && isCuttableByPlayer(x, y, player.playerId)) {
-					playerStatistic.trees.addNoCollission(x, y);
+					partitionStatistic.trees.addNoCollission(x, y);
 				}
 			}
 		} else {
-			playerStatistic.landToBuildOn.addNoCollission(x, y);
+			partitionStatistic.landToBuildOn.addNoCollission(x, y);
 		}
 		ELandscapeType landscape = landscapeGrid.getLandscapeTypeAt(x, y);
 		if (landscape.isRiver()) {
-			playerStatistic.rivers.addNoCollission(x, y);
+			partitionStatistic.rivers.addNoCollission(x, y);
 		}
 		if (objectsGrid.hasMapObjectType(x, y, EMapObjectType.WINE_GROWING, EMapObjectType.WINE_HARVESTABLE)) {
-			playerStatistic.wineCount++;
+			partitionStatistic.wine.addNoCollission(x, y);
 		}
 	}
 
@@ -372,7 +561,6 @@ public class AiStatistics {
 			if (referencePosition != null) {
 				PlayerStatistic playerStatistic = playerStatistics[playerId];
 				playerStatistic.referencePosition = referencePosition;
-				playerStatistic.partitionIdToBuildOn = partitionsGrid.getPartitionIdAt(referencePosition.x, referencePosition.y);
 				playerStatistic.blockedPartitionId = landscapeGrid.getBlockedPartitionAt(referencePosition.x, referencePosition.y);
 				playerStatistic.materialProduction = partitionsGrid.getMaterialProductionAt(referencePosition.x, referencePosition.y);
 				playerStatistic.materials = partitionsGrid.getPartitionDataForManagerAt(referencePosition.x, referencePosition.y);
@@ -549,14 +737,36 @@ public class AiStatistics {
 		return movableGrid.getMovableAt(nearestSoldierPosition.x, nearestSoldierPosition.y);
 	}
 
+	/**
+	 * Of the points with the smallest on grid distance, the first one of the list is returned. This is the point the stable sort used before
+	 * returned. The given list is not sorted in place anymore, because it may be read by other KIs concurrently.
+	 *
+	 * @param referencePoint
+	 * @param points
+	 * @return The nearest point or <code>null</code> if the list is empty.
+	 */
 	public static ShortPoint2D detectNearestPointFromList(ShortPoint2D referencePoint, List<ShortPoint2D> points) {
-		if (points.isEmpty()) {
-			return null;
+		ShortPoint2D nearestPoint = null;
+		int nearestDistance = Integer.MAX_VALUE;
+		for (ShortPoint2D point : points) {
+			int distance = point.getOnGridDistTo(referencePoint);
+			if (distance < nearestDistance) {
+				nearestPoint = point;
+				nearestDistance = distance;
+			}
 		}
-
-		return detectNearestPointsFromList(referencePoint, points, 1).get(0);
+		return nearestPoint;
 	}
 
+	/**
+	 * The nearest points are returned sorted by their on grid distance. Points with the same distance keep the order of the given list, which is
+	 * not changed.
+	 *
+	 * @param referencePoint
+	 * @param points
+	 * @param amountOfPointsToDetect
+	 * @return The given list if it doesn't contain more points than requested, otherwise the nearest points.
+	 */
 	public static List<ShortPoint2D> detectNearestPointsFromList(final ShortPoint2D referencePoint, List<ShortPoint2D> points, int amountOfPointsToDetect) {
 		if (amountOfPointsToDetect <= 0) {
 			return Collections.emptyList();
@@ -566,9 +776,10 @@ public class AiStatistics {
 			return points;
 		}
 
-		Collections.sort(points, Comparators.comparingInt(o -> o.getOnGridDistTo(referencePoint)));
+		List<ShortPoint2D> sortedPoints = new ArrayList<>(points); // the given list may be read by other KIs concurrently
+		Collections.sort(sortedPoints, Comparators.comparingInt(o -> o.getOnGridDistTo(referencePoint)));
 
-		return points.subList(0, amountOfPointsToDetect);
+		return sortedPoints.subList(0, amountOfPointsToDetect);
 	}
 
 	public int getNumberOfMaterialTypeForPlayer(EMaterialType type, byte playerId) {
@@ -664,26 +875,30 @@ public class AiStatistics {
 	}
 
 	public List<ShortPoint2D> threatenedBorderOf(byte playerId) {
-		if (playerStatistics[playerId].threatenedBorder == null) {
-			AiPositions borderOfOtherPlayers = new AiPositions();
-			for (byte otherPlayerId = 0; otherPlayerId < playerStatistics.length; otherPlayerId++) {
-				if (otherPlayerId == playerId || !isAlive(otherPlayerId)) {
-					continue;
-				}
+		PlayerStatistic playerStatistic = playerStatistics[playerId];
+		synchronized (playerStatistic) { // the threatened border is calculated lazily, but KIs may read it concurrently
+			if (playerStatistic.threatenedBorder == null) {
+				AiPositions borderOfOtherPlayers = new AiPositions();
+				for (byte otherPlayerId = 0; otherPlayerId < playerStatistics.length; otherPlayerId++) {
+					if (otherPlayerId == playerId || !isAlive(otherPlayerId)) {
+						continue;
+					}
 
-				borderOfOtherPlayers.addAllNoCollision(getBorderOf(otherPlayerId));
-			}
-			playerStatistics[playerId].threatenedBorder = new ArrayList<>();
-			AiPositions myBorder = getBorderOf(playerId);
-			for (int i = 0; i < myBorder.size(); i += 10) {
-				ShortPoint2D myBorderPosition = myBorder.get(i);
-				if (mainGrid.getPartitionsGrid().getTowerCountAt(myBorderPosition.x, myBorderPosition.y) == 0 && borderOfOtherPlayers.getNearestPoint(myBorderPosition,
-																																					  CommonConstants.TOWER_RADIUS) != null) {
-					playerStatistics[playerId].threatenedBorder.add(myBorderPosition);
+					borderOfOtherPlayers.addAllNoCollision(getBorderOf(otherPlayerId));
 				}
+				List<ShortPoint2D> threatenedBorder = new ArrayList<>();
+				AiPositions myBorder = getBorderOf(playerId);
+				for (int i = 0; i < myBorder.size(); i += 10) {
+					ShortPoint2D myBorderPosition = myBorder.get(i);
+					if (mainGrid.getPartitionsGrid().getTowerCountAt(myBorderPosition.x, myBorderPosition.y) == 0
+							&& borderOfOtherPlayers.getNearestPoint(myBorderPosition, CommonConstants.TOWER_RADIUS) != null) {
+						threatenedBorder.add(myBorderPosition);
+					}
+				}
+				playerStatistic.threatenedBorder = threatenedBorder;
 			}
+			return playerStatistic.threatenedBorder;
 		}
-		return playerStatistics[playerId].threatenedBorder;
 	}
 
 	public AiPositions getStonesNearBy(byte playerId) {
@@ -698,17 +913,17 @@ public class AiStatistics {
 		final Map<EBuildingType, List<ShortPoint2D>> buildingPositions     = new HashMap<EBuildingType, List<ShortPoint2D>>();
 		final List<ShortPoint2D>                     farmWorkAreas         = new Vector<ShortPoint2D>();
 		final List<ShortPoint2D>                     wineGrowerWorkAreas   = new Vector<ShortPoint2D>();
-		short partitionIdToBuildOn;
 		public short blockedPartitionId;
+		short        blockedPartitionIdOfMapStatistics = Short.MIN_VALUE;
 		IPartitionData materials;
-		final AiPositions                           landToBuildOn        = new AiPositions();
-		final AiPositions                           border               = new AiPositions();
+		AiPositions                                 landToBuildOn        = PartitionStatistic.EMPTY.landToBuildOn;
+		AiPositions                                 border               = PartitionStatistic.EMPTY.border;
 		final AiPositions                           otherPartitionBorder = new AiPositions();
 		final Map<EMovableType, List<ShortPoint2D>> movablePositions     = new HashMap<EMovableType, List<ShortPoint2D>>();
-		final AiPositions                           stones               = new AiPositions();
+		AiPositions                                 stones               = PartitionStatistic.EMPTY.stones;
 		final AiPositions                           stonesNearBy         = new AiPositions();
-		final AiPositions                           trees                = new AiPositions();
-		final AiPositions                           rivers               = new AiPositions();
+		AiPositions                                 trees                = PartitionStatistic.EMPTY.trees;
+		AiPositions                                 rivers               = PartitionStatistic.EMPTY.rivers;
 		final AiPositions                           enemyTroopsInTown    = new AiPositions();
 		List<ShortPoint2D> threatenedBorder;
 		final long[] resourceCount = new long[EResourceType.VALUES.length];
@@ -722,17 +937,14 @@ public class AiStatistics {
 			clearIntegers();
 		}
 
+		/**
+		 * Clears all statistics that are not updated incrementally.
+		 */
 		public void clearAll() {
 			isAlive = false;
 			materials = null;
 			buildingPositions.clear();
 			enemyTroopsInTown.clear();
-			stones.clear();
-			stonesNearBy.clear();
-			trees.clear();
-			rivers.clear();
-			landToBuildOn.clear();
-			border.clear();
 			otherPartitionBorder.clear();
 			movablePositions.clear();
 			farmWorkAreas.clear();
@@ -744,14 +956,57 @@ public class AiStatistics {
 		private void clearIntegers() {
 			Arrays.fill(totalBuildingsNumbers, 0);
 			Arrays.fill(buildingsNumbers, 0);
-			Arrays.fill(resourceCount, 0);
 			numberOfNotFinishedBuildings = 0;
 			numberOfTotalBuildings = 0;
 			numberOfNotOccupiedMilitaryBuildings = 0;
 			wineCount = 0;
-			partitionIdToBuildOn = Short.MIN_VALUE;
 			blockedPartitionId = Short.MIN_VALUE;
 		}
 	}
 
+	/**
+	 * The statistics of the positions of a partition owned by a player.
+	 */
+	private static class PartitionStatistic {
+		static final PartitionStatistic EMPTY = new PartitionStatistic();
+
+		final AiPositions landToBuildOn = new AiPositions();
+		final AiPositions border        = new AiPositions();
+		final AiPositions stones        = new AiPositions();
+		final AiPositions trees         = new AiPositions();
+		final AiPositions rivers        = new AiPositions();
+		final AiPositions wine          = new AiPositions();
+
+		void removeAll(AiPositionFilter positionsToRemove) {
+			landToBuildOn.removeAll(positionsToRemove);
+			border.removeAll(positionsToRemove);
+			stones.removeAll(positionsToRemove);
+			trees.removeAll(positionsToRemove);
+			rivers.removeAll(positionsToRemove);
+			wine.removeAll(positionsToRemove);
+		}
+
+		void addAll(PartitionStatistic other) {
+			landToBuildOn.addAllNoCollision(other.landToBuildOn);
+			border.addAllNoCollision(other.border);
+			stones.addAllNoCollision(other.stones);
+			trees.addAllNoCollision(other.trees);
+			rivers.addAllNoCollision(other.rivers);
+			wine.addAllNoCollision(other.wine);
+		}
+
+		void ensureSorted() {
+			landToBuildOn.ensureSorted();
+			border.ensureSorted();
+			stones.ensureSorted();
+			trees.ensureSorted();
+			rivers.ensureSorted();
+			wine.ensureSorted();
+		}
+
+		boolean isEmpty() {
+			return landToBuildOn.isEmpty() && border.isEmpty() && stones.isEmpty() && trees.isEmpty() && rivers.isEmpty() && wine.isEmpty();
+		}
+	}
+
 }
\ No newline at end of file
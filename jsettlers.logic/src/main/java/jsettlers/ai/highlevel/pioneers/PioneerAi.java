@@ -27,6 +27,7 @@ import jsettlers.ai.highlevel.pioneers.target.StoneCutterTargetFinder;
 import jsettlers.common.buildings.EBuildingType;
 import jsettlers.common.landscape.EResourceType;
 import jsettlers.common.position.ShortPoint2D;
+import jsettlers.logic.constants.ExtendedRandom;
 import jsettlers.logic.constants.MatchConstants;
 
 /**
@@ -38,6 +39,7 @@ public class PioneerAi {
 	private final byte playerId;
 	private final int searchDistance;
 	private final AbstractPioneerTargetFinder[] targetFinders = new AbstractPioneerTargetFinder[9];
+	private final ExtendedRandom random;
 	private ShortPoint2D lastResourceTarget;
 
 	public PioneerAi(AiStatistics aiStatistics, byte playerId) {
@@ -45,6 +47,8 @@ public class PioneerAi {
 		this.playerId = playerId;
 		this.searchDistance = aiStatistics.getMainGrid().getWidth() / 2;
 		this.lastResourceTarget = aiStatistics.getPositionOfPartition(playerId);
+		// each KI needs its own random, because the KIs are executed concurrently
+		this.random = new ExtendedRandom(MatchConstants.aiRandom().nextLong());
 		targetFinders[0] = new TreesForLumberJackTargetFinder(aiStatistics, playerId, searchDistance, 10);
 		targetFinders[1] = new NearStonesTargetFinder(aiStatistics, playerId, searchDistance);
 		targetFinders[2] = new StoneCutterTargetFinder(aiStatistics, playerId, searchDistance, 6);
@@ -61,7 +65,7 @@ public class PioneerAi {
 		if (newTarget == null) {
 			AiPositions border = aiStatistics.getBorderOf(playerId);
 			if (border.size() > 1) {
-				lastResourceTarget = border.get(MatchConstants.aiRandom().nextInt(border.size()));
+				lastResourceTarget = border.get(random.nextInt(border.size()));
 			}
 		} else {
 			lastResourceTarget = newTarget;
@@ -30,6 +30,9 @@ public final class CachedViewCircle {
 	final short[] y;
 	final byte[] sight;
 	final int size;
+	final int maxOffset; // the maximum distance of the positions to the center in x or y direction
+	final int minYOffset; // the y offset of the first row
+	final int[] rowStarts; // the index of the first position of every row, followed by the size
 
 	public CachedViewCircle(int radius) {
 		radius -= FogOfWar.PADDING / 2;
@@ -44,6 +47,7 @@ public final class CachedViewCircle {
 		MapCircleIterator iter = circle.iterator();
 		final float squaredViewDistance = radius * radius;
 		int i = 0;
+		int maxOffset = 0;
 
 		while (iter.hasNext()) {
 			int y = iter.nextY();
@@ -60,9 +64,24 @@ public final class CachedViewCircle {
 						* CommonConstants.FOG_OF_WAR_VISIBLE);
 			}
 			sight[i] = newSight;
+			maxOffset = Math.max(maxOffset, Math.max(Math.abs(x), Math.abs(y)));
 
 			i++;
 		}
+		this.maxOffset = maxOffset;
+
+		// the positions are ordered by rows with consecutive x coordinates
+		minYOffset = y[0];
+		rowStarts = new int[y[size - 1] - minYOffset + 2];
+		int row = 0;
+		for (i = 0; i < size; i++) {
+			while (row <= y[i] - minYOffset) {
+				rowStarts[row++] = i;
+			}
+		}
+		while (row < rowStarts.length) {
+			rowStarts[row++] = size;
+		}
 	}
 
 	private int countElements(MapCircle circle) {
@@ -75,36 +94,4 @@ public final class CachedViewCircle {
 
 		return counter;
 	}
-
-	public CachedViewCircleIterator iterator(int xOffset, int yOffset) {
-		return new CachedViewCircleIterator(xOffset, yOffset);
-	}
-
-	public final class CachedViewCircleIterator {
-		private final int xOffset;
-		private final int yOffset;
-
-		private int idx;
-
-		public CachedViewCircleIterator(int xOffset, int yOffset) {
-			this.xOffset = xOffset;
-			this.yOffset = yOffset;
-		}
-
-		public boolean hasNext() {
-			return ++idx < size;
-		}
-
-		public int getCurrX() {
-			return x[idx] + xOffset;
-		}
-
-		public int getCurrY() {
-			return y[idx] + yOffset;
-		}
-
-		public byte getCurrSight() {
-			return sight[idx];
-		}
-	}
 }
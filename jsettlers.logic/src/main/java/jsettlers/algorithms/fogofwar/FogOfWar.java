@@ -17,17 +17,34 @@ package jsettlers.algorithms.fogofwar;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
-import jsettlers.algorithms.fogofwar.CachedViewCircle.CachedViewCircleIterator;
 import jsettlers.common.CommonConstants;
+import jsettlers.common.logging.StatisticsStopWatch;
 import jsettlers.common.player.IPlayerable;
 import jsettlers.common.position.ShortPoint2D;
+import jsettlers.logic.SerializationUtils;
 import jsettlers.logic.constants.Constants;
 import jsettlers.logic.constants.MatchConstants;
 
 /**
  * This class holds the fog of war for a given map and player.
+ * <p />
+ * The view circles of the buildings and movables are stamped into a separate array. When a view source moved, changed its view distance or
+ * disappeared, the cells of the map touched by its old and new circle are marked as changed. Only these cells are cleared and the circles of
+ * all view sources touching them are stamped into them again. Afterwards, the sight is dimmed down and brightened by the stamped view circles.
+ * Stamping and dimming down are done in stripes of rows on a pool of worker threads.
  * 
  * @author Andreas Eberle
  */
@@ -38,16 +55,20 @@ public final class FogOfWar implements Serializable {
 	 */
 	static final byte MAX_VIEWDISTANCE = 65;
 	static final int PADDING = 10;
+	private static final byte DIM_DOWN_SPEED = 10;
+	private static final int CELL_SIZE_SHIFT = 4; // changes of the view sources are tracked in cells of 16x16 positions
 
-	private final byte player;
+	private byte player;
 
-	final short width;
-	final short height;
-	byte[][] sight;
+	short width;
+	short height;
+	byte[] sightValues; // flat array with index x + y * width
 
 	private transient boolean enabled = Constants.FOG_OF_WAR_DEFAULT_ENABLED;
 	private transient IFogOfWarGrid grid;
-	private transient boolean canceled;
+	private transient volatile boolean canceled;
+	private transient volatile int refreshInterval = Constants.FOG_OF_WAR_REFRESH_INTERVAL;
+	private transient SightUpdater sightUpdater;
 
 	public FogOfWar(short width, short height) {
 		this(width, height, (byte) 0);
@@ -57,16 +78,34 @@ public final class FogOfWar implements Serializable {
 		this.width = width;
 		this.height = height;
 		this.player = player;
-		this.sight = new byte[width][height];
+		this.sightValues = new byte[width * height];
 	}
 
 	private void readObject(ObjectInputStream ois) throws ClassNotFoundException, IOException {
-		ois.defaultReadObject();
+		ObjectInputStream.GetField fields = ois.readFields();
+		player = fields.get("player", (byte) 0);
+		width = fields.get("width", (short) 0);
+		height = fields.get("height", (short) 0);
+
+		if (SerializationUtils.containsField(fields, "sightValues")) {
+			sightValues = (byte[]) fields.get("sightValues", null);
+		} else { // old savegames contain the sight as byte[width][height]
+			byte[][] sight = (byte[][]) fields.get("sight", null);
+			sightValues = new byte[width * height];
+			for (int x = 0; x < width; x++) {
+				for (int y = 0; y < height; y++) {
+					sightValues[x + y * width] = sight[x][y];
+				}
+			}
+		}
+
 		enabled = true;
+		refreshInterval = Constants.FOG_OF_WAR_REFRESH_INTERVAL;
 	}
 
 	public void start(IFogOfWarGrid grid) {
 		this.grid = grid;
+		this.sightUpdater = new SightUpdater(Runtime.getRuntime().availableProcessors());
 		NewFoWThread thread = new NewFoWThread();
 		thread.start();
 	}
@@ -82,7 +121,7 @@ public final class FogOfWar implements Serializable {
 	 */
 	public final byte getVisibleStatus(int x, int y) {
 		if (enabled) {
-			return (byte) Math.min(sight[x][y], CommonConstants.FOG_OF_WAR_VISIBLE);
+			return (byte) Math.min(sightValues[x + y * width], CommonConstants.FOG_OF_WAR_VISIBLE);
 		} else {
 			return CommonConstants.FOG_OF_WAR_VISIBLE;
 		}
@@ -100,16 +139,59 @@ public final class FogOfWar implements Serializable {
 		this.enabled = enabled;
 	}
 
-	final class NewFoWThread extends Thread {
-		private static final byte DIM_DOWN_SPEED = 10;
-		private final CircleDrawer drawer;
-		private byte[][] buffer;
+	/**
+	 * Sets the time between two updates of the fog of war.
+	 * 
+	 * @param refreshInterval
+	 *            The interval in milliseconds.
+	 */
+	public void setRefreshInterval(int refreshInterval) {
+		this.refreshInterval = refreshInterval;
+	}
+
+	public int getRefreshInterval() {
+		return refreshInterval;
+	}
+
+	/**
+	 * @return The {@link StatisticsStopWatch} measuring the time of the updates of the fog of war or <code>null</code> if the fog of war has not
+	 *         been started.
+	 */
+	public StatisticsStopWatch getUpdateStopWatch() {
+		return sightUpdater != null ? sightUpdater.updateStopWatch : null;
+	}
 
+	/**
+	 * @return The {@link StatisticsStopWatch} measuring the time needed to find the changed view sources or <code>null</code> if the fog of war
+	 *         has not been started.
+	 */
+	public StatisticsStopWatch getTrackViewSourcesStopWatch() {
+		return sightUpdater != null ? sightUpdater.trackStopWatch : null;
+	}
+
+	/**
+	 * @return The {@link StatisticsStopWatch} measuring the time needed to stamp the view circles into the changed cells and to dim down the
+	 *         sight on the worker threads or <code>null</code> if the fog of war has not been started.
+	 */
+	public StatisticsStopWatch getStripesStopWatch() {
+		return sightUpdater != null ? sightUpdater.stripesStopWatch : null;
+	}
+
+	/**
+	 * Updates the sight once on the calling thread. This is only used for tests, the fog of war updates itself after it has been started.
+	 */
+	void updateSight(IFogOfWarGrid grid) {
+		if (sightUpdater == null) {
+			this.grid = grid;
+			this.sightUpdater = new SightUpdater(1);
+		}
+		sightUpdater.update();
+	}
+
+	final class NewFoWThread extends Thread {
 		NewFoWThread() {
 			super("FoWThread");
 			super.setDaemon(true);
-			this.buffer = new byte[width][height];
-			drawer = new CircleDrawer();
 		}
 
 		@Override
@@ -117,103 +199,302 @@ public final class FogOfWar implements Serializable {
 			mySleep(500);
 
 			while (!canceled) {
-				// StopWatch watch = new MilliStopWatch();
-				// watch.restart();
 				if (enabled) {
-					rebuildSight();
+					sightUpdater.update();
 				}
-				// watch.stop("NewFoWThread needed: ");
 
-				mySleep(800);
+				mySleep(refreshInterval);
+			}
+
+			sightUpdater.shutdown();
+		}
+
+		private final void mySleep(int ms) {
+			try {
+				Thread.sleep(ms);
+			} catch (InterruptedException e) {
+				e.printStackTrace();
 			}
 		}
+	}
 
-		private final void rebuildSight() {
-			drawer.setBuffer(buffer);
+	/**
+	 * The last stamped position and view distance of a view source.
+	 */
+	private static final class StampedViewSource {
+		int x;
+		int y;
+		CachedViewCircle circle;
+		int generation;
+	}
 
-			for (int x = 0; x < width; x++) {
-				for (int y = 0; y < height; y++) {
-					byte currSight = sight[x][y];
-
-					if (currSight >= CommonConstants.FOG_OF_WAR_EXPLORED) {
-						byte newSight = (byte) (currSight - DIM_DOWN_SPEED);
-						if (newSight < CommonConstants.FOG_OF_WAR_EXPLORED) {
-							buffer[x][y] = CommonConstants.FOG_OF_WAR_EXPLORED;
-						} else {
-							buffer[x][y] = newSight;
-						}
-					} else {
-						buffer[x][y] = sight[x][y];
-					}
-				}
+	final class SightUpdater {
+		private final byte[] stampedSight = new byte[width * height];
+		private final IdentityHashMap<IViewDistancable, StampedViewSource> viewSources = new IdentityHashMap<IViewDistancable, StampedViewSource>();
+		private final CachedViewCircle[] cachedCircles = new CachedViewCircle[MAX_VIEWDISTANCE];
+
+		private final int cellsPerRow = ((width - 1) >> CELL_SIZE_SHIFT) + 1;
+		private final int cellsPerColumn = ((height - 1) >> CELL_SIZE_SHIFT) + 1;
+		private final boolean[] dirtyCells = new boolean[cellsPerRow * cellsPerColumn];
+		private boolean hasDirtyCells;
+		private int generation;
+		private final List<StampedViewSource> restampedSources = new ArrayList<StampedViewSource>();
+
+		private final ExecutorService stripesPool;
+		private final List<Stripe> stripes = new ArrayList<Stripe>();
+
+		final StatisticsStopWatch updateStopWatch = new StatisticsStopWatch();
+		final StatisticsStopWatch trackStopWatch = new StatisticsStopWatch();
+		final StatisticsStopWatch stripesStopWatch = new StatisticsStopWatch();
+
+		SightUpdater(int numberOfThreads) {
+			int numberOfStripes = Math.max(1, Math.min(numberOfThreads, height));
+			for (int i = 0; i < numberOfStripes; i++) {
+				stripes.add(new Stripe(height * i / numberOfStripes, height * (i + 1) / numberOfStripes));
 			}
 
-			ConcurrentLinkedQueue<? extends IViewDistancable> buildings = grid.getBuildingViewDistancables();
-			applyViewDistances(buildings);
+			this.stripesPool = numberOfStripes > 1 ? Executors.newFixedThreadPool(numberOfStripes, new ThreadFactory() {
+				private int threadNumber = 0;
 
-			ConcurrentLinkedQueue<? extends IViewDistancable> movables = grid.getMovableViewDistancables();
-			applyViewDistances(movables);
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable);
+					thread.setName("FoWThread-" + threadNumber++);
+					thread.setDaemon(true);
+					return thread;
+				}
+			}) : null;
+		}
 
-			byte[][] temp = sight;
-			sight = buffer;
-			buffer = temp;
+		final void update() {
+			updateStopWatch.restart();
+
+			trackStopWatch.restart();
+			generation++;
+			updateViewSources(grid.getBuildingViewDistancables());
+			updateViewSources(grid.getMovableViewDistancables());
+			removeVanishedViewSources();
+			collectRestampedSources();
+			trackStopWatch.stop("FogOfWar:trackViewSources()");
+
+			stripesStopWatch.restart();
+			updateStripes();
+			stripesStopWatch.stop("FogOfWar:updateStripes()");
+
+			if (hasDirtyCells) {
+				Arrays.fill(dirtyCells, false);
+				hasDirtyCells = false;
+			}
+
+			updateStopWatch.stop("FogOfWar:update()");
 		}
 
-		private final void applyViewDistances(ConcurrentLinkedQueue<? extends IViewDistancable> objects) {
+		private void updateViewSources(ConcurrentLinkedQueue<? extends IViewDistancable> objects) {
 			for (IViewDistancable curr : objects) {
 				if (isPlayerOK(curr)) {
 					short distance = curr.getViewDistance();
 					if (distance > 0) {
 						ShortPoint2D pos = curr.getPos();
-						if (pos != null)
-							drawer.drawCircleToBuffer(pos.x, pos.y, distance);
+						if (pos != null) {
+							updateViewSource(curr, pos.x, pos.y, getCachedCircle(distance));
+						}
 					}
 				}
 			}
 		}
 
-		private final void mySleep(int ms) {
-			try {
-				Thread.sleep(ms);
-			} catch (InterruptedException e) {
-				e.printStackTrace();
+		private void updateViewSource(IViewDistancable object, int x, int y, CachedViewCircle circle) {
+			StampedViewSource source = viewSources.get(object);
+			if (source == null) {
+				source = new StampedViewSource();
+				viewSources.put(object, source);
+			} else if (source.x != x || source.y != y || source.circle != circle) {
+				markDirty(source);
+			} else {
+				source.generation = generation;
+				return;
+			}
+
+			source.x = x;
+			source.y = y;
+			source.circle = circle;
+			source.generation = generation;
+			markDirty(source);
+		}
+
+		private void removeVanishedViewSources() {
+			for (Iterator<StampedViewSource> iterator = viewSources.values().iterator(); iterator.hasNext();) {
+				StampedViewSource source = iterator.next();
+				if (source.generation != generation) {
+					markDirty(source);
+					iterator.remove();
+				}
 			}
 		}
 
-	}
+		private void markDirty(StampedViewSource source) {
+			int radius = source.circle.maxOffset;
+			int minCellX = Math.max(0, source.x - radius) >> CELL_SIZE_SHIFT;
+			int maxCellX = Math.min(width - 1, source.x + radius) >> CELL_SIZE_SHIFT;
+			int minCellY = Math.max(0, source.y - radius) >> CELL_SIZE_SHIFT;
+			int maxCellY = Math.min(height - 1, source.y + radius) >> CELL_SIZE_SHIFT;
 
-	final class CircleDrawer {
-		private byte[][] buffer;
-		private final CachedViewCircle[] cachedCircles = new CachedViewCircle[MAX_VIEWDISTANCE];
+			for (int cellY = minCellY; cellY <= maxCellY; cellY++) {
+				for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+					dirtyCells[cellX + cellY * cellsPerRow] = true;
+				}
+			}
+			hasDirtyCells = true;
+		}
 
-		public final void setBuffer(byte[][] buffer) {
-			this.buffer = buffer;
+		private boolean touchesDirtyCell(StampedViewSource source) {
+			int radius = source.circle.maxOffset;
+			int minCellX = Math.max(0, source.x - radius) >> CELL_SIZE_SHIFT;
+			int maxCellX = Math.min(width - 1, source.x + radius) >> CELL_SIZE_SHIFT;
+			int minCellY = Math.max(0, source.y - radius) >> CELL_SIZE_SHIFT;
+			int maxCellY = Math.min(height - 1, source.y + radius) >> CELL_SIZE_SHIFT;
+
+			for (int cellY = minCellY; cellY <= maxCellY; cellY++) {
+				for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+					if (dirtyCells[cellX + cellY * cellsPerRow]) {
+						return true;
+					}
+				}
+			}
+			return false;
+		}
+
+		private void collectRestampedSources() {
+			restampedSources.clear();
+			if (hasDirtyCells) {
+				for (StampedViewSource source : viewSources.values()) {
+					if (touchesDirtyCell(source)) {
+						restampedSources.add(source);
+					}
+				}
+			}
 		}
 
 		/**
-		 * Draws a circle to the buffer line. Each point is only brightened and onlydrawn if its x coordinate is in [0, mapWidth - 1] and its computed
-		 * y coordinate is bigger than 0.
+		 * Clears the stamped sight of the dirty cells in the given rows and stamps the view circles touching these cells again.
 		 */
-		final void drawCircleToBuffer(int bufferX, int bufferY, int viewDistance) {
-			CachedViewCircle circle = getCachedCircle(viewDistance);
-			CachedViewCircleIterator iterator = circle.iterator(bufferX, bufferY);
-
-			while (iterator.hasNext()) {
-				final int x = iterator.getCurrX();
-				final int y = iterator.getCurrY();
-
-				if (x >= 0 && x < width && y > 0 && y < height) {
-					byte oldSight = buffer[x][y];
-					if (oldSight < CommonConstants.FOG_OF_WAR_VISIBLE) {
-						byte newSight = iterator.getCurrSight();
-						if (oldSight < newSight) {
-							buffer[x][y] = newSight;
-						}
+		final void stampDirtyCells(int minY, int maxY) {
+			if (!hasDirtyCells) {
+				return;
+			}
+
+			for (int cellY = minY >> CELL_SIZE_SHIFT; cellY <= (maxY - 1) >> CELL_SIZE_SHIFT; cellY++) {
+				for (int cellX = 0; cellX < cellsPerRow; cellX++) {
+					if (dirtyCells[cellX + cellY * cellsPerRow]) {
+						clearCell(cellX, cellY, minY, maxY);
+					}
+				}
+			}
+
+			for (StampedViewSource source : restampedSources) {
+				int radius = source.circle.maxOffset;
+				if (source.y + radius >= minY && source.y - radius < maxY) {
+					stampCircleToDirtyCells(source, minY, maxY);
+				}
+			}
+		}
+
+		private void clearCell(int cellX, int cellY, int minRowY, int maxRowY) {
+			int minX = cellX << CELL_SIZE_SHIFT;
+			int maxX = Math.min(width, minX + (1 << CELL_SIZE_SHIFT));
+			int minY = Math.max(minRowY, cellY << CELL_SIZE_SHIFT);
+			int maxY = Math.min(maxRowY, (cellY + 1) << CELL_SIZE_SHIFT);
+
+			for (int y = minY; y < maxY; y++) {
+				Arrays.fill(stampedSight, minX + y * width, maxX + y * width, (byte) 0);
+			}
+		}
+
+		private void stampCircleToDirtyCells(StampedViewSource source, int minY, int maxY) {
+			int radius = source.circle.maxOffset;
+			int minCellX = Math.max(0, source.x - radius) >> CELL_SIZE_SHIFT;
+			int maxCellX = Math.min(width - 1, source.x + radius) >> CELL_SIZE_SHIFT;
+			int minCellY = Math.max(minY, source.y - radius) >> CELL_SIZE_SHIFT;
+			int maxCellY = Math.min(maxY - 1, source.y + radius) >> CELL_SIZE_SHIFT;
+
+			for (int cellY = minCellY; cellY <= maxCellY; cellY++) {
+				for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+					if (dirtyCells[cellX + cellY * cellsPerRow]) {
+						int cellMinX = cellX << CELL_SIZE_SHIFT;
+						int cellMinY = cellY << CELL_SIZE_SHIFT;
+						stampCircle(source, cellMinX, Math.min(width, cellMinX + (1 << CELL_SIZE_SHIFT)),
+								Math.max(Math.max(minY, 1), cellMinY), Math.min(maxY, cellMinY + (1 << CELL_SIZE_SHIFT)));
+					}
+				}
+			}
+		}
+
+		/**
+		 * Stamps the part of the view circle of the source inside the given rectangle. Each point is only brightened.
+		 */
+		private void stampCircle(StampedViewSource source, int minX, int maxX, int minY, int maxY) {
+			CachedViewCircle circle = source.circle;
+			int firstRow = Math.max(0, minY - source.y - circle.minYOffset);
+			int endRow = Math.min(circle.rowStarts.length - 1, maxY - source.y - circle.minYOffset);
+
+			for (int row = firstRow; row < endRow; row++) {
+				int rowStart = circle.rowStarts[row];
+				int rowEnd = circle.rowStarts[row + 1];
+				if (rowStart == rowEnd) {
+					continue;
+				}
+
+				int rowMinX = circle.x[rowStart] + source.x; // the x coordinates of a row are consecutive
+				int from = rowStart + Math.max(0, minX - rowMinX);
+				int to = Math.min(rowEnd, rowStart + maxX - rowMinX);
+				int rowOffset = (source.y + circle.minYOffset + row) * width + source.x;
+
+				for (int i = from; i < to; i++) {
+					int index = rowOffset + circle.x[i];
+					byte newSight = circle.sight[i];
+					if (stampedSight[index] < newSight) {
+						stampedSight[index] = newSight;
 					}
 				}
 			}
 		}
 
+		private void updateStripes() {
+			if (stripesPool == null) {
+				stripes.get(0).call();
+				return;
+			}
+
+			try {
+				for (Future<Void> result : stripesPool.invokeAll(stripes)) {
+					result.get();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} catch (ExecutionException e) {
+				e.getCause().printStackTrace();
+			}
+		}
+
+		/**
+		 * Dims down the sight of the given rows and brightens it to the stamped view circles.
+		 */
+		final void dimDown(int minY, int maxY) {
+			for (int index = minY * width; index < maxY * width; index++) {
+				byte currSight = sightValues[index];
+				byte newSight;
+
+				if (currSight >= CommonConstants.FOG_OF_WAR_EXPLORED) {
+					newSight = (byte) Math.max(currSight - DIM_DOWN_SPEED, CommonConstants.FOG_OF_WAR_EXPLORED);
+				} else {
+					newSight = currSight;
+				}
+
+				byte stamped = stampedSight[index];
+				sightValues[index] = newSight < stamped ? stamped : newSight;
+			}
+		}
+
 		private CachedViewCircle getCachedCircle(int viewDistance) {
 			int radius = Math.min(viewDistance + PADDING, MAX_VIEWDISTANCE - 1);
 			if (cachedCircles[radius] == null) {
@@ -222,6 +503,32 @@ public final class FogOfWar implements Serializable {
 
 			return cachedCircles[radius];
 		}
+
+		final void shutdown() {
+			if (stripesPool != null) {
+				stripesPool.shutdownNow();
+			}
+		}
+
+		/**
+		 * The rows of the map updated by one worker thread.
+		 */
+		private final class Stripe implements Callable<Void> {
+			private final int minY;
+			private final int maxY;
+
+			Stripe(int minY, int maxY) {
+				this.minY = minY;
+				this.maxY = maxY;
+			}
+
+			@Override
+			public Void call() {
+				stampDirtyCells(minY, maxY);
+				dimDown(minY, maxY);
+				return null;
+			}
+		}
 	}
 
 	public void cancel() {
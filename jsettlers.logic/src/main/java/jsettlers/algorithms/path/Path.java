@@ -14,12 +14,21 @@
  *******************************************************************************/
 package jsettlers.algorithms.path;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.util.Arrays;
 
 import jsettlers.common.position.ShortPoint2D;
+import jsettlers.common.position.ShortPoint2DTable;
+import jsettlers.logic.SerializationUtils;
 
 /**
  * A path a movable can follow.
+ * <p>
+ * The arrays of a path can be bigger than its length. This allows to reuse a path that isn't needed anymore for a new path (see
+ * {@link #reuseOrCreate(Path, int)}).
  * 
  * @author Andreas Eberle
  * 
@@ -27,49 +36,109 @@ import jsettlers.common.position.ShortPoint2D;
 public class Path implements Serializable {
 	private static final long serialVersionUID = 1869164120660594918L;
 
-	private final short[] pathX;
-	private final short[] pathY;
+	private short[] pathX;
+	private short[] pathY;
+	private int length;
 
 	private int idx = -1;
 
 	public Path(int length) {
 		pathX = new short[length];
 		pathY = new short[length];
+		this.length = length;
 	}
 
 	/**
-	 * Concatenates a path and a prefix of {@link ShortPoint2D} objects.
+	 * Creates a path of length 1 with that's just containing to the given position.<br>
 	 * 
-	 * @param oldPath
-	 *            The path to be appended to the prefix.
-	 * @param pathPrefix
-	 *            The path prefix. NOTE: The prefix must start with the current position of the movable!
+	 * @param position
+	 *            the single path position.
 	 */
-	public Path(Path oldPath, ShortPoint2D... pathPrefix) {
-		int length = (oldPath.getLength() - (oldPath.idx + 1)) + pathPrefix.length;
-		pathX = new short[length];
-		pathY = new short[length];
+	public Path(ShortPoint2D position) {
+		this(1);
+		insertAt(0, position.x, position.y);
+	}
 
-		int i;
-		for (i = 0; i < pathPrefix.length; i++) {
-			insertAt(i, pathPrefix[i].x, pathPrefix[i].y);
+	/**
+	 * Gives a path of the given length. If the given reusable path is big enough, its arrays are reused. Otherwise a new path is created.
+	 * 
+	 * @param reusablePath
+	 *            A path that is not used anymore or null. NOTE: It must not be used afterwards!
+	 * @param length
+	 *            The length of the needed path.
+	 * @return A path of the given length with unspecified content.
+	 */
+	public static Path reuseOrCreate(Path reusablePath, int length) {
+		if (reusablePath == null || reusablePath.pathX.length < length) {
+			return new Path(length);
 		}
 
-		for (; i < length; i++) {
-			insertAt(i, oldPath.nextX(), oldPath.nextY());
-			oldPath.goToNextStep();
-		}
+		reusablePath.length = length;
+		reusablePath.idx = -1;
+		return reusablePath;
 	}
 
 	/**
-	 * Creates a path of length 1 with that's just containing to the given position.<br>
+	 * Gives a path of length 1 just containing the given position. If possible, the arrays of the given reusable path are reused.
 	 * 
+	 * @param reusablePath
+	 *            A path that is not used anymore or null. NOTE: It must not be used afterwards!
 	 * @param position
 	 *            the single path position.
+	 * @return The path to the given position.
 	 */
-	public Path(ShortPoint2D position) {
-		this(1);
-		insertAt(0, position.x, position.y);
+	public static Path reuseOrCreate(Path reusablePath, ShortPoint2D position) {
+		Path path = reuseOrCreate(reusablePath, 1);
+		path.insertAt(0, position.x, position.y);
+		return path;
+	}
+
+	private void writeObject(ObjectOutputStream oos) throws IOException {
+		// only the used part of the arrays is written, the rest depends on the paths reused before
+		ObjectOutputStream.PutField fields = oos.putFields();
+		fields.put("pathX", pathX.length == length ? pathX : Arrays.copyOf(pathX, length));
+		fields.put("pathY", pathY.length == length ? pathY : Arrays.copyOf(pathY, length));
+		fields.put("length", length);
+		fields.put("idx", idx);
+		oos.writeFields();
+	}
+
+	private void readObject(ObjectInputStream ois) throws IOException, ClassNotFoundException {
+		ObjectInputStream.GetField fields = ois.readFields();
+		pathX = (short[]) fields.get("pathX", null);
+		pathY = (short[]) fields.get("pathY", null);
+		idx = fields.get("idx", -1);
+		length = SerializationUtils.containsField(fields, "length") ? fields.get("length", 0) : pathX.length;
+	}
+
+	/**
+	 * Replaces the already passed steps of this path by the given prefix. The arrays of this path are reused if they are big enough.
+	 * 
+	 * @param pathPrefix
+	 *            The path prefix. NOTE: The prefix must start with the current position of the movable!
+	 */
+	public void replacePassedSteps(ShortPoint2D... pathPrefix) {
+		int remainingStart = idx + 1;
+		int remainingLength = length - remainingStart;
+		int newLength = remainingLength + pathPrefix.length;
+
+		short[] newPathX = pathX;
+		short[] newPathY = pathY;
+		if (newLength > pathX.length) {
+			newPathX = new short[newLength];
+			newPathY = new short[newLength];
+		}
+		System.arraycopy(pathX, remainingStart, newPathX, pathPrefix.length, remainingLength);
+		System.arraycopy(pathY, remainingStart, newPathY, pathPrefix.length, remainingLength);
+
+		pathX = newPathX;
+		pathY = newPathY;
+		length = newLength;
+		idx = -1;
+
+		for (int i = 0; i < pathPrefix.length; i++) {
+			insertAt(i, pathPrefix[i].x, pathPrefix[i].y);
+		}
 	}
 
 	/**
@@ -88,7 +157,7 @@ public class Path implements Serializable {
 	}
 
 	public boolean hasNextStep() {
-		return idx + 1 < pathX.length;
+		return idx + 1 < length;
 	}
 
 	public final short nextX() {
@@ -103,14 +172,25 @@ public class Path implements Serializable {
 		return new ShortPoint2D(nextX(), nextY());
 	}
 
+	/**
+	 * Gets the next position of the path without allocating a new point.
+	 * 
+	 * @param points
+	 *            The table of the canonical points of the map.
+	 * @return The canonical point of the next position.
+	 */
+	public final ShortPoint2D getNextPos(ShortPoint2DTable points) {
+		return points.get(nextX(), nextY());
+	}
+
 	public final boolean isFinished() {
-		return idx >= pathX.length;
+		return idx >= length;
 	}
 
 	@Override
 	public final String toString() {
 		StringBuffer res = new StringBuffer();
-		for (short idx = 0; idx < pathX.length; idx++) {
+		for (short idx = 0; idx < length; idx++) {
 			res.append("(" + pathX[idx] + "|" + pathY[idx] + ")");
 		}
 		return res.toString();
@@ -125,15 +205,15 @@ public class Path implements Serializable {
 	}
 
 	public final short getTargetX() {
-		return pathX[pathX.length - 1];
+		return pathX[length - 1];
 	}
 
 	public final short getTargetY() {
-		return pathY[pathY.length - 1];
+		return pathY[length - 1];
 	}
 
 	public final int getLength() {
-		return pathX.length;
+		return length;
 	}
 
 	/**
@@ -148,16 +228,27 @@ public class Path implements Serializable {
 	}
 
 	public final ShortPoint2D getTargetPos() {
-		int lastIdx = pathX.length - 1;
+		int lastIdx = length - 1;
 		return new ShortPoint2D(pathX[lastIdx], pathY[lastIdx]);
 	}
 
+	/**
+	 * Gets the target position of the path without allocating a new point.
+	 * 
+	 * @param points
+	 *            The table of the canonical points of the map.
+	 * @return The canonical point of the target position.
+	 */
+	public final ShortPoint2D getTargetPos(ShortPoint2DTable points) {
+		return points.get(getTargetX(), getTargetY());
+	}
+
 	public int getStep() {
 		return idx;
 	}
 
 	public boolean hasOverNextStep() {
-		return idx + 2 < pathX.length;
+		return idx + 2 < length;
 	}
 
 	public ShortPoint2D getOverNextPos() {
@@ -19,7 +19,77 @@ import jsettlers.algorithms.path.Path;
 import jsettlers.common.position.ShortPoint2D;
 
 public abstract class AbstractAStar {
-	public abstract Path findPath(IPathCalculatable requester, final short sx, final short sy, final short tx, final short ty);
+	public final Path findPath(IPathCalculatable requester, short sx, short sy, short tx, short ty) {
+		return findPath(requester, sx, sy, tx, ty, null);
+	}
 
-	public abstract Path findPath(IPathCalculatable aStarPathable, ShortPoint2D targetPos);
+	/**
+	 * Calculates a path from the start to the target position.
+	 * 
+	 * @param requester
+	 *            The requester of the path.
+	 * @param reusablePath
+	 *            A path that is not used anymore or null. Its arrays are reused for the result if possible (see
+	 *            {@link Path#reuseOrCreate(Path, int)}).
+	 * @return The path or null if no path was found.
+	 */
+	public abstract Path findPath(IPathCalculatable requester, short sx, short sy, short tx, short ty, Path reusablePath);
+
+	/**
+	 * Searches the nearest position accepted by the given filter in a single search from the start position and calculates the path to it.
+	 * The start position and blocked positions are never accepted as target.
+	 * 
+	 * @param requester
+	 *            The requester of the path.
+	 * @param targetFilter
+	 *            Decides which of the reached positions are targets and which positions are searched.
+	 * @param reusablePath
+	 *            A path that is not used anymore or null. Its arrays are reused for the result if possible (see
+	 *            {@link Path#reuseOrCreate(Path, int)}).
+	 * @return The path to the nearest target or null if no target can be reached.
+	 */
+	public abstract Path findPathToNearest(IPathCalculatable requester, short sx, short sy, IPathTargetFilter targetFilter, Path reusablePath);
+
+	/**
+	 * Searches a path from the start position towards the given position like {@link #findPath(IPathCalculatable, short, short, short, short, Path)},
+	 * but ends at the first position accepted by the given filter. If a target lies on the way, it is used even if another target is closer to
+	 * the start position. The start position and blocked positions are never accepted as target.
+	 * 
+	 * @param requester
+	 *            The requester of the path.
+	 * @param tx
+	 *            x coordinate of the position the search is directed to. It doesn't need to be accepted by the filter.
+	 * @param ty
+	 *            y coordinate of the position the search is directed to.
+	 * @param targetFilter
+	 *            Decides which of the reached positions are targets and which positions are searched.
+	 * @param reusablePath
+	 *            A path that is not used anymore or null. Its arrays are reused for the result if possible (see
+	 *            {@link Path#reuseOrCreate(Path, int)}).
+	 * @return The path to the first reached target or null if no target can be reached.
+	 */
+	public abstract Path findPathTowards(IPathCalculatable requester, short sx, short sy, short tx, short ty, IPathTargetFilter targetFilter,
+			Path reusablePath);
+
+	public final Path findPath(IPathCalculatable requester, ShortPoint2D targetPos) {
+		return findPath(requester, targetPos, null);
+	}
+
+	public final Path findPath(IPathCalculatable requester, ShortPoint2D targetPos, Path reusablePath) {
+		ShortPoint2D pos = requester.getPos();
+		return findPath(requester, pos.x, pos.y, targetPos.x, targetPos.y, reusablePath);
+	}
+
+	/**
+	 * Informs the path finder that the blocking of the given position may have changed for some requesters. This is the case if the position
+	 * got blocked / unblocked or if its player changed.<br>
+	 * Implementations caching information about the map need to override this method. The default implementation does nothing.
+	 * 
+	 * @param x
+	 *            x coordinate of the changed position.
+	 * @param y
+	 *            y coordinate of the changed position.
+	 */
+	public void blockingChangedAt(int x, int y) {
+	}
 }
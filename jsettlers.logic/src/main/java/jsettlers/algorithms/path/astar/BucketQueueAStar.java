@@ -22,7 +22,6 @@ import jsettlers.algorithms.path.Path;
 import jsettlers.algorithms.path.astar.queues.bucket.AbstractBucketQueue;
 import jsettlers.algorithms.path.astar.queues.bucket.ListMinBucketQueue;
 import jsettlers.common.movable.EDirection;
-import jsettlers.common.position.ShortPoint2D;
 
 /**
  * AStar algorithm to find paths from A to B on a hex grid
@@ -63,13 +62,7 @@ public final class BucketQueueAStar extends AbstractAStar {
 	}
 
 	@Override
-	public final Path findPath(IPathCalculatable requester, ShortPoint2D target) {
-		ShortPoint2D pos = requester.getPos();
-		return findPath(requester, pos.x, pos.y, target.x, target.y);
-	}
-
-	@Override
-	public final Path findPath(IPathCalculatable requester, final short sx, final short sy, final short tx, final short ty) {
+	public final Path findPath(IPathCalculatable requester, final short sx, final short sy, final short tx, final short ty, Path reusablePath) {
 		final short blockedAtStartPartition;
 		if (!isInBounds(sx, sy)) {
 			throw new InvalidStartPositionException("Start position is out of bounds!", sx, sy);
@@ -83,14 +76,64 @@ public final class BucketQueueAStar extends AbstractAStar {
 			blockedAtStartPartition = -1;
 		}
 
+		int targetFlatIdx = search(requester, sx, sy, blockedAtStartPartition, tx, ty, null, true);
+		return targetFlatIdx >= 0 ? createPath(targetFlatIdx, reusablePath) : null;
+	}
+
+	@Override
+	public final Path findPathToNearest(IPathCalculatable requester, short sx, short sy, IPathTargetFilter targetFilter, Path reusablePath) {
+		final short blockedAtStartPartition;
+		if (!isInBounds(sx, sy)) {
+			throw new InvalidStartPositionException("Start position is out of bounds!", sx, sy);
+		} else if (isBlocked(requester, sx, sy)) {
+			blockedAtStartPartition = map.getBlockedPartition(sx, sy);
+		} else {
+			blockedAtStartPartition = -1;
+		}
+
+		int targetFlatIdx = search(requester, sx, sy, blockedAtStartPartition, sx, sy, targetFilter, false);
+		return targetFlatIdx >= 0 ? createPath(targetFlatIdx, reusablePath) : null;
+	}
+
+	@Override
+	public final Path findPathTowards(IPathCalculatable requester, short sx, short sy, short tx, short ty, IPathTargetFilter targetFilter,
+			Path reusablePath) {
+		final short blockedAtStartPartition;
+		if (!isInBounds(sx, sy)) {
+			throw new InvalidStartPositionException("Start position is out of bounds!", sx, sy);
+		} else if (!isInBounds(tx, ty)) {
+			return null;
+		} else if (isBlocked(requester, sx, sy)) {
+			blockedAtStartPartition = map.getBlockedPartition(sx, sy);
+		} else {
+			blockedAtStartPartition = -1;
+		}
+
+		int targetFlatIdx = search(requester, sx, sy, blockedAtStartPartition, tx, ty, targetFilter, true);
+		return targetFlatIdx >= 0 ? createPath(targetFlatIdx, reusablePath) : null;
+	}
+
+	/**
+	 * Expands the positions from the start position until a target is closed.
+	 * 
+	 * @param targetFilter
+	 *            If null, the given target position is searched. Otherwise, the positions of the filter's search area are expanded until the
+	 *            filter accepts a non blocked position.
+	 * @param useHeuristic
+	 *            If true, the search is directed towards the given target position with the heuristic of the A*. Otherwise, the positions are
+	 *            expanded like in a dijkstra search.
+	 * @return The flat index of the found target or -1 if no target has been found.
+	 */
+	private int search(IPathCalculatable requester, short sx, short sy, short blockedAtStartPartition, short tx, short ty,
+			IPathTargetFilter targetFilter, boolean useHeuristic) {
+		final int startFlatIdx = getFlatIdx(sx, sy);
 		final int targetFlatIdx = getFlatIdx(tx, ty);
 
 		closedBitSet.clear();
 		openBitSet.clear();
 
 		open.clear();
-		boolean found = false;
-		initStartNode(sx, sy, tx, ty);
+		initStartNode(sx, sy, getHeuristicCost(sx, sy, tx, ty));
 
 		while (!open.isEmpty()) {
 			int currFlatIdx = open.deleteMin();
@@ -100,9 +143,12 @@ public final class BucketQueueAStar extends AbstractAStar {
 
 			setClosed(x, y);
 
-			if (targetFlatIdx == currFlatIdx) {
-				found = true;
-				break;
+			if (targetFilter == null) {
+				if (targetFlatIdx == currFlatIdx) {
+					return currFlatIdx;
+				}
+			} else if (currFlatIdx != startFlatIdx && !isBlocked(requester, x, y) && targetFilter.isTarget(x, y)) {
+				return currFlatIdx;
 			}
 
 			final float currPositionCosts = costs[currFlatIdx];
@@ -111,7 +157,8 @@ public final class BucketQueueAStar extends AbstractAStar {
 				final int neighborX = x + xDeltaArray[i];
 				final int neighborY = y + yDeltaArray[i];
 
-				if (isValidPosition(requester, x, y, neighborX, neighborY, blockedAtStartPartition)) {
+				if (isValidPosition(requester, x, y, neighborX, neighborY, blockedAtStartPartition)
+						&& (targetFilter == null || targetFilter.isInSearchArea(neighborX, neighborY))) {
 					final int flatNeighborIdx = getFlatIdx(neighborX, neighborY);
 
 					if (!closedBitSet.get(flatNeighborIdx)) {
@@ -125,7 +172,7 @@ public final class BucketQueueAStar extends AbstractAStar {
 								depthParentHeap[getDepthIdx(flatNeighborIdx)] = depthParentHeap[getDepthIdx(currFlatIdx)] + 1;
 								depthParentHeap[getParentIdx(flatNeighborIdx)] = currFlatIdx;
 
-								int heuristicCosts = getHeuristicCost(neighborX, neighborY, tx, ty);
+								int heuristicCosts = useHeuristic ? getHeuristicCost(neighborX, neighborY, tx, ty) : 0;
 								open.increasedPriority(flatNeighborIdx, oldCosts + heuristicCosts, newCosts + heuristicCosts);
 							}
 
@@ -134,7 +181,8 @@ public final class BucketQueueAStar extends AbstractAStar {
 							depthParentHeap[getDepthIdx(flatNeighborIdx)] = depthParentHeap[getDepthIdx(currFlatIdx)] + 1;
 							depthParentHeap[getParentIdx(flatNeighborIdx)] = currFlatIdx;
 							openBitSet.set(flatNeighborIdx);
-							open.insert(flatNeighborIdx, newCosts + getHeuristicCost(neighborX, neighborY, tx, ty));
+							int heuristicCosts = useHeuristic ? getHeuristicCost(neighborX, neighborY, tx, ty) : 0;
+							open.insert(flatNeighborIdx, newCosts + heuristicCosts);
 
 							map.markAsOpen(neighborX, neighborY);
 						}
@@ -143,23 +191,23 @@ public final class BucketQueueAStar extends AbstractAStar {
 			}
 		}
 
-		if (found) {
-			int pathlength = depthParentHeap[getDepthIdx(getFlatIdx(tx, ty))];
-			Path path = new Path(pathlength);
+		return -1;
+	}
 
-			int idx = pathlength;
-			int parentFlatIdx = targetFlatIdx;
+	private Path createPath(int targetFlatIdx, Path reusablePath) {
+		int pathlength = depthParentHeap[getDepthIdx(targetFlatIdx)];
+		Path path = Path.reuseOrCreate(reusablePath, pathlength);
 
-			while (idx > 0) {
-				idx--;
-				path.insertAt(idx, (short) getX(parentFlatIdx), (short) getY(parentFlatIdx));
-				parentFlatIdx = depthParentHeap[getParentIdx(parentFlatIdx)];
-			}
+		int idx = pathlength;
+		int parentFlatIdx = targetFlatIdx;
 
-			return path;
+		while (idx > 0) {
+			idx--;
+			path.insertAt(idx, (short) getX(parentFlatIdx), (short) getY(parentFlatIdx));
+			parentFlatIdx = depthParentHeap[getParentIdx(parentFlatIdx)];
 		}
 
-		return null;
+		return path;
 	}
 
 	private static final int getDepthIdx(int flatIdx) {
@@ -175,13 +223,13 @@ public final class BucketQueueAStar extends AbstractAStar {
 		map.markAsClosed(x, y);
 	}
 
-	private final void initStartNode(int sx, int sy, int tx, int ty) {
+	private final void initStartNode(int sx, int sy, int heuristicCosts) {
 		int flatIdx = getFlatIdx(sx, sy);
 		depthParentHeap[getDepthIdx(flatIdx)] = 0;
 		depthParentHeap[getParentIdx(flatIdx)] = -1;
 		costs[flatIdx] = 0;
 
-		open.insert(flatIdx, 0 + getHeuristicCost(sx, sy, tx, ty));
+		open.insert(flatIdx, 0 + heuristicCosts);
 		openBitSet.set(flatIdx);
 	}
 
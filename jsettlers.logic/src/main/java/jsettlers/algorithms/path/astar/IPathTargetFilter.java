@@ -0,0 +1,43 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.algorithms.path.astar;
+
+/**
+ * Decides which positions are accepted as target of a search for the nearest target (see
+ * {@link AbstractAStar#findPathToNearest(jsettlers.algorithms.path.IPathCalculatable, short, short, IPathTargetFilter, jsettlers.algorithms.path.Path)}).
+ * 
+ * @author agent
+ *
+ */
+public interface IPathTargetFilter {
+	/**
+	 * @param x
+	 *            x coordinate of the reached position.
+	 * @param y
+	 *            y coordinate of the reached position.
+	 * @return true if the position is a target of the search.
+	 */
+	boolean isTarget(int x, int y);
+
+	/**
+	 * @param x
+	 *            x coordinate of a neighbor of an expanded position.
+	 * @param y
+	 *            y coordinate of a neighbor of an expanded position.
+	 * @return true if the search may continue at the position. Positions outside of the search area are never opened, so the search ends when
+	 *         the area has been searched completely.
+	 */
+	boolean isInSearchArea(int x, int y);
+}
@@ -0,0 +1,404 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.algorithms.path.astar.hierarchical;
+
+import java.util.BitSet;
+
+import jsettlers.algorithms.path.IPathCalculatable;
+import jsettlers.algorithms.path.astar.IAStarPathMap;
+import jsettlers.common.position.ShortPoint2D;
+
+/**
+ * The abstraction of the map used by the {@link HierarchicalAStar}. The map is divided into square clusters. Passable transitions between two
+ * neighboring clusters are grouped to entrances and every entrance gets one or two portals. The portal positions are the nodes of the
+ * abstract graph. Nodes of the same cluster are connected by the costs of the shortest path inside the cluster, the two positions of a portal
+ * are connected by a single step.
+ * <p />
+ * The graph is only valid for one kind of requesters, as the blocking depends on the requester (see {@link HierarchicalAStar}). The graph is
+ * calculated lazily: Changes of the blocking only mark the affected borders and clusters as outdated. They are recalculated when a search
+ * accesses them with {@link #ensureUpToDate(int)}. Therefore only the parts of the map that are really used are calculated.
+ *
+ * @author agent
+ *
+ */
+final class AbstractionGraph {
+	/**
+	 * Entrances with more transitions than this get a portal at each end instead of a single portal in the middle.
+	 */
+	private static final int LONG_ENTRANCE_LENGTH = 6;
+
+	/**
+	 * Deltas of the neighbor clusters a cluster owns the borders to: east, south east and south. The borders to the other three neighbors are
+	 * owned by those neighbors.
+	 */
+	private static final int[] BORDER_DX = { 1, 1, 0 };
+	private static final int[] BORDER_DY = { 0, 1, 1 };
+	private static final int NUMBER_OF_BORDERS = BORDER_DX.length;
+
+	private static final int[] EMPTY = new int[0];
+	private static final float[] EMPTY_COSTS = new float[0];
+
+	private final IAStarPathMap map;
+	private final IPathCalculatable requester;
+	private final int width;
+	private final int height;
+	private final int clusterSize;
+	private final int clustersX;
+	private final int clustersY;
+
+	/**
+	 * Portals of every border as pairs of flat position indexes. The first index of a pair is in the owning cluster, the second one in the
+	 * neighbor cluster.
+	 */
+	private final int[][] borderPortals;
+	/**
+	 * Flat position indexes of the nodes of every cluster.
+	 */
+	private final int[][] clusterNodes;
+	/**
+	 * Costs between the nodes of every cluster. The costs from node i to node j are stored at i * numberOfNodes + j.
+	 */
+	private final float[][] clusterCosts;
+	private final boolean[][] clusterCalculatedCosts;
+	/**
+	 * Pairs of the node index and the flat position index of the node in the other cluster for every portal of every cluster.
+	 */
+	private final int[][] clusterTransitions;
+
+	private final BitSet outdatedBorders;
+	private final BitSet outdatedClusters;
+	private final IntBuffer buffer = new IntBuffer();
+
+	AbstractionGraph(IAStarPathMap map, IPathCalculatable requester, int width, int height, int clusterSize) {
+		this.map = map;
+		this.requester = requester;
+		this.width = width;
+		this.height = height;
+		this.clusterSize = clusterSize;
+		this.clustersX = (width + clusterSize - 1) / clusterSize;
+		this.clustersY = (height + clusterSize - 1) / clusterSize;
+
+		int numberOfClusters = clustersX * clustersY;
+		this.borderPortals = new int[numberOfClusters * NUMBER_OF_BORDERS][];
+		this.clusterNodes = new int[numberOfClusters][];
+		this.clusterCosts = new float[numberOfClusters][];
+		this.clusterCalculatedCosts = new boolean[numberOfClusters][];
+		this.clusterTransitions = new int[numberOfClusters][];
+
+		this.outdatedBorders = new BitSet(numberOfClusters * NUMBER_OF_BORDERS);
+		this.outdatedBorders.set(0, numberOfClusters * NUMBER_OF_BORDERS);
+		this.outdatedClusters = new BitSet(numberOfClusters);
+		this.outdatedClusters.set(0, numberOfClusters);
+	}
+
+	/**
+	 * Marks the borders and the costs affected by a change of the given position as outdated.
+	 */
+	void invalidate(int x, int y) {
+		int clusterX = x / clusterSize;
+		int clusterY = y / clusterSize;
+		int cluster = clusterX + clusterY * clustersX;
+		outdatedClusters.set(cluster);
+
+		for (int border = 0; border < NUMBER_OF_BORDERS; border++) {
+			outdatedBorders.set(cluster * NUMBER_OF_BORDERS + border);
+
+			int neighborX = clusterX - BORDER_DX[border];
+			int neighborY = clusterY - BORDER_DY[border];
+			if (isClusterInBounds(neighborX, neighborY)) {
+				int neighbor = neighborX + neighborY * clustersX;
+				outdatedBorders.set(neighbor * NUMBER_OF_BORDERS + border);
+				outdatedClusters.set(neighbor);
+			}
+			if (isClusterInBounds(clusterX + BORDER_DX[border], clusterY + BORDER_DY[border])) {
+				outdatedClusters.set(clusterX + BORDER_DX[border] + (clusterY + BORDER_DY[border]) * clustersX);
+			}
+		}
+	}
+
+	/**
+	 * Recalculates the portals and nodes of the given cluster if they are outdated. This must be called before the nodes, costs or transitions
+	 * of a cluster are accessed.
+	 */
+	void ensureUpToDate(int cluster) {
+		if (!outdatedClusters.get(cluster)) {
+			return;
+		}
+
+		int clusterX = cluster % clustersX;
+		int clusterY = cluster / clustersX;
+		for (int border = 0; border < NUMBER_OF_BORDERS; border++) {
+			updateBorder(clusterX, clusterY, border);
+
+			int neighborX = clusterX - BORDER_DX[border];
+			int neighborY = clusterY - BORDER_DY[border];
+			if (isClusterInBounds(neighborX, neighborY)) {
+				updateBorder(neighborX, neighborY, border);
+			}
+		}
+
+		calculateClusterNodes(cluster);
+		outdatedClusters.clear(cluster);
+	}
+
+	private void updateBorder(int clusterX, int clusterY, int border) {
+		int borderIdx = (clusterX + clusterY * clustersX) * NUMBER_OF_BORDERS + border;
+		if (outdatedBorders.get(borderIdx)) {
+			calculateBorder(clusterX, clusterY, border);
+			outdatedBorders.clear(borderIdx);
+		}
+	}
+
+	private void calculateBorder(int clusterX, int clusterY, int border) {
+		int neighborX = clusterX + BORDER_DX[border];
+		int neighborY = clusterY + BORDER_DY[border];
+		int borderIdx = (clusterX + clusterY * clustersX) * NUMBER_OF_BORDERS + border;
+
+		if (!isClusterInBounds(neighborX, neighborY)) {
+			borderPortals[borderIdx] = EMPTY;
+			return;
+		}
+
+		int maxX = getMaxX(clusterX);
+		int maxY = getMaxY(clusterY);
+
+		// collect all passable transitions ordered along the border
+		buffer.clear();
+		if (border == 0) { // east
+			for (int y = clusterY * clusterSize; y <= maxY; y++) {
+				addTransitionsTo(maxX, y, neighborX, neighborY);
+			}
+		} else if (border == 1) { // south east
+			addTransitionsTo(maxX, maxY, neighborX, neighborY);
+		} else { // south
+			for (int x = clusterX * clusterSize; x <= maxX; x++) {
+				addTransitionsTo(x, maxY, neighborX, neighborY);
+			}
+		}
+
+		// group neighboring transitions to entrances and add the portals for them
+		int numberOfTransitions = buffer.size() / 2;
+		IntBuffer portals = new IntBuffer();
+		int entranceStart = 0;
+		for (int i = 1; i <= numberOfTransitions; i++) {
+			if (i == numberOfTransitions || !isSameOrNeighbor(buffer.get(2 * i - 2), buffer.get(2 * i))
+					|| !isSameOrNeighbor(buffer.get(2 * i - 1), buffer.get(2 * i + 1))) {
+				int entranceLength = i - entranceStart;
+				if (entranceLength > LONG_ENTRANCE_LENGTH) {
+					portals.add(buffer.get(2 * entranceStart));
+					portals.add(buffer.get(2 * entranceStart + 1));
+					portals.add(buffer.get(2 * i - 2));
+					portals.add(buffer.get(2 * i - 1));
+				} else {
+					int middle = entranceStart + entranceLength / 2;
+					portals.add(buffer.get(2 * middle));
+					portals.add(buffer.get(2 * middle + 1));
+				}
+				entranceStart = i;
+			}
+		}
+
+		borderPortals[borderIdx] = portals.toArray();
+	}
+
+	private void addTransitionsTo(int x, int y, int neighborClusterX, int neighborClusterY) {
+		if (map.isBlocked(requester, x, y)) {
+			return;
+		}
+
+		for (int border = 0; border < NUMBER_OF_BORDERS; border++) { // the border deltas are also the positive direction deltas
+			int neighborX = x + BORDER_DX[border];
+			int neighborY = y + BORDER_DY[border];
+
+			if (neighborX < width && neighborY < height && neighborX / clusterSize == neighborClusterX && neighborY / clusterSize == neighborClusterY
+					&& !map.isBlocked(requester, neighborX, neighborY)) {
+				buffer.add(x + y * width);
+				buffer.add(neighborX + neighborY * width);
+			}
+		}
+	}
+
+	private void calculateClusterNodes(int cluster) {
+		int clusterX = cluster % clustersX;
+		int clusterY = cluster / clustersX;
+
+		// collect the nodes and transitions of the cluster out of the borders owned by it and by its neighbors
+		IntBuffer nodes = new IntBuffer();
+		IntBuffer transitions = new IntBuffer();
+		for (int border = 0; border < NUMBER_OF_BORDERS; border++) {
+			addPortals(nodes, transitions, borderPortals[cluster * NUMBER_OF_BORDERS + border], 0);
+
+			int neighborX = clusterX - BORDER_DX[border];
+			int neighborY = clusterY - BORDER_DY[border];
+			if (isClusterInBounds(neighborX, neighborY)) {
+				addPortals(nodes, transitions, borderPortals[(neighborX + neighborY * clustersX) * NUMBER_OF_BORDERS + border], 1);
+			}
+		}
+
+		int numberOfNodes = nodes.size();
+		clusterNodes[cluster] = nodes.toArray();
+		clusterCosts[cluster] = numberOfNodes == 0 ? EMPTY_COSTS : new float[numberOfNodes * numberOfNodes];
+		clusterCalculatedCosts[cluster] = new boolean[numberOfNodes];
+		clusterTransitions[cluster] = transitions.toArray();
+	}
+
+	/**
+	 * Gets the costs from the given node to all nodes of its cluster. They are calculated on the first access, as most nodes are never used as
+	 * start of an edge.
+	 * 
+	 * @return The costs of the whole cluster. The costs from the given node to node j are stored at nodeIdx * numberOfNodes + j.
+	 */
+	float[] getCostsFrom(int cluster, int nodeIdx, ClusterSearch clusterSearch) {
+		float[] costs = clusterCosts[cluster];
+
+		if (!clusterCalculatedCosts[cluster][nodeIdx]) {
+			int[] nodes = clusterNodes[cluster];
+			int fromIdx = nodes[nodeIdx];
+			clusterSearch.search(requester, getMinX(cluster), getMinY(cluster), getMaxXOfCluster(cluster), getMaxYOfCluster(cluster), fromIdx % width,
+					fromIdx / width, -1, -1, false);
+
+			for (int to = 0; to < nodes.length; to++) {
+				costs[nodeIdx * nodes.length + to] = clusterSearch.getCosts(nodes[to] % width, nodes[to] / width);
+			}
+			clusterCalculatedCosts[cluster][nodeIdx] = true;
+		}
+
+		return costs;
+	}
+
+	private static void addPortals(IntBuffer nodes, IntBuffer transitions, int[] portals, int ownSide) {
+		if (portals == null) {
+			return;
+		}
+
+		for (int i = 0; i < portals.length; i += 2) {
+			int ownIdx = portals[i + ownSide];
+			int otherIdx = portals[i + 1 - ownSide];
+
+			int nodeIdx = nodes.indexOf(ownIdx);
+			if (nodeIdx < 0) {
+				nodeIdx = nodes.size();
+				nodes.add(ownIdx);
+			}
+
+			transitions.add(nodeIdx);
+			transitions.add(otherIdx);
+		}
+	}
+
+	int getCluster(int x, int y) {
+		return x / clusterSize + (y / clusterSize) * clustersX;
+	}
+
+	int getClusterOfIdx(int flatIdx) {
+		return getCluster(flatIdx % width, flatIdx / width);
+	}
+
+	int getMinX(int cluster) {
+		return (cluster % clustersX) * clusterSize;
+	}
+
+	int getMinY(int cluster) {
+		return (cluster / clustersX) * clusterSize;
+	}
+
+	int getMaxX(int clusterX) {
+		return Math.min((clusterX + 1) * clusterSize, width) - 1;
+	}
+
+	int getMaxY(int clusterY) {
+		return Math.min((clusterY + 1) * clusterSize, height) - 1;
+	}
+
+	int getMaxXOfCluster(int cluster) {
+		return getMaxX(cluster % clustersX);
+	}
+
+	int getMaxYOfCluster(int cluster) {
+		return getMaxY(cluster / clustersX);
+	}
+
+	int[] getNodes(int cluster) {
+		return clusterNodes[cluster];
+	}
+
+	int[] getTransitions(int cluster) {
+		return clusterTransitions[cluster];
+	}
+
+	static int indexOf(int[] nodes, int flatIdx) {
+		for (int i = 0; i < nodes.length; i++) {
+			if (nodes[i] == flatIdx) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private boolean isClusterInBounds(int clusterX, int clusterY) {
+		return 0 <= clusterX && clusterX < clustersX && 0 <= clusterY && clusterY < clustersY;
+	}
+
+	private boolean isSameOrNeighbor(int flatIdx1, int flatIdx2) {
+		return ShortPoint2D.getOnGridDist(flatIdx1 % width - flatIdx2 % width, flatIdx1 / width - flatIdx2 / width) <= 1;
+	}
+
+	/**
+	 * Minimal growable int list.
+	 */
+	private static final class IntBuffer {
+		private int[] values = new int[16];
+		private int size = 0;
+
+		void add(int value) {
+			if (size >= values.length) {
+				int[] newValues = new int[values.length * 2];
+				System.arraycopy(values, 0, newValues, 0, size);
+				values = newValues;
+			}
+			values[size++] = value;
+		}
+
+		int get(int idx) {
+			return values[idx];
+		}
+
+		int indexOf(int value) {
+			for (int i = 0; i < size; i++) {
+				if (values[i] == value) {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+		int size() {
+			return size;
+		}
+
+		void clear() {
+			size = 0;
+		}
+
+		int[] toArray() {
+			if (size == 0) {
+				return EMPTY;
+			}
+			int[] result = new int[size];
+			System.arraycopy(values, 0, result, 0, size);
+			return result;
+		}
+	}
+}
@@ -0,0 +1,191 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.algorithms.path.astar.hierarchical;
+
+import jsettlers.algorithms.path.IPathCalculatable;
+import jsettlers.algorithms.path.astar.IAStarPathMap;
+import jsettlers.common.movable.EDirection;
+import jsettlers.common.position.ShortPoint2D;
+
+/**
+ * Search that is restricted to the rectangle of a single cluster. Without a target, it is a Dijkstra search used to calculate the costs from
+ * one position to all others. With a target, it is an A* search used to refine abstract paths into real paths.
+ * <p />
+ * All arrays are sized to a single cluster and reset by a generation counter, so that starting a new search is in O(1).
+ *
+ * @author agent
+ *
+ */
+final class ClusterSearch {
+	static final float UNREACHABLE = Float.MAX_VALUE;
+
+	private static final byte[] xDeltaArray = EDirection.getXDeltaArray();
+	private static final byte[] yDeltaArray = EDirection.getYDeltaArray();
+
+	private final IAStarPathMap map;
+	private final int clusterSize;
+
+	private final float[] costs;
+	private final int[] parents;
+	private final int[] openGeneration;
+	private final int[] closedGeneration;
+	private final MinHeap open;
+
+	private int generation = 0;
+
+	private int minX;
+	private int minY;
+	private int maxX;
+	private int maxY;
+	private int startLocalIdx;
+
+	ClusterSearch(IAStarPathMap map, int clusterSize) {
+		this.map = map;
+		this.clusterSize = clusterSize;
+
+		int clusterArea = clusterSize * clusterSize;
+		this.costs = new float[clusterArea];
+		this.parents = new int[clusterArea];
+		this.openGeneration = new int[clusterArea];
+		this.closedGeneration = new int[clusterArea];
+		this.open = new MinHeap(clusterArea);
+	}
+
+	/**
+	 * Searches from the given start position inside the given rectangle. The start position itself is never checked for being blocked.
+	 *
+	 * @param requester
+	 *            The requester the blocking is checked for.
+	 * @param minX
+	 *            Minimum x coordinate of the cluster (inclusive).
+	 * @param minY
+	 *            Minimum y coordinate of the cluster (inclusive).
+	 * @param maxX
+	 *            Maximum x coordinate of the cluster (inclusive).
+	 * @param maxY
+	 *            Maximum y coordinate of the cluster (inclusive).
+	 * @param sx
+	 *            x coordinate of the start position.
+	 * @param sy
+	 *            y coordinate of the start position.
+	 * @param tx
+	 *            x coordinate of the target position or -1 if all positions of the cluster should be searched.
+	 * @param ty
+	 *            y coordinate of the target position or -1 if all positions of the cluster should be searched.
+	 * @param markClosed
+	 *            If true, {@link IAStarPathMap#markAsClosed(int, int)} is called for every expanded position.
+	 */
+	void search(IPathCalculatable requester, int minX, int minY, int maxX, int maxY, int sx, int sy, int tx, int ty, boolean markClosed) {
+		this.minX = minX;
+		this.minY = minY;
+		this.maxX = maxX;
+		this.maxY = maxY;
+
+		generation++;
+		open.clear();
+
+		final int targetLocalIdx = tx < 0 ? -1 : getLocalIdx(tx, ty);
+		startLocalIdx = getLocalIdx(sx, sy);
+		costs[startLocalIdx] = 0;
+		parents[startLocalIdx] = -1;
+		openGeneration[startLocalIdx] = generation;
+		open.insert(startLocalIdx, 0);
+
+		while (!open.isEmpty()) {
+			final int currLocalIdx = open.deleteMin();
+			if (closedGeneration[currLocalIdx] == generation) {
+				continue; // outdated entry of the heap
+			}
+			closedGeneration[currLocalIdx] = generation;
+
+			final int x = minX + currLocalIdx % clusterSize;
+			final int y = minY + currLocalIdx / clusterSize;
+			if (markClosed) {
+				map.markAsClosed(x, y);
+			}
+
+			if (currLocalIdx == targetLocalIdx) {
+				return;
+			}
+
+			final float currCosts = costs[currLocalIdx];
+
+			for (int i = 0; i < EDirection.NUMBER_OF_DIRECTIONS; i++) {
+				final int neighborX = x + xDeltaArray[i];
+				final int neighborY = y + yDeltaArray[i];
+
+				if (neighborX < minX || neighborX > maxX || neighborY < minY || neighborY > maxY || map.isBlocked(requester, neighborX, neighborY)) {
+					continue;
+				}
+
+				final int neighborLocalIdx = getLocalIdx(neighborX, neighborY);
+				if (closedGeneration[neighborLocalIdx] == generation) {
+					continue;
+				}
+
+				final float newCosts = currCosts + map.getCost(x, y, neighborX, neighborY);
+				if (openGeneration[neighborLocalIdx] != generation || newCosts < costs[neighborLocalIdx]) {
+					openGeneration[neighborLocalIdx] = generation;
+					costs[neighborLocalIdx] = newCosts;
+					parents[neighborLocalIdx] = currLocalIdx;
+					final int heuristicCosts = targetLocalIdx < 0 ? 0 : ShortPoint2D.getOnGridDist(tx - neighborX, ty - neighborY);
+					open.insert(neighborLocalIdx, newCosts + heuristicCosts);
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return The costs to reach the given position in the last search or {@link #UNREACHABLE} if it has not been reached.
+	 */
+	float getCosts(int x, int y) {
+		if (x < minX || x > maxX || y < minY || y > maxY) {
+			return UNREACHABLE;
+		}
+		int localIdx = getLocalIdx(x, y);
+		return closedGeneration[localIdx] == generation ? costs[localIdx] : UNREACHABLE;
+	}
+
+	/**
+	 * Appends the path of the last search from the start to the given position to the given buffer. The start position is not included, the
+	 * given position is. The position must have been reached by the last search.
+	 *
+	 * @param x
+	 *            x coordinate of the position.
+	 * @param y
+	 *            y coordinate of the position.
+	 * @param path
+	 *            The buffer the flat indexes of the path's positions are appended to.
+	 * @param width
+	 *            The width of the map used to calculate flat indexes.
+	 */
+	void appendPathTo(int x, int y, PathBuffer path, int width) {
+		int localIdx = getLocalIdx(x, y);
+		int length = 0;
+		for (int curr = localIdx; curr != startLocalIdx; curr = parents[curr]) {
+			length++;
+		}
+
+		int insertIdx = path.extend(length);
+		for (int curr = localIdx; curr != startLocalIdx; curr = parents[curr]) {
+			length--;
+			path.set(insertIdx + length, (minX + curr % clusterSize) + (minY + curr / clusterSize) * width);
+		}
+	}
+
+	private int getLocalIdx(int x, int y) {
+		return (x - minX) + (y - minY) * clusterSize;
+	}
+}
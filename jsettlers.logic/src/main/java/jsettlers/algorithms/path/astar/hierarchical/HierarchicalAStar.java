@@ -0,0 +1,321 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.algorithms.path.astar.hierarchical;
+
+import jsettlers.algorithms.path.IPathCalculatable;
+import jsettlers.algorithms.path.InvalidStartPositionException;
+import jsettlers.algorithms.path.Path;
+import jsettlers.algorithms.path.astar.AbstractAStar;
+import jsettlers.algorithms.path.astar.BucketQueueAStar;
+import jsettlers.algorithms.path.astar.IAStarPathMap;
+import jsettlers.algorithms.path.astar.IPathTargetFilter;
+import jsettlers.common.position.ShortPoint2D;
+
+/**
+ * Hierarchical path finder (HPA*) for long distance paths.
+ * <p />
+ * The map is divided into clusters and an {@link AbstractionGraph} of the portals between the clusters is searched instead of the single
+ * positions. The resulting abstract path is then refined into a real path by searches restricted to single clusters. Short paths, paths
+ * starting on blocked positions and requests that can not be solved on the abstract graph are delegated to a {@link BucketQueueAStar}.
+ * <p />
+ * The blocking of a position may depend on the requester. The {@link IAStarPathMap} must only distinguish requesters by
+ * {@link IPathCalculatable#needsPlayersGround()} and {@link IPathCalculatable#getPlayerId()}. Therefore one graph is kept for requesters
+ * that can walk on everybody's ground and one for each player whose ground is needed. The costs of the map are expected to be symmetric.
+ * <p />
+ * The resulting paths are close to but not always exactly the shortest paths.
+ *
+ * @author agent
+ *
+ */
+public final class HierarchicalAStar extends AbstractAStar {
+	public static final int DEFAULT_CLUSTER_SIZE = 16;
+
+	private static final int START_PARENT = -1;
+	/**
+	 * Overestimating the heuristic breaks the ties between the many nodes with equal costs in favor of the nodes closer to the target. This
+	 * saves a lot of expanded nodes for the price of about one percent longer paths.
+	 */
+	private static final float HEURISTIC_TIE_BREAKING_FACTOR = 1.05f;
+
+	private final IAStarPathMap map;
+	private final short width;
+	private final short height;
+	private final int clusterSize;
+	private final int minAbstractPathDistance;
+
+	private final BucketQueueAStar fallbackAStar;
+	private final ClusterSearch clusterSearch;
+	private final AbstractionGraph[] graphs = new AbstractionGraph[Byte.MAX_VALUE + 2];
+
+	private final MinHeap open = new MinHeap(256);
+	private final int[] nodeGeneration;
+	private final int[] closedGeneration;
+	private final float[] nodeCosts;
+	private final int[] nodeParents;
+	private int generation = 0;
+
+	private float[] targetCosts = new float[32];
+	private final PathBuffer pathBuffer = new PathBuffer();
+
+	public HierarchicalAStar(IAStarPathMap map, short width, short height) {
+		this(map, width, height, DEFAULT_CLUSTER_SIZE);
+	}
+
+	public HierarchicalAStar(IAStarPathMap map, short width, short height, int clusterSize) {
+		this.map = map;
+		this.width = width;
+		this.height = height;
+		this.clusterSize = clusterSize;
+		this.minAbstractPathDistance = 2 * clusterSize;
+
+		this.fallbackAStar = new BucketQueueAStar(map, width, height);
+		this.clusterSearch = new ClusterSearch(map, clusterSize);
+
+		this.nodeGeneration = new int[width * height];
+		this.closedGeneration = new int[width * height];
+		this.nodeCosts = new float[width * height];
+		this.nodeParents = new int[width * height];
+	}
+
+	@Override
+	public Path findPath(IPathCalculatable requester, short sx, short sy, short tx, short ty, Path reusablePath) {
+		if (!isInBounds(sx, sy)) {
+			throw new InvalidStartPositionException("Start position is out of bounds!", sx, sy);
+		} else if (!isInBounds(tx, ty) || map.isBlocked(requester, tx, ty) || map.getBlockedPartition(sx, sy) != map.getBlockedPartition(tx, ty)) {
+			return null; // target can not be reached
+		} else if (sx == tx && sy == ty) {
+			return null;
+		} else if (map.isBlocked(requester, sx, sy) || ShortPoint2D.getOnGridDist(tx - sx, ty - sy) < minAbstractPathDistance) {
+			return fallbackAStar.findPath(requester, sx, sy, tx, ty, reusablePath);
+		}
+
+		AbstractionGraph graph = getGraph(requester);
+		Path path = findAbstractPath(graph, requester, sx, sy, tx, ty, reusablePath);
+		if (path != null) {
+			return path;
+		} else {
+			return fallbackAStar.findPath(requester, sx, sy, tx, ty, reusablePath);
+		}
+	}
+
+	@Override
+	public Path findPathToNearest(IPathCalculatable requester, short sx, short sy, IPathTargetFilter targetFilter, Path reusablePath) {
+		return fallbackAStar.findPathToNearest(requester, sx, sy, targetFilter, reusablePath); // the abstract graph doesn't help to find close targets
+	}
+
+	@Override
+	public Path findPathTowards(IPathCalculatable requester, short sx, short sy, short tx, short ty, IPathTargetFilter targetFilter,
+			Path reusablePath) {
+		return fallbackAStar.findPathTowards(requester, sx, sy, tx, ty, targetFilter, reusablePath);
+	}
+
+	@Override
+	public void blockingChangedAt(int x, int y) {
+		for (AbstractionGraph graph : graphs) {
+			if (graph != null) {
+				graph.invalidate(x, y);
+			}
+		}
+	}
+
+	private AbstractionGraph getGraph(IPathCalculatable requester) {
+		int graphIdx = requester.needsPlayersGround() ? 1 + requester.getPlayerId() : 0;
+		AbstractionGraph graph = graphs[graphIdx];
+
+		if (graph == null) {
+			graph = new AbstractionGraph(map, new GraphRequester(requester.getPlayerId(), requester.needsPlayersGround()), width, height, clusterSize);
+			graphs[graphIdx] = graph;
+		}
+		return graph;
+	}
+
+	private Path findAbstractPath(AbstractionGraph graph, IPathCalculatable requester, int sx, int sy, int tx, int ty, Path reusablePath) {
+		final int startCluster = graph.getCluster(sx, sy);
+		final int targetCluster = graph.getCluster(tx, ty);
+		if (startCluster == targetCluster) {
+			return null;
+		}
+
+		// connect the target to the nodes of its cluster
+		graph.ensureUpToDate(targetCluster);
+		final int[] targetNodes = graph.getNodes(targetCluster);
+		searchInCluster(graph, requester, targetCluster, tx, ty, -1, -1);
+		if (targetCosts.length < targetNodes.length) {
+			targetCosts = new float[targetNodes.length];
+		}
+		boolean targetConnected = false;
+		for (int i = 0; i < targetNodes.length; i++) {
+			targetCosts[i] = clusterSearch.getCosts(targetNodes[i] % width, targetNodes[i] / width);
+			targetConnected |= targetCosts[i] != ClusterSearch.UNREACHABLE;
+		}
+		if (!targetConnected) {
+			return null;
+		}
+
+		// connect the start to the nodes of its cluster
+		generation++;
+		open.clear();
+
+		graph.ensureUpToDate(startCluster);
+		searchInCluster(graph, requester, startCluster, sx, sy, -1, -1);
+		for (int startNode : graph.getNodes(startCluster)) {
+			float costs = clusterSearch.getCosts(startNode % width, startNode / width);
+			if (costs != ClusterSearch.UNREACHABLE) {
+				openNode(startNode, costs, START_PARENT, tx, ty);
+			}
+		}
+
+		// search the abstract graph
+		float bestCosts = ClusterSearch.UNREACHABLE;
+		int bestNode = -1;
+
+		while (!open.isEmpty() && open.getMinRank() < bestCosts) {
+			final int node = open.deleteMin();
+			if (closedGeneration[node] == generation) {
+				continue; // outdated entry of the heap
+			}
+			closedGeneration[node] = generation;
+			map.markAsClosed(node % width, node / width);
+
+			final int cluster = graph.getClusterOfIdx(node);
+			graph.ensureUpToDate(cluster);
+			final int[] nodes = graph.getNodes(cluster);
+			final int nodeIdx = AbstractionGraph.indexOf(nodes, node);
+			final float currCosts = nodeCosts[node];
+
+			if (cluster == targetCluster && targetCosts[nodeIdx] != ClusterSearch.UNREACHABLE && currCosts + targetCosts[nodeIdx] < bestCosts) {
+				bestCosts = currCosts + targetCosts[nodeIdx];
+				bestNode = node;
+			}
+
+			final float[] costs = graph.getCostsFrom(cluster, nodeIdx, clusterSearch);
+			for (int i = 0; i < nodes.length; i++) {
+				float edgeCosts = costs[nodeIdx * nodes.length + i];
+				if (i != nodeIdx && edgeCosts != ClusterSearch.UNREACHABLE) {
+					relaxNode(nodes[i], currCosts + edgeCosts, node, tx, ty);
+				}
+			}
+
+			final int[] transitions = graph.getTransitions(cluster);
+			for (int i = 0; i < transitions.length; i += 2) {
+				if (transitions[i] == nodeIdx) {
+					int neighbor = transitions[i + 1];
+					relaxNode(neighbor, currCosts + map.getCost(node % width, node / width, neighbor % width, neighbor / width), node, tx, ty);
+				}
+			}
+		}
+
+		if (bestNode < 0) {
+			return null;
+		}
+
+		return refinePath(graph, requester, sx, sy, tx, ty, bestNode, reusablePath);
+	}
+
+	private void openNode(int node, float costs, int parent, int tx, int ty) {
+		nodeGeneration[node] = generation;
+		nodeCosts[node] = costs;
+		nodeParents[node] = parent;
+		open.insert(node, costs + getHeuristicCosts(node, tx, ty) * HEURISTIC_TIE_BREAKING_FACTOR);
+	}
+
+	private void relaxNode(int node, float costs, int parent, int tx, int ty) {
+		if (nodeGeneration[node] != generation || (closedGeneration[node] != generation && costs < nodeCosts[node])) {
+			openNode(node, costs, parent, tx, ty);
+		}
+	}
+
+	private Path refinePath(AbstractionGraph graph, IPathCalculatable requester, int sx, int sy, int tx, int ty, int lastNode, Path reusablePath) {
+		int numberOfNodes = 0;
+		for (int node = lastNode; node != START_PARENT; node = nodeParents[node]) {
+			numberOfNodes++;
+		}
+		int[] abstractPath = new int[numberOfNodes];
+		for (int node = lastNode; node != START_PARENT; node = nodeParents[node]) {
+			abstractPath[--numberOfNodes] = node;
+		}
+
+		pathBuffer.clear();
+
+		int currX = sx;
+		int currY = sy;
+		for (int node : abstractPath) {
+			int nodeX = node % width;
+			int nodeY = node / width;
+
+			int currCluster = graph.getCluster(currX, currY);
+			if (currCluster != graph.getCluster(nodeX, nodeY)) {
+				pathBuffer.add(node); // nodes of different clusters are connected by a single step
+			} else if (currX != nodeX || currY != nodeY) {
+				searchInCluster(graph, requester, currCluster, currX, currY, nodeX, nodeY);
+				clusterSearch.appendPathTo(nodeX, nodeY, pathBuffer, width);
+			}
+
+			currX = nodeX;
+			currY = nodeY;
+		}
+
+		if (currX != tx || currY != ty) {
+			searchInCluster(graph, requester, graph.getCluster(tx, ty), currX, currY, tx, ty);
+			clusterSearch.appendPathTo(tx, ty, pathBuffer, width);
+		}
+
+		return pathBuffer.toPath(width, reusablePath);
+	}
+
+	private void searchInCluster(AbstractionGraph graph, IPathCalculatable requester, int cluster, int sx, int sy, int tx, int ty) {
+		clusterSearch.search(requester, graph.getMinX(cluster), graph.getMinY(cluster), graph.getMaxXOfCluster(cluster),
+				graph.getMaxYOfCluster(cluster), sx, sy, tx, ty, true);
+	}
+
+	private int getHeuristicCosts(int node, int tx, int ty) {
+		return ShortPoint2D.getOnGridDist(tx - node % width, ty - node / width);
+	}
+
+	private boolean isInBounds(int x, int y) {
+		return 0 <= x && x < width && 0 <= y && y < height;
+	}
+
+	/**
+	 * Requester used to check the blocking while building an {@link AbstractionGraph}. It represents all requesters with the same player and
+	 * the same need of the player's ground.
+	 */
+	private static final class GraphRequester implements IPathCalculatable {
+		private static final long serialVersionUID = -2462381014565178322L;
+
+		private final byte playerId;
+		private final boolean needsPlayersGround;
+
+		GraphRequester(byte playerId, boolean needsPlayersGround) {
+			this.playerId = playerId;
+			this.needsPlayersGround = needsPlayersGround;
+		}
+
+		@Override
+		public ShortPoint2D getPos() {
+			return null;
+		}
+
+		@Override
+		public byte getPlayerId() {
+			return playerId;
+		}
+
+		@Override
+		public boolean needsPlayersGround() {
+			return needsPlayersGround;
+		}
+	}
+}
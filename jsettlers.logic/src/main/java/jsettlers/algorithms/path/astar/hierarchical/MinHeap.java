@@ -0,0 +1,108 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.algorithms.path.astar.hierarchical;
+
+/**
+ * A simple binary min heap of int elements ranked by float priorities.
+ * <p />
+ * Decreasing the priority of an element is not supported. Instead, the element is inserted again and the caller has to skip outdated entries
+ * when they are removed.
+ *
+ * @author agent
+ *
+ */
+final class MinHeap {
+	private float[] ranks;
+	private int[] elements;
+	private int size = 0;
+
+	MinHeap(int initialCapacity) {
+		this.ranks = new float[initialCapacity];
+		this.elements = new int[initialCapacity];
+	}
+
+	void insert(int element, float rank) {
+		if (size >= elements.length) {
+			int newLength = elements.length * 2;
+			float[] newRanks = new float[newLength];
+			int[] newElements = new int[newLength];
+			System.arraycopy(ranks, 0, newRanks, 0, size);
+			System.arraycopy(elements, 0, newElements, 0, size);
+			ranks = newRanks;
+			elements = newElements;
+		}
+
+		int idx = size++;
+		while (idx > 0) {
+			int parent = (idx - 1) / 2;
+			if (ranks[parent] <= rank) {
+				break;
+			}
+			ranks[idx] = ranks[parent];
+			elements[idx] = elements[parent];
+			idx = parent;
+		}
+		ranks[idx] = rank;
+		elements[idx] = element;
+	}
+
+	/**
+	 * @return The rank of the minimum element. The heap must not be empty.
+	 */
+	float getMinRank() {
+		return ranks[0];
+	}
+
+	/**
+	 * Removes the minimum element. The heap must not be empty.
+	 *
+	 * @return The removed element.
+	 */
+	int deleteMin() {
+		int result = elements[0];
+		size--;
+
+		float rank = ranks[size];
+		int element = elements[size];
+		int idx = 0;
+		while (true) {
+			int child = 2 * idx + 1;
+			if (child >= size) {
+				break;
+			}
+			if (child + 1 < size && ranks[child + 1] < ranks[child]) {
+				child++;
+			}
+			if (rank <= ranks[child]) {
+				break;
+			}
+			ranks[idx] = ranks[child];
+			elements[idx] = elements[child];
+			idx = child;
+		}
+		ranks[idx] = rank;
+		elements[idx] = element;
+
+		return result;
+	}
+
+	boolean isEmpty() {
+		return size == 0;
+	}
+
+	void clear() {
+		size = 0;
+	}
+}
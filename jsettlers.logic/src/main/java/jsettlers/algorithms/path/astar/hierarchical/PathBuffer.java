@@ -0,0 +1,66 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.algorithms.path.astar.hierarchical;
+
+import jsettlers.algorithms.path.Path;
+
+/**
+ * Growable buffer of flat position indexes used to assemble a {@link Path} out of several path segments.
+ *
+ * @author agent
+ *
+ */
+final class PathBuffer {
+	private int[] positions = new int[256];
+	private int length = 0;
+
+	void clear() {
+		length = 0;
+	}
+
+	void add(int flatIdx) {
+		set(extend(1), flatIdx);
+	}
+
+	/**
+	 * Extends the buffer by the given number of elements.
+	 *
+	 * @return The index of the first new element.
+	 */
+	int extend(int additionalLength) {
+		int newLength = length + additionalLength;
+		if (newLength > positions.length) {
+			int[] newPositions = new int[Math.max(newLength, positions.length * 2)];
+			System.arraycopy(positions, 0, newPositions, 0, length);
+			positions = newPositions;
+		}
+
+		int firstNewIdx = length;
+		length = newLength;
+		return firstNewIdx;
+	}
+
+	void set(int idx, int flatIdx) {
+		positions[idx] = flatIdx;
+	}
+
+	Path toPath(int width, Path reusablePath) {
+		Path path = Path.reuseOrCreate(reusablePath, length);
+		for (int i = 0; i < length; i++) {
+			path.insertAt(i, (short) (positions[i] % width), (short) (positions[i] / width));
+		}
+		return path;
+	}
+}
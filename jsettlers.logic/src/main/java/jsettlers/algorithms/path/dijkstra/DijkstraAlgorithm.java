@@ -22,12 +22,20 @@ import jsettlers.algorithms.path.IPathCalculatable;
 import jsettlers.algorithms.path.InvalidStartPositionException;
 import jsettlers.algorithms.path.Path;
 import jsettlers.algorithms.path.astar.AbstractAStar;
+import jsettlers.algorithms.path.astar.IPathTargetFilter;
 import jsettlers.common.map.shapes.MapCircle;
 import jsettlers.common.material.ESearchType;
 import jsettlers.common.position.ShortPoint2D;
 
 /**
- * this class implements a strict dijkstra algorithm
+ * This class searches the nearest positions fitting an {@link ESearchType} and calculates the paths to them.
+ * <p>
+ * By default, the positions are checked in rings around the search center and a path is calculated to every fitting position until a
+ * path has been found. With the single pass search, the rings are only scanned until a position fitting the search type has been found
+ * that may be reachable. Then, a single A* search from the requester towards this candidate ends at the first reached position fitting the
+ * search type. If the candidate can't be reached, e.g. because it's walled in, the same search continues with the other fitting positions
+ * instead of calculating a path to each of them. The search only expands positions inside of the search radius (or closer to the center than
+ * the requester, if the requester is outside of it), so targets only reachable by leaving that area are not found.
  * 
  * @author Andreas Eberle
  * 
@@ -40,16 +48,38 @@ public final class DijkstraAlgorithm {
 	private final IDijkstraPathMap map;
 	private final short height, width;
 	private final AbstractAStar aStar;
+	private final boolean singlePassSearch;
 
 	public DijkstraAlgorithm(IDijkstraPathMap map, AbstractAStar aStar, short width, short height) {
+		this(map, aStar, width, height, false);
+	}
+
+	/**
+	 * @param singlePassSearch
+	 *            if true, the single pass search is used (see {@link DijkstraAlgorithm}).
+	 */
+	public DijkstraAlgorithm(IDijkstraPathMap map, AbstractAStar aStar, short width, short height, boolean singlePassSearch) {
 		this.map = map;
 		this.aStar = aStar;
 		this.width = width;
 		this.height = height;
+		this.singlePassSearch = singlePassSearch;
 	}
 
 	public final Path find(final IPathCalculatable requester, final short cX, final short cY, final short minRadius, final short maxRadius,
 			final ESearchType type) {
+		return find(requester, cX, cY, minRadius, maxRadius, type, null);
+	}
+
+	/**
+	 * Searches the nearest position fitting the given search type and calculates the path to it.
+	 * 
+	 * @param reusablePath
+	 *            A path that is not used anymore or null. Its arrays are reused for the result if possible.
+	 * @return The path to the found position or null if no position has been found.
+	 */
+	public final Path find(final IPathCalculatable requester, final short cX, final short cY, final short minRadius, final short maxRadius,
+			final ESearchType type, Path reusablePath) {
 		if (!isInBounds(cX, cY)) {
 			throw new InvalidStartPositionException("dijkstra center position is not in bounds!", cX, cY);
 		}
@@ -58,9 +88,15 @@ public final class DijkstraAlgorithm {
 		if (minRadius <= 0) {
 			map.setDijkstraSearched(cX, cY);
 			if (map.fitsSearchType(cX, cY, type, requester)) {
-				Path path = findPathTo(requester, cX, cY);
-				if (path != null)
-					return path;
+				if (singlePassSearch) {
+					if (isPossibleTarget(requester, cX, cY)) {
+						return findTargetTowards(requester, cX, cY, cX, cY, minRadius, maxRadius, type, reusablePath);
+					}
+				} else {
+					Path path = findPathTo(requester, cX, cY, reusablePath);
+					if (path != null)
+						return path;
+				}
 			}
 		}
 
@@ -75,9 +111,15 @@ public final class DijkstraAlgorithm {
 					if (isInBounds(x, y)) {
 						map.setDijkstraSearched(x, y);
 						if (map.fitsSearchType(x, y, type, requester)) {
-							Path path = findPathTo(requester, x, y);
-							if (path != null)
-								return path;
+							if (singlePassSearch) {
+								if (isPossibleTarget(requester, x, y)) {
+									return findTargetTowards(requester, x, y, cX, cY, minRadius, maxRadius, type, reusablePath);
+								}
+							} else {
+								Path path = findPathTo(requester, x, y, reusablePath);
+								if (path != null)
+									return path;
+							}
 						}
 					}
 				}
@@ -87,9 +129,57 @@ public final class DijkstraAlgorithm {
 		return null;
 	}
 
-	private final Path findPathTo(IPathCalculatable requester, short tx, short ty) {
+	private final Path findPathTo(IPathCalculatable requester, short tx, short ty, Path reusablePath) {
+		ShortPoint2D pos = requester.getPos();
+		return aStar.findPath(requester, pos.x, pos.y, tx, ty, reusablePath);
+	}
+
+	/**
+	 * Checks if a path from the requester to the given position can exist without calculating it.
+	 */
+	private boolean isPossibleTarget(IPathCalculatable requester, short x, short y) {
 		ShortPoint2D pos = requester.getPos();
-		return aStar.findPath(requester, pos.x, pos.y, tx, ty);
+		return (pos.x != x || pos.y != y) && !map.isBlocked(requester, x, y) && map.getBlockedPartition(pos.x, pos.y) == map.getBlockedPartition(x, y);
+	}
+
+	/**
+	 * Searches a path from the requester towards the given candidate position. The first position on the way fitting the search is used, so
+	 * if the candidate can't be reached, the search continues with the other positions in the search area.
+	 */
+	private Path findTargetTowards(final IPathCalculatable requester, short candidateX, short candidateY, final short cX, final short cY,
+			final short minRadius, final short maxRadius, final ESearchType type, Path reusablePath) {
+		ShortPoint2D pos = requester.getPos();
+		final int requesterRadius = ShortPoint2D.getOnGridDist(pos.x - cX, pos.y - cY);
+		return aStar.findPathTowards(requester, pos.x, pos.y, candidateX, candidateY, new IPathTargetFilter() {
+			@Override
+			public boolean isTarget(int x, int y) {
+				int radius = ShortPoint2D.getOnGridDist(x - cX, y - cY);
+				return minRadius <= radius && radius < maxRadius && map.fitsSearchType(x, y, type, requester);
+			}
+
+			@Override
+			public boolean isInSearchArea(int x, int y) {
+				int radius = ShortPoint2D.getOnGridDist(x - cX, y - cY);
+				return radius < maxRadius || radius <= requesterRadius;
+			}
+		}, reusablePath);
+	}
+
+	private Path findTargetTowards(final DijkstraContinuableRequest request, short candidateX, short candidateY, final MapCircle circle) {
+		ShortPoint2D pos = request.requester.getPos();
+		final int requesterRadius = ShortPoint2D.getOnGridDist(pos.x - request.cX, pos.y - request.cY);
+		return aStar.findPathTowards(request.requester, pos.x, pos.y, candidateX, candidateY, new IPathTargetFilter() {
+			@Override
+			public boolean isTarget(int x, int y) {
+				return circle.contains(x, y) && ShortPoint2D.getOnGridDist(x - request.cX, y - request.cY) >= request.minRadius
+						&& map.fitsSearchType(x, y, request.searchTypes, request.requester);
+			}
+
+			@Override
+			public boolean isInSearchArea(int x, int y) {
+				return circle.contains(x, y) || ShortPoint2D.getOnGridDist(x - request.cX, y - request.cY) <= requesterRadius;
+			}
+		}, null);
 	}
 
 	private final boolean isInBounds(short x, short y) {
@@ -148,6 +238,7 @@ public final class DijkstraAlgorithm {
 
 		short radiusSteps = request.getRadiusSteps();
 		short radius = 1;
+		boolean searchedArea = false;
 
 		for (short deltaRadius = 0; deltaRadius < radiusSteps; deltaRadius++) {
 			radius = (short) ((deltaRadius + request.radius) % request.maxRadius + request.minRadius);
@@ -162,10 +253,21 @@ public final class DijkstraAlgorithm {
 					if (circle.contains(x, y) && isInBounds(x, y)) {
 						map.setDijkstraSearched(x, y);
 						if (map.fitsSearchType(x, y, request.searchTypes, request.requester)) {
-							Path path = findPathTo(request.requester, x, y);
-							if (path != null) {
-								request.setRadius(radius);
-								return path;
+							if (singlePassSearch) {
+								if (!searchedArea && isPossibleTarget(request.requester, x, y)) {
+									searchedArea = true; // if nothing is found, no target in the circle can be reached
+									Path path = findTargetTowards(request, x, y, circle);
+									if (path != null) {
+										request.setRadius(radius);
+										return path;
+									}
+								}
+							} else {
+								Path path = findPathTo(request.requester, x, y, null);
+								if (path != null) {
+									request.setRadius(radius);
+									return path;
+								}
 							}
 						}
 					}
@@ -27,4 +27,8 @@ public interface IDijkstraPathMap {
 
 	void setDijkstraSearched(int x, int y);
 
+	boolean isBlocked(IPathCalculatable requester, int x, int y);
+
+	short getBlockedPartition(int x, int y);
+
 }
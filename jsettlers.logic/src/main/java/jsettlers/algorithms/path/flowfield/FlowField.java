@@ -0,0 +1,178 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.algorithms.path.flowfield;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+import jsettlers.algorithms.path.Path;
+import jsettlers.common.movable.EDirection;
+import jsettlers.common.position.ShortPoint2D;
+
+/**
+ * A shortest path tree towards a target position. Every position of the field knows the direction of its next step towards the target, so the
+ * paths of many movables walking to (nearly) the same target can be taken from one field instead of calculating a path for every movable.
+ * <p />
+ * A field is calculated by the {@link FlowFieldCalculator} and gets invalid as soon as the blocking of one of its positions changes. Fields are
+ * saved with the movables that still have to start walking with them.
+ *
+ * @author agent
+ *
+ */
+public final class FlowField implements Serializable {
+	private static final long serialVersionUID = -3391786424592437217L;
+
+	static final byte NOT_IN_FIELD = -1;
+	static final byte TARGET = EDirection.NUMBER_OF_DIRECTIONS;
+
+	private final short targetX;
+	private final short targetY;
+
+	private final int minX;
+	private final int minY;
+	private final int width;
+	private final int height;
+
+	private final byte[] directions;
+	private final int[] depths;
+
+	private boolean valid = true;
+
+	FlowField(short targetX, short targetY, int minX, int minY, int width, int height) {
+		this.targetX = targetX;
+		this.targetY = targetY;
+		this.minX = minX;
+		this.minY = minY;
+		this.width = width;
+		this.height = height;
+		this.directions = new byte[width * height];
+		this.depths = new int[width * height];
+		Arrays.fill(directions, NOT_IN_FIELD);
+	}
+
+	void set(int x, int y, byte direction, int depth) {
+		int idx = getIdx(x, y);
+		directions[idx] = direction;
+		depths[idx] = depth;
+	}
+
+	void invalidate() {
+		valid = false;
+	}
+
+	public boolean isValid() {
+		return valid;
+	}
+
+	public short getTargetX() {
+		return targetX;
+	}
+
+	public short getTargetY() {
+		return targetY;
+	}
+
+	/**
+	 * @return true if the given position is part of the field, e.g. a path to the target is known.
+	 */
+	public boolean contains(int x, int y) {
+		return minX <= x && x < minX + width && minY <= y && y < minY + height && directions[getIdx(x, y)] != NOT_IN_FIELD;
+	}
+
+	/**
+	 * @return The number of steps from the given position to the target of the field.
+	 */
+	public int getDistance(int x, int y) {
+		return depths[getIdx(x, y)];
+	}
+
+	/**
+	 * Creates a path from the start to the target position by following the field from both positions until the paths meet. If the target
+	 * position is the target of the field, the path is a shortest path. For targets close to the field's target it is nearly as short.
+	 *
+	 * @param start
+	 *            The start position.
+	 * @param target
+	 *            The target position.
+	 * @param reusablePath
+	 *            A path that is not used anymore or null. Its arrays are reused for the result if possible. It is not touched if null is
+	 *            returned.
+	 * @return The path or null if the field is invalid or doesn't contain the start or the target.
+	 */
+	public Path createPath(ShortPoint2D start, ShortPoint2D target, Path reusablePath) {
+		if (!valid || !contains(start.x, start.y) || !contains(target.x, target.y) || start.equals(target)) {
+			return null;
+		}
+
+		// find the position where the paths of start and target to the field's target meet
+		int startIdx = getIdx(start.x, start.y);
+		int targetIdx = getIdx(target.x, target.y);
+		int meetingIdx1 = startIdx;
+		int meetingIdx2 = targetIdx;
+		while (depths[meetingIdx1] > depths[meetingIdx2]) {
+			meetingIdx1 = getNextIdx(meetingIdx1);
+		}
+		while (depths[meetingIdx2] > depths[meetingIdx1]) {
+			meetingIdx2 = getNextIdx(meetingIdx2);
+		}
+		while (meetingIdx1 != meetingIdx2) {
+			meetingIdx1 = getNextIdx(meetingIdx1);
+			meetingIdx2 = getNextIdx(meetingIdx2);
+		}
+
+		int meetingDepth = depths[meetingIdx1];
+		int startSteps = depths[startIdx] - meetingDepth;
+		int pathLength = startSteps + depths[targetIdx] - meetingDepth;
+		Path path = Path.reuseOrCreate(reusablePath, pathLength);
+
+		int idx = startIdx;
+		for (int i = 0; i < startSteps; i++) { // walk down the field to the meeting position
+			idx = getNextIdx(idx);
+			path.insertAt(i, getX(idx), getY(idx));
+		}
+
+		idx = targetIdx;
+		for (int i = pathLength - 1; i >= startSteps; i--) { // walk up the field from the target back to the meeting position
+			path.insertAt(i, getX(idx), getY(idx));
+			idx = getNextIdx(idx);
+		}
+
+		return path;
+	}
+
+	/**
+	 * @return The number of positions covered by the bounds of this field.
+	 */
+	public int getArea() {
+		return width * height;
+	}
+
+	private int getNextIdx(int idx) {
+		EDirection direction = EDirection.VALUES[directions[idx]];
+		return idx + direction.gridDeltaX + direction.gridDeltaY * width;
+	}
+
+	private int getIdx(int x, int y) {
+		return (y - minY) * width + x - minX;
+	}
+
+	private short getX(int idx) {
+		return (short) (idx % width + minX);
+	}
+
+	private short getY(int idx) {
+		return (short) (idx / width + minY);
+	}
+}
@@ -0,0 +1,246 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.algorithms.path.flowfield;
+
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+
+import jsettlers.algorithms.path.IPathCalculatable;
+import jsettlers.algorithms.path.astar.IAStarPathMap;
+import jsettlers.algorithms.path.astar.queues.bucket.AbstractBucketQueue;
+import jsettlers.algorithms.path.astar.queues.bucket.ListMinBucketQueue;
+import jsettlers.common.movable.EDirection;
+import jsettlers.common.position.ShortPoint2D;
+
+/**
+ * Calculates {@link FlowField}s with a reverse dijkstra search from the target. The search stops as soon as all given start positions have been
+ * reached, so it only covers the area between the target and the movables that want to go there.
+ * <p />
+ * The calculator keeps track of the last {@value #MAX_ACTIVE_FLOW_FIELDS} fields and invalidates them when the blocking of one of their
+ * positions changes. Older fields are invalidated when they are dropped.
+ *
+ * @author agent
+ *
+ */
+public final class FlowFieldCalculator {
+	public static final int MAX_ACTIVE_FLOW_FIELDS = 16;
+
+	private static final byte[] xDeltaArray = EDirection.getXDeltaArray();
+	private static final byte[] yDeltaArray = EDirection.getYDeltaArray();
+
+	private final IAStarPathMap map;
+	private final short width;
+	private final short height;
+
+	private final BitSet openBitSet;
+	private final BitSet closedBitSet;
+	private final BitSet startBitSet;
+	private final float[] costs;
+	private final int[] depths;
+	private final byte[] directions;
+	private final AbstractBucketQueue open;
+
+	private final ArrayDeque<FlowField> activeFlowFields;
+
+	public FlowFieldCalculator(IAStarPathMap map, short width, short height) {
+		this(map, width, height, new ArrayDeque<FlowField>());
+	}
+
+	/**
+	 * @param activeFlowFields
+	 *            The tracked fields. They are part of the game state, as they decide which fields get invalid, and are therefore owned by the
+	 *            caller.
+	 */
+	public FlowFieldCalculator(IAStarPathMap map, short width, short height, ArrayDeque<FlowField> activeFlowFields) {
+		this.map = map;
+		this.activeFlowFields = activeFlowFields;
+		this.width = width;
+		this.height = height;
+
+		this.openBitSet = new BitSet(width * height);
+		this.closedBitSet = new BitSet(width * height);
+		this.startBitSet = new BitSet(width * height);
+		this.costs = new float[width * height];
+		this.depths = new int[width * height];
+		this.directions = new byte[width * height];
+		this.open = new ListMinBucketQueue(width * height);
+	}
+
+	/**
+	 * Calculates a flow field towards the given target that covers at least all given start positions that can reach the target.
+	 *
+	 * @param requester
+	 *            The requester deciding which positions are blocked. All movables using the field must have the same blocking.
+	 * @param tx
+	 *            x coordinate of the target.
+	 * @param ty
+	 *            y coordinate of the target.
+	 * @param startPositions
+	 *            The positions of the movables that want to go to the target.
+	 * @return The flow field or null if the target is blocked or out of bounds or none of the start positions can reach it.
+	 */
+	public FlowField calculate(IPathCalculatable requester, short tx, short ty, List<ShortPoint2D> startPositions) {
+		if (!isInBounds(tx, ty) || map.isBlocked(requester, tx, ty)) {
+			return null;
+		}
+
+		short targetPartition = map.getBlockedPartition(tx, ty);
+		startBitSet.clear();
+		int remainingStarts = 0;
+		for (ShortPoint2D start : startPositions) {
+			if (isInBounds(start.x, start.y) && map.getBlockedPartition(start.x, start.y) == targetPartition
+					&& !map.isBlocked(requester, start.x, start.y) && !startBitSet.get(getFlatIdx(start.x, start.y))) {
+				startBitSet.set(getFlatIdx(start.x, start.y));
+				remainingStarts++;
+			}
+		}
+		if (remainingStarts == 0) {
+			return null;
+		}
+
+		openBitSet.clear();
+		closedBitSet.clear();
+		open.clear();
+
+		int targetFlatIdx = getFlatIdx(tx, ty);
+		costs[targetFlatIdx] = 0;
+		depths[targetFlatIdx] = 0;
+		directions[targetFlatIdx] = FlowField.TARGET;
+		openBitSet.set(targetFlatIdx);
+		open.insert(targetFlatIdx, 0);
+
+		int minX = tx, maxX = tx, minY = ty, maxY = ty;
+
+		while (!open.isEmpty()) {
+			int currFlatIdx = open.deleteMin();
+			int x = getX(currFlatIdx);
+			int y = getY(currFlatIdx);
+			closedBitSet.set(currFlatIdx);
+
+			minX = Math.min(minX, x);
+			maxX = Math.max(maxX, x);
+			minY = Math.min(minY, y);
+			maxY = Math.max(maxY, y);
+
+			if (startBitSet.get(currFlatIdx) && --remainingStarts <= 0) {
+				break;
+			}
+
+			float currCosts = costs[currFlatIdx];
+			int neighborDepth = depths[currFlatIdx] + 1;
+
+			for (int i = 0; i < EDirection.NUMBER_OF_DIRECTIONS; i++) {
+				int neighborX = x + xDeltaArray[i];
+				int neighborY = y + yDeltaArray[i];
+
+				if (!isInBounds(neighborX, neighborY) || map.isBlocked(requester, neighborX, neighborY)) {
+					continue;
+				}
+
+				int neighborFlatIdx = getFlatIdx(neighborX, neighborY);
+				if (closedBitSet.get(neighborFlatIdx)) {
+					continue;
+				}
+
+				float newCosts = currCosts + map.getCost(neighborX, neighborY, x, y); // the movables walk from the neighbor to this position
+				byte directionToCurr = EDirection.VALUES[i].getInverseDirection().ordinal;
+
+				if (openBitSet.get(neighborFlatIdx)) {
+					float oldCosts = costs[neighborFlatIdx];
+					if (newCosts < oldCosts) {
+						costs[neighborFlatIdx] = newCosts;
+						depths[neighborFlatIdx] = neighborDepth;
+						directions[neighborFlatIdx] = directionToCurr;
+						open.increasedPriority(neighborFlatIdx, oldCosts, newCosts);
+					}
+				} else {
+					costs[neighborFlatIdx] = newCosts;
+					depths[neighborFlatIdx] = neighborDepth;
+					directions[neighborFlatIdx] = directionToCurr;
+					openBitSet.set(neighborFlatIdx);
+					open.insert(neighborFlatIdx, newCosts);
+				}
+			}
+		}
+
+		FlowField flowField = createFlowField(tx, ty, minX, minY, maxX, maxY);
+		addActiveFlowField(flowField);
+		return flowField;
+	}
+
+	private FlowField createFlowField(short tx, short ty, int minX, int minY, int maxX, int maxY) {
+		FlowField flowField = new FlowField(tx, ty, minX, minY, maxX - minX + 1, maxY - minY + 1);
+
+		for (int y = minY; y <= maxY; y++) {
+			int flatIdx = getFlatIdx(minX, y);
+			for (int x = minX; x <= maxX; x++, flatIdx++) {
+				if (closedBitSet.get(flatIdx)) {
+					flowField.set(x, y, directions[flatIdx], depths[flatIdx]);
+				}
+			}
+		}
+		return flowField;
+	}
+
+	private void addActiveFlowField(FlowField flowField) {
+		activeFlowFields.addLast(flowField);
+		if (activeFlowFields.size() > MAX_ACTIVE_FLOW_FIELDS) {
+			activeFlowFields.removeFirst().invalidate(); // we can't track it anymore
+		}
+	}
+
+	/**
+	 * Invalidates all fields containing the given position.
+	 *
+	 * @param x
+	 *            x coordinate of the position whose blocking changed.
+	 * @param y
+	 *            y coordinate of the position whose blocking changed.
+	 */
+	public void blockingChangedAt(int x, int y) {
+		for (Iterator<FlowField> iterator = activeFlowFields.iterator(); iterator.hasNext();) {
+			FlowField flowField = iterator.next();
+			if (flowField.contains(x, y)) {
+				flowField.invalidate();
+				iterator.remove();
+			}
+		}
+	}
+
+	/**
+	 * @return The number of fields that are still valid and tracked.
+	 */
+	public int getNumberOfActiveFlowFields() {
+		return activeFlowFields.size();
+	}
+
+	private boolean isInBounds(int x, int y) {
+		return 0 <= x && x < width && 0 <= y && y < height;
+	}
+
+	private int getFlatIdx(int x, int y) {
+		return y * width + x;
+	}
+
+	private int getX(int flatIdx) {
+		return flatIdx % width;
+	}
+
+	private int getY(int flatIdx) {
+		return flatIdx / width;
+	}
+}
@@ -17,11 +17,13 @@ package jsettlers.input;
 import java8.util.Objects;
 import java8.util.Optional;
 import java8.util.stream.Collectors;
+import jsettlers.algorithms.path.flowfield.FlowField;
 import jsettlers.common.buildings.IBuilding;
 import jsettlers.common.map.shapes.HexGridArea;
 import jsettlers.common.menu.UIState;
 import jsettlers.common.position.ShortPoint2D;
 import jsettlers.common.utils.mutables.MutableInt;
+import jsettlers.graphics.messages.SimpleMessage;
 import jsettlers.input.tasks.ChangeTowerSoldiersGuiTask;
 import jsettlers.input.tasks.ChangeTradingRequestGuiTask;
 import jsettlers.input.tasks.ConstructBuildingTask;
@@ -43,6 +45,7 @@ import jsettlers.logic.buildings.Building;
 import jsettlers.logic.buildings.military.OccupyingBuilding;
 import jsettlers.logic.buildings.others.StockBuilding;
 import jsettlers.logic.buildings.trading.TradingBuilding;
+import jsettlers.logic.constants.MatchConstants;
 import jsettlers.logic.movable.Movable;
 import jsettlers.network.client.task.packets.TaskPacket;
 import jsettlers.network.synchronic.timer.ITaskExecutor;
@@ -59,7 +62,6 @@ import static java8.util.stream.StreamSupport.stream;
  *
  */
 public class GuiTaskExecutor implements ITaskExecutor {
-	private static GuiTaskExecutor instance = null;
 	private final IGuiInputGrid grid;
 	private final ITaskExecutorGuiInterface guiInterface;
 	private final byte playerId;
@@ -70,10 +72,6 @@ public class GuiTaskExecutor implements ITaskExecutor {
 		this.playerId = playerId;
 	}
 
-	public static GuiTaskExecutor get() {
-		return instance;
-	}
-
 	@Override
 	public void executeTask(TaskPacket iTask) {
 		if (!(iTask instanceof SimpleGuiTask)) {
@@ -239,28 +237,36 @@ public class GuiTaskExecutor implements ITaskExecutor {
 	}
 
 	private void save() {
-		try {
-			byte numberOfPlayers = grid.getNumberOfPlayers();
-			PlayerState[] playerStates = new PlayerState[numberOfPlayers];
-			for (byte playerId = 0; playerId < numberOfPlayers; playerId++) {
-				// find a tower of the player
-				UIState uiState = null;
-				for (Building building : Building.getAllBuildings()) {
-					if (building.getPlayer().playerId == playerId && building instanceof OccupyingBuilding) {
-						uiState = new UIState(building.getPos());
-						break;
-					}
+		byte numberOfPlayers = grid.getNumberOfPlayers();
+		PlayerState[] playerStates = new PlayerState[numberOfPlayers];
+		for (byte playerId = 0; playerId < numberOfPlayers; playerId++) {
+			// find a tower of the player
+			UIState uiState = null;
+			for (Building building : Building.getAllBuildings()) {
+				if (building.getPlayer().playerId == playerId && building instanceof OccupyingBuilding) {
+					uiState = new UIState(building.getPos());
+					break;
 				}
-
-				playerStates[playerId] = new PlayerState(playerId, uiState);
 			}
-			playerStates[playerId] = new PlayerState(this.playerId, guiInterface.getUIState(), grid.getFogOfWar());
-			grid.save(playerStates);
+
+			playerStates[playerId] = new PlayerState(playerId, uiState);
+		}
+		UIState towerState = playerStates[playerId].getUiState();
+		ShortPoint2D messagePosition = towerState != null ? towerState.getStartPoint() : new ShortPoint2D(0, 0);
+		playerStates[playerId] = new PlayerState(this.playerId, guiInterface.getUIState(), grid.getFogOfWar());
+
+		try {
+			grid.save(playerStates, failure -> showSaveFailedMessage(failure, messagePosition));
 		} catch (IOException | InterruptedException e) {
-			e.printStackTrace();
+			showSaveFailedMessage(e, messagePosition);
 		}
 	}
 
+	private void showSaveFailedMessage(Throwable cause, ShortPoint2D position) {
+		cause.printStackTrace();
+		grid.getPlayer(playerId).showMessage(SimpleMessage.saveFailed(position));
+	}
+
 	private void setBuildingPriority(SetBuildingPriorityGuiTask guiTask) {
 		ShortPoint2D pos = guiTask.getBuildingPosition();
 		Building building = ((Building) grid.getBuildingAt(pos.x, pos.y));
@@ -322,6 +328,8 @@ public class GuiTaskExecutor implements ITaskExecutor {
 			return;
 		}
 
+		final FlowField flowField = MatchConstants.ENABLE_GROUP_FLOW_FIELDS ? calculateFlowField(targetPosition, movables) : null;
+
 		for (int radius = 1, ringsWithoutSuccessCtr = 0; ringsWithoutSuccessCtr <= 5 && !movables.isEmpty(); radius++) {
 			MutableInt numberOfSendMovables = new MutableInt(0);
 
@@ -333,7 +341,7 @@ public class GuiTaskExecutor implements ITaskExecutor {
 						Optional<Movable> movableOptional = removeMovableThatCanMoveTo(movables, x, y);
 
 						movableOptional.ifPresent(movable -> {
-							movable.moveTo(new ShortPoint2D(x, y));
+							movable.moveTo(new ShortPoint2D(x, y), movable.needsPlayersGround() ? null : flowField);
 							numberOfSendMovables.value++;
 						});
 					});
@@ -346,6 +354,19 @@ public class GuiTaskExecutor implements ITaskExecutor {
 		}
 	}
 
+	/**
+	 * Calculates one flow field for all movables that don't need their player's ground, so they don't need to calculate their paths one by one.
+	 */
+	private FlowField calculateFlowField(ShortPoint2D targetPosition, List<Movable> movables) {
+		List<Movable> groupMovables = stream(movables).filter(movable -> !movable.needsPlayersGround()).collect(Collectors.toList());
+		if (groupMovables.size() < 2) {
+			return null;
+		}
+
+		List<ShortPoint2D> startPositions = stream(groupMovables).map(Movable::getPos).collect(Collectors.toList());
+		return grid.calculateFlowField(groupMovables.get(0), targetPosition, startPositions);
+	}
+
 	private Optional<Movable> removeMovableThatCanMoveTo(List<Movable> movables, int x, int y) {
 		for (Iterator<Movable> iterator = movables.iterator(); iterator.hasNext();) {
 			Movable movable = iterator.next();
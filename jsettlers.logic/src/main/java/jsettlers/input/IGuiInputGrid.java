@@ -15,6 +15,8 @@
 package jsettlers.input;
 
 import jsettlers.algorithms.construction.AbstractConstructionMarkableMap;
+import jsettlers.algorithms.path.IPathCalculatable;
+import jsettlers.algorithms.path.flowfield.FlowField;
 import jsettlers.algorithms.fogofwar.FogOfWar;
 import jsettlers.common.buildings.EBuildingType;
 import jsettlers.common.buildings.IBuilding;
@@ -26,6 +28,10 @@ import jsettlers.logic.player.Player;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Future;
+
+import java8.util.function.Consumer;
 
 /**
  * This interface defines the methods needed by the GUI to interact with the grid.
@@ -63,14 +69,18 @@ public interface IGuiInputGrid {
 	ShortPoint2D getConstructablePosition(ShortPoint2D position, EBuildingType type, byte player, boolean useNeighbors);
 
 	/**
-	 * Saves the map with the given {@link UIState}.
+	 * Saves the map with the given {@link UIState}. The state of the game is captured immediately, the savegame file is written in the
+	 * background.
 	 *
 	 * @param playerStates
+	 * @param failureListener
+	 *            Is called on the background thread with the cause if the savegame could not be written. May be null.
+	 * @return A {@link Future} that is done when the savegame has been written.
 	 * @throws FileNotFoundException
 	 * @throws IOException
 	 * @throws InterruptedException
 	 */
-	void save(PlayerState[] playerStates) throws IOException, InterruptedException;
+	Future<?> save(PlayerState[] playerStates, Consumer<Throwable> failureListener) throws IOException, InterruptedException;
 
 	void toggleFogOfWar();
 
@@ -126,6 +136,19 @@ public interface IGuiInputGrid {
 
 	boolean isBlocked(int x, int y);
 
+	/**
+	 * Calculates a {@link FlowField} that can be used by all the given movables to walk to the given target.
+	 *
+	 * @param requester
+	 *            The requester deciding which positions are blocked.
+	 * @param target
+	 *            The target of the movables.
+	 * @param startPositions
+	 *            The positions of the movables.
+	 * @return The flow field or null if the movables can't reach the target.
+	 */
+	FlowField calculateFlowField(IPathCalculatable requester, ShortPoint2D target, List<ShortPoint2D> startPositions);
+
 	Player getPlayer(byte playerId);
 
 	byte getNumberOfPlayers();
@@ -0,0 +1,58 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.input.tasks;
+
+import jsettlers.network.client.task.packets.TaskPacketRegistry;
+
+/**
+ * Registers the gui tasks with their compact type ids at the {@link TaskPacketRegistry}.
+ * <p />
+ * NOTE: The ids are written to replay files. Never change or reuse an id, only append new ones.
+ * 
+ * @author agent
+ * 
+ */
+public final class GuiTaskTypes {
+	private static boolean registered = false;
+
+	private GuiTaskTypes() {
+	}
+
+	public static synchronized void register() {
+		if (registered) {
+			return;
+		}
+
+		TaskPacketRegistry.register(2, SimpleGuiTask.class, SimpleGuiTask::new);
+		TaskPacketRegistry.register(3, SimpleBuildingGuiTask.class, SimpleBuildingGuiTask::new);
+		TaskPacketRegistry.register(4, MovableGuiTask.class, MovableGuiTask::new);
+		TaskPacketRegistry.register(5, MoveToGuiTask.class, MoveToGuiTask::new);
+		TaskPacketRegistry.register(6, ConvertGuiTask.class, ConvertGuiTask::new);
+		TaskPacketRegistry.register(7, ConstructBuildingTask.class, ConstructBuildingTask::new);
+		TaskPacketRegistry.register(8, DestroyBuildingGuiTask.class, DestroyBuildingGuiTask::new);
+		TaskPacketRegistry.register(9, WorkAreaGuiTask.class, WorkAreaGuiTask::new);
+		TaskPacketRegistry.register(10, SetBuildingPriorityGuiTask.class, SetBuildingPriorityGuiTask::new);
+		TaskPacketRegistry.register(11, SetMaterialDistributionSettingsGuiTask.class, SetMaterialDistributionSettingsGuiTask::new);
+		TaskPacketRegistry.register(12, SetMaterialPrioritiesGuiTask.class, SetMaterialPrioritiesGuiTask::new);
+		TaskPacketRegistry.register(13, SetMaterialProductionGuiTask.class, SetMaterialProductionGuiTask::new);
+		TaskPacketRegistry.register(14, SetAcceptedStockMaterialGuiTask.class, SetAcceptedStockMaterialGuiTask::new);
+		TaskPacketRegistry.register(15, UpgradeSoldiersGuiTask.class, UpgradeSoldiersGuiTask::new);
+		TaskPacketRegistry.register(16, ChangeTowerSoldiersGuiTask.class, ChangeTowerSoldiersGuiTask::new);
+		TaskPacketRegistry.register(17, ChangeTradingRequestGuiTask.class, ChangeTradingRequestGuiTask::new);
+		TaskPacketRegistry.register(18, SetTradingWaypointGuiTask.class, SetTradingWaypointGuiTask::new);
+
+		registered = true;
+	}
+}
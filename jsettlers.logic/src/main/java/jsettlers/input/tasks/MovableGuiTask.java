@@ -20,6 +20,8 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
+import jsettlers.network.infrastructure.utils.VarIntUtils;
+
 /**
  * 
  * @author Andreas Eberle
@@ -44,16 +46,18 @@ public class MovableGuiTask extends SimpleGuiTask {
 	protected void serializeTask(DataOutputStream dos) throws IOException {
 		super.serializeTask(dos);
 
-		dos.writeInt(selection.size());
-		for (Integer curr : selection) {
-			dos.writeInt(curr);
-		}
+		VarIntUtils.writeDeltaEncodedIds(dos, selection);
 	}
 
 	@Override
 	protected void deserializeTask(DataInputStream dis) throws IOException {
 		super.deserializeTask(dis);
 
+		if (!isLegacyEncoded()) {
+			selection = VarIntUtils.readDeltaEncodedIds(dis);
+			return;
+		}
+
 		int numberOfElements = dis.readInt();
 		selection = new ArrayList<Integer>(numberOfElements);
 		for (int i = 0; i < numberOfElements; i++) {
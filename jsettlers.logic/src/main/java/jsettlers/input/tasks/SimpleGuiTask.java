@@ -20,6 +20,7 @@ import java.io.IOException;
 
 import jsettlers.common.position.ShortPoint2D;
 import jsettlers.network.client.task.packets.TaskPacket;
+import jsettlers.network.infrastructure.utils.VarIntUtils;
 
 /**
  * 
@@ -27,6 +28,10 @@ import jsettlers.network.client.task.packets.TaskPacket;
  * 
  */
 public class SimpleGuiTask extends TaskPacket {
+	static {
+		GuiTaskTypes.register();
+	}
+
 	private EGuiAction guiAction;
 	private byte playerId;
 
@@ -48,13 +53,13 @@ public class SimpleGuiTask extends TaskPacket {
 
 	@Override
 	protected void serializeTask(DataOutputStream dos) throws IOException {
-		dos.writeInt(guiAction.ordinal());
+		VarIntUtils.writeUnsignedVarInt(dos, guiAction.ordinal());
 		dos.writeByte(playerId);
 	}
 
 	@Override
 	protected void deserializeTask(DataInputStream dis) throws IOException {
-		guiAction = EGuiAction.VALUES[dis.readInt()];
+		guiAction = EGuiAction.VALUES[isLegacyEncoded() ? dis.readInt() : VarIntUtils.readUnsignedVarInt(dis)];
 		playerId = dis.readByte();
 	}
 
@@ -33,4 +33,12 @@ public class SerializationUtils {
 		}
 		return data;
 	}
+
+	/**
+	 * Checks if the stream the given fields have been read from contained the field with the given name. This can be used to support
+	 * older stream formats of a class.
+	 */
+	public static boolean containsField(ObjectInputStream.GetField fields, String name) {
+		return fields.getObjectStreamClass().getField(name) != null;
+	}
 }
@@ -47,6 +47,7 @@ import jsettlers.logic.buildings.workers.MineBuilding;
 import jsettlers.logic.buildings.workers.ResourceBuilding;
 import jsettlers.logic.buildings.workers.WorkerBuilding;
 import jsettlers.logic.constants.Constants;
+import jsettlers.logic.constants.MatchContext;
 import jsettlers.logic.map.grid.objects.AbstractHexMapObject;
 import jsettlers.logic.map.grid.partition.manager.manageables.interfaces.IConstructableBuilding;
 import jsettlers.logic.map.grid.partition.manager.manageables.interfaces.IDiggerRequester;
@@ -78,8 +79,6 @@ public abstract class Building extends AbstractHexMapObject implements IConstruc
 	private static final EPriority[] SUPPORTED_PRIORITIES_FOR_CONSTRUCTION = new EPriority[] { EPriority.LOW, EPriority.HIGH, EPriority.STOPPED };
 	private static final EPriority[] SUPPORTED_PRIORITIES_FOR_NON_WORKERS = new EPriority[0];
 
-	private static final ConcurrentLinkedQueue<Building> allBuildings = new ConcurrentLinkedQueue<Building>();
-
 	protected final EBuildingType type;
 	protected final ShortPoint2D pos;
 	protected final IBuildingsGrid grid;
@@ -102,12 +101,12 @@ public abstract class Building extends AbstractHexMapObject implements IConstruc
 		this.pos = position;
 		this.grid = buildingsGrid;
 
-		allBuildings.add(this);
+		MatchContext.current().getAllBuildings().add(this);
 	}
 
 	private void readObject(ObjectInputStream ois) throws ClassNotFoundException, IOException {
 		ois.defaultReadObject();
-		allBuildings.add(this);
+		MatchContext.current().getAllBuildings().add(this);
 	}
 
 	@Override
@@ -456,7 +455,7 @@ public abstract class Building extends AbstractHexMapObject implements IConstruc
 		}
 
 		releaseRequestStacks();
-		allBuildings.remove(this);
+		MatchContext.current().getAllBuildings().remove(this);
 		this.state = EBuildingState.DESTROYED;
 		this.selected = false;
 	}
@@ -564,11 +563,11 @@ public abstract class Building extends AbstractHexMapObject implements IConstruc
 	}
 
 	public static ConcurrentLinkedQueue<Building> getAllBuildings() {
-		return allBuildings;
+		return MatchContext.current().getAllBuildings();
 	}
 
 	public static void clearState() {
-		allBuildings.clear();
+		MatchContext.current().getAllBuildings().clear();
 	}
 
 	@Override
@@ -17,9 +17,7 @@ package jsettlers.logic.buildings.trading;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.Serializable;
-import java.util.ArrayList;
 import java.util.Iterator;
-import java.util.List;
 
 import jsettlers.common.buildings.EBuildingType;
 import jsettlers.common.material.EMaterialType;
@@ -29,6 +27,7 @@ import jsettlers.common.utils.collections.IPredicate;
 import jsettlers.common.utils.collections.IteratorFilter;
 import jsettlers.logic.buildings.IBuildingsGrid;
 import jsettlers.logic.buildings.stack.IRequestStack;
+import jsettlers.logic.constants.MatchContext;
 import jsettlers.logic.movable.strategies.trading.IDonkeyMarket;
 import jsettlers.logic.player.Player;
 
@@ -40,10 +39,8 @@ import jsettlers.logic.player.Player;
 public class MarketBuilding extends TradingBuilding implements IDonkeyMarket {
 	private static final long serialVersionUID = 4979115926871683024L;
 
-	private static final List<MarketBuilding> ALL_MARKETS = new ArrayList<MarketBuilding>();
-
 	public static Iterable<MarketBuilding> getAllMarkets(final Player player) {
-		return new IteratorFilter<>(ALL_MARKETS, new IPredicate<MarketBuilding>() {
+		return new IteratorFilter<>(MatchContext.current().getAllMarkets(), new IPredicate<MarketBuilding>() {
 			@Override
 			public boolean evaluate(MarketBuilding building) {
 				return building.getPlayer() == player;
@@ -52,23 +49,23 @@ public class MarketBuilding extends TradingBuilding implements IDonkeyMarket {
 	}
 
 	public static void clearState() {
-		ALL_MARKETS.clear();
+		MatchContext.current().getAllMarkets().clear();
 	}
 
 	public MarketBuilding(EBuildingType type, Player player, ShortPoint2D position, IBuildingsGrid buildingsGrid) {
 		super(type, player, position, buildingsGrid, false);
-		ALL_MARKETS.add(this);
+		MatchContext.current().getAllMarkets().add(this);
 	}
 
 	private void readObject(ObjectInputStream ois) throws ClassNotFoundException, IOException {
 		ois.defaultReadObject();
-		ALL_MARKETS.add(this);
+		MatchContext.current().getAllMarkets().add(this);
 	}
 
 	@Override
 	protected void killedEvent() {
 		super.killedEvent();
-		ALL_MARKETS.remove(this);
+		MatchContext.current().getAllMarkets().remove(this);
 	}
 
 	@Override
@@ -23,6 +23,14 @@ package jsettlers.logic.constants;
 public final class Constants {
 
 	public static boolean FOG_OF_WAR_DEFAULT_ENABLED = true;
+	/**
+	 * Default time in milliseconds between two updates of the fog of war.
+	 */
+	public static int FOG_OF_WAR_REFRESH_INTERVAL = 800;
+	/**
+	 * Number of worker threads applying the rules of the KIs. 0 uses one thread per KI, but not more threads than available processors.
+	 */
+	public static int AI_EXECUTOR_THREADS = 0;
 
 	public static final float COMBAT_STRENGTH_OWN_GROUND = 1;
 
@@ -45,51 +45,84 @@ public final class MatchConstants {
 	 */
 	public static boolean ENABLE_DEBUG_COLORS = true;
 
+	/**
+	 * NOTE: this value has only an effect if it's changed before the MainGrid is created or loaded! <br>
+	 * if true, the hierarchical path finder is used for long paths. It finds paths a lot faster on big maps, but the paths are not always the
+	 * shortest ones. Therefore replays recorded with the other path finder can not be replayed with it. <br>
+	 * if false, all paths are calculated with the standard A* algorithm.
+	 */
+	public static boolean ENABLE_HIERARCHICAL_PATHFINDING = false;
+
+	/**
+	 * NOTE: this value has only an effect if it's changed before the MainGrid is created or loaded! <br>
+	 * if true, searches for the nearest position of an ESearchType use a single dijkstra search from the requester instead of a path
+	 * calculation for every fitting position. This finds the position with the shortest path instead of the one closest to the search center.
+	 * Therefore replays recorded with the other search can not be replayed with it. <br>
+	 * if false, a path is calculated to every fitting position until a path has been found.
+	 */
+	public static boolean ENABLE_SINGLE_PASS_DIJKSTRA = false;
+
+	/**
+	 * if true, the paths of movables sent to a position as a group are taken from one flow field calculated from the target instead of a path
+	 * calculation for every movable. The paths are not always the shortest ones. Therefore replays recorded with the other setting can not be
+	 * replayed with it. <br>
+	 * if false, every movable of the group calculates its own path.
+	 */
+	public static boolean ENABLE_GROUP_FLOW_FIELDS = false;
+
+	/**
+	 * if true, the offers of a partition are kept in grids of buckets. The closest offer is found by only looking at the buckets around the
+	 * searched position. Taken offers are removed later than with the linear lists and may be reused by new offers at their positions.
+	 * Therefore replays recorded with the other setting can not be replayed with it. <br>
+	 * if false, the offers are kept in lists that are searched completely.
+	 */
+	public static boolean ENABLE_BUCKETED_OFFER_LISTS = false;
+
 	private MatchConstants() {
 	}
 
-	private static IGameClock clock;
-	private static ExtendedRandom gameRandom;
-	private static ExtendedRandom aiRandom;
-
 	public static void init(IGameClock clock, long randomSeed) {
 		clearState();
-		MatchConstants.clock = clock;
-		MatchConstants.gameRandom = new ExtendedRandom(randomSeed);
-		MatchConstants.aiRandom = new ExtendedRandom(randomSeed);
+		MatchContext context = MatchContext.current();
+		context.clock = clock;
+		context.gameRandom = new ExtendedRandom(randomSeed);
+		context.aiRandom = new ExtendedRandom(randomSeed);
 	}
 
 	public static void clearState() {
-		if (clock != null) {
-			clock.stopExecution();
+		MatchContext context = MatchContext.current();
+		if (context.clock != null) {
+			context.clock.stopExecution();
 		}
-		clock = null;
-		gameRandom = null;
-		aiRandom = null;
+		context.clock = null;
+		context.gameRandom = null;
+		context.aiRandom = null;
 	}
 
 	public static IGameClock clock() {
-		return clock;
+		return MatchContext.current().clock;
 	}
 
 	public static ExtendedRandom random() {
-		return gameRandom;
+		return MatchContext.current().gameRandom;
 	}
 
 	public static ExtendedRandom aiRandom() {
-		return aiRandom;
+		return MatchContext.current().aiRandom;
 	}
 
 	public static void serialize(ObjectOutputStream oos) throws IOException {
-		oos.writeInt(clock.getTime());
-		oos.writeObject(gameRandom);
-		oos.writeObject(aiRandom);
+		MatchContext context = MatchContext.current();
+		oos.writeInt(context.clock.getTime());
+		oos.writeObject(context.gameRandom);
+		oos.writeObject(context.aiRandom);
 	}
 
 	public static void deserialize(ObjectInputStream ois) throws IOException, ClassNotFoundException {
-		clock.setTime(ois.readInt());
-		gameRandom = (ExtendedRandom) ois.readObject();
-		aiRandom = (ExtendedRandom) ois.readObject();
+		MatchContext context = MatchContext.current();
+		context.clock.setTime(ois.readInt());
+		context.gameRandom = (ExtendedRandom) ois.readObject();
+		context.aiRandom = (ExtendedRandom) ois.readObject();
 	}
 
 }
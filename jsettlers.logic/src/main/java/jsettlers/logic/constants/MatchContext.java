@@ -0,0 +1,130 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.logic.constants;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import jsettlers.logic.buildings.Building;
+import jsettlers.logic.buildings.trading.MarketBuilding;
+import jsettlers.logic.movable.Movable;
+import jsettlers.logic.timer.RescheduleTimer;
+import jsettlers.network.client.interfaces.IGameClock;
+
+/**
+ * Holds the state of a single match that is accessed statically by the game logic (clock, randoms, timer and the registries of movables and
+ * buildings).
+ * <p>
+ * As long as no context is bound, all threads share the default context, which is the behavior of a single game per JVM. To run several
+ * matches in one JVM, every match binds its own context to the thread creating the game with {@link #bind(MatchContext)}. All threads started
+ * by that thread (game thread, clock, path finding and ai threads) inherit the context.
+ * 
+ * @author agent
+ * 
+ */
+public final class MatchContext {
+	private static final MatchContext DEFAULT_CONTEXT = new MatchContext();
+	private static final InheritableThreadLocal<MatchContext> BOUND_CONTEXT = new InheritableThreadLocal<MatchContext>();
+	private static volatile boolean contextsBound = false;
+
+	IGameClock clock;
+	ExtendedRandom gameRandom;
+	ExtendedRandom aiRandom;
+
+	private volatile RescheduleTimer rescheduleTimer;
+
+	private final HashMap<Integer, Movable> movablesByID = new HashMap<Integer, Movable>();
+	private final ConcurrentLinkedQueue<Movable> allMovables = new ConcurrentLinkedQueue<Movable>();
+	private int nextMovableID = Integer.MIN_VALUE;
+
+	private final ConcurrentLinkedQueue<Building> allBuildings = new ConcurrentLinkedQueue<Building>();
+	private final List<MarketBuilding> allMarkets = new ArrayList<MarketBuilding>();
+
+	/**
+	 * 
+	 * @return The context bound to the current thread or the default context if none has been bound.
+	 */
+	public static MatchContext current() {
+		if (contextsBound) {
+			MatchContext context = BOUND_CONTEXT.get();
+			if (context != null) {
+				return context;
+			}
+		}
+		return DEFAULT_CONTEXT;
+	}
+
+	/**
+	 * Binds the given context to the current thread and all threads created by it afterwards.
+	 * 
+	 * @param context
+	 */
+	public static void bind(MatchContext context) {
+		contextsBound = true;
+		BOUND_CONTEXT.set(context);
+	}
+
+	/**
+	 * Removes the context bound to the current thread. Threads already created by this thread keep their context.
+	 */
+	public static void unbind() {
+		BOUND_CONTEXT.remove();
+	}
+
+	public RescheduleTimer getRescheduleTimer() {
+		return rescheduleTimer;
+	}
+
+	public void setRescheduleTimer(RescheduleTimer rescheduleTimer) {
+		this.rescheduleTimer = rescheduleTimer;
+	}
+
+	public HashMap<Integer, Movable> getMovablesByID() {
+		return movablesByID;
+	}
+
+	public ConcurrentLinkedQueue<Movable> getAllMovables() {
+		return allMovables;
+	}
+
+	public int createMovableID() {
+		return nextMovableID++;
+	}
+
+	/**
+	 * Ensures that the ids created after the given one have not been used already. Used when movables are deserialized.
+	 * 
+	 * @param usedID
+	 */
+	public void markMovableIDUsed(int usedID) {
+		nextMovableID = Math.max(nextMovableID, usedID + 1);
+	}
+
+	public void clearMovables() {
+		allMovables.clear();
+		movablesByID.clear();
+		nextMovableID = Integer.MIN_VALUE;
+	}
+
+	public ConcurrentLinkedQueue<Building> getAllBuildings() {
+		return allBuildings;
+	}
+
+	public List<MarketBuilding> getAllMarkets() {
+		return allMarkets;
+	}
+}
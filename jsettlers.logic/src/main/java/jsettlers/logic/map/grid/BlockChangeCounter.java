@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.logic.map.grid;
+
+/**
+ * Counts the changes of the map in blocks of {@link #BLOCK_SIZE} x {@link #BLOCK_SIZE} positions.
+ * <p />
+ * Users of data derived from the map can remember the counters of the blocks and compare them later on to only recalculate the blocks that changed
+ * in the meantime. Any number of users can do so, without having to register at the grid.
+ * 
+ * @author agent
+ */
+public final class BlockChangeCounter implements IPositionChangedListener {
+	public static final int BLOCK_SIZE = 8;
+
+	/**
+	 * A change of the player of a position influences data derived from the positions around it, e.g. the border of a player or the stones near a
+	 * player. This radius must cover the largest distance at which such data looks at the player of other positions.
+	 */
+	public static final int PLAYER_CHANGE_RADIUS = 5;
+
+	/**
+	 * A change of the landscape or of the towers enforcing a position influences the borders of the neighbors of the position.
+	 */
+	public static final int NEIGHBORS_RADIUS = 1;
+
+	private final int width;
+	private final int height;
+	private final int blocksWidth;
+	private final int blocksHeight;
+	private final int[] changeCounters;
+
+	public BlockChangeCounter(int width, int height) {
+		this.width = width;
+		this.height = height;
+		this.blocksWidth = (width + BLOCK_SIZE - 1) / BLOCK_SIZE;
+		this.blocksHeight = (height + BLOCK_SIZE - 1) / BLOCK_SIZE;
+		this.changeCounters = new int[blocksWidth * blocksHeight];
+	}
+
+	@Override
+	public void positionChanged(int x, int y) {
+		changeCounters[x / BLOCK_SIZE + y / BLOCK_SIZE * blocksWidth]++;
+	}
+
+	/**
+	 * Marks all blocks touching the square of the given radius around the given position as changed.
+	 * 
+	 * @param x
+	 *            x coordinate of the position.
+	 * @param y
+	 *            y coordinate of the position.
+	 * @param radius
+	 *            The radius around the position that is influenced by the change.
+	 */
+	public void positionChanged(int x, int y, int radius) {
+		int minBlockX = Math.max(0, x - radius) / BLOCK_SIZE;
+		int maxBlockX = Math.min(width - 1, x + radius) / BLOCK_SIZE;
+		int minBlockY = Math.max(0, y - radius) / BLOCK_SIZE;
+		int maxBlockY = Math.min(height - 1, y + radius) / BLOCK_SIZE;
+
+		for (int blockY = minBlockY; blockY <= maxBlockY; blockY++) {
+			for (int blockX = minBlockX; blockX <= maxBlockX; blockX++) {
+				changeCounters[blockX + blockY * blocksWidth]++;
+			}
+		}
+	}
+
+	public int getBlocksWidth() {
+		return blocksWidth;
+	}
+
+	public int getBlocksHeight() {
+		return blocksHeight;
+	}
+
+	/**
+	 * 
+	 * @param blockIndex
+	 *            The index of the block (blockX + blockY * {@link #getBlocksWidth()}).
+	 * @return The number of changes in the given block since the creation of the counter.
+	 */
+	public int getChangeCount(int blockIndex) {
+		return changeCounters[blockIndex];
+	}
+}
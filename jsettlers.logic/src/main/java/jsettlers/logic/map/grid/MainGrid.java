@@ -15,6 +15,7 @@
 package jsettlers.logic.map.grid;
 
 import java8.util.Optional;
+import java8.util.function.Consumer;
 import jsettlers.algorithms.borders.BordersThread;
 import jsettlers.algorithms.borders.IBordersThreadGrid;
 import jsettlers.algorithms.construction.AbstractConstructionMarkableMap;
@@ -30,8 +31,11 @@ import jsettlers.algorithms.path.area.InAreaFinder;
 import jsettlers.algorithms.path.astar.AbstractAStar;
 import jsettlers.algorithms.path.astar.BucketQueueAStar;
 import jsettlers.algorithms.path.astar.IAStarPathMap;
+import jsettlers.algorithms.path.astar.hierarchical.HierarchicalAStar;
 import jsettlers.algorithms.path.dijkstra.DijkstraAlgorithm;
 import jsettlers.algorithms.path.dijkstra.IDijkstraPathMap;
+import jsettlers.algorithms.path.flowfield.FlowField;
+import jsettlers.algorithms.path.flowfield.FlowFieldCalculator;
 import jsettlers.algorithms.previewimage.PreviewImageCreator;
 import jsettlers.common.Color;
 import jsettlers.common.buildings.BuildingAreaBitSet;
@@ -66,6 +70,7 @@ import jsettlers.common.player.IPlayerable;
 import jsettlers.common.position.MutablePoint2D;
 import jsettlers.common.position.RelativePoint;
 import jsettlers.common.position.ShortPoint2D;
+import jsettlers.common.position.ShortPoint2DTable;
 import jsettlers.common.utils.collections.IPredicate;
 import jsettlers.common.utils.coordinates.CoordinateStream;
 import jsettlers.input.IGuiInputGrid;
@@ -112,10 +117,12 @@ import jsettlers.logic.player.PlayerSetting;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.Serializable;
-import java.util.BitSet;
+import java.util.ArrayDeque;
 import java.util.Date;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Future;
 
 /**
  * This is the main grid offering an interface for interacting with the grid.
@@ -146,6 +153,7 @@ public final class MainGrid implements Serializable {
 	transient ConstructionMarksGrid constructionMarksGrid;
 	transient BordersThread bordersThread;
 	transient IGuiInputGrid guiInputGrid;
+	transient BlockChangeCounter blockChangeCounter;
 	private transient IEnclosedBlockedAreaFinderGrid enclosedBlockedAreaFinderGrid;
 
 	public MainGrid(String mapId, String mapName, short width, short height, PlayerSetting[] playerSettings) {
@@ -182,8 +190,17 @@ public final class MainGrid implements Serializable {
 		this.constructionMarksGrid = new ConstructionMarksGrid();
 		this.bordersThread = new BordersThread(new BordersThreadGrid());
 		this.guiInputGrid = new GuiInputGrid();
+		this.blockChangeCounter = new BlockChangeCounter(width, height);
 
+		this.objectsGrid.setFirstObjectChangedListener((x, y) -> graphicsGrid.drawableObjectsChangedAt(x, y));
+		this.movableGrid.setMovableChangedListener((x, y) -> graphicsGrid.drawableObjectsChangedAt(x, y));
 		this.partitionsGrid.setPlayerChangedListener(new PlayerChangedListener());
+		this.partitionsGrid.setPartitionChangedListener(blockChangeCounter);
+		this.landscapeGrid.setPositionChangedListener((x, y) -> blockChangeCounter.positionChanged(x, y, BlockChangeCounter.NEIGHBORS_RADIUS));
+		this.flagsGrid.setBlockingChangedListener((x, y, newBlockingState) -> {
+			movablePathfinderGrid.aStar.blockingChangedAt(x, y);
+			movablePathfinderGrid.flowFieldCalculator.blockingChangedAt(x, y);
+		});
 		this.enclosedBlockedAreaFinderGrid = new EnclosedBlockedAreaFinderGrid();
 	}
 
@@ -443,6 +460,10 @@ public final class MainGrid implements Serializable {
 		return flagsGrid;
 	}
 
+	public BlockChangeCounter getBlockChangeCounter() {
+		return blockChangeCounter;
+	}
+
 	public void initWithPlayerSettings(PlayerSetting[] playerSettings) {
 		partitionsGrid.initWithPlayerSettings(playerSettings);
 	}
@@ -682,7 +703,20 @@ public final class MainGrid implements Serializable {
 	}
 
 	final class GraphicsGrid implements IGraphicsGrid {
-		private transient BitSet bordersGrid = new BitSet(width * height);
+		private final PositionBitmap bordersGrid = new PositionBitmap(width, height);
+		private final PositionBitmap drawableObjectsGrid = new PositionBitmap(width, height); // positions with map objects or movables
+
+		GraphicsGrid() {
+			for (int y = 0; y < height; y++) {
+				for (int x = 0; x < width; x++) {
+					drawableObjectsChangedAt(x, y);
+				}
+			}
+		}
+
+		final void drawableObjectsChangedAt(int x, int y) {
+			drawableObjectsGrid.set(x, y, objectsGrid.getObjectsAt(x, y) != null || movableGrid.getMovableAt(x, y) != null);
+		}
 
 		@Override
 		public final short getHeight() {
@@ -756,7 +790,7 @@ public final class MainGrid implements Serializable {
 
 		@Override
 		public final boolean isBorder(int x, int y) {
-			return bordersGrid.get(x + y * width);
+			return bordersGrid.get(x, y);
 		}
 
 		@Override
@@ -776,7 +810,7 @@ public final class MainGrid implements Serializable {
 
 		@Override
 		public int nextDrawableX(int x, int y, int maxX) {
-			return x + 1;
+			return Math.min(drawableObjectsGrid.nextSetX(x, y, maxX), bordersGrid.nextSetX(x, y, maxX));
 		}
 
 		@Override
@@ -820,9 +854,15 @@ public final class MainGrid implements Serializable {
 
 		@Override
 		public final boolean removeMapObject(int x, int y, AbstractHexMapObject mapObject) {
+			blockChangeCounter.positionChanged(x, y);
 			return objectsGrid.removeMapObject(x, y, mapObject);
 		}
 
+		@Override
+		public final void mapObjectChangedAt(int x, int y) {
+			blockChangeCounter.positionChanged(x, y);
+		}
+
 		@Override
 		public final AbstractHexMapObject getMapObject(int x, int y, EMapObjectType mapObjectType) {
 			return objectsGrid.getMapObjectAt(x, y, mapObjectType);
@@ -830,6 +870,7 @@ public final class MainGrid implements Serializable {
 
 		@Override
 		public final void addMapObject(int x, int y, AbstractHexMapObject mapObject) {
+			blockChangeCounter.positionChanged(x, y);
 			objectsGrid.addMapObjectAt(x, y, mapObject);
 		}
 
@@ -1026,22 +1067,41 @@ public final class MainGrid implements Serializable {
 		private transient AbstractAStar aStar;
 		transient DijkstraAlgorithm dijkstra; // not private, because it's used by BuildingsGrid
 		private transient InAreaFinder inAreaFinder;
+		private transient FlowFieldCalculator flowFieldCalculator;
+		private transient ShortPoint2DTable points;
+
+		private ArrayDeque<FlowField> activeFlowFields; // saved, because the movables that didn't start walking yet still use them
 
 		public MovablePathfinderGrid() {
+			activeFlowFields = new ArrayDeque<>();
 			initPathfinders();
 		}
 
 		private void readObject(ObjectInputStream ois) throws ClassNotFoundException, IOException {
 			ois.defaultReadObject();
+			if (activeFlowFields == null) { // savegames of older versions
+				activeFlowFields = new ArrayDeque<>();
+			}
 			initPathfinders();
 		}
 
 		private void initPathfinders() {
 			pathfinderGrid = new PathfinderGrid();
 
-			aStar = new BucketQueueAStar(pathfinderGrid, width, height);
-			dijkstra = new DijkstraAlgorithm(pathfinderGrid, aStar, width, height);
+			if (MatchConstants.ENABLE_HIERARCHICAL_PATHFINDING) {
+				aStar = new HierarchicalAStar(pathfinderGrid, width, height);
+			} else {
+				aStar = new BucketQueueAStar(pathfinderGrid, width, height);
+			}
+			dijkstra = new DijkstraAlgorithm(pathfinderGrid, aStar, width, height, MatchConstants.ENABLE_SINGLE_PASS_DIJKSTRA);
 			inAreaFinder = new InAreaFinder(pathfinderGrid, width, height);
+			flowFieldCalculator = new FlowFieldCalculator(pathfinderGrid, width, height, activeFlowFields);
+			points = new ShortPoint2DTable(width, height);
+		}
+
+		@Override
+		public ShortPoint2DTable getPoints() {
+			return points;
 		}
 
 		@Override
@@ -1251,20 +1311,22 @@ public final class MainGrid implements Serializable {
 		}
 
 		@Override
-		public Path calculatePathTo(IPathCalculatable pathRequester, ShortPoint2D targetPos) {
-			return aStar.findPath(pathRequester, targetPos);
+		public Path calculatePathTo(IPathCalculatable pathRequester, ShortPoint2D targetPos, Path reusablePath) {
+			return aStar.findPath(pathRequester, targetPos, reusablePath);
 		}
 
 		@Override
-		public Path searchDijkstra(IPathCalculatable pathCalculateable, short centerX, short centerY, short radius, ESearchType searchType) {
-			return dijkstra.find(pathCalculateable, centerX, centerY, (short) 0, radius, searchType);
+		public Path searchDijkstra(IPathCalculatable pathCalculateable, short centerX, short centerY, short radius, ESearchType searchType,
+				Path reusablePath) {
+			return dijkstra.find(pathCalculateable, centerX, centerY, (short) 0, radius, searchType, reusablePath);
 		}
 
 		@Override
-		public Path searchInArea(IPathCalculatable pathCalculateable, short centerX, short centerY, short radius, ESearchType searchType) {
+		public Path searchInArea(IPathCalculatable pathCalculateable, short centerX, short centerY, short radius, ESearchType searchType,
+				Path reusablePath) {
 			ShortPoint2D target = inAreaFinder.find(pathCalculateable, centerX, centerY, radius, searchType);
 			if (target != null) {
-				return calculatePathTo(pathCalculateable, target);
+				return calculatePathTo(pathCalculateable, target, reusablePath);
 			} else {
 				return null;
 			}
@@ -1391,7 +1453,7 @@ public final class MainGrid implements Serializable {
 
 		@Override
 		public final void setBorderAt(int x, int y, boolean isBorder) {
-			graphicsGrid.bordersGrid.set(x + y * width, isBorder);
+			graphicsGrid.bordersGrid.set(x, y, isBorder);
 		}
 
 		@Override
@@ -1582,24 +1644,34 @@ public final class MainGrid implements Serializable {
 		public void occupyAreaByTower(Player player, MapCircle influencingArea, FreeMapArea groundArea) {
 			partitionsGrid.addTowerAndOccupyArea(player.playerId, influencingArea, groundArea);
 			checkAllPositionsForEnclosedBlockedAreas(influencingArea.stream()); // TODO @Andreas Eberle only test the borders of changed areas!!
+			countTowerAreaChanges(influencingArea.stream());
 		}
 
 		@Override
 		public void freeAreaOccupiedByTower(ShortPoint2D towerPosition) {
 			CoordinateStream positions = partitionsGrid.removeTowerAndFreeOccupiedArea(towerPosition);
 			checkAllPositionsForEnclosedBlockedAreas(positions);
+			countTowerAreaChanges(positions);
 		}
 
 		@Override
 		public void changePlayerOfTower(ShortPoint2D towerPosition, Player newPlayer, FreeMapArea groundArea) {
 			CoordinateStream positions = partitionsGrid.changePlayerOfTower(towerPosition, newPlayer.playerId);
 			checkAllPositionsForEnclosedBlockedAreas(positions);
+			countTowerAreaChanges(positions);
 		}
 
 		private void checkAllPositionsForEnclosedBlockedAreas(CoordinateStream area) {
 			area.forEach(MainGrid.this::checkPositionThatChangedPlayer);
 		}
 
+		/**
+		 * The tower counters of the area changed, even if the positions did not change their player.
+		 */
+		private void countTowerAreaChanges(CoordinateStream area) {
+			area.forEach((x, y) -> blockChangeCounter.positionChanged(x, y, BlockChangeCounter.NEIGHBORS_RADIUS));
+		}
+
 		@Override
 		public boolean isAreaFlattenedAtHeight(ShortPoint2D position, RelativePoint[] positions, byte expectedHeight) {
 			return landscapeGrid.isAreaFlattenedAtHeight(position, positions, expectedHeight);
@@ -1695,7 +1767,7 @@ public final class MainGrid implements Serializable {
 				public boolean needsPlayersGround() {
 					return needsPlayersGround;
 				}
-			}, target.x, target.y, targetRadius, ESearchType.VALID_FREE_POSITION);
+			}, target.x, target.y, targetRadius, ESearchType.VALID_FREE_POSITION, null);
 
 			return path != null ? path.getTargetPos() : null;
 		}
@@ -1750,19 +1822,10 @@ public final class MainGrid implements Serializable {
 		}
 
 		@Override
-		public final void save(PlayerState[] playerStates) throws IOException, InterruptedException {
-			boolean savedPausingState = MatchConstants.clock().isPausing();
-			MatchConstants.clock().setPausing(true);
-			try {
-				Thread.sleep(300); // FIXME @Andreas serializer should wait until threads did their work!
-			} catch (InterruptedException e) {
-				e.printStackTrace();
-			}
-
+		public final Future<?> save(PlayerState[] playerStates, Consumer<Throwable> failureListener) throws IOException, InterruptedException {
 			MapList list = MapList.getDefaultList();
-			list.saveMap(playerStates, MainGrid.this);
-
-			MatchConstants.clock().setPausing(savedPausingState);
+			// the game state is captured now, the file is written in the background
+			return list.saveMapInBackground(playerStates, MainGrid.this, failureListener);
 		}
 
 		@Override
@@ -1815,6 +1878,11 @@ public final class MainGrid implements Serializable {
 			return flagsGrid.isBlocked(x, y);
 		}
 
+		@Override
+		public FlowField calculateFlowField(IPathCalculatable requester, ShortPoint2D target, List<ShortPoint2D> startPositions) {
+			return movablePathfinderGrid.flowFieldCalculator.calculate(requester, target.x, target.y, startPositions);
+		}
+
 		@Override
 		public Player getPlayer(byte playerId) {
 			return partitionsGrid.getPlayer(playerId);
@@ -1853,6 +1921,8 @@ public final class MainGrid implements Serializable {
 		public void playerChangedAt(int x, int y, byte newPlayerId) {
 			final ShortPoint2D position = new ShortPoint2D(x, y);
 			bordersThread.checkPosition(position);
+			movablePathfinderGrid.aStar.blockingChangedAt(x, y);
+			blockChangeCounter.positionChanged(x, y, BlockChangeCounter.PLAYER_CHANGE_RADIUS);
 
 			Building building = objectsGrid.getBuildingAt(x, y);
 			if (building != null && building.getPlayerId() != newPlayerId) {
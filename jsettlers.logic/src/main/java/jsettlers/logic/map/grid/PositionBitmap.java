@@ -0,0 +1,88 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.logic.map.grid;
+
+/**
+ * A bitmap with one bit per position of the grid. Every line of the grid is stored in its own longs, so that the set positions of a line can
+ * be found without looking at every position.
+ * <p />
+ * The bitmap is not synchronized. It may be read by other threads, but it must only be changed by a single thread.
+ *
+ * @author agent
+ */
+public final class PositionBitmap {
+	private static final int BITS_PER_LONG_SHIFT = 6;
+
+	private final short width;
+	private final int longsPerLine;
+	private final long[] bits;
+
+	public PositionBitmap(short width, short height) {
+		this.width = width;
+		this.longsPerLine = (width + (1 << BITS_PER_LONG_SHIFT) - 1) >> BITS_PER_LONG_SHIFT;
+		this.bits = new long[longsPerLine * height];
+	}
+
+	public boolean get(int x, int y) {
+		return (bits[getLongIndex(x, y)] & (1L << x)) != 0;
+	}
+
+	public void set(int x, int y, boolean value) {
+		int longIndex = getLongIndex(x, y);
+		if (value) {
+			bits[longIndex] |= 1L << x;
+		} else {
+			bits[longIndex] &= ~(1L << x);
+		}
+	}
+
+	private int getLongIndex(int x, int y) {
+		return y * longsPerLine + (x >> BITS_PER_LONG_SHIFT);
+	}
+
+	/**
+	 * Finds the next set position of a line.
+	 *
+	 * @param x
+	 *            The search starts behind this x coordinate. It may be -1 to search from the start of the line.
+	 * @param y
+	 *            The line to search.
+	 * @param maxX
+	 *            The maximum x coordinate to search.
+	 * @return The smallest x coordinate bigger than x and not bigger than maxX whose bit is set or maxX + 1 if there is none.
+	 */
+	public int nextSetX(int x, int y, int maxX) {
+		int startX = Math.max(x + 1, 0);
+		int endX = Math.min(maxX, width - 1);
+		if (startX > endX) {
+			return maxX + 1;
+		}
+
+		int lineStart = y * longsPerLine;
+		int longIndex = startX >> BITS_PER_LONG_SHIFT;
+		int lastLongIndex = endX >> BITS_PER_LONG_SHIFT;
+		long currentBits = bits[lineStart + longIndex] & (-1L << startX);
+
+		while (currentBits == 0) {
+			if (++longIndex > lastLongIndex) {
+				return maxX + 1;
+			}
+			currentBits = bits[lineStart + longIndex];
+		}
+
+		int foundX = (longIndex << BITS_PER_LONG_SHIFT) + Long.numberOfTrailingZeros(currentBits);
+		return foundX <= endX ? foundX : maxX + 1;
+	}
+}
@@ -0,0 +1,251 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.logic.map.grid;
+
+import java.util.Arrays;
+
+import java8.util.function.IntConsumer;
+import jsettlers.common.map.shapes.HexGridArea;
+import jsettlers.common.utils.mutables.MutableInt;
+
+/**
+ * Spatial index of positions on the grid grouped by the player they belong to. The positions are kept in buckets of {@link #BUCKET_SIZE} x
+ * {@link #BUCKET_SIZE} positions, so that searching an area only needs to look at the buckets touching the area that contain positions at all.
+ * <p />
+ * The result of a search is ordered exactly like the positions of a {@link HexGridArea} stream. That means the positions closer to the center are
+ * returned first.
+ *
+ * @author agent
+ */
+public final class PositionBucketIndex {
+	public static final int BUCKET_SIZE_SHIFT = 4;
+	public static final int BUCKET_SIZE = 1 << BUCKET_SIZE_SHIFT;
+	public static final int NO_EXCLUDED_PLAYER = -1;
+
+	private static final int INITIAL_BUCKET_CAPACITY = 4;
+	private static final int INITIAL_FOUND_CAPACITY = 16;
+
+	private final short width;
+	private final short height;
+	private final int bucketsWidth;
+	private final int bucketsHeight;
+
+	private int[][][] playerBuckets = new int[0][][];
+	private int[][] playerBucketSizes = new int[0][];
+	private int[] playerSizes = new int[0];
+
+	private int orderRadius = -1;
+	private int[] hexOrder;
+	private long[] foundBuffer = new long[INITIAL_FOUND_CAPACITY];
+
+	public PositionBucketIndex(short width, short height) {
+		this.width = width;
+		this.height = height;
+		this.bucketsWidth = (width + BUCKET_SIZE - 1) >> BUCKET_SIZE_SHIFT;
+		this.bucketsHeight = (height + BUCKET_SIZE - 1) >> BUCKET_SIZE_SHIFT;
+	}
+
+	/**
+	 * Adds the given position for the given player. A position must only be added once per player.
+	 *
+	 * @param x
+	 *            x coordinate of the position.
+	 * @param y
+	 *            y coordinate of the position.
+	 * @param player
+	 *            The id of the player the position belongs to.
+	 */
+	public void add(int x, int y, byte player) {
+		int playerIndex = player & 0xFF;
+		ensurePlayer(playerIndex);
+
+		int bucket = getBucketIndex(x, y);
+		int[][] buckets = playerBuckets[playerIndex];
+		int[] bucketSizes = playerBucketSizes[playerIndex];
+
+		int[] positions = buckets[bucket];
+		if (positions == null) {
+			positions = buckets[bucket] = new int[INITIAL_BUCKET_CAPACITY];
+		} else if (bucketSizes[bucket] == positions.length) {
+			positions = buckets[bucket] = Arrays.copyOf(positions, positions.length * 2);
+		}
+
+		positions[bucketSizes[bucket]++] = x + y * width;
+		playerSizes[playerIndex]++;
+	}
+
+	/**
+	 * Removes the given position of the given player.
+	 *
+	 * @param x
+	 *            x coordinate of the position.
+	 * @param y
+	 *            y coordinate of the position.
+	 * @param player
+	 *            The id of the player the position belongs to.
+	 * @return true if the position was in the index.
+	 */
+	public boolean remove(int x, int y, byte player) {
+		int playerIndex = player & 0xFF;
+		if (playerIndex >= playerSizes.length || playerSizes[playerIndex] == 0) {
+			return false;
+		}
+
+		int bucket = getBucketIndex(x, y);
+		int[] positions = playerBuckets[playerIndex][bucket];
+		int[] bucketSizes = playerBucketSizes[playerIndex];
+		int position = x + y * width;
+
+		for (int i = 0; i < bucketSizes[bucket]; i++) {
+			if (positions[i] == position) {
+				positions[i] = positions[--bucketSizes[bucket]];
+				playerSizes[playerIndex]--;
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Finds all positions inside the given hexagon ring area.
+	 *
+	 * @param centerX
+	 *            x coordinate of the center.
+	 * @param centerY
+	 *            y coordinate of the center.
+	 * @param startRadius
+	 *            inclusive inner radius of the area.
+	 * @param maxRadius
+	 *            inclusive outer radius of the area.
+	 * @param excludedPlayer
+	 *            The id of a player whose positions are not returned or {@link #NO_EXCLUDED_PLAYER}.
+	 * @param visitor
+	 *            Receives the indexes (x + y * width) of the found positions in the order {@link HexGridArea#stream(int, int, int, int)} would
+	 *            visit them.
+	 */
+	public void findInHexArea(int centerX, int centerY, int startRadius, int maxRadius, int excludedPlayer, IntConsumer visitor) {
+		ensureHexOrder(maxRadius);
+
+		long[] found = foundBuffer;
+		foundBuffer = null;
+		if (found == null) { // the visitor of another search started this search
+			found = new long[INITIAL_FOUND_CAPACITY];
+		}
+
+		int minOrder = startRadius == 0 ? 0 : 1 + 3 * startRadius * (startRadius - 1);
+		int maxOrder = 1 + 3 * maxRadius * (maxRadius + 1);
+		int orderWidth = 2 * orderRadius + 1;
+
+		int minBucketX = Math.max(0, centerX - maxRadius) >> BUCKET_SIZE_SHIFT;
+		int maxBucketX = Math.min(width - 1, centerX + maxRadius) >> BUCKET_SIZE_SHIFT;
+		int minBucketY = Math.max(0, centerY - maxRadius) >> BUCKET_SIZE_SHIFT;
+		int maxBucketY = Math.min(height - 1, centerY + maxRadius) >> BUCKET_SIZE_SHIFT;
+
+		int excludedPlayerIndex = excludedPlayer == NO_EXCLUDED_PLAYER ? NO_EXCLUDED_PLAYER : excludedPlayer & 0xFF;
+		int numberOfFound = 0;
+		for (int playerIndex = 0; playerIndex < playerSizes.length; playerIndex++) {
+			if (playerSizes[playerIndex] == 0 || playerIndex == excludedPlayerIndex) {
+				continue;
+			}
+
+			int[][] buckets = playerBuckets[playerIndex];
+			int[] bucketSizes = playerBucketSizes[playerIndex];
+
+			for (int bucketY = minBucketY; bucketY <= maxBucketY; bucketY++) {
+				for (int bucketX = minBucketX; bucketX <= maxBucketX; bucketX++) {
+					int bucket = bucketX + bucketY * bucketsWidth;
+					int[] positions = buckets[bucket];
+
+					for (int i = 0; i < bucketSizes[bucket]; i++) {
+						int position = positions[i];
+						int dx = position % width - centerX;
+						int dy = position / width - centerY;
+						if (dx < -maxRadius || dx > maxRadius || dy < -maxRadius || dy > maxRadius) {
+							continue;
+						}
+
+						int order = hexOrder[(dx + orderRadius) + (dy + orderRadius) * orderWidth];
+						if (order >= minOrder && order < maxOrder) {
+							if (numberOfFound == found.length) {
+								found = Arrays.copyOf(found, numberOfFound * 2);
+							}
+							found[numberOfFound++] = ((long) order << 32) | position;
+						}
+					}
+				}
+			}
+		}
+
+		Arrays.sort(found, 0, numberOfFound);
+		try {
+			for (int i = 0; i < numberOfFound; i++) {
+				visitor.accept((int) found[i]);
+			}
+		} finally {
+			foundBuffer = found;
+		}
+	}
+
+	/**
+	 * @return The number of positions in the index.
+	 */
+	public int size() {
+		int size = 0;
+		for (int playerSize : playerSizes) {
+			size += playerSize;
+		}
+		return size;
+	}
+
+	private int getBucketIndex(int x, int y) {
+		return (x >> BUCKET_SIZE_SHIFT) + (y >> BUCKET_SIZE_SHIFT) * bucketsWidth;
+	}
+
+	private void ensurePlayer(int playerIndex) {
+		if (playerIndex < playerSizes.length) {
+			return;
+		}
+
+		int numberOfPlayers = playerIndex + 1;
+		int oldNumberOfPlayers = playerSizes.length;
+		playerBuckets = Arrays.copyOf(playerBuckets, numberOfPlayers);
+		playerBucketSizes = Arrays.copyOf(playerBucketSizes, numberOfPlayers);
+		playerSizes = Arrays.copyOf(playerSizes, numberOfPlayers);
+
+		for (int i = oldNumberOfPlayers; i < numberOfPlayers; i++) {
+			playerBuckets[i] = new int[bucketsWidth * bucketsHeight][];
+			playerBucketSizes[i] = new int[bucketsWidth * bucketsHeight];
+		}
+	}
+
+	/**
+	 * Calculates the position of every offset in the order of {@link HexGridArea#stream(int, int, int, int)} starting with radius 0.
+	 */
+	private void ensureHexOrder(int radius) {
+		if (radius <= orderRadius) {
+			return;
+		}
+
+		int orderWidth = 2 * radius + 1;
+		int[] order = new int[orderWidth * orderWidth];
+		Arrays.fill(order, -1);
+
+		MutableInt counter = new MutableInt();
+		HexGridArea.stream(radius, radius, 0, radius).forEach((x, y) -> order[x + y * orderWidth] = counter.value++);
+
+		this.hexOrder = order;
+		this.orderRadius = radius;
+	}
+}
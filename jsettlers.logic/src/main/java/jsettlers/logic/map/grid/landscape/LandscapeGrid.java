@@ -28,6 +28,7 @@ import jsettlers.common.position.RelativePoint;
 import jsettlers.common.position.ShortPoint2D;
 import jsettlers.logic.constants.Constants;
 import jsettlers.logic.constants.MatchConstants;
+import jsettlers.logic.map.grid.IPositionChangedListener;
 import jsettlers.logic.map.grid.flags.IProtectedProvider;
 import jsettlers.logic.map.grid.flags.IProtectedProvider.IProtectedChangedListener;
 
@@ -67,6 +68,7 @@ public final class LandscapeGrid implements Serializable, IWalkableGround, IFlat
 
 	public transient int[] debugColors;
 	private transient IGraphicsBackgroundListener backgroundListener;
+	private transient IPositionChangedListener positionChangedListener;
 
 	public LandscapeGrid(short width, short height, IProtectedProvider protectedProvider) {
 		this.width = width;
@@ -84,6 +86,7 @@ public final class LandscapeGrid implements Serializable, IWalkableGround, IFlat
 
 		this.flattenedResetter = new FlattenedResetter(this);
 		setBackgroundListener(null);
+		setPositionChangedListener(null);
 
 		protectedProvider.setProtectedChangedListener(this);
 	}
@@ -91,6 +94,7 @@ public final class LandscapeGrid implements Serializable, IWalkableGround, IFlat
 	private void readObject(ObjectInputStream ois) throws IOException, ClassNotFoundException {
 		ois.defaultReadObject();
 		setBackgroundListener(null);
+		setPositionChangedListener(null);
 
 		initDebugColors();
 	}
@@ -159,6 +163,7 @@ public final class LandscapeGrid implements Serializable, IWalkableGround, IFlat
 
 		this.landscapeGrid[x + y * width] = landscapeType.ordinal;
 		backgroundListener.backgroundChangedAt(x, y);
+		positionChangedListener.positionChanged(x, y);
 	}
 
 	public final void setHeightAt(short x, short y, byte height) {
@@ -174,6 +179,7 @@ public final class LandscapeGrid implements Serializable, IWalkableGround, IFlat
 		this.temporaryFlatened[index] = Byte.MAX_VALUE; // cancel the flattening
 
 		backgroundListener.backgroundChangedAt(x, y);
+		positionChangedListener.positionChanged(x, y);
 	}
 
 	public final void setBackgroundListener(IGraphicsBackgroundListener backgroundListener) {
@@ -184,9 +190,25 @@ public final class LandscapeGrid implements Serializable, IWalkableGround, IFlat
 		}
 	}
 
+	/**
+	 * Sets the given listener. The listener will then be informed of any positions that change their landscape type, their resources or their
+	 * protected state.
+	 *
+	 * @param positionChangedListener
+	 *            The listener to be set or null if no listener should be set.
+	 */
+	public final void setPositionChangedListener(IPositionChangedListener positionChangedListener) {
+		if (positionChangedListener != null) {
+			this.positionChangedListener = positionChangedListener;
+		} else {
+			this.positionChangedListener = IPositionChangedListener.DEFAULT_IMPLEMENTATION;
+		}
+	}
+
 	public final void setResourceAt(short x, short y, EResourceType resourceType, byte amount) {
 		this.resourceType[x + y * width] = resourceType.ordinal;
 		this.resourceAmount[x + y * width] = (byte) Math.min(amount, Constants.MAX_RESOURCE_AMOUNT_PER_POSITION);
+		positionChangedListener.positionChanged(x, y);
 	}
 
 	/**
@@ -219,6 +241,7 @@ public final class LandscapeGrid implements Serializable, IWalkableGround, IFlat
 		int idx = position.x + position.y * width;
 		if (resourceType[idx] == resource.ordinal && resourceAmount[idx] > 0) {
 			resourceAmount[idx]--;
+			positionChangedListener.positionChanged(position.x, position.y);
 			return true;
 		} else {
 			return false;
@@ -335,6 +358,7 @@ public final class LandscapeGrid implements Serializable, IWalkableGround, IFlat
 		if (!newProtectedState) {
 			activateUnflattening(x, y);
 		}
+		positionChangedListener.positionChanged(x, y);
 	}
 
 }
@@ -19,14 +19,14 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
 
-import jsettlers.common.map.shapes.HexGridArea;
 import jsettlers.common.movable.EMovableType;
 import jsettlers.common.movable.IMovable;
 import jsettlers.common.position.ShortPoint2D;
-import jsettlers.common.utils.coordinates.CoordinateStream;
 import jsettlers.common.utils.mutables.MutableBoolean;
 import jsettlers.logic.SerializationUtils;
 import jsettlers.logic.constants.Constants;
+import jsettlers.logic.map.grid.IPositionChangedListener;
+import jsettlers.logic.map.grid.PositionBucketIndex;
 import jsettlers.logic.map.grid.landscape.IWalkableGround;
 import jsettlers.logic.movable.Movable;
 import jsettlers.logic.movable.interfaces.IAttackable;
@@ -40,6 +40,8 @@ public final class MovableGrid implements Serializable {
 	private static final long serialVersionUID = 7003522358013103962L;
 
 	private transient Movable[] movableGrid;
+	private transient PositionBucketIndex movablesIndex; // positions of the movables per player, created lazily after loading
+	private transient IPositionChangedListener movableChangedListener;
 	private final IWalkableGround ground;
 	private final short width;
 
@@ -50,6 +52,8 @@ public final class MovableGrid implements Serializable {
 		this.height = height;
 		this.ground = ground;
 		this.movableGrid = new Movable[width * height];
+		this.movablesIndex = new PositionBucketIndex(width, height);
+		setMovableChangedListener(null);
 	}
 
 	private void writeObject(ObjectOutputStream oos) throws IOException {
@@ -60,16 +64,50 @@ public final class MovableGrid implements Serializable {
 	private void readObject(ObjectInputStream ois) throws ClassNotFoundException, IOException {
 		ois.defaultReadObject();
 		movableGrid = SerializationUtils.readSparseArray(ois, Movable.class);
+		setMovableChangedListener(null);
+	}
+
+	/**
+	 * Sets the given listener. The listener will then be informed of any positions a movable entered or left.
+	 * 
+	 * @param listener
+	 *            The listener to be set or null if no listener should be set.
+	 */
+	public void setMovableChangedListener(IPositionChangedListener listener) {
+		if (listener == null) {
+			this.movableChangedListener = IPositionChangedListener.DEFAULT_IMPLEMENTATION;
+		} else {
+			this.movableChangedListener = listener;
+		}
 	}
 
 	public final Movable getMovableAt(int x, int y) {
 		return this.movableGrid[x + y * width];
 	}
 
+	/**
+	 * The players of the movables are not available while the grid is deserialized. Therefore the index is rebuilt on first use.
+	 */
+	private PositionBucketIndex getMovablesIndex() {
+		if (movablesIndex == null) {
+			movablesIndex = new PositionBucketIndex(width, height);
+			for (int idx = 0; idx < movableGrid.length; idx++) {
+				if (movableGrid[idx] != null) {
+					movablesIndex.add(idx % width, idx / width, movableGrid[idx].getPlayerId());
+				}
+			}
+		}
+		return movablesIndex;
+	}
+
 	public final void movableLeft(ShortPoint2D position, Movable movable) {
 		int idx = position.x + position.y * width;
 		if (this.movableGrid[idx] == movable) {
 			this.movableGrid[idx] = null;
+			if (movable != null) {
+				getMovablesIndex().remove(position.x, position.y, movable.getPlayerId());
+			}
+			changed(position.x, position.y);
 		}
 	}
 
@@ -85,7 +123,16 @@ public final class MovableGrid implements Serializable {
 		final short x = position.x;
 		final short y = position.y;
 
+		Movable oldMovable = this.movableGrid[x + y * width];
+		if (oldMovable != null) {
+			getMovablesIndex().remove(x, y, oldMovable.getPlayerId());
+		}
+		if (movable != null) {
+			getMovablesIndex().add(x, y, movable.getPlayerId());
+		}
+
 		this.movableGrid[x + y * width] = movable;
+		changed(x, y);
 		if (movable != null && movable.getMovableType() == EMovableType.BEARER) {
 			ground.walkOn(x, y);
 		}
@@ -105,18 +152,14 @@ public final class MovableGrid implements Serializable {
 	 */
 	public void informMovables(Movable movable, short x, short y, boolean informFullArea) {
 		// inform all movables of the given movable
-		CoordinateStream area;
-		if (informFullArea) {
-			area = HexGridArea.stream(x, y, (short) 1, Constants.SOLDIER_SEARCH_RADIUS);
-		} else {
-			area = HexGridArea.streamBorder(x, y, Constants.SOLDIER_SEARCH_RADIUS - 1);
-		}
+		int startRadius = informFullArea ? 1 : Constants.SOLDIER_SEARCH_RADIUS - 1;
+		int maxRadius = informFullArea ? Constants.SOLDIER_SEARCH_RADIUS : Constants.SOLDIER_SEARCH_RADIUS - 1;
 
-		MutableBoolean foundOne = new MutableBoolean();
 		byte movablePlayer = movable.getPlayerId();
+		MutableBoolean foundOne = new MutableBoolean();
 
-		area.filterBounds(width, height).forEach((currX, currY) -> {
-			Movable currMovable = getMovableAt(currX, currY);
+		getMovablesIndex().findInHexArea(x, y, startRadius, maxRadius, movablePlayer, position -> {
+			Movable currMovable = movableGrid[position];
 			if (currMovable != null && isEnemy(movablePlayer, currMovable)) {
 				currMovable.informAboutAttackable(movable);
 
@@ -145,4 +188,8 @@ public final class MovableGrid implements Serializable {
 	public boolean hasNoMovableAt(int x, int y) {
 		return getMovableAt(x, y) == null;
 	}
+
+	private void changed(int x, int y) {
+		movableChangedListener.positionChanged(x, y);
+	}
 }
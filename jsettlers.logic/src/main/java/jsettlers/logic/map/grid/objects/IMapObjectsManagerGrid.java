@@ -39,6 +39,16 @@ public interface IMapObjectsManagerGrid extends Serializable, IArrowAttackableGr
 
 	boolean removeMapObject(int x, int y, AbstractHexMapObject mapObject);
 
+	/**
+	 * Informs the grid that a map object at the given position changed its state without being added or removed.
+	 * 
+	 * @param x
+	 *            x coordinate of the map object.
+	 * @param y
+	 *            y coordinate of the map object.
+	 */
+	void mapObjectChangedAt(int x, int y);
+
 	short getWidth();
 
 	short getHeight();
@@ -21,14 +21,14 @@ import java.io.Serializable;
 import java.util.Set;
 
 import jsettlers.common.map.shapes.FreeMapArea;
-import jsettlers.common.map.shapes.HexGridArea;
 import jsettlers.common.mapobject.EMapObjectType;
 import jsettlers.common.movable.EDirection;
 import jsettlers.common.position.ShortPoint2D;
-import jsettlers.common.utils.coordinates.CoordinateStream;
 import jsettlers.logic.SerializationUtils;
 import jsettlers.logic.buildings.Building;
 import jsettlers.logic.constants.Constants;
+import jsettlers.logic.map.grid.IPositionChangedListener;
+import jsettlers.logic.map.grid.PositionBucketIndex;
 import jsettlers.logic.movable.interfaces.IAttackable;
 import jsettlers.logic.movable.interfaces.IInformable;
 
@@ -40,18 +40,24 @@ import jsettlers.logic.movable.interfaces.IInformable;
  */
 public final class ObjectsGrid implements Serializable {
 	private static final long serialVersionUID = 2919416226544282748L;
+	private static final EMapObjectType[] INFORMED_OBJECT_TYPES = { EMapObjectType.ATTACKABLE_TOWER, EMapObjectType.INFORMABLE_MAP_OBJECT };
+	private static final byte INFORMED_OBJECTS_PLAYER = 0; // the player of a tower can change, so all positions are stored for the same player
 
 	private final short width;
 	private final short height;
 
 	private transient AbstractHexMapObject[] objectsGrid;
 	private transient Building[] buildingsGrid;
+	private transient PositionBucketIndex informedObjectsIndex; // positions of towers and informable objects
+	private transient IPositionChangedListener firstObjectChangedListener;
 
 	public ObjectsGrid(short width, short height) {
 		this.width = width;
 		this.height = height;
 		this.objectsGrid = new AbstractHexMapObject[width * height];
 		this.buildingsGrid = new Building[width * height];
+		this.informedObjectsIndex = new PositionBucketIndex(width, height);
+		setFirstObjectChangedListener(null);
 	}
 
 	private final void writeObject(ObjectOutputStream oos) throws IOException {
@@ -100,6 +106,29 @@ public final class ObjectsGrid implements Serializable {
 
 			index = ois.readInt();
 		}
+
+		setFirstObjectChangedListener(null);
+		informedObjectsIndex = new PositionBucketIndex(width, height);
+		for (int idx = 0; idx < length; idx++) {
+			if (objectsGrid[idx] != null) {
+				updateInformedObjectsIndex(idx % width, idx / width);
+			}
+		}
+	}
+
+	/**
+	 * Sets the given listener. The listener will then be informed of any positions whose first object (the one returned by
+	 * {@link #getObjectsAt(int, int)}) changed.
+	 * 
+	 * @param listener
+	 *            The listener to be set or null if no listener should be set.
+	 */
+	public void setFirstObjectChangedListener(IPositionChangedListener listener) {
+		if (listener == null) {
+			this.firstObjectChangedListener = IPositionChangedListener.DEFAULT_IMPLEMENTATION;
+		} else {
+			this.firstObjectChangedListener = listener;
+		}
 	}
 
 	public final AbstractHexMapObject getObjectsAt(int x, int y) {
@@ -114,16 +143,24 @@ public final class ObjectsGrid implements Serializable {
 
 	public final void removeMapObjectTypes(int x, int y, Set<EMapObjectType> mapObjectTypes) {
 		final int idx = x + y * width;
-		AbstractHexMapObject mapObjectHead = objectsGrid[idx];
+		AbstractHexMapObject oldMapObjectHead = objectsGrid[idx];
+		AbstractHexMapObject mapObjectHead = oldMapObjectHead;
 
 		while (mapObjectHead != null && mapObjectTypes.contains(mapObjectHead.getObjectType())) {
 			mapObjectHead = mapObjectHead.getNextObject();
 			objectsGrid[idx] = mapObjectHead;
 		}
+		if (mapObjectHead != oldMapObjectHead) {
+			firstObjectChangedListener.positionChanged(x, y);
+		}
 
 		if (mapObjectHead != null) {
 			mapObjectHead.removeMapObjectTypes(mapObjectTypes);
 		}
+
+		if (mapObjectTypes.contains(EMapObjectType.ATTACKABLE_TOWER) || mapObjectTypes.contains(EMapObjectType.INFORMABLE_MAP_OBJECT)) {
+			updateInformedObjectsIndex(x, y);
+		}
 	}
 
 	public final boolean removeMapObject(int x, int y, AbstractHexMapObject mapObject) {
@@ -134,10 +171,14 @@ public final class ObjectsGrid implements Serializable {
 			if (mapObjectHead == mapObject) {
 				objectsGrid[idx] = mapObjectHead.getNextObject();
 				removed = true;
+				firstObjectChangedListener.positionChanged(x, y);
 			} else {
 				removed = mapObjectHead.removeMapObject(mapObject);
 			}
 
+			if (removed && isInformedObjectType(mapObject.getObjectType())) {
+				updateInformedObjectsIndex(x, y);
+			}
 			return removed;
 		} else
 			return false;
@@ -150,9 +191,25 @@ public final class ObjectsGrid implements Serializable {
 
 		if (mapObjectHead == null) {
 			objectsGrid[idx] = mapObject;
+			firstObjectChangedListener.positionChanged(x, y);
 		} else {
 			mapObjectHead.addMapObject(mapObject);
 		}
+
+		if (isInformedObjectType(mapObject.getObjectType())) {
+			updateInformedObjectsIndex(x, y);
+		}
+	}
+
+	private static boolean isInformedObjectType(EMapObjectType mapObjectType) {
+		return mapObjectType == EMapObjectType.ATTACKABLE_TOWER || mapObjectType == EMapObjectType.INFORMABLE_MAP_OBJECT;
+	}
+
+	private void updateInformedObjectsIndex(int x, int y) {
+		informedObjectsIndex.remove(x, y, INFORMED_OBJECTS_PLAYER);
+		if (hasMapObjectType(x, y, INFORMED_OBJECT_TYPES)) {
+			informedObjectsIndex.add(x, y, INFORMED_OBJECTS_PLAYER);
+		}
 	}
 
 	public final boolean hasCuttableObject(int x, int y, EMapObjectType mapObjectType) {
@@ -192,32 +249,29 @@ public final class ObjectsGrid implements Serializable {
 	 * @param informAttackable
 	 */
 	public void informObjectsAboutAttackable(ShortPoint2D position, IAttackable attackable, boolean informFullArea, boolean informAttackable) {
-		CoordinateStream area;
-		if (informFullArea) {
-			area = HexGridArea.stream(position.x, position.y, 1, Constants.TOWER_SEARCH_RADIUS);
-		} else {
-			area = HexGridArea.streamBorder(position.x, position.y, Constants.TOWER_SEARCH_RADIUS - 1);
-		}
+		int startRadius = informFullArea ? 1 : Constants.TOWER_SEARCH_RADIUS - 1;
+		int maxRadius = informFullArea ? Constants.TOWER_SEARCH_RADIUS : Constants.TOWER_SEARCH_RADIUS - 1;
 
 		byte movablePlayer = attackable.getPlayerId();
+		informedObjectsIndex.findInHexArea(position.x, position.y, startRadius, maxRadius, PositionBucketIndex.NO_EXCLUDED_PLAYER, currPosition -> {
+			int x = currPosition % width;
+			int y = currPosition / width;
 
-		area.filterBounds(width, height)
-				.forEach((x, y) -> {
-					IAttackable currTower = (IAttackable) getMapObjectAt(x, y, EMapObjectType.ATTACKABLE_TOWER);
+			IAttackable currTower = (IAttackable) getMapObjectAt(x, y, EMapObjectType.ATTACKABLE_TOWER);
 
-					if (currTower != null && currTower.getPlayerId() != movablePlayer) {
-						currTower.informAboutAttackable(attackable);
+			if (currTower != null && currTower.getPlayerId() != movablePlayer) {
+				currTower.informAboutAttackable(attackable);
 
-						if (informAttackable) {
-							attackable.informAboutAttackable(currTower);
-						}
-					}
+				if (informAttackable) {
+					attackable.informAboutAttackable(currTower);
+				}
+			}
 
-					IInformable currInformable = (IInformable) getMapObjectAt(x, y, EMapObjectType.INFORMABLE_MAP_OBJECT);
-					if (currInformable != null) {
-						currInformable.informAboutAttackable(attackable);
-					}
-				});
+			IInformable currInformable = (IInformable) getMapObjectAt(x, y, EMapObjectType.INFORMABLE_MAP_OBJECT);
+			if (currInformable != null) {
+				currInformable.informAboutAttackable(attackable);
+			}
+		});
 	}
 
 	public void setBuildingArea(FreeMapArea area, Building building) {
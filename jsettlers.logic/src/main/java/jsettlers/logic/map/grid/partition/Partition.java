@@ -18,6 +18,7 @@ import java.io.Serializable;
 
 import jsettlers.logic.map.grid.partition.data.PartitionDataSupplier;
 import jsettlers.logic.map.grid.partition.manager.PartitionManager;
+import jsettlers.logic.map.grid.partition.manager.PositionsTransfer;
 import jsettlers.logic.map.grid.partition.manager.materials.offers.IOffersCountListener;
 
 /**
@@ -36,6 +37,8 @@ public final class Partition extends PartitionManager implements Serializable {
 	private int xSum    = 0;
 	private int ySum    = 0;
 
+	private transient Partition mergedInto;
+
 	public Partition(short partitionId, byte playerId, IOffersCountListener countListener) {
 		super(countListener);
 		this.partitionId = partitionId;
@@ -68,18 +71,47 @@ public final class Partition extends PartitionManager implements Serializable {
 		counter = 0;
 		xSum = 0;
 		ySum = 0;
+		mergedInto = newPartition;
+	}
+
+	/**
+	 * Follows the merges of this partition since the grid has been loaded.
+	 * 
+	 * @return The partition this partition has been merged into or this partition if it has not been merged.
+	 */
+	public Partition getMergedPartition() {
+		Partition partition = this;
+		while (partition.mergedInto != null) {
+			partition = partition.mergedInto;
+		}
+		return partition;
 	}
 
 	public void removePositionTo(final int x, final int y, final Partition newPartitionObject) {
+		moveCountersTo(x, y, newPartitionObject);
+		super.removePositionTo(x, y, newPartitionObject, newPartitionObject.playerId == this.playerId);
+
+		if (isEmpty()) { super.stopManager(); }
+	}
+
+	/**
+	 * Like {@link #removePositionTo(int, int, Partition)}, but the offers, requests and jobless of the position are only moved when the given
+	 * transfer is executed.
+	 */
+	public void removePositionTo(final int x, final int y, final Partition newPartitionObject, PositionsTransfer transfer) {
+		moveCountersTo(x, y, newPartitionObject);
+		transfer.addPosition(x, y, this, newPartitionObject, newPartitionObject.playerId == this.playerId);
+
+		if (isEmpty()) { super.stopManager(); }
+	}
+
+	private void moveCountersTo(final int x, final int y, final Partition newPartitionObject) {
 		if (this == newPartitionObject) {
 			System.err.println("ERROR: newManager can not be the same as this manager. At (" + x + "|" + y + ")");
 		}
 
 		this.decrement(x, y);
 		newPartitionObject.increment(x, y);
-		super.removePositionTo(x, y, newPartitionObject, newPartitionObject.playerId == this.playerId);
-
-		if (isEmpty()) { super.stopManager(); }
 	}
 
 	public boolean isEmpty() {
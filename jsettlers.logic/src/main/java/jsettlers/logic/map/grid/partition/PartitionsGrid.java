@@ -34,8 +34,10 @@ import jsettlers.common.utils.Tuple;
 import jsettlers.common.utils.coordinates.CoordinateStream;
 import jsettlers.common.utils.mutables.MutableInt;
 import jsettlers.logic.buildings.MaterialProductionSettings;
+import jsettlers.logic.map.grid.IPositionChangedListener;
 import jsettlers.logic.map.grid.partition.PartitionsListingBorderVisitor.BorderPartitionInfo;
 import jsettlers.logic.map.grid.partition.manager.PartitionManager;
+import jsettlers.logic.map.grid.partition.manager.PositionsTransfer;
 import jsettlers.logic.map.grid.partition.manager.settings.PartitionManagerSettings;
 import jsettlers.logic.player.Player;
 import jsettlers.logic.player.PlayerSetting;
@@ -85,6 +87,7 @@ public final class PartitionsGrid implements Serializable {
 
 	private transient Object partitionsWriteLock;
 	private transient IPlayerChangedListener playerChangedListener = IPlayerChangedListener.DEFAULT_IMPLEMENTATION;
+	private transient IPositionChangedListener partitionChangedListener = IPositionChangedListener.DEFAULT_IMPLEMENTATION;
 
 	public PartitionsGrid(short width, short height, PlayerSetting[] playerSettings, IBlockingProvider blockingProvider) {
 		this.width = width;
@@ -493,6 +496,7 @@ public final class PartitionsGrid implements Serializable {
 		int width = partitioner.getWidth();
 		int height = partitioner.getHeight();
 
+		PositionsTransfer transfer = new PositionsTransfer();
 		for (short dY = 0; dY < height; dY++) {
 			for (int dX = 0; dX < width; dX++) {
 				short partition = partitioner.getPartitionAt(dX, dY);
@@ -502,10 +506,11 @@ public final class PartitionsGrid implements Serializable {
 					short y = (short) (dY + minY);
 
 					// Set the new partitions and take over goods and so on
-					changePartitionUncheckedAt(x, y, newPartitionsMap[partition]);
+					changePartitionUncheckedAt(x, y, newPartitionsMap[partition], transfer);
 				}
 			}
 		}
+		transfer.execute();
 
 		return newPartitionsMap;
 	}
@@ -611,11 +616,13 @@ public final class PartitionsGrid implements Serializable {
 		// relabel the partition
 		IContainingProvider containingProvider = (x, y) -> partitionObjects[partitions[x + y * width]].partitionId == oldPartition;
 
+		PositionsTransfer transfer = new PositionsTransfer();
 		IAreaVisitor relabelAreaVisitor = (x, y) -> {
-			changePartitionUncheckedAt(x, y, newPartition);
+			changePartitionUncheckedAt(x, y, newPartition, transfer);
 			return true;
 		};
 		AreaTraversingAlgorithm.traverseArea(containingProvider, relabelAreaVisitor, relabelStartPos, width, height);
+		transfer.execute();
 	}
 
 	/**
@@ -639,10 +646,27 @@ public final class PartitionsGrid implements Serializable {
 		synchronized (partitionsWriteLock) {
 			partitions[idx] = newPartition;
 		}
+		partitionChangedListener.positionChanged(x, y);
 
 		return newPartitionObject.playerId;
 	}
 
+	/**
+	 * Like {@link #changePartitionUncheckedAt(int, int, short)}, but the offers, requests and jobless of the position are only moved to the new
+	 * partition when the given transfer is executed.
+	 */
+	private void changePartitionUncheckedAt(int x, int y, short newPartition, PositionsTransfer transfer) {
+		int idx = x + y * width;
+		Partition oldPartitionObject = partitionObjects[partitions[idx]];
+		Partition newPartitionObject = partitionObjects[newPartition];
+
+		oldPartitionObject.removePositionTo(x, y, newPartitionObject, transfer);
+		synchronized (partitionsWriteLock) {
+			partitions[idx] = newPartition;
+		}
+		partitionChangedListener.positionChanged(x, y);
+	}
+
 	private void notifyPlayerChangedListener(int x, int y, byte newPlayer) {
 		playerChangedListener.playerChangedAt(x, y, newPlayer);
 	}
@@ -697,6 +721,21 @@ public final class PartitionsGrid implements Serializable {
 		}
 	}
 
+	/**
+	 * Sets the given listener. The listener will then be informed of any positions that change their partition. This includes the changes of the
+	 * player as well as the relabeling of divided partitions.
+	 * 
+	 * @param listener
+	 *            The listener to be set or null if no listener should be set.
+	 */
+	public void setPartitionChangedListener(IPositionChangedListener listener) {
+		if (listener == null) {
+			this.partitionChangedListener = IPositionChangedListener.DEFAULT_IMPLEMENTATION;
+		} else {
+			this.partitionChangedListener = listener;
+		}
+	}
+
 	public byte getNumberOfPlayers() {
 		return (byte) players.length;
 	}
@@ -14,6 +14,8 @@
  *******************************************************************************/
 package jsettlers.logic.map.grid.partition.manager;
 
+import java8.util.function.Function;
+import java8.util.function.ToIntFunction;
 import jsettlers.common.material.EMaterialType;
 import jsettlers.common.movable.EDirection;
 import jsettlers.common.movable.EMovableType;
@@ -51,6 +53,7 @@ import jsettlers.logic.timer.IScheduledTimerable;
 import jsettlers.logic.timer.RescheduleTimer;
 
 import java.io.Serializable;
+import java.util.BitSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 
@@ -252,6 +255,70 @@ public class PartitionManager implements IScheduledTimerable, Serializable, IWor
 		}
 	}
 
+	/**
+	 * Removes all positions of the given transfer that belong to this manager. The same is done as by
+	 * {@link #removePositionTo(int, int, PartitionManager, boolean)} for every position, but with only one pass over every list.
+	 *
+	 * @param transfer
+	 * 		the transfer of the positions
+	 */
+	void removePositionsTo(PositionsTransfer transfer) {
+		ToIntFunction<ShortPoint2D> positionIndexes = position -> transfer.getIndexOf(position, this);
+		ToIntFunction<ShortPoint2D> samePlayerPositionIndexes = position -> {
+			int positionIndex = transfer.getIndexOf(position, this);
+			return positionIndex >= 0 && transfer.hasNewSamePlayer(positionIndex) ? positionIndex : -1;
+		};
+
+		materialOffers.moveOffersAtPositionsTo(transfer, positionIndexes, positionIndex -> transfer.getNewManager(positionIndex).materialOffers);
+
+		materialsManager.movePositionsTo(transfer, samePlayerPositionIndexes, positionIndex -> transfer.getNewManager(positionIndex).materialsManager);
+
+		joblessBearer.removeObjectsAt(firstObjectAt(samePlayerPositionIndexes),
+				(bearer, positionIndex) -> transfer.deferInsertion(positionIndex, () -> transfer.getNewManager(positionIndex).addJobless(bearer)));
+		joblessBricklayers.removeObjectsAt(firstObjectAt(samePlayerPositionIndexes),
+				(bricklayer, positionIndex) -> transfer.deferInsertion(positionIndex, () -> transfer.getNewManager(positionIndex).addJobless(bricklayer)));
+		joblessDiggers.removeObjectsAt(firstObjectAt(samePlayerPositionIndexes),
+				(digger, positionIndex) -> transfer.deferInsertion(positionIndex, () -> transfer.getNewManager(positionIndex).addJobless(digger)));
+		joblessWorkers.removeObjectsAt(firstObjectAt(samePlayerPositionIndexes),
+				(worker, positionIndex) -> transfer.deferInsertion(positionIndex, () -> transfer.getNewManager(positionIndex).addJobless(worker)));
+
+		removePositionsTo(transfer, positionIndexes, this.workerCreationRequests, manager -> manager.workerCreationRequests);
+		removePositionsTo(transfer, positionIndexes, this.bricklayerRequests, manager -> manager.bricklayerRequests);
+		removePositionsTo(transfer, positionIndexes, this.diggerRequests, manager -> manager.diggerRequests);
+		removePositionsTo(transfer, positionIndexes, this.workerRequests, manager -> manager.workerRequests);
+		removePositionsTo(transfer, positionIndexes, this.soldierCreationRequests, manager -> manager.soldierCreationRequests);
+	}
+
+	/**
+	 * Only the first jobless at a position is moved, as {@link PositionableList#removeObjectAt(ShortPoint2D)} does.
+	 */
+	private static ToIntFunction<ShortPoint2D> firstObjectAt(ToIntFunction<ShortPoint2D> positionIndexes) {
+		BitSet movedPositions = new BitSet();
+		return position -> {
+			int positionIndex = positionIndexes.applyAsInt(position);
+			if (positionIndex < 0 || movedPositions.get(positionIndex)) {
+				return -1;
+			}
+			movedPositions.set(positionIndex);
+			return positionIndex;
+		};
+	}
+
+	private <T extends ILocatable> void removePositionsTo(PositionsTransfer transfer, ToIntFunction<ShortPoint2D> positionIndexes, LinkedList<T> fromList,
+			Function<PartitionManager, LinkedList<T>> toLists) {
+		Iterator<T> iter = fromList.iterator();
+		while (iter.hasNext()) {
+			T curr = iter.next();
+			int positionIndex = positionIndexes.applyAsInt(curr.getPos());
+			if (positionIndex >= 0) {
+				iter.remove();
+				if (transfer.hasNewSamePlayer(positionIndex)) {
+					transfer.deferInsertion(positionIndex, () -> toLists.apply(transfer.getNewManager(positionIndex)).offer(curr));
+				}
+			}
+		}
+	}
+
 	public final void mergeInto(PartitionManager newManager) {
 		newManager.bricklayerRequests.addAll(this.bricklayerRequests);
 		newManager.diggerRequests.addAll(this.diggerRequests);
@@ -0,0 +1,127 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.logic.map.grid.partition.manager;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+
+import jsettlers.common.position.ShortPoint2D;
+
+/**
+ * Collects the positions changing their {@link PartitionManager} while a whole area changes its partitions (e.g. when a tower occupies an area).
+ * <p />
+ * The offers, requests and jobless of these positions are moved with a single pass over the lists of every old manager, instead of one pass per
+ * position. Their insertions into the lists of the new managers are deferred and run in the order the positions have been added. Therefore the
+ * lists end up exactly like moving the positions one after another with
+ * {@link PartitionManager#removePositionTo(int, int, PartitionManager, boolean)}.
+ *
+ * @author agent
+ */
+public final class PositionsTransfer {
+	private final HashMap<ShortPoint2D, Integer> positionIndexes = new HashMap<>();
+	private final ArrayList<PartitionManager> oldManagers = new ArrayList<>();
+	private final ArrayList<PartitionManager> newManagers = new ArrayList<>();
+	private final BitSet newHasSamePlayer = new BitSet();
+
+	private final ArrayList<DeferredInsertion> insertions = new ArrayList<>();
+
+	/**
+	 * Adds a position to this transfer. Every position must only be added once.
+	 *
+	 * @param x
+	 * 		x coordinate of the position
+	 * @param y
+	 * 		y coordinate of the position
+	 * @param oldManager
+	 * 		manager the position is removed from
+	 * @param newManager
+	 * 		manager receiving the position
+	 * @param newHasSamePlayer
+	 * 		Specifies if the new manager has the same player. If so, requests and jobless also need to be moved.
+	 */
+	public void addPosition(int x, int y, PartitionManager oldManager, PartitionManager newManager, boolean newHasSamePlayer) {
+		int positionIndex = newManagers.size();
+		positionIndexes.put(new ShortPoint2D(x, y), positionIndex);
+		oldManagers.add(oldManager);
+		newManagers.add(newManager);
+		this.newHasSamePlayer.set(positionIndex, newHasSamePlayer);
+	}
+
+	/**
+	 * Moves the offers, requests and jobless of all added positions to their new managers and clears this transfer.
+	 */
+	public void execute() {
+		for (PartitionManager oldManager : new LinkedHashSet<>(oldManagers)) {
+			oldManager.removePositionsTo(this);
+		}
+
+		Collections.sort(insertions); // the sort is stable => objects of the same position keep the order of their old list
+		for (DeferredInsertion insertion : insertions) {
+			insertion.insertion.run();
+		}
+
+		positionIndexes.clear();
+		oldManagers.clear();
+		newManagers.clear();
+		newHasSamePlayer.clear();
+		insertions.clear();
+	}
+
+	/**
+	 * @return the index of the given position or -1 if the position is not part of this transfer or is removed from another manager.
+	 */
+	int getIndexOf(ShortPoint2D position, PartitionManager oldManager) {
+		Integer positionIndex = positionIndexes.get(position);
+		return positionIndex != null && oldManagers.get(positionIndex) == oldManager ? positionIndex : -1;
+	}
+
+	PartitionManager getNewManager(int positionIndex) {
+		return newManagers.get(positionIndex);
+	}
+
+	boolean hasNewSamePlayer(int positionIndex) {
+		return newHasSamePlayer.get(positionIndex);
+	}
+
+	/**
+	 * Defers the insertion of an object removed from an old manager into the lists of its new manager.
+	 *
+	 * @param positionIndex
+	 * 		index of the position of the object
+	 * @param insertion
+	 * 		inserts the object into the lists of the new manager
+	 */
+	public void deferInsertion(int positionIndex, Runnable insertion) {
+		insertions.add(new DeferredInsertion(positionIndex, insertion));
+	}
+
+	private static final class DeferredInsertion implements Comparable<DeferredInsertion> {
+		private final int positionIndex;
+		private final Runnable insertion;
+
+		DeferredInsertion(int positionIndex, Runnable insertion) {
+			this.positionIndex = positionIndex;
+			this.insertion = insertion;
+		}
+
+		@Override
+		public int compareTo(DeferredInsertion other) {
+			return Integer.compare(positionIndex, other.positionIndex);
+		}
+	}
+}
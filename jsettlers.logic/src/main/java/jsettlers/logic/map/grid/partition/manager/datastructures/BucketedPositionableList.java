@@ -0,0 +1,459 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.logic.map.grid.partition.manager.datastructures;
+
+import java8.util.function.Consumer;
+import java8.util.function.ObjIntConsumer;
+import java8.util.function.ToIntFunction;
+import jsettlers.common.position.ILocatable;
+import jsettlers.common.position.ShortPoint2D;
+import jsettlers.common.utils.MathUtils;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * An {@link IPositionableList} that sorts its objects into a coarse grid of buckets. The nearest object is searched in rings of buckets around the
+ * given position and objects at a position are found by only looking at one bucket.<br>
+ * The results are the same as the ones of the {@link PositionableList}: Of objects with the same distance, the one inserted first is used.<br>
+ * <b>NOTE:</b> The positions of the objects must not change while they are in this list.
+ *
+ * @param <T>
+ * @author agent
+ */
+public class BucketedPositionableList<T extends ILocatable> implements IPositionableList<T>, Serializable {
+	private static final long serialVersionUID = -2848466212720640212L;
+
+	private static final int BUCKET_SIZE_SHIFT = 4;
+	private static final int BUCKET_SIZE = 1 << BUCKET_SIZE_SHIFT;
+
+	private static final Comparator<Entry<?>> INSERTION_ORDER = (entry1, entry2) -> Long.compare(entry1.insertionIndex, entry2.insertionIndex);
+
+	private transient ArrayList<Entry<T>>[] buckets;
+	private transient int widthInBuckets;
+	private transient int heightInBuckets;
+
+	private transient int size;
+	private transient long nextInsertionIndex;
+
+	/**
+	 * Bounds of the buckets containing objects. They are only reset when the list gets empty.
+	 */
+	private transient int minBucketX;
+	private transient int minBucketY;
+	private transient int maxBucketX;
+	private transient int maxBucketY;
+
+	public BucketedPositionableList() {
+		initBuckets();
+	}
+
+	@SuppressWarnings("unchecked")
+	private void initBuckets() {
+		buckets = (ArrayList<Entry<T>>[]) new ArrayList<?>[0];
+		widthInBuckets = 0;
+		heightInBuckets = 0;
+		size = 0;
+		nextInsertionIndex = 0;
+		resetBounds();
+	}
+
+	private void resetBounds() {
+		minBucketX = Integer.MAX_VALUE;
+		minBucketY = Integer.MAX_VALUE;
+		maxBucketX = -1;
+		maxBucketY = -1;
+	}
+
+	/**
+	 * @param object
+	 * 		The object to be checked.
+	 * @return true if the object can be returned by {@link #getObjectCloseTo(ShortPoint2D)} and {@link #removeObjectNextTo(ShortPoint2D)}.
+	 */
+	protected boolean isAccepted(T object) {
+		return true;
+	}
+
+	/**
+	 * @param object
+	 * 		The object to be checked.
+	 * @return true if the object is no longer needed and can be removed when it's found by a search.
+	 */
+	protected boolean canBeRemoved(T object) {
+		return false;
+	}
+
+	@Override
+	public void insert(T object) {
+		ShortPoint2D position = object.getPos();
+		int bucketX = position.x >> BUCKET_SIZE_SHIFT;
+		int bucketY = position.y >> BUCKET_SIZE_SHIFT;
+		assert bucketX >= 0 && bucketY >= 0 : "Positions must not be negative: " + position;
+
+		ensureCapacity(bucketX, bucketY);
+
+		int bucketIndex = bucketX + bucketY * widthInBuckets;
+		ArrayList<Entry<T>> bucket = buckets[bucketIndex];
+		if (bucket == null) {
+			bucket = new ArrayList<>();
+			buckets[bucketIndex] = bucket;
+		}
+		bucket.add(new Entry<>(object, nextInsertionIndex++));
+		size++;
+
+		minBucketX = Math.min(minBucketX, bucketX);
+		minBucketY = Math.min(minBucketY, bucketY);
+		maxBucketX = Math.max(maxBucketX, bucketX);
+		maxBucketY = Math.max(maxBucketY, bucketY);
+	}
+
+	@SuppressWarnings("unchecked")
+	private void ensureCapacity(int bucketX, int bucketY) {
+		if (bucketX < widthInBuckets && bucketY < heightInBuckets) {
+			return;
+		}
+
+		int newWidth = Math.max(widthInBuckets, bucketX + 1);
+		int newHeight = Math.max(heightInBuckets, bucketY + 1);
+		ArrayList<Entry<T>>[] newBuckets = (ArrayList<Entry<T>>[]) new ArrayList<?>[newWidth * newHeight];
+		for (int y = 0; y < heightInBuckets; y++) {
+			System.arraycopy(buckets, y * widthInBuckets, newBuckets, y * newWidth, widthInBuckets);
+		}
+
+		buckets = newBuckets;
+		widthInBuckets = newWidth;
+		heightInBuckets = newHeight;
+	}
+
+	private ArrayList<Entry<T>> getBucket(int bucketX, int bucketY) {
+		if (bucketX < 0 || bucketY < 0 || bucketX >= widthInBuckets || bucketY >= heightInBuckets) {
+			return null;
+		}
+		return buckets[bucketX + bucketY * widthInBuckets];
+	}
+
+	private ArrayList<Entry<T>> getBucketOf(ShortPoint2D position) {
+		return getBucket(position.x >> BUCKET_SIZE_SHIFT, position.y >> BUCKET_SIZE_SHIFT);
+	}
+
+	private void entryRemoved() {
+		size--;
+		if (size == 0) {
+			resetBounds();
+		}
+	}
+
+	@Override
+	public T removeObjectAt(ShortPoint2D position) {
+		ArrayList<Entry<T>> bucket = getBucketOf(position);
+		if (bucket != null) {
+			for (int i = 0; i < bucket.size(); i++) {
+				T object = bucket.get(i).object;
+				if (object.getPos().equals(position)) {
+					bucket.remove(i);
+					entryRemoved();
+					return object;
+				}
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public T getObjectAt(ShortPoint2D position) {
+		ArrayList<Entry<T>> bucket = getBucketOf(position);
+		if (bucket != null) {
+			for (Entry<T> entry : bucket) {
+				if (entry.object.getPos().equals(position)) {
+					return entry.object;
+				}
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public T removeObjectNextTo(ShortPoint2D position) {
+		Entry<T> closestEntry = findClosestEntry(position);
+		if (closestEntry == null) {
+			return null;
+		}
+
+		getBucketOf(closestEntry.object.getPos()).remove(closestEntry);
+		entryRemoved();
+		return closestEntry.object;
+	}
+
+	/**
+	 * @param position
+	 * 		The position to search around.
+	 * @return The accepted object closest to the given position or null if there is none.
+	 */
+	public T getObjectCloseTo(ShortPoint2D position) {
+		Entry<T> closestEntry = findClosestEntry(position);
+		return closestEntry != null ? closestEntry.object : null;
+	}
+
+	/**
+	 * Searches the rings of buckets around the bucket of the given position until no closer object can be found in the next ring.
+	 */
+	private Entry<T> findClosestEntry(ShortPoint2D position) {
+		if (size == 0) {
+			return null;
+		}
+
+		int centerX = position.x >> BUCKET_SIZE_SHIFT;
+		int centerY = position.y >> BUCKET_SIZE_SHIFT;
+
+		int firstRing = Math.max(0, Math.max(Math.max(minBucketX - centerX, centerX - maxBucketX), Math.max(minBucketY - centerY, centerY - maxBucketY)));
+		int lastRing = Math.max(Math.max(centerX - minBucketX, maxBucketX - centerX), Math.max(centerY - minBucketY, maxBucketY - centerY));
+
+		Entry<T> closestEntry = null;
+		for (int ring = firstRing; ring <= lastRing && size > 0; ring++) {
+			if (closestEntry != null) {
+				// every position in this ring is at least this far away on one axis
+				int minRingDistance = (ring - 1) * BUCKET_SIZE + 1;
+				if (minRingDistance * minRingDistance > MathUtils.squareHypot(position, closestEntry.object.getPos())) {
+					break;
+				}
+			}
+
+			int startY = Math.max(minBucketY, centerY - ring);
+			int endY = Math.min(maxBucketY, centerY + ring);
+			for (int bucketY = startY; bucketY <= endY; bucketY++) {
+				if (bucketY == centerY - ring || bucketY == centerY + ring) {
+					int startX = Math.max(minBucketX, centerX - ring);
+					int endX = Math.min(maxBucketX, centerX + ring);
+					for (int bucketX = startX; bucketX <= endX; bucketX++) {
+						closestEntry = findClosestEntryInBucket(bucketX, bucketY, position, closestEntry);
+					}
+				} else {
+					closestEntry = findClosestEntryInBucket(centerX - ring, bucketY, position, closestEntry);
+					closestEntry = findClosestEntryInBucket(centerX + ring, bucketY, position, closestEntry);
+				}
+			}
+		}
+		return closestEntry;
+	}
+
+	private Entry<T> findClosestEntryInBucket(int bucketX, int bucketY, ShortPoint2D position, Entry<T> closestEntry) {
+		ArrayList<Entry<T>> bucket = getBucket(bucketX, bucketY);
+		if (bucket == null) {
+			return closestEntry;
+		}
+
+		int bestDistance = closestEntry != null ? MathUtils.squareHypot(position, closestEntry.object.getPos()) : Integer.MAX_VALUE;
+
+		for (Iterator<Entry<T>> iterator = bucket.iterator(); iterator.hasNext(); ) {
+			Entry<T> entry = iterator.next();
+			T object = entry.object;
+
+			if (canBeRemoved(object)) { // remove old entries no longer needed
+				iterator.remove();
+				entryRemoved();
+
+			} else if (isAccepted(object)) {
+				int distance = MathUtils.squareHypot(position, object.getPos());
+
+				if (distance < bestDistance || (distance == bestDistance && entry.insertionIndex < closestEntry.insertionIndex)) {
+					bestDistance = distance;
+					closestEntry = entry;
+				}
+			}
+		}
+		return closestEntry;
+	}
+
+	/**
+	 * @return true if this list contains no object accepted by {@link #isAccepted(ILocatable)}.
+	 */
+	public boolean hasNoAcceptedObject() {
+		for (int bucketY = Math.max(0, minBucketY); bucketY <= maxBucketY; bucketY++) {
+			for (int bucketX = Math.max(0, minBucketX); bucketX <= maxBucketX; bucketX++) {
+				ArrayList<Entry<T>> bucket = getBucket(bucketX, bucketY);
+				if (bucket == null) {
+					continue;
+				}
+
+				for (Iterator<Entry<T>> iterator = bucket.iterator(); iterator.hasNext(); ) {
+					T object = iterator.next().object;
+
+					if (canBeRemoved(object)) {
+						iterator.remove();
+						entryRemoved();
+
+					} else if (isAccepted(object)) {
+						return false;
+					}
+				}
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public void remove(T object) {
+		ArrayList<Entry<T>> bucket = getBucketOf(object.getPos());
+		if (bucket != null) {
+			for (int i = 0; i < bucket.size(); i++) {
+				if (object.equals(bucket.get(i).object)) {
+					bucket.remove(i);
+					entryRemoved();
+					return;
+				}
+			}
+		}
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public void removeAll(Consumer<T> removedObjectsConsumer) {
+		List<Entry<T>> entries = getEntriesInInsertionOrder();
+		initBuckets();
+
+		for (Entry<T> entry : entries) {
+			removedObjectsConsumer.accept(entry.object);
+		}
+	}
+
+	@Override
+	public void moveAll(IPositionableList<T> otherList, Consumer<T> movedVisitor) {
+		otherList.removeAll(movedObject -> {
+			movedVisitor.accept(movedObject);
+			insert(movedObject);
+		});
+	}
+
+	@Override
+	public void moveObjectsAtPositionTo(ShortPoint2D position, IPositionableList<T> newList, Consumer<T> movedVisitor) {
+		ArrayList<Entry<T>> bucket = getBucketOf(position);
+		if (bucket == null) {
+			return;
+		}
+
+		for (Iterator<Entry<T>> iterator = bucket.iterator(); iterator.hasNext(); ) {
+			T object = iterator.next().object;
+			if (object.getPos().equals(position)) {
+				iterator.remove();
+				entryRemoved();
+				movedVisitor.accept(object);
+				newList.insert(object);
+			}
+		}
+	}
+
+	@Override
+	public void removeObjectsAt(ToIntFunction<ShortPoint2D> positionIndexes, ObjIntConsumer<T> removedObjectsConsumer) {
+		List<Entry<T>> removedEntries = new ArrayList<>();
+		for (ArrayList<Entry<T>> bucket : buckets) {
+			if (bucket == null) {
+				continue;
+			}
+
+			for (Iterator<Entry<T>> iterator = bucket.iterator(); iterator.hasNext(); ) {
+				Entry<T> entry = iterator.next();
+				if (positionIndexes.applyAsInt(entry.object.getPos()) >= 0) {
+					iterator.remove();
+					entryRemoved();
+					removedEntries.add(entry);
+				}
+			}
+		}
+
+		Collections.sort(removedEntries, INSERTION_ORDER);
+		for (Entry<T> entry : removedEntries) {
+			removedObjectsConsumer.accept(entry.object, positionIndexes.applyAsInt(entry.object.getPos()));
+		}
+	}
+
+	private List<Entry<T>> getEntriesInInsertionOrder() {
+		List<Entry<T>> entries = new ArrayList<>(size);
+		for (ArrayList<Entry<T>> bucket : buckets) {
+			if (bucket != null) {
+				entries.addAll(bucket);
+			}
+		}
+		Collections.sort(entries, INSERTION_ORDER);
+		return entries;
+	}
+
+	private List<T> getObjectsInInsertionOrder() {
+		List<T> objects = new ArrayList<>(size);
+		for (Entry<T> entry : getEntriesInInsertionOrder()) {
+			objects.add(entry.object);
+		}
+		return objects;
+	}
+
+	@Override
+	public String toString() {
+		return getObjectsInInsertionOrder().toString();
+	}
+
+	private void writeObject(ObjectOutputStream oos) throws IOException {
+		oos.defaultWriteObject();
+
+		List<T> objects = getObjectsInInsertionOrder();
+		oos.writeInt(objects.size());
+		for (T object : objects) {
+			oos.writeObject(object);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void readObject(ObjectInputStream ois) throws IOException, ClassNotFoundException {
+		ois.defaultReadObject();
+		initBuckets();
+
+		int numberOfObjects = ois.readInt();
+		List<T> objects = new ArrayList<>(numberOfObjects);
+		for (int i = 0; i < numberOfObjects; i++) {
+			objects.add((T) ois.readObject());
+		}
+
+		// the objects may not be completely read yet, so their positions are only accessed after the whole graph has been read
+		ois.registerValidation(() -> {
+			for (T object : objects) {
+				insert(object);
+			}
+		}, 0);
+	}
+
+	private static final class Entry<T> {
+		final T object;
+		final long insertionIndex;
+
+		Entry(T object, long insertionIndex) {
+			this.object = object;
+			this.insertionIndex = insertionIndex;
+		}
+	}
+}
@@ -0,0 +1,80 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.logic.map.grid.partition.manager.datastructures;
+
+import java8.util.function.Consumer;
+import java8.util.function.ObjIntConsumer;
+import java8.util.function.ToIntFunction;
+import jsettlers.common.position.ILocatable;
+import jsettlers.common.position.ShortPoint2D;
+
+/**
+ * Operations of a data structure storing objects at given positions.<br>
+ * Implemented by the linear {@link PositionableList} and the {@link BucketedPositionableList}.
+ *
+ * @param <T>
+ * @author agent
+ */
+public interface IPositionableList<T extends ILocatable> {
+	void insert(T object);
+
+	T removeObjectAt(ShortPoint2D position);
+
+	/**
+	 * Returns the first object found at the given position or null.
+	 *
+	 * @param position
+	 * 		The position to look for.
+	 * @return Returns the found object at the given position or null if no object has been found.
+	 */
+	T getObjectAt(ShortPoint2D position);
+
+	/**
+	 * Finds the object that's closest to the given position and removes it.
+	 *
+	 * @param position
+	 * 		position to be used to find the nearest accepted neighbor around it.
+	 * @return accepted object that's nearest to position
+	 */
+	T removeObjectNextTo(ShortPoint2D position);
+
+	void moveAll(IPositionableList<T> otherList, Consumer<T> movedVisitor);
+
+	/**
+	 * Removes all objects of this list.
+	 *
+	 * @param removedObjectsConsumer
+	 * 		Receives the removed objects in the order they have been inserted.
+	 */
+	void removeAll(Consumer<T> removedObjectsConsumer);
+
+	void remove(T object);
+
+	boolean isEmpty();
+
+	void moveObjectsAtPositionTo(ShortPoint2D position, IPositionableList<T> newList, Consumer<T> movedVisitor);
+
+	/**
+	 * Removes all objects at positions the given function maps to an index.
+	 *
+	 * @param positionIndexes
+	 * 		Returns the index of the given position or -1 if the objects at this position stay in this list.
+	 * @param removedObjectsConsumer
+	 * 		Receives the removed objects together with the index of their position.
+	 */
+	void removeObjectsAt(ToIntFunction<ShortPoint2D> positionIndexes, ObjIntConsumer<T> removedObjectsConsumer);
+
+	int size();
+}
@@ -15,6 +15,8 @@
 package jsettlers.logic.map.grid.partition.manager.datastructures;
 
 import java8.util.function.Consumer;
+import java8.util.function.ObjIntConsumer;
+import java8.util.function.ToIntFunction;
 import jsettlers.common.position.ILocatable;
 import jsettlers.common.position.ShortPoint2D;
 import jsettlers.common.utils.MathUtils;
@@ -30,7 +32,7 @@ import java.util.LinkedList;
  * @param <T>
  * @author Andreas Eberle
  */
-public class PositionableList<T extends ILocatable> implements Serializable {
+public class PositionableList<T extends ILocatable> implements IPositionableList<T>, Serializable {
 	private static final long serialVersionUID = 414099060331344505L;
 
 	protected final LinkedList<T> data;
@@ -108,19 +110,28 @@ public class PositionableList<T extends ILocatable> implements Serializable {
 		return data.toString();
 	}
 
-	public void moveAll(PositionableList<T> otherList) {
-		LinkedList<T> othersData = otherList.data;
-		data.addAll(othersData);
-		othersData.clear();
+	public void moveAll(IPositionableList<T> otherList) {
+		otherList.removeAll(this::insert);
 	}
 
-	public void moveAll(PositionableList<T> otherList, Consumer<T> movedVisitor) {
-		LinkedList<T> othersData = otherList.data;
-		for (T othersDatum : othersData) {
-			movedVisitor.accept(othersDatum);
-			data.add(othersDatum);
+	public void moveAll(IPositionableList<T> otherList, Consumer<T> movedVisitor) {
+		otherList.removeAll(movedObject -> {
+			movedVisitor.accept(movedObject);
+			insert(movedObject);
+		});
+	}
+
+	/**
+	 * Removes all objects of this list.
+	 *
+	 * @param removedObjectsConsumer
+	 * 		Receives the removed objects in the order they have been inserted.
+	 */
+	public void removeAll(Consumer<T> removedObjectsConsumer) {
+		for (T object : data) {
+			removedObjectsConsumer.accept(object);
 		}
-		othersData.clear();
+		data.clear();
 	}
 
 	public void remove(T object) {
@@ -131,14 +142,34 @@ public class PositionableList<T extends ILocatable> implements Serializable {
 		return data.isEmpty();
 	}
 
-	public void moveObjectsAtPositionTo(ShortPoint2D position, PositionableList<T> newList, Consumer<T> movedVisitor) {
+	public void moveObjectsAtPositionTo(ShortPoint2D position, IPositionableList<T> newList, Consumer<T> movedVisitor) {
 		Iterator<T> iterator = data.iterator();
 		while (iterator.hasNext()) {
 			T curr = iterator.next();
 			if (curr.getPos().equals(position)) {
 				iterator.remove();
 				movedVisitor.accept(curr);
-				newList.data.add(curr);
+				newList.insert(curr);
+			}
+		}
+	}
+
+	/**
+	 * Removes all objects at positions the given function maps to an index.
+	 *
+	 * @param positionIndexes
+	 * 		Returns the index of the given position or -1 if the objects at this position stay in this list.
+	 * @param removedObjectsConsumer
+	 * 		Receives the removed objects together with the index of their position.
+	 */
+	public void removeObjectsAt(ToIntFunction<ShortPoint2D> positionIndexes, ObjIntConsumer<T> removedObjectsConsumer) {
+		Iterator<T> iterator = data.iterator();
+		while (iterator.hasNext()) {
+			T curr = iterator.next();
+			int positionIndex = positionIndexes.applyAsInt(curr.getPos());
+			if (positionIndex >= 0) {
+				iterator.remove();
+				removedObjectsConsumer.accept(curr, positionIndex);
 			}
 		}
 	}
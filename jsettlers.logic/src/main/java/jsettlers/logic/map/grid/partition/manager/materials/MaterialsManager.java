@@ -14,9 +14,12 @@
  *******************************************************************************/
 package jsettlers.logic.map.grid.partition.manager.materials;
 
+import java8.util.function.IntFunction;
+import java8.util.function.ToIntFunction;
 import jsettlers.common.map.partition.IPartitionSettings;
 import jsettlers.common.material.EMaterialType;
 import jsettlers.common.position.ShortPoint2D;
+import jsettlers.logic.map.grid.partition.manager.PositionsTransfer;
 import jsettlers.logic.map.grid.partition.manager.materials.interfaces.IJoblessSupplier;
 import jsettlers.logic.map.grid.partition.manager.materials.interfaces.IManagerBearer;
 import jsettlers.logic.map.grid.partition.manager.materials.offers.EOfferPriority;
@@ -123,6 +126,13 @@ public final class MaterialsManager implements Serializable {
 		}
 	}
 
+	public void movePositionsTo(PositionsTransfer transfer, ToIntFunction<ShortPoint2D> positionIndexes, IntFunction<MaterialsManager> newManagers) {
+		for (int i = 0; i < EMaterialType.NUMBER_OF_MATERIALS; i++) {
+			final int materialTypeIndex = i;
+			requestQueues[i].moveObjectsOfPositionsTo(transfer, positionIndexes, positionIndex -> newManagers.apply(positionIndex).requestQueues[materialTypeIndex]);
+		}
+	}
+
 	public void mergeInto(MaterialsManager newManager) {
 		for (int i = 0; i < EMaterialType.NUMBER_OF_MATERIALS; i++) {
 			requestQueues[i].mergeInto(newManager.requestQueues[i]);
@@ -14,9 +14,12 @@
  *******************************************************************************/
 package jsettlers.logic.map.grid.partition.manager.materials.offers;
 
+import java8.util.function.IntFunction;
+import java8.util.function.ToIntFunction;
 import jsettlers.common.material.EMaterialType;
 import jsettlers.common.position.ShortPoint2D;
 import jsettlers.logic.map.grid.partition.data.MaterialCounts;
+import jsettlers.logic.map.grid.partition.manager.PositionsTransfer;
 import jsettlers.logic.map.grid.partition.manager.materials.interfaces.IOfferEmptiedListener;
 import jsettlers.logic.map.grid.partition.manager.materials.offers.list.PrioritizedPositionableList;
 
@@ -137,6 +140,28 @@ public final class OffersList implements Serializable {
 		}
 	}
 
+	/**
+	 * Removes the offers at the positions of the given transfer. They are added to the {@link OffersList} of their new position when the transfer
+	 * runs its insertions.
+	 *
+	 * @param transfer
+	 * 		The transfer the insertions into the new lists are deferred to.
+	 * @param positionIndexes
+	 * 		Returns the index of the given position in the transfer or -1 if the offers at this position stay in this list.
+	 * @param newOffersLists
+	 * 		Returns the list receiving the offers of the position with the given index.
+	 */
+	public void moveOffersAtPositionsTo(PositionsTransfer transfer, ToIntFunction<ShortPoint2D> positionIndexes, IntFunction<OffersList> newOffersLists) {
+		for (int materialTypeIndex = 0; materialTypeIndex < EMaterialType.NUMBER_OF_MATERIALS; materialTypeIndex++) {
+			final int newMaterialTypeIndex = materialTypeIndex;
+			offersLists[materialTypeIndex].removeObjectsAt(positionIndexes, (movedOffer, positionIndex) -> transfer.deferInsertion(positionIndex, () -> {
+				OffersList newOffersList = newOffersLists.apply(positionIndex);
+				movedOffer.changeOffersCountListener(newOffersList.materialCounts);
+				newOffersList.offersLists[newMaterialTypeIndex].insert(movedOffer);
+			}));
+		}
+	}
+
 	public void moveAll(OffersList otherList) {
 		for (int materialTypeIndex = 0; materialTypeIndex < EMaterialType.NUMBER_OF_MATERIALS; materialTypeIndex++) {
 			offersLists[materialTypeIndex].moveAll(otherList.offersLists[materialTypeIndex], movedOffer -> movedOffer.changeOffersCountListener(materialCounts));
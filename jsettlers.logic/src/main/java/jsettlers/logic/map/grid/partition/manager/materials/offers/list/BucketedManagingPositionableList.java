@@ -0,0 +1,123 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.logic.map.grid.partition.manager.materials.offers.list;
+
+import java8.util.function.Consumer;
+import java8.util.function.ObjIntConsumer;
+import java8.util.function.ToIntFunction;
+import jsettlers.common.position.ILocatable;
+import jsettlers.common.position.ShortPoint2D;
+import jsettlers.logic.map.grid.partition.manager.datastructures.BucketedPositionableList;
+import jsettlers.logic.map.grid.partition.manager.datastructures.IPositionableList;
+
+import java.io.Serializable;
+
+/**
+ * An {@link IManagingPositionableList} that keeps its objects in a {@link BucketedPositionableList}.<br>
+ * Inactive objects are skipped and objects that can be removed are removed when they are found by a search. Other than the
+ * {@link ManagingPositionableList} a search doesn't look at all objects, so objects that can be removed may stay in the list longer.
+ *
+ * @param <T>
+ * @author agent
+ */
+public class BucketedManagingPositionableList<T extends ILocatable & IListManageable> implements IManagingPositionableList<T>, Serializable {
+	private static final long serialVersionUID = 6180236425357326935L;
+
+	private final BucketedPositionableList<T> objects = new ManagedBucketedPositionableList<>();
+
+	@Override
+	public void insert(T object) {
+		objects.insert(object);
+	}
+
+	@Override
+	public T removeObjectAt(ShortPoint2D position) {
+		return objects.removeObjectAt(position);
+	}
+
+	@Override
+	public T getObjectAt(ShortPoint2D position) {
+		return objects.getObjectAt(position);
+	}
+
+	@Override
+	public T removeObjectNextTo(ShortPoint2D position) {
+		return objects.removeObjectNextTo(position);
+	}
+
+	@Override
+	public T getObjectCloseTo(ShortPoint2D position) {
+		return objects.getObjectCloseTo(position);
+	}
+
+	@Override
+	public boolean hasNoActive() {
+		return objects.hasNoAcceptedObject();
+	}
+
+	@Override
+	public void remove(T object) {
+		objects.remove(object);
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return objects.isEmpty();
+	}
+
+	@Override
+	public int size() {
+		return objects.size();
+	}
+
+	@Override
+	public void removeAll(Consumer<T> removedObjectsConsumer) {
+		objects.removeAll(removedObjectsConsumer);
+	}
+
+	@Override
+	public void moveAll(IPositionableList<T> otherList, Consumer<T> movedVisitor) {
+		objects.moveAll(otherList, movedVisitor);
+	}
+
+	@Override
+	public void moveObjectsAtPositionTo(ShortPoint2D position, IPositionableList<T> newList, Consumer<T> movedVisitor) {
+		objects.moveObjectsAtPositionTo(position, newList, movedVisitor);
+	}
+
+	@Override
+	public void removeObjectsAt(ToIntFunction<ShortPoint2D> positionIndexes, ObjIntConsumer<T> removedObjectsConsumer) {
+		objects.removeObjectsAt(positionIndexes, removedObjectsConsumer);
+	}
+
+	@Override
+	public String toString() {
+		return objects.toString();
+	}
+
+	private static class ManagedBucketedPositionableList<T extends ILocatable & IListManageable> extends BucketedPositionableList<T> {
+		private static final long serialVersionUID = -3120577386521339573L;
+
+		@Override
+		protected boolean isAccepted(T object) {
+			return object.isActive();
+		}
+
+		@Override
+		protected boolean canBeRemoved(T object) {
+			return object.canBeRemoved();
+		}
+	}
+}
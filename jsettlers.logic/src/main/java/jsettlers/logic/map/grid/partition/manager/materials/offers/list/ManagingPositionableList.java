@@ -28,10 +28,11 @@ import java.util.Iterator;
  * @param <T>
  * @author Andreas Eberle
  */
-public class ManagingPositionableList<T extends ILocatable & IListManageable> extends PositionableList<T> {
+public class ManagingPositionableList<T extends ILocatable & IListManageable> extends PositionableList<T> implements IManagingPositionableList<T> {
+	private static final long serialVersionUID = 5373491460834642792L;
 
 	@Override
-	protected T getObjectCloseTo(ShortPoint2D position) {
+	public T getObjectCloseTo(ShortPoint2D position) {
 		int bestDistance = Integer.MAX_VALUE;
 		T currBest = null;
 
@@ -53,6 +54,7 @@ public class ManagingPositionableList<T extends ILocatable & IListManageable> ex
 		return currBest;
 	}
 
+	@Override
 	public boolean hasNoActive() {
 		for (Iterator<T> iterator = data.iterator(); iterator.hasNext(); ) {
 			T datum = iterator.next();
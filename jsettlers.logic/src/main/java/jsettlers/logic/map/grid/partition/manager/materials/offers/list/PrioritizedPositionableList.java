@@ -15,9 +15,12 @@
 package jsettlers.logic.map.grid.partition.manager.materials.offers.list;
 
 import java8.util.function.Consumer;
+import java8.util.function.ObjIntConsumer;
+import java8.util.function.ToIntFunction;
 import jsettlers.common.position.ILocatable;
 import jsettlers.common.position.ShortPoint2D;
 import jsettlers.common.utils.MathUtils;
+import jsettlers.logic.constants.MatchConstants;
 
 import java.io.Serializable;
 
@@ -25,12 +28,15 @@ import java.io.Serializable;
  * Created by Andreas Eberle on 23.08.2016.
  */
 public class PrioritizedPositionableList<P extends Enum, T extends ILocatable & IPrioritizable<P> & IListManageable> implements Serializable {
-	private final ManagingPositionableList<T>[] lists;
+	private static final long serialVersionUID = 394190964384458836L;
 
+	private final IManagingPositionableList<T>[] lists;
+
+	@SuppressWarnings("unchecked")
 	public PrioritizedPositionableList(int numberOfPriorities) {
-		lists = new ManagingPositionableList[numberOfPriorities];
+		lists = (IManagingPositionableList<T>[]) new IManagingPositionableList<?>[numberOfPriorities];
 		for (int i = 0; i < numberOfPriorities; i++) {
-			lists[i] = new ManagingPositionableList<>();
+			lists[i] = MatchConstants.ENABLE_BUCKETED_OFFER_LISTS ? new BucketedManagingPositionableList<>() : new ManagingPositionableList<>();
 		}
 	}
 
@@ -67,6 +73,12 @@ public class PrioritizedPositionableList<P extends Enum, T extends ILocatable &
 		}
 	}
 
+	public void removeObjectsAt(ToIntFunction<ShortPoint2D> positionIndexes, ObjIntConsumer<T> removedObjectsConsumer) {
+		for (int i = lists.length - 1; i >= 0; i--) {
+			lists[i].removeObjectsAt(positionIndexes, removedObjectsConsumer);
+		}
+	}
+
 	public void moveAll(PrioritizedPositionableList<P, T> otherList, Consumer<T> movedVisitor) {
 		for (int i = lists.length - 1; i >= 0; i--) {
 			lists[i].moveAll(otherList.lists[i], movedVisitor);
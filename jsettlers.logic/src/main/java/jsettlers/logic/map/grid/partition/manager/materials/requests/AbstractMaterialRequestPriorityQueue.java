@@ -16,10 +16,13 @@ package jsettlers.logic.map.grid.partition.manager.materials.requests;
 
 import java.io.Serializable;
 
+import java8.util.function.IntFunction;
+import java8.util.function.ToIntFunction;
 import jsettlers.common.buildings.EBuildingType;
 import jsettlers.common.material.EPriority;
 import jsettlers.common.position.ShortPoint2D;
 import jsettlers.common.utils.collections.list.DoubleLinkedList;
+import jsettlers.logic.map.grid.partition.manager.PositionsTransfer;
 
 /**
  * This class is an abstract priority queue for material requests. The possible priorities are specified in the {@link EPriority} enum.
@@ -136,6 +139,20 @@ public abstract class AbstractMaterialRequestPriorityQueue implements Serializab
 	 */
 	public abstract void moveObjectsOfPositionTo(ShortPoint2D position, AbstractMaterialRequestPriorityQueue newQueue);
 
+	/**
+	 * Removes any requests that are at the positions of the given transfer from this queue. They are added to the queue of their new position when
+	 * the transfer runs its insertions.
+	 * 
+	 * @param transfer
+	 *            The transfer the insertions into the new queues are deferred to.
+	 * @param positionIndexes
+	 *            Returns the index of the given position in the transfer or -1 if the requests at this position stay in this queue.
+	 * @param newQueues
+	 *            Returns the queue receiving the requests of the position with the given index. It must be of the same type as this queue.
+	 */
+	public abstract void moveObjectsOfPositionsTo(PositionsTransfer transfer, ToIntFunction<ShortPoint2D> positionIndexes,
+			IntFunction<AbstractMaterialRequestPriorityQueue> newQueues);
+
 	/**
 	 * Merges this queue into the given {@link AbstractMaterialRequestPriorityQueue}.
 	 * <p />
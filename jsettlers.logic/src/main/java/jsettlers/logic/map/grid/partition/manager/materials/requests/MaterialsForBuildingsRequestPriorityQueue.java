@@ -14,12 +14,15 @@
  *******************************************************************************/
 package jsettlers.logic.map.grid.partition.manager.materials.requests;
 
+import java8.util.function.IntFunction;
+import java8.util.function.ToIntFunction;
 import jsettlers.common.buildings.EBuildingType;
 import jsettlers.common.map.partition.IMaterialsDistributionSettings;
 import jsettlers.common.material.EPriority;
 import jsettlers.common.position.ShortPoint2D;
 import jsettlers.common.utils.collections.list.DoubleLinkedList;
 import jsettlers.logic.constants.MatchConstants;
+import jsettlers.logic.map.grid.partition.manager.PositionsTransfer;
 
 import java.io.IOException;
 import java.io.ObjectInputStream;
@@ -148,6 +151,33 @@ public final class MaterialsForBuildingsRequestPriorityQueue extends AbstractMat
 		}
 	}
 
+	@Override
+	public void moveObjectsOfPositionsTo(PositionsTransfer transfer, ToIntFunction<ShortPoint2D> positionIndexes,
+			IntFunction<AbstractMaterialRequestPriorityQueue> newQueues) {
+		final int numberOfBuildings = settings.getNumberOfBuildingTypes();
+
+		for (int priorityIndex = 0; priorityIndex < queues.length; priorityIndex++) {
+			final int newPriorityIndex = priorityIndex;
+			DoubleLinkedList<MaterialRequestObject>[] priorityQueue = queues[priorityIndex];
+			for (int queueIdx = 0; queueIdx < numberOfBuildings; queueIdx++) {
+				final int newQueueIdx = queueIdx;
+				Iterator<MaterialRequestObject> iterator = priorityQueue[queueIdx].iterator();
+				while (iterator.hasNext()) {
+					MaterialRequestObject curr = iterator.next();
+					int positionIndex = positionIndexes.applyAsInt(curr.getPos());
+					if (positionIndex >= 0) {
+						iterator.remove();
+						transfer.deferInsertion(positionIndex, () -> {
+							MaterialsForBuildingsRequestPriorityQueue newQueue = (MaterialsForBuildingsRequestPriorityQueue) newQueues.apply(positionIndex);
+							newQueue.queues[newPriorityIndex][newQueueIdx].pushEnd(curr);
+							curr.requestQueue = newQueue;
+						});
+					}
+				}
+			}
+		}
+	}
+
 	@Override
 	public void mergeInto(AbstractMaterialRequestPriorityQueue newAbstractQueue) {
 		assert newAbstractQueue instanceof MaterialsForBuildingsRequestPriorityQueue : "can't move positions between diffrent types of queues.";
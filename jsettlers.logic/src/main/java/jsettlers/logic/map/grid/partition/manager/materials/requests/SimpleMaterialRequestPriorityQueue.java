@@ -17,10 +17,13 @@ package jsettlers.logic.map.grid.partition.manager.materials.requests;
 import java.util.Arrays;
 import java.util.Iterator;
 
+import java8.util.function.IntFunction;
+import java8.util.function.ToIntFunction;
 import jsettlers.common.buildings.EBuildingType;
 import jsettlers.common.material.EPriority;
 import jsettlers.common.position.ShortPoint2D;
 import jsettlers.common.utils.collections.list.DoubleLinkedList;
+import jsettlers.logic.map.grid.partition.manager.PositionsTransfer;
 
 /**
  * This class is a simple priority queue for material requests. The possible priorities are specified in the {@link EPriority} enum.
@@ -62,6 +65,27 @@ public final class SimpleMaterialRequestPriorityQueue extends AbstractMaterialRe
 		}
 	}
 
+	@Override
+	public void moveObjectsOfPositionsTo(PositionsTransfer transfer, ToIntFunction<ShortPoint2D> positionIndexes,
+			IntFunction<AbstractMaterialRequestPriorityQueue> newQueues) {
+		for (int queueIdx = 0; queueIdx < queues.length; queueIdx++) {
+			final int newQueueIdx = queueIdx;
+			Iterator<MaterialRequestObject> iter = queues[queueIdx].iterator();
+			while (iter.hasNext()) {
+				MaterialRequestObject curr = iter.next();
+				int positionIndex = positionIndexes.applyAsInt(curr.getPos());
+				if (positionIndex >= 0) {
+					iter.remove();
+					transfer.deferInsertion(positionIndex, () -> {
+						SimpleMaterialRequestPriorityQueue newQueue = (SimpleMaterialRequestPriorityQueue) newQueues.apply(positionIndex);
+						newQueue.queues[newQueueIdx].pushEnd(curr);
+						curr.requestQueue = newQueue;
+					});
+				}
+			}
+		}
+	}
+
 	@Override
 	public void mergeInto(AbstractMaterialRequestPriorityQueue newAbstractQueue) {
 		assert newAbstractQueue instanceof SimpleMaterialRequestPriorityQueue : "can't move positions between diffrent types of queues.";
@@ -21,9 +21,15 @@ import java.io.ObjectOutputStream;
 import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import java8.util.function.Consumer;
 
 import jsettlers.common.CommonConstants;
 import jsettlers.common.logging.MilliStopWatch;
+import jsettlers.common.logging.StatisticsStopWatch;
 import jsettlers.common.map.IMapData;
 import jsettlers.common.utils.collections.ChangingList;
 import jsettlers.input.PlayerState;
@@ -36,6 +42,7 @@ import jsettlers.logic.map.loading.newmap.FreshMapSerializer;
 import jsettlers.logic.map.loading.newmap.MapFileHeader;
 import jsettlers.logic.map.loading.newmap.MapFileHeader.MapType;
 import jsettlers.logic.map.loading.newmap.RemakeMapLoader;
+import jsettlers.logic.map.loading.savegame.SavegameSnapshot;
 import jsettlers.logic.timer.RescheduleTimer;
 
 /**
@@ -71,6 +78,10 @@ public class MapList implements IMapListerCallable {
 
 	private boolean fileListLoaded = false;
 
+	private final StatisticsStopWatch captureStopWatch = new StatisticsStopWatch();
+	private final StatisticsStopWatch writeStopWatch = new StatisticsStopWatch();
+	private Future<?> lastSave;
+
 	public MapList(Collection<IMapLister> mapDirectories, IMapLister saveDirectory) {
 		this.mapDirectories = new ArrayList<>(mapDirectories);
 		this.saveDirectory = saveDirectory;
@@ -191,30 +202,136 @@ public class MapList implements IMapListerCallable {
 	}
 
 	/**
-	 * Saves a map to disk. The map logic should be paused while calling this method.
+	 * Saves a map to disk. The map logic should be paused while calling this method, as the game state is written directly to the file.
 	 * 
 	 * @param playerStates
 	 * @param grid
 	 * @throws IOException
 	 */
-	public synchronized void saveMap(PlayerState[] playerStates, MainGrid grid) throws IOException {
-		MilliStopWatch watch = new MilliStopWatch();
-		MapFileHeader header = grid.generateSaveHeader();
-		OutputStream outStream = saveDirectory.getOutputStream(header);
+	public void saveMap(PlayerState[] playerStates, MainGrid grid) throws IOException {
+		awaitBackgroundSaves(); // keep the order of the savegames
+
+		synchronized (this) {
+			MilliStopWatch watch = new MilliStopWatch();
+			MapFileHeader header = grid.generateSaveHeader();
+			try (OutputStream outStream = saveDirectory.getOutputStream(header)) {
+				header.writeTo(outStream);
+
+				ObjectOutputStream oos = new ObjectOutputStream(outStream);
+				MatchConstants.serialize(oos);
+				oos.writeObject(playerStates);
+				GameSerializer gameSerializer = new GameSerializer();
+				gameSerializer.save(grid, oos);
+				RescheduleTimer.saveTo(oos);
+				oos.close();
+			}
+			watch.stop("Writing savegame required");
 
-		header.writeTo(outStream);
+			loadFileList();
+		}
+	}
 
-		ObjectOutputStream oos = new ObjectOutputStream(outStream);
-		MatchConstants.serialize(oos);
-		oos.writeObject(playerStates);
-		GameSerializer gameSerializer = new GameSerializer();
-		gameSerializer.save(grid, oos);
-		RescheduleTimer.saveTo(oos);
+	/**
+	 * Captures the state of the game and writes it to disk on a background thread. The map logic must be paused while calling this method, but
+	 * it can continue as soon as this method returns.
+	 * 
+	 * @param playerStates
+	 * @param grid
+	 * @return A {@link Future} that is done when the savegame has been written.
+	 * @throws IOException
+	 */
+	public Future<?> saveMapInBackground(PlayerState[] playerStates, MainGrid grid) throws IOException {
+		return saveMapInBackground(playerStates, grid, null);
+	}
 
-		oos.close();
-		watch.stop("Writing savegame required");
+	/**
+	 * Captures the state of the game and writes it to disk on a background thread. The map logic must be paused while calling this method, but
+	 * it can continue as soon as this method returns.
+	 * 
+	 * @param playerStates
+	 * @param grid
+	 * @param failureListener
+	 *            Is called on the background thread with the cause if the savegame could not be written. May be null.
+	 * @return A {@link Future} that is done when the savegame has been written.
+	 * @throws IOException
+	 *             If the state of the game could not be captured.
+	 */
+	public Future<?> saveMapInBackground(PlayerState[] playerStates, MainGrid grid, Consumer<Throwable> failureListener) throws IOException {
+		SavegameSnapshot snapshot;
+		synchronized (captureStopWatch) {
+			captureStopWatch.restart();
+			snapshot = SavegameSnapshot.capture(playerStates, grid);
+			captureStopWatch.stop("Capturing savegame");
+		}
 
-		loadFileList();
+		synchronized (this) {
+			Future<?> previousSave = lastSave;
+			FutureTask<Void> save = new FutureTask<>(() -> {
+				awaitSave(previousSave); // keep the order of the savegames
+				writeStopWatch.restart();
+				try {
+					writeSavegame(snapshot);
+				} catch (IOException | RuntimeException e) {
+					if (failureListener != null) {
+						failureListener.accept(e);
+					}
+					throw e;
+				}
+				writeStopWatch.stop("Writing savegame");
+				return null;
+			});
+			lastSave = save;
+
+			// A new thread per savegame inherits the match context of the saving game. It is no daemon to finish a started savegame before
+			// the JVM exits.
+			new Thread(save, "SaveThread").start();
+			return save;
+		}
+	}
+
+	/**
+	 * Waits until all savegames started with {@link #saveMapInBackground(PlayerState[], MainGrid)} have been written.
+	 */
+	public void awaitBackgroundSaves() {
+		Future<?> save;
+		synchronized (this) {
+			save = lastSave;
+		}
+		awaitSave(save);
+	}
+
+	private static void awaitSave(Future<?> save) {
+		if (save != null) {
+			try {
+				save.get();
+			} catch (InterruptedException | ExecutionException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	private void writeSavegame(SavegameSnapshot snapshot) throws IOException {
+		try (OutputStream outStream = saveDirectory.getOutputStream(snapshot.getHeader())) {
+			snapshot.writeTo(outStream);
+		}
+
+		synchronized (this) {
+			loadFileList();
+		}
+	}
+
+	/**
+	 * @return The stop watch measuring the time the game is blocked to capture a savegame.
+	 */
+	public StatisticsStopWatch getCaptureStopWatch() {
+		return captureStopWatch;
+	}
+
+	/**
+	 * @return The stop watch measuring the time needed to compress and write a savegame in the background.
+	 */
+	public StatisticsStopWatch getWriteStopWatch() {
+		return writeStopWatch;
 	}
 
 	public ArrayList<MapLoader> getSavedMultiplayerMaps() {
@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.logic.map.loading.savegame;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+
+import jsettlers.input.PlayerState;
+import jsettlers.logic.constants.MatchConstants;
+import jsettlers.logic.map.grid.GameSerializer;
+import jsettlers.logic.map.grid.MainGrid;
+import jsettlers.logic.map.loading.newmap.MapFileHeader;
+import jsettlers.logic.timer.RescheduleTimer;
+
+/**
+ * A consistent snapshot of the state of a game, that can be written as savegame.
+ * <p>
+ * The snapshot is captured between two locksteps by serializing the game state into memory. Compressing and writing it to disk can then be done
+ * by another thread while the game continues. Capturing still runs the complete serialization of the game state, so it blocks the game about as
+ * long as the serialization of the old savegame path did. Only the compression and the file access are moved off the game thread.
+ *
+ * @author agent
+ */
+public final class SavegameSnapshot {
+	private static final int INITIAL_BUFFER_SIZE = 1024 * 1024;
+
+	private final MapFileHeader header;
+	private final byte[] data;
+
+	private SavegameSnapshot(MapFileHeader header, byte[] data) {
+		this.header = header;
+		this.data = data;
+	}
+
+	/**
+	 * Captures the current state of the game. The game logic must not run while this method is called.
+	 *
+	 * @param playerStates
+	 *            The states of the players to store in the savegame.
+	 * @param grid
+	 *            The grid of the game.
+	 * @return The captured snapshot.
+	 * @throws IOException
+	 */
+	public static SavegameSnapshot capture(PlayerState[] playerStates, MainGrid grid) throws IOException {
+		MapFileHeader header = grid.generateSaveHeader();
+
+		ByteArrayOutputStream dataStream = new ByteArrayOutputStream(INITIAL_BUFFER_SIZE);
+		ObjectOutputStream oos = new ObjectOutputStream(dataStream);
+		MatchConstants.serialize(oos);
+		oos.writeObject(playerStates);
+		GameSerializer gameSerializer = new GameSerializer();
+		gameSerializer.save(grid, oos);
+		RescheduleTimer.saveTo(oos);
+		oos.close();
+
+		return new SavegameSnapshot(header, dataStream.toByteArray());
+	}
+
+	public MapFileHeader getHeader() {
+		return header;
+	}
+
+	/**
+	 * Writes the savegame to the given stream. The stream is not closed.
+	 *
+	 * @param outStream
+	 *            The stream to write to.
+	 * @throws IOException
+	 */
+	public void writeTo(OutputStream outStream) throws IOException {
+		header.writeTo(outStream);
+		outStream.write(data);
+	}
+}
@@ -17,6 +17,7 @@ package jsettlers.logic.movable;
 import jsettlers.algorithms.fogofwar.IViewDistancable;
 import jsettlers.algorithms.path.IPathCalculatable;
 import jsettlers.algorithms.path.Path;
+import jsettlers.algorithms.path.flowfield.FlowField;
 import jsettlers.common.mapobject.EMapObjectType;
 import jsettlers.common.material.EMaterialType;
 import jsettlers.common.material.ESearchType;
@@ -31,6 +32,7 @@ import jsettlers.logic.buildings.military.IBuildingOccupyableMovable;
 import jsettlers.logic.buildings.military.IOccupyableBuilding;
 import jsettlers.logic.constants.Constants;
 import jsettlers.logic.constants.MatchConstants;
+import jsettlers.logic.constants.MatchContext;
 import jsettlers.logic.movable.interfaces.AbstractMovableGrid;
 import jsettlers.logic.movable.interfaces.IAttackable;
 import jsettlers.logic.movable.interfaces.IAttackableMovable;
@@ -44,7 +46,6 @@ import jsettlers.logic.timer.RescheduleTimer;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.Serializable;
-import java.util.HashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
@@ -56,9 +57,6 @@ import java.util.concurrent.ConcurrentLinkedQueue;
 public final class Movable implements IScheduledTimerable, IPathCalculatable, IDebugable, Serializable, IViewDistancable, IGuiMovable,
 		IAttackableMovable {
 	private static final long serialVersionUID = 2472076796407425256L;
-	private static final HashMap<Integer, Movable> movablesByID = new HashMap<Integer, Movable>();
-	private static final ConcurrentLinkedQueue<Movable> allMovables = new ConcurrentLinkedQueue<Movable>();
-	private static int nextID = Integer.MIN_VALUE;
 
 	protected final AbstractMovableGrid grid;
 	private final int id;
@@ -75,11 +73,14 @@ public final class Movable implements IScheduledTimerable, IPathCalculatable, ID
 
 	private int animationStartTime;
 	private short animationDuration;
+	private long timerHandle;
 
 	private ShortPoint2D position;
 
 	private ShortPoint2D requestedTargetPosition = null;
+	private FlowField requestedFlowField; // shared by the movables of a group move, null if the path has to be calculated
 	private Path path;
+	private transient Path reusablePath; // a released path of this movable, its arrays are reused for the next path
 
 	private float health;
 	private boolean visible = true;
@@ -104,11 +105,12 @@ public final class Movable implements IScheduledTimerable, IPathCalculatable, ID
 
 		this.direction = EDirection.VALUES[MatchConstants.random().nextInt(EDirection.NUMBER_OF_DIRECTIONS)];
 
-		RescheduleTimer.add(this, Constants.MOVABLE_INTERRUPT_PERIOD);
+		this.timerHandle = RescheduleTimer.add(this, Constants.MOVABLE_INTERRUPT_PERIOD);
 
-		this.id = nextID++;
-		movablesByID.put(this.id, this);
-		allMovables.offer(this);
+		MatchContext context = MatchContext.current();
+		this.id = context.createMovableID();
+		context.getMovablesByID().put(this.id, this);
+		context.getAllMovables().offer(this);
 
 		grid.enterPosition(position, this, true);
 	}
@@ -122,9 +124,10 @@ public final class Movable implements IScheduledTimerable, IPathCalculatable, ID
 	 */
 	private final void readObject(ObjectInputStream ois) throws IOException, ClassNotFoundException {
 		ois.defaultReadObject();
-		movablesByID.put(this.id, this);
-		allMovables.add(this);
-		nextID = Math.max(nextID, this.id + 1);
+		MatchContext context = MatchContext.current();
+		context.getMovablesByID().put(this.id, this);
+		context.getAllMovables().add(this);
+		context.markMovableIDUsed(this.id);
 	}
 
 	/**
@@ -133,13 +136,26 @@ public final class Movable implements IScheduledTimerable, IPathCalculatable, ID
 	 * @param targetPosition
 	 */
 	public final void moveTo(ShortPoint2D targetPosition) {
+		moveTo(targetPosition, null);
+	}
+
+	/**
+	 * Tests if this movable can receive moveTo requests and if so, directs it to go to the given position. The path is taken from the given
+	 * {@link FlowField} if it is still valid when the movable starts walking.
+	 *
+	 * @param targetPosition
+	 * @param flowField
+	 *            A flow field containing this movable's position and the target position or null.
+	 */
+	public final void moveTo(ShortPoint2D targetPosition, FlowField flowField) {
 		if (movableType.isPlayerControllable() && strategy.canBeControlledByPlayer() && !alreadyWalkingToPosition(targetPosition)) {
 			this.requestedTargetPosition = targetPosition;
+			this.requestedFlowField = flowField;
 		}
 	}
 
 	private boolean alreadyWalkingToPosition(ShortPoint2D targetPosition) {
-		return this.state == EMovableState.PATHING && this.path.getTargetPos().equals(targetPosition);
+		return this.state == EMovableState.PATHING && this.path.getTargetX() == targetPosition.x && this.path.getTargetY() == targetPosition.y;
 	}
 
 	public void leavePosition() {
@@ -215,13 +231,14 @@ public final class Movable implements IScheduledTimerable, IPathCalculatable, ID
 					// if we're currently pathing, stop former pathing and calculate a new path
 					setState(EMovableState.DOING_NOTHING);
 					this.movableAction = EMovableAction.NO_ACTION;
-					this.path = null;
+					releasePath();
 
 				case DOING_NOTHING:
 					ShortPoint2D oldTargetPos = path != null ? path.getTargetPos() : null;
 					ShortPoint2D oldPos = position;
-					boolean foundPath = goToPos(requestedTargetPosition); // progress is reset in here
+					boolean foundPath = goToPos(requestedTargetPosition, requestedFlowField); // progress is reset in here
 					requestedTargetPosition = null;
+					requestedFlowField = null;
 
 					if (foundPath) {
 						this.strategy.moveToPathSet(oldPos, oldTargetPos, path.getTargetPos());
@@ -235,6 +252,7 @@ public final class Movable implements IScheduledTimerable, IPathCalculatable, ID
 				}
 			} else {
 				requestedTargetPosition = null;
+				requestedFlowField = null;
 			}
 		}
 
@@ -284,29 +302,30 @@ public final class Movable implements IScheduledTimerable, IPathCalculatable, ID
 	}
 
 	private void pathingAction() {
-		if (path == null || !path.hasNextStep() || !strategy.checkPathStepPreconditions(path.getTargetPos(), path.getStep())) {
+		if (path == null || !path.hasNextStep() || !strategy.checkPathStepPreconditions(path.getTargetPos(grid.getPoints()), path.getStep())) {
 			// if path is finished, or canceled by strategy return from here
 			setState(EMovableState.DOING_NOTHING);
 			movableAction = EMovableAction.NO_ACTION;
-			path = null;
+			releasePath();
 			return;
 		}
 
 		Movable blockingMovable = grid.getMovableAt(path.nextX(), path.nextY());
 		if (blockingMovable == null) { // if we can go on to the next step
-			if (grid.isValidNextPathPosition(this, path.getNextPos(), path.getTargetPos())) { // next position is valid
+			if (grid.isValidNextPathPosition(this, path.getNextPos(grid.getPoints()), path.getTargetPos(grid.getPoints()))) { // next position is valid
 				goSinglePathStep();
 
 			} else { // next position is invalid
 				movableAction = EMovableAction.NO_ACTION;
 				animationDuration = Constants.MOVABLE_INTERRUPT_PERIOD; // recheck shortly
-				Path newPath = grid.calculatePathTo(this, path.getTargetPos()); // try to find a new path
+				ShortPoint2D targetPos = path.getTargetPos();
+				Path newPath = grid.calculatePathTo(this, targetPos, path); // try to find a new path reusing the current one
 
 				if (newPath == null) { // no path found
 					setState(EMovableState.DOING_NOTHING);
 
-					strategy.pathAborted(path.getTargetPos()); // inform strategy
-					path = null;
+					strategy.pathAborted(targetPos); // inform strategy
+					releasePath();
 				} else {
 					this.path = newPath; // continue with new path
 					if (grid.hasNoMovableAt(path.nextX(), path.nextY())) { // path is valid, but maybe blocked (leaving blocked area)
@@ -328,7 +347,7 @@ public final class Movable implements IScheduledTimerable, IPathCalculatable, ID
 	}
 
 	private void goSinglePathStep() {
-		initGoingSingleStep(path.getNextPos());
+		initGoingSingleStep(path.getNextPos(grid.getPoints()));
 		path.goToNextStep();
 	}
 
@@ -343,7 +362,7 @@ public final class Movable implements IScheduledTimerable, IPathCalculatable, ID
 
 	private int doingNothingAction() {
 		if (grid.isBlockedOrProtected(position.x, position.y)) {
-			Path newPath = grid.searchDijkstra(this, position.x, position.y, (short) 50, ESearchType.NON_BLOCKED_OR_PROTECTED);
+			Path newPath = grid.searchDijkstra(this, position.x, position.y, (short) 50, ESearchType.NON_BLOCKED_OR_PROTECTED, takeReusablePath());
 			if (newPath == null) {
 				kill();
 				return -1;
@@ -586,9 +605,18 @@ public final class Movable implements IScheduledTimerable, IPathCalculatable, ID
 	 *         false if it wasn't possible to get a path.
 	 */
 	final boolean goToPos(ShortPoint2D targetPos) {
+		return goToPos(targetPos, null);
+	}
+
+	private boolean goToPos(ShortPoint2D targetPos, FlowField flowField) {
 		assert state == EMovableState.DOING_NOTHING : "can't do goToPos() if state isn't DOING_NOTHING. curr state: " + state;
 
-		Path path = grid.calculatePathTo(this, targetPos);
+		Path reusablePath = takeReusablePath();
+		Path path = flowField != null ? flowField.createPath(position, targetPos, reusablePath) : null;
+		if (path == null) {
+			path = grid.calculatePathTo(this, targetPos, reusablePath);
+		}
+
 		if (path == null) {
 			return false;
 		} else {
@@ -608,13 +636,13 @@ public final class Movable implements IScheduledTimerable, IPathCalculatable, ID
 	 *         false if the target position is generally blocked or a movable occupies that position.
 	 */
 	final boolean goInDirection(EDirection direction, EGoInDirectionMode mode) {
-		ShortPoint2D targetPosition = direction.getNextHexPoint(position);
+		ShortPoint2D targetPosition = grid.getPoints().get(direction.getNextTileX(position.x), direction.getNextTileY(position.y));
 
 		switch (mode) {
 		case GO_IF_ALLOWED_WAIT_TILL_FREE: {
 			this.direction = direction;
 			setState(EMovableState.PATHING);
-			this.followPath(new Path(targetPosition));
+			this.followPath(Path.reuseOrCreate(takeReusablePath(), targetPosition));
 			return true;
 		}
 		case GO_IF_ALLOWED_AND_FREE:
@@ -671,10 +699,11 @@ public final class Movable implements IScheduledTimerable, IPathCalculatable, ID
 	final boolean preSearchPath(boolean dijkstra, short centerX, short centerY, short radius, ESearchType searchType) {
 		assert state == EMovableState.DOING_NOTHING : "this method can only be invoked in state DOING_NOTHING";
 
+		releasePath();
 		if (dijkstra) {
-			this.path = grid.searchDijkstra(this, centerX, centerY, radius, searchType);
+			this.path = grid.searchDijkstra(this, centerX, centerY, radius, searchType, takeReusablePath());
 		} else {
-			this.path = grid.searchInArea(this, centerX, centerY, radius, searchType);
+			this.path = grid.searchInArea(this, centerX, centerY, radius, searchType, takeReusablePath());
 		}
 
 		return path != null;
@@ -691,7 +720,28 @@ public final class Movable implements IScheduledTimerable, IPathCalculatable, ID
 	}
 
 	void abortPath() {
-		path = null;
+		releasePath();
+	}
+
+	/**
+	 * Releases the current path. Its arrays are reused for the next path of this movable.
+	 */
+	private void releasePath() {
+		if (path != null) {
+			reusablePath = path;
+			path = null;
+		}
+	}
+
+	/**
+	 * Gives the released path of this movable to reuse it for a new path. The caller owns the returned path.
+	 * 
+	 * @return The released path or null if there is none.
+	 */
+	private Path takeReusablePath() {
+		Path result = reusablePath;
+		reusablePath = null;
+		return result;
 	}
 
 	boolean isOnOwnGround() {
@@ -723,17 +773,15 @@ public final class Movable implements IScheduledTimerable, IPathCalculatable, ID
 	 *         or null if the id can not be found
 	 */
 	public final static Movable getMovableByID(int id) {
-		return movablesByID.get(id);
+		return MatchContext.current().getMovablesByID().get(id);
 	}
 
 	public final static ConcurrentLinkedQueue<Movable> getAllMovables() {
-		return allMovables;
+		return MatchContext.current().getAllMovables();
 	}
 
 	public static void resetState() {
-		allMovables.clear();
-		movablesByID.clear();
-		nextID = Integer.MIN_VALUE;
+		MatchContext.current().clearMovables();
 	}
 
 	/**
@@ -750,9 +798,13 @@ public final class Movable implements IScheduledTimerable, IPathCalculatable, ID
 		this.strategy.strategyKilledEvent(path != null ? path.getTargetPos() : null);
 		this.state = EMovableState.DEAD;
 		this.selected = false;
+		RescheduleTimer.cancel(timerHandle); // don't wait for the next timer event to drop this movable
+		this.path = null; // release the paths of the dead movable
+		this.reusablePath = null;
 
-		movablesByID.remove(this.getID());
-		allMovables.remove(this);
+		MatchContext context = MatchContext.current();
+		context.getMovablesByID().remove(this.getID());
+		context.getAllMovables().remove(this);
 
 		grid.addSelfDeletingMapObject(position, EMapObjectType.GHOST, Constants.GHOST_PLAY_DURATION, player);
 	}
@@ -257,6 +257,15 @@ public abstract class MovableStrategy implements Serializable {
 		return movable.getMovableType().isPlayerControllable();
 	}
 
+	/**
+	 * Tries to find a way around an obstacle blocking the next step of the given path.
+	 * 
+	 * @param position
+	 *            The current position of the movable.
+	 * @param path
+	 *            The current path of the movable. It may be modified and returned to avoid allocating a new path.
+	 * @return The path the movable should follow.
+	 */
 	protected Path findWayAroundObstacle(ShortPoint2D position, Path path) {
 		if (!path.hasOverNextStep()) { // if path has no position left
 			return path;
@@ -315,7 +324,8 @@ public abstract class MovableStrategy implements Serializable {
 			Movable movable = grid.getMovableAt(firstPosition.x, firstPosition.y);
 			if (movable == null || movable.isProbablyPushable(this.movable)) {
 				path.goToNextStep();
-				return new Path(path, pathPrefix);
+				path.replacePassedSteps(pathPrefix);
+				return path;
 			}
 		}
 
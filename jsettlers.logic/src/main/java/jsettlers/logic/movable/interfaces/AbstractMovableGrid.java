@@ -19,6 +19,7 @@ import jsettlers.algorithms.path.Path;
 import jsettlers.common.mapobject.EMapObjectType;
 import jsettlers.common.material.ESearchType;
 import jsettlers.common.position.ShortPoint2D;
+import jsettlers.common.position.ShortPoint2DTable;
 import jsettlers.logic.movable.Movable;
 import jsettlers.logic.player.Player;
 
@@ -60,11 +61,20 @@ public abstract class AbstractMovableGrid extends AbstractStrategyGrid {
 
 	public abstract void notifyAttackers(ShortPoint2D position, Movable movable, boolean informFullArea);
 
-	public abstract Path calculatePathTo(IPathCalculatable pathCalculatable, ShortPoint2D targetPos);
+	/**
+	 * Calculates a path from the position of the given {@link IPathCalculatable} to the given target.
+	 * 
+	 * @param reusablePath
+	 *            A path that is not used anymore or null. Its arrays are reused for the result if possible.
+	 * @return The path or null if no path was found.
+	 */
+	public abstract Path calculatePathTo(IPathCalculatable pathCalculatable, ShortPoint2D targetPos, Path reusablePath);
 
-	public abstract Path searchDijkstra(IPathCalculatable pathCalculateable, short centerX, short centerY, short radius, ESearchType searchType);
+	public abstract Path searchDijkstra(IPathCalculatable pathCalculateable, short centerX, short centerY, short radius, ESearchType searchType,
+			Path reusablePath);
 
-	public abstract Path searchInArea(IPathCalculatable pathCalculateable, short centerX, short centerY, short radius, ESearchType searchType);
+	public abstract Path searchInArea(IPathCalculatable pathCalculateable, short centerX, short centerY, short radius, ESearchType searchType,
+			Path reusablePath);
 
 	public abstract boolean isBlocked(int x, int y);
 
@@ -95,4 +105,10 @@ public abstract class AbstractMovableGrid extends AbstractStrategyGrid {
 	public abstract boolean isValidPosition(IPathCalculatable pathCalculatable, int x, int y);
 
 	public abstract boolean isValidNextPathPosition(IPathCalculatable pathCalculatable, ShortPoint2D nextPos, ShortPoint2D targetPos);
+
+	/**
+	 * @return The table of the canonical {@link ShortPoint2D}s of this grid. Movables use it to step between positions without allocating new
+	 *         points.
+	 */
+	public abstract ShortPoint2DTable getPoints();
 }
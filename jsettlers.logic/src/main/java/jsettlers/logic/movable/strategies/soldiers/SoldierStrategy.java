@@ -339,7 +339,7 @@ public abstract class SoldierStrategy extends MovableStrategy implements IBuildi
 			ShortPoint2D freePosition = getRandomFreePosition(rightPos, leftPos);
 
 			if (freePosition != null) {
-				return new Path(freePosition);
+				return Path.reuseOrCreate(path, freePosition);
 
 			} else {
 				EDirection twoRightDir = direction.getNeighbor(-2);
@@ -350,7 +350,7 @@ public abstract class SoldierStrategy extends MovableStrategy implements IBuildi
 				freePosition = getRandomFreePosition(twoRightPos, twoLeftPos);
 
 				if (freePosition != null) {
-					return new Path(freePosition);
+					return Path.reuseOrCreate(path, freePosition);
 				} else {
 					return path;
 				}
@@ -19,37 +19,128 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 
 import jsettlers.common.map.MapLoadException;
+import jsettlers.logic.SerializationUtils;
 import jsettlers.logic.constants.MatchConstants;
+import jsettlers.logic.constants.MatchContext;
 import jsettlers.network.client.interfaces.IGameClock;
 import jsettlers.network.synchronic.timer.INetworkTimerable;
 
+/**
+ * Calls {@link IScheduledTimerable}s after the delay they requested.
+ * <p>
+ * The timer is a hierarchical timing wheel. The first level has a slot for every time slice of the next {@value #FUTURE_TIME} ms. Every
+ * further level has {@value #UPPER_LEVEL_SLOTS} slots, each covering a whole revolution of the level below. When the lower level finished a
+ * revolution, the next slot of the level above is cascaded down. This way, any delay can be scheduled.
+ * <p>
+ * The scheduled timerables are kept in intrusive doubly linked lists of entry indexes stored in primitive arrays. Every scheduling gets a
+ * handle, which stays valid while the timerable is rescheduled by the return value of {@link IScheduledTimerable#timerEvent()}. The handle can
+ * be used to cancel or reschedule the timerable in constant time.
+ * <p>
+ * Timerables scheduled for the same time slice are called in the order they have been scheduled. Timerables cascaded from an upper level are
+ * called after the timerables scheduled directly into the first level.
+ *
+ * @author Andreas Eberle
+ */
 public final class RescheduleTimer implements INetworkTimerable, Serializable {
 	private static final long serialVersionUID = -1962430988827211391L;
 
+	/**
+	 * Handle returned if nothing has been scheduled. Canceling or rescheduling it has no effect.
+	 */
+	public static final long NO_HANDLE = 0;
+
 	private static final int FUTURE_TIME = 32000;
 	private static final short TIME_SLICE = 25; // ms
 	private static final int TIME_SLOTS = FUTURE_TIME / TIME_SLICE;
+	private static final int UPPER_LEVEL_SLOTS = 64;
+	private static final int UPPER_LEVELS = 3; // allows delays up to TIME_SLOTS * 64^3 slices, which covers Integer.MAX_VALUE ms
+	private static final int NUMBER_OF_LISTS = TIME_SLOTS + UPPER_LEVELS * UPPER_LEVEL_SLOTS;
+	private static final int INITIAL_CAPACITY = 1024;
+	private static final int NONE = -1;
+
+	private long currentSlice = 0;
+
+	private int[] heads = new int[NUMBER_OF_LISTS];
+	private int[] tails = new int[NUMBER_OF_LISTS];
 
-	private static RescheduleTimer uniIns;
+	private IScheduledTimerable[] timerables = new IScheduledTimerable[INITIAL_CAPACITY];
+	private long[] dueSlices = new long[INITIAL_CAPACITY];
+	private int[] lists = new int[INITIAL_CAPACITY];
+	private int[] nexts = new int[INITIAL_CAPACITY];
+	private int[] prevs = new int[INITIAL_CAPACITY];
+	private int[] generations = new int[INITIAL_CAPACITY];
+	private int usedCapacity = 0;
+	private int freeHead = NONE;
+
+	private transient volatile boolean stopped = false;
+
+	RescheduleTimer() {
+		Arrays.fill(heads, NONE);
+		Arrays.fill(tails, NONE);
+	}
 
 	@SuppressWarnings("unchecked")
-	private final ArrayList<IScheduledTimerable> timerables[] = new ArrayList[TIME_SLOTS];
-	private int currTimeSlot = 0;
+	private void readObject(ObjectInputStream ois) throws IOException, ClassNotFoundException {
+		ObjectInputStream.GetField fields = ois.readFields();
+
+		if (!SerializationUtils.containsField(fields, "currTimeSlot")) {
+			currentSlice = fields.get("currentSlice", 0L);
+			heads = (int[]) fields.get("heads", null);
+			tails = (int[]) fields.get("tails", null);
+			timerables = (IScheduledTimerable[]) fields.get("timerables", null);
+			dueSlices = (long[]) fields.get("dueSlices", null);
+			lists = (int[]) fields.get("lists", null);
+			nexts = (int[]) fields.get("nexts", null);
+			prevs = (int[]) fields.get("prevs", null);
+			generations = (int[]) fields.get("generations", null);
+			usedCapacity = fields.get("usedCapacity", 0);
+			freeHead = fields.get("freeHead", NONE);
+
+		} else { // old savegames contain a single level wheel of lists
+			ArrayList<IScheduledTimerable>[] slots = (ArrayList<IScheduledTimerable>[]) fields.get("timerables", null);
+
+			int currTimeSlot = fields.get("currTimeSlot", 0);
+			currentSlice = currTimeSlot;
+			timerables = new IScheduledTimerable[INITIAL_CAPACITY];
+			dueSlices = new long[INITIAL_CAPACITY];
+			lists = new int[INITIAL_CAPACITY];
+			nexts = new int[INITIAL_CAPACITY];
+			prevs = new int[INITIAL_CAPACITY];
+			generations = new int[INITIAL_CAPACITY];
+			freeHead = NONE;
+			heads = new int[NUMBER_OF_LISTS];
+			tails = new int[NUMBER_OF_LISTS];
+			Arrays.fill(heads, NONE);
+			Arrays.fill(tails, NONE);
 
-	protected RescheduleTimer() {
-		for (int i = 0; i < TIME_SLOTS; i++) {
-			timerables[i] = new ArrayList<IScheduledTimerable>();
+			for (int slot = 0; slot < TIME_SLOTS; slot++) {
+				if (slots[slot] != null) {
+					int delaySlices = (slot - currTimeSlot + TIME_SLOTS) % TIME_SLOTS;
+					for (IScheduledTimerable timerable : slots[slot]) {
+						int index = allocate(timerable);
+						link(index, currentSlice + delaySlices);
+					}
+				}
+			}
 		}
 	}
 
-	public static synchronized void stopAndClear() {
-		if (uniIns != null) {
+	public static void stopAndClear() {
+		MatchContext context = MatchContext.current();
+		RescheduleTimer timer;
+		synchronized (context) {
+			timer = context.getRescheduleTimer();
+			context.setRescheduleTimer(null);
+		}
+
+		if (timer != null) {
+			timer.stopped = true;
 			if (MatchConstants.clock() != null) {
-				MatchConstants.clock().remove(uniIns);
+				MatchConstants.clock().remove(timer);
 			}
-			uniIns = null;
 			try {
 				Thread.sleep(100); // stopping takes some time
 			} catch (InterruptedException e) {
@@ -62,46 +153,143 @@ public final class RescheduleTimer implements INetworkTimerable, Serializable {
 	 * 
 	 * @param t
 	 * @param delay
+	 * @return The handle of the scheduling, which can be used to cancel or reschedule it. {@link #NO_HANDLE} if the delay is not positive.
+	 */
+	public static long add(IScheduledTimerable t, int delay) {
+		return get().addTimerable(t, delay);
+	}
+
+	/**
+	 * Cancels the scheduling with the given handle.
+	 * 
+	 * @param handle
+	 *            Handle returned by {@link #add(IScheduledTimerable, int)}.
+	 * @return true if the timerable was still scheduled and has been canceled.
 	 */
-	public static void add(IScheduledTimerable t, int delay) {
-		get().addTimerable(t, delay);
+	public static boolean cancel(long handle) {
+		RescheduleTimer timer = MatchContext.current().getRescheduleTimer();
+		return timer != null && timer.cancelTimerable(handle);
 	}
 
-	private void addTimerable(IScheduledTimerable t, int delay) {
+	/**
+	 * Moves the scheduling with the given handle to max delay milliseconds from now. If the delay is not positive, the scheduling is canceled.
+	 * <p>
+	 * If this is called by the timerable during its {@link IScheduledTimerable#timerEvent()}, the returned delay is ignored.
+	 * 
+	 * @param handle
+	 *            Handle returned by {@link #add(IScheduledTimerable, int)}.
+	 * @param delay
+	 * @return true if the timerable was still scheduled.
+	 */
+	public static boolean reschedule(long handle, int delay) {
+		RescheduleTimer timer = MatchContext.current().getRescheduleTimer();
+		return timer != null && timer.rescheduleTimerable(handle, delay);
+	}
+
+	long addTimerable(IScheduledTimerable t, int delay) {
 		if (delay <= 0) {
-			return; // don't schedule if requested delay is negative or zero
+			return NO_HANDLE; // don't schedule if requested delay is negative or zero
 		}
 
-		int delaySlots = delay / TIME_SLICE;
-		delaySlots = delaySlots > 0 ? delaySlots : 1; // ensure at least one slot delay
+		int index = allocate(t);
+		link(index, currentSlice + getDelaySlices(delay));
+		return getHandle(index);
+	}
 
-		assert delaySlots < TIME_SLOTS : "SCHEDULED TO FAR IN THE FUTURE! " + delay + "ms";
+	boolean cancelTimerable(long handle) {
+		int index = getIndex(handle);
+		if (index == NONE) {
+			return false;
+		}
 
-		timerables[(currTimeSlot + delaySlots) % TIME_SLOTS].add(t);
+		if (lists[index] != NONE) {
+			unlink(index);
+		}
+		release(index);
+		return true;
 	}
 
-	private static synchronized RescheduleTimer get() {
-		if (uniIns == null) {
-			uniIns = new RescheduleTimer();
+	boolean rescheduleTimerable(long handle, int delay) {
+		int index = getIndex(handle);
+		if (index == NONE) {
+			return false;
+		}
+
+		if (delay <= 0) {
+			return cancelTimerable(handle);
+		}
+
+		if (lists[index] != NONE) {
+			unlink(index);
+		}
+		link(index, currentSlice + getDelaySlices(delay));
+		return true;
+	}
+
+	/**
+	 * @return The number of currently scheduled timerables.
+	 */
+	int size() {
+		int size = 0;
+		for (int index = 0; index < usedCapacity; index++) {
+			if (timerables[index] != null) {
+				size++;
+			}
+		}
+		return size;
+	}
+
+	private static int getDelaySlices(int delay) {
+		int delaySlices = delay / TIME_SLICE;
+		return delaySlices > 0 ? delaySlices : 1; // ensure at least one slot delay
+	}
+
+	private static RescheduleTimer get() {
+		MatchContext context = MatchContext.current();
+		RescheduleTimer timer = context.getRescheduleTimer();
+		if (timer != null) { // only lock when the timer of the match needs to be created
+			return timer;
+		}
+
+		synchronized (context) {
+			timer = context.getRescheduleTimer();
+			if (timer == null) {
+				timer = new RescheduleTimer();
+				context.setRescheduleTimer(timer);
+			}
+			return timer;
 		}
-		return uniIns;
 	}
 
 	@Override
 	public void timerEvent() {
-		ArrayList<IScheduledTimerable> queue = timerables[currTimeSlot];
+		int list = (int) (currentSlice % TIME_SLOTS);
 
-		for (IScheduledTimerable curr : queue) {
-			if (uniIns != this) { // fast stop when stopAndClear() is called.
+		while (heads[list] != NONE) {
+			if (stopped) { // fast stop when stopAndClear() is called.
 				return;
 			}
 
+			int index = heads[list];
+			unlink(index);
+			IScheduledTimerable curr = timerables[index];
+			int generation = generations[index];
+
 			try {
 				int delay = curr.timerEvent();
-				addTimerable(curr, delay);
+				if (isUnchanged(index, generation)) {
+					if (delay > 0) {
+						link(index, currentSlice + getDelaySlices(delay));
+					} else {
+						release(index);
+					}
+				}
 			} catch (Throwable t) {
 				System.err.println("RescheduleTimer catched: ");
 				t.printStackTrace();
+				if (isUnchanged(index, generation)) {
+					release(index);
+				}
 				try {
 					curr.kill();
 				} catch (Throwable t2) {
@@ -111,21 +299,156 @@ public final class RescheduleTimer implements INetworkTimerable, Serializable {
 			}
 		}
 
-		queue.clear();
-		currTimeSlot = (currTimeSlot + 1) % TIME_SLOTS;
+		currentSlice++;
+		cascade();
+	}
+
+	/**
+	 * @return true if the given entry has neither been canceled nor rescheduled while it was called.
+	 */
+	private boolean isUnchanged(int index, int generation) {
+		return generations[index] == generation && lists[index] == NONE;
+	}
+
+	/**
+	 * Moves the timerables of the upper level slots, that start with the current slice, to the levels below.
+	 */
+	private void cascade() {
+		for (int level = UPPER_LEVELS; level >= 1; level--) {
+			long levelSliceLength = getSliceLength(level);
+			if (currentSlice % levelSliceLength == 0) {
+				int list = getListIndex(level, (int) ((currentSlice / levelSliceLength) % UPPER_LEVEL_SLOTS));
+				int index = heads[list];
+				while (index != NONE) {
+					int next = nexts[index];
+					unlink(index);
+					link(index, dueSlices[index]);
+					index = next;
+				}
+			}
+		}
+	}
+
+	private static long getSliceLength(int level) {
+		long sliceLength = TIME_SLOTS;
+		for (int i = 1; i < level; i++) {
+			sliceLength *= UPPER_LEVEL_SLOTS;
+		}
+		return sliceLength;
+	}
+
+	private static int getListIndex(int level, int slot) {
+		return TIME_SLOTS + (level - 1) * UPPER_LEVEL_SLOTS + slot;
+	}
+
+	private void link(int index, long dueSlice) {
+		long delaySlices = dueSlice - currentSlice;
+		int list;
+		if (delaySlices < TIME_SLOTS) {
+			list = (int) (dueSlice % TIME_SLOTS);
+		} else {
+			int level = 1;
+			long levelSliceLength = TIME_SLOTS;
+			while (delaySlices >= levelSliceLength * UPPER_LEVEL_SLOTS) {
+				levelSliceLength *= UPPER_LEVEL_SLOTS;
+				level++;
+			}
+			assert level <= UPPER_LEVELS : "SCHEDULED TO FAR IN THE FUTURE! " + delaySlices + " slices";
+			list = getListIndex(level, (int) ((dueSlice / levelSliceLength) % UPPER_LEVEL_SLOTS));
+		}
+
+		dueSlices[index] = dueSlice;
+		lists[index] = list;
+		nexts[index] = NONE;
+		prevs[index] = tails[list];
+		if (tails[list] == NONE) {
+			heads[list] = index;
+		} else {
+			nexts[tails[list]] = index;
+		}
+		tails[list] = index;
+	}
+
+	private void unlink(int index) {
+		int list = lists[index];
+		int prev = prevs[index];
+		int next = nexts[index];
+
+		if (prev == NONE) {
+			heads[list] = next;
+		} else {
+			nexts[prev] = next;
+		}
+		if (next == NONE) {
+			tails[list] = prev;
+		} else {
+			prevs[next] = prev;
+		}
+		lists[index] = NONE;
+	}
+
+	private int allocate(IScheduledTimerable timerable) {
+		int index;
+		if (freeHead != NONE) {
+			index = freeHead;
+			freeHead = nexts[index];
+		} else {
+			if (usedCapacity == timerables.length) {
+				grow();
+			}
+			index = usedCapacity++;
+		}
+
+		timerables[index] = timerable;
+		lists[index] = NONE;
+		generations[index]++;
+		return index;
+	}
+
+	private void release(int index) {
+		timerables[index] = null;
+		generations[index]++; // invalidates the handles of this entry
+		nexts[index] = freeHead;
+		freeHead = index;
+	}
+
+	private void grow() {
+		int capacity = timerables.length * 2;
+		timerables = Arrays.copyOf(timerables, capacity);
+		dueSlices = Arrays.copyOf(dueSlices, capacity);
+		lists = Arrays.copyOf(lists, capacity);
+		nexts = Arrays.copyOf(nexts, capacity);
+		prevs = Arrays.copyOf(prevs, capacity);
+		generations = Arrays.copyOf(generations, capacity);
+	}
+
+	private long getHandle(int index) {
+		return ((long) generations[index] << 32) | index;
+	}
+
+	private int getIndex(long handle) {
+		int index = (int) handle;
+		if (handle == NO_HANDLE || index < 0 || index >= usedCapacity || generations[index] != (int) (handle >>> 32) || timerables[index] == null) {
+			return NONE;
+		}
+		return index;
 	}
 
 	public static void loadFrom(ObjectInputStream ois) throws MapLoadException {
 		try {
 			stopAndClear();
-			uniIns = (RescheduleTimer) ois.readObject();
+			MatchContext context = MatchContext.current();
+			RescheduleTimer timer = (RescheduleTimer) ois.readObject();
+			synchronized (context) {
+				context.setRescheduleTimer(timer);
+			}
 		} catch (Throwable t) {
 			throw new MapLoadException(t);
 		}
 	}
 
 	public static void saveTo(ObjectOutputStream oos) throws IOException {
-		oos.writeObject(uniIns);
+		oos.writeObject(MatchContext.current().getRescheduleTimer());
 		oos.flush();
 	}
 
@@ -42,6 +42,7 @@ import jsettlers.graphics.map.draw.ImageProvider;
 import jsettlers.input.GuiInterface;
 import jsettlers.input.IGameStoppable;
 import jsettlers.input.PlayerState;
+import jsettlers.input.tasks.GuiTaskTypes;
 import jsettlers.logic.buildings.Building;
 import jsettlers.logic.buildings.trading.MarketBuilding;
 import jsettlers.logic.constants.MatchConstants;
@@ -64,6 +65,10 @@ import jsettlers.network.client.interfaces.INetworkConnector;
  * @author Andreas Eberle
  */
 public class JSettlersGame {
+	static {
+		GuiTaskTypes.register(); // needed to read the tasks of replays
+	}
+
 	private final Object stopMutex = new Object();
 
 	private final IGameCreator mapCreator;
@@ -263,6 +268,7 @@ public class JSettlersGame {
 				}
 
 				networkConnector.shutdown();
+				aiExecutor.shutdown();
 				mainGrid.stopThreads();
 				connector.shutdown();
 				guiInterface.stop();
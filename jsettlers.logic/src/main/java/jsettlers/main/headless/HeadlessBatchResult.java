@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.main.headless;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The results of a batch of {@link HeadlessMatch}es simulated by the {@link HeadlessMatchRunner}.
+ * 
+ * @author agent
+ * 
+ */
+public final class HeadlessBatchResult {
+	private final List<HeadlessMatchResult> results;
+	private final long wallTime;
+
+	HeadlessBatchResult(List<HeadlessMatchResult> results, long wallTime) {
+		this.results = Collections.unmodifiableList(results);
+		this.wallTime = wallTime;
+	}
+
+	/**
+	 * 
+	 * @return The results in the order the matches have been given to the runner.
+	 */
+	public List<HeadlessMatchResult> getResults() {
+		return results;
+	}
+
+	/**
+	 * 
+	 * @return The wall clock time in milliseconds needed to simulate all matches.
+	 */
+	public long getWallTime() {
+		return wallTime;
+	}
+
+	public long getSimulatedGameTime() {
+		long simulatedGameTime = 0;
+		for (HeadlessMatchResult result : results) {
+			simulatedGameTime += result.getSimulatedGameTime();
+		}
+		return simulatedGameTime;
+	}
+
+	/**
+	 * 
+	 * @return The throughput of the batch: the game minutes of all matches simulated per second of wall clock time.
+	 */
+	public float getSimulatedMinutesPerWallSecond() {
+		return HeadlessMatchRunner.getSimulatedMinutesPerWallSecond(getSimulatedGameTime(), wallTime);
+	}
+
+	public boolean isSuccessful() {
+		for (HeadlessMatchResult result : results) {
+			if (!result.isSuccessful()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return "HeadlessBatchResult [matches=" + results.size() + ", wallTime=" + wallTime + ", simulatedMinutesPerWallSecond="
+				+ getSimulatedMinutesPerWallSecond() + "]";
+	}
+}
@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.main.headless;
+
+import jsettlers.logic.map.loading.MapLoader;
+import jsettlers.logic.player.PlayerSetting;
+
+/**
+ * Describes a match that is simulated by the {@link HeadlessMatchRunner} without any user interface.
+ * <p>
+ * Every match needs its own {@link MapLoader}, as matches run concurrently.
+ * 
+ * @author agent
+ * 
+ */
+public final class HeadlessMatch {
+	private final String name;
+	private final MapLoader map;
+	private final long randomSeed;
+	private final byte playerId;
+	private final PlayerSetting[] playerSettings;
+	private final int targetGameTime;
+
+	/**
+	 * 
+	 * @param name
+	 *            Name used to identify the match in the results.
+	 * @param map
+	 *            The map the match is played on.
+	 * @param randomSeed
+	 *            The seed of the game's random.
+	 * @param playerId
+	 *            The id of the player the game is started for.
+	 * @param playerSettings
+	 *            The settings of the players. AI players need to be configured here, as no human player will issue any tasks.
+	 * @param targetGameTime
+	 *            The game time in milliseconds the match is simulated to.
+	 */
+	public HeadlessMatch(String name, MapLoader map, long randomSeed, byte playerId, PlayerSetting[] playerSettings, int targetGameTime) {
+		if (map == null) {
+			throw new NullPointerException("map");
+		}
+
+		this.name = name;
+		this.map = map;
+		this.randomSeed = randomSeed;
+		this.playerId = playerId;
+		this.playerSettings = playerSettings;
+		this.targetGameTime = targetGameTime;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public MapLoader getMap() {
+		return map;
+	}
+
+	public long getRandomSeed() {
+		return randomSeed;
+	}
+
+	public byte getPlayerId() {
+		return playerId;
+	}
+
+	public PlayerSetting[] getPlayerSettings() {
+		return playerSettings;
+	}
+
+	public int getTargetGameTime() {
+		return targetGameTime;
+	}
+
+	@Override
+	public String toString() {
+		return "HeadlessMatch [name=" + name + ", map=" + map.getMapName() + ", randomSeed=" + randomSeed + ", targetGameTime=" + targetGameTime + "]";
+	}
+}
@@ -0,0 +1,195 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.main.headless;
+
+import java.util.Arrays;
+
+import jsettlers.common.player.IEndgameStatistic;
+
+/**
+ * The result of a {@link HeadlessMatch} simulated by the {@link HeadlessMatchRunner}.
+ * 
+ * @author agent
+ * 
+ */
+public final class HeadlessMatchResult {
+	private final HeadlessMatch match;
+	private final int simulatedGameTime;
+	private final long wallTime;
+	private final int numberOfMovables;
+	private final int numberOfBuildings;
+	private final IEndgameStatistic[] endgameStatistics;
+	private final Throwable failure;
+
+	HeadlessMatchResult(HeadlessMatch match, int simulatedGameTime, long wallTime, int numberOfMovables, int numberOfBuildings,
+			IEndgameStatistic[] endgameStatistics) {
+		this.match = match;
+		this.simulatedGameTime = simulatedGameTime;
+		this.wallTime = wallTime;
+		this.numberOfMovables = numberOfMovables;
+		this.numberOfBuildings = numberOfBuildings;
+		this.endgameStatistics = endgameStatistics;
+		this.failure = null;
+	}
+
+	HeadlessMatchResult(HeadlessMatch match, long wallTime, Throwable failure) {
+		this.match = match;
+		this.simulatedGameTime = 0;
+		this.wallTime = wallTime;
+		this.numberOfMovables = 0;
+		this.numberOfBuildings = 0;
+		this.endgameStatistics = new IEndgameStatistic[0];
+		this.failure = failure;
+	}
+
+	static IEndgameStatistic snapshot(IEndgameStatistic statistic) {
+		return new EndgameStatisticSnapshot(statistic.getAmountOfProducedSoldiers(), statistic.getAmountOfProducedMana(),
+				statistic.getAmountOfProducedGold());
+	}
+
+	public HeadlessMatch getMatch() {
+		return match;
+	}
+
+	public boolean isSuccessful() {
+		return failure == null;
+	}
+
+	/**
+	 * 
+	 * @return The exception that stopped the match or null if it has been simulated successfully.
+	 */
+	public Throwable getFailure() {
+		return failure;
+	}
+
+	/**
+	 * 
+	 * @return The game time in milliseconds the match has been simulated to.
+	 */
+	public int getSimulatedGameTime() {
+		return simulatedGameTime;
+	}
+
+	/**
+	 * 
+	 * @return The wall clock time in milliseconds needed to load and simulate the match.
+	 */
+	public long getWallTime() {
+		return wallTime;
+	}
+
+	public int getNumberOfMovables() {
+		return numberOfMovables;
+	}
+
+	public int getNumberOfBuildings() {
+		return numberOfBuildings;
+	}
+
+	/**
+	 * 
+	 * @param playerId
+	 * @return The endgame statistic of the given player at the end of the simulation or null if the player was not available.
+	 */
+	public IEndgameStatistic getEndgameStatistic(int playerId) {
+		return playerId < endgameStatistics.length ? endgameStatistics[playerId] : null;
+	}
+
+	public int getNumberOfPlayers() {
+		return endgameStatistics.length;
+	}
+
+	public float getSimulatedMinutesPerWallSecond() {
+		return HeadlessMatchRunner.getSimulatedMinutesPerWallSecond(simulatedGameTime, wallTime);
+	}
+
+	/**
+	 * Tests if the simulation reached the same state as the given one. The wall time is not compared.
+	 * 
+	 * @param other
+	 * @return
+	 */
+	public boolean hasSameOutcome(HeadlessMatchResult other) {
+		if (simulatedGameTime != other.simulatedGameTime || numberOfMovables != other.numberOfMovables
+				|| numberOfBuildings != other.numberOfBuildings || endgameStatistics.length != other.endgameStatistics.length) {
+			return false;
+		}
+		for (int i = 0; i < endgameStatistics.length; i++) {
+			if (endgameStatistics[i] == null ? other.endgameStatistics[i] != null : !endgameStatistics[i].equals(other.endgameStatistics[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		if (failure != null) {
+			return "HeadlessMatchResult [match=" + match + ", failure=" + failure + "]";
+		}
+		return "HeadlessMatchResult [match=" + match + ", simulatedGameTime=" + simulatedGameTime + ", wallTime=" + wallTime
+				+ ", simulatedMinutesPerWallSecond=" + getSimulatedMinutesPerWallSecond() + ", numberOfMovables=" + numberOfMovables
+				+ ", numberOfBuildings=" + numberOfBuildings + ", endgameStatistics=" + Arrays.toString(endgameStatistics) + "]";
+	}
+
+	private static final class EndgameStatisticSnapshot implements IEndgameStatistic {
+		private final short amountOfProducedSoldiers;
+		private final short amountOfProducedMana;
+		private final short amountOfProducedGold;
+
+		EndgameStatisticSnapshot(short amountOfProducedSoldiers, short amountOfProducedMana, short amountOfProducedGold) {
+			this.amountOfProducedSoldiers = amountOfProducedSoldiers;
+			this.amountOfProducedMana = amountOfProducedMana;
+			this.amountOfProducedGold = amountOfProducedGold;
+		}
+
+		@Override
+		public short getAmountOfProducedSoldiers() {
+			return amountOfProducedSoldiers;
+		}
+
+		@Override
+		public short getAmountOfProducedMana() {
+			return amountOfProducedMana;
+		}
+
+		@Override
+		public short getAmountOfProducedGold() {
+			return amountOfProducedGold;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof EndgameStatisticSnapshot)) {
+				return false;
+			}
+			EndgameStatisticSnapshot other = (EndgameStatisticSnapshot) obj;
+			return amountOfProducedSoldiers == other.amountOfProducedSoldiers && amountOfProducedMana == other.amountOfProducedMana
+					&& amountOfProducedGold == other.amountOfProducedGold;
+		}
+
+		@Override
+		public int hashCode() {
+			return (amountOfProducedSoldiers * 31 + amountOfProducedMana) * 31 + amountOfProducedGold;
+		}
+
+		@Override
+		public String toString() {
+			return "amountOfProducedSoldiers: " + amountOfProducedSoldiers + ", amountOfProducedGold: " + amountOfProducedGold
+					+ ", amountOfProducedMana: " + amountOfProducedMana;
+		}
+	}
+}
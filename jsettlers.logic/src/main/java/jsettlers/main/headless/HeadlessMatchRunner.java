@@ -0,0 +1,172 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.main.headless;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jsettlers.common.CommonConstants;
+import jsettlers.common.menu.IStartedGame;
+import jsettlers.common.player.IEndgameStatistic;
+import jsettlers.logic.buildings.Building;
+import jsettlers.logic.constants.MatchConstants;
+import jsettlers.logic.constants.MatchContext;
+import jsettlers.logic.map.grid.partition.PartitionsGrid;
+import jsettlers.logic.movable.Movable;
+import jsettlers.logic.player.Player;
+import jsettlers.main.JSettlersGame;
+import jsettlers.main.JSettlersGame.GameRunner;
+import jsettlers.main.replay.ReplayUtils;
+import jsettlers.network.client.OfflineNetworkConnector;
+import jsettlers.network.client.interfaces.IGameClock;
+
+/**
+ * Simulates several matches concurrently in this JVM without any user interface, e.g. for AI tournaments or regression runs.
+ * <p>
+ * Every match gets its own {@link MatchContext}, which is bound to the worker thread before the game is created. The game thread and all
+ * threads started by it inherit the context, so the matches do not share any game state.
+ * 
+ * @author agent
+ * 
+ */
+public final class HeadlessMatchRunner {
+	private static final AtomicInteger threadCounter = new AtomicInteger();
+
+	private final int numberOfThreads;
+
+	/**
+	 * Creates a runner simulating one match per available processor at a time.
+	 */
+	public HeadlessMatchRunner() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * 
+	 * @param numberOfThreads
+	 *            The maximum number of matches simulated at a time.
+	 */
+	public HeadlessMatchRunner(int numberOfThreads) {
+		if (numberOfThreads <= 0) {
+			throw new IllegalArgumentException("numberOfThreads must be positive: " + numberOfThreads);
+		}
+		this.numberOfThreads = numberOfThreads;
+	}
+
+	/**
+	 * Simulates the given matches and waits for all of them to finish. A failing match does not stop the other ones, its failure is reported in
+	 * its result.
+	 * <p>
+	 * NOTE: While the matches are running, the console logging is enabled, as the games must not redirect the shared {@link System#out}.
+	 * 
+	 * @param matches
+	 * @return The results in the order of the given matches.
+	 * @throws InterruptedException
+	 */
+	public HeadlessBatchResult run(List<HeadlessMatch> matches) throws InterruptedException {
+		boolean consoleLogging = CommonConstants.ENABLE_CONSOLE_LOGGING;
+		CommonConstants.ENABLE_CONSOLE_LOGGING = true;
+
+		ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(numberOfThreads, matches.size())), runnable -> {
+			Thread thread = new Thread(runnable, "HeadlessMatchRunner-" + threadCounter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		try {
+			long startTime = System.currentTimeMillis();
+
+			List<Future<HeadlessMatchResult>> futures = new ArrayList<>(matches.size());
+			for (HeadlessMatch match : matches) {
+				futures.add(executor.submit(() -> runMatch(match)));
+			}
+
+			List<HeadlessMatchResult> results = new ArrayList<>(matches.size());
+			for (Future<HeadlessMatchResult> future : futures) {
+				try {
+					results.add(future.get());
+				} catch (ExecutionException e) {
+					throw new RuntimeException(e.getCause()); // runMatch() reports all failures in the result
+				}
+			}
+
+			return new HeadlessBatchResult(results, System.currentTimeMillis() - startTime);
+		} finally {
+			executor.shutdownNow();
+			CommonConstants.ENABLE_CONSOLE_LOGGING = consoleLogging;
+		}
+	}
+
+	private static HeadlessMatchResult runMatch(HeadlessMatch match) {
+		long startTime = System.currentTimeMillis();
+		IStartedGame startedGame = null;
+
+		MatchContext.bind(new MatchContext());
+		try {
+			OfflineNetworkConnector networkConnector = ReplayUtils.createPausingOfflineNetworkConnector();
+			JSettlersGame game = new JSettlersGame(match.getMap(), match.getRandomSeed(), networkConnector, match.getPlayerId(),
+					match.getPlayerSettings()) {
+				@Override
+				protected OutputStream createReplayWriteStream() {
+					return new OutputStream() {
+						@Override
+						public void write(int b) {
+						}
+					};
+				}
+			};
+
+			GameRunner gameRunner = (GameRunner) game.start();
+			HeadlessStartingGameListener startingGameListener = new HeadlessStartingGameListener();
+			gameRunner.setListener(startingGameListener);
+			startedGame = startingGameListener.waitForGameStartup();
+
+			IGameClock clock = MatchConstants.clock();
+			clock.fastForwardTo(match.getTargetGameTime());
+
+			return new HeadlessMatchResult(match, clock.getTime(), System.currentTimeMillis() - startTime, Movable.getAllMovables().size(),
+					Building.getAllBuildings().size(), getEndgameStatistics(gameRunner.getMainGrid().getPartitionsGrid()));
+
+		} catch (Throwable t) {
+			return new HeadlessMatchResult(match, System.currentTimeMillis() - startTime, t);
+		} finally {
+			if (startedGame != null) {
+				ReplayUtils.awaitShutdown(startedGame);
+			}
+			MatchContext.unbind();
+		}
+	}
+
+	private static IEndgameStatistic[] getEndgameStatistics(PartitionsGrid partitionsGrid) {
+		IEndgameStatistic[] statistics = new IEndgameStatistic[partitionsGrid.getNumberOfPlayers()];
+		for (byte playerId = 0; playerId < statistics.length; playerId++) {
+			Player player = partitionsGrid.getPlayer(playerId);
+			if (player != null) {
+				statistics[playerId] = HeadlessMatchResult.snapshot(player.getEndgameStatistic());
+			}
+		}
+		return statistics;
+	}
+
+	static float getSimulatedMinutesPerWallSecond(long simulatedGameTime, long wallTime) {
+		return wallTime > 0 ? (simulatedGameTime / 60000f) / (wallTime / 1000f) : 0;
+	}
+}
@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.main.headless;
+
+import jsettlers.common.menu.EGameError;
+import jsettlers.common.menu.EProgressState;
+import jsettlers.common.menu.IMapInterfaceConnector;
+import jsettlers.common.menu.IStartedGame;
+import jsettlers.common.menu.IStartingGameListener;
+import jsettlers.main.replay.DummyMapInterfaceConnector;
+
+/**
+ * Waits for the start of a game without user interface. In contrast to the listener used for replays, a failed start is reported to the
+ * waiting thread instead of exiting the JVM, so that the other matches of a batch can continue.
+ * 
+ * @author agent
+ * 
+ */
+class HeadlessStartingGameListener implements IStartingGameListener {
+	private final Object waitMutex = new Object();
+	private IStartedGame startedGame;
+	private boolean startFinished;
+	private Exception startFailure;
+
+	@Override
+	public void startProgressChanged(EProgressState state, float progress) {
+	}
+
+	@Override
+	public IMapInterfaceConnector preLoadFinished(IStartedGame game) {
+		startedGame = game;
+		return new DummyMapInterfaceConnector();
+	}
+
+	@Override
+	public void startFailed(EGameError errorType, Exception exception) {
+		synchronized (waitMutex) {
+			startFailure = new Exception("Start failed due to: " + errorType, exception);
+			waitMutex.notifyAll();
+		}
+	}
+
+	@Override
+	public void startFinished() {
+		synchronized (waitMutex) {
+			startFinished = true;
+			waitMutex.notifyAll();
+		}
+	}
+
+	/**
+	 * Waits until the game clock has been started.
+	 * 
+	 * @return The started game.
+	 * @throws Exception
+	 *             If the game could not be started.
+	 */
+	public IStartedGame waitForGameStartup() throws Exception {
+		synchronized (waitMutex) {
+			while (!startFinished && startFailure == null) {
+				waitMutex.wait();
+			}
+			if (startFailure != null) {
+				throw startFailure;
+			}
+			return startedGame;
+		}
+	}
+}
@@ -22,7 +22,7 @@ import jsettlers.common.menu.messages.IMessage;
 import jsettlers.common.position.ShortPoint2D;
 import jsettlers.common.selectable.ISelectionSet;
 
-class DummyMapInterfaceConnector implements IMapInterfaceConnector {
+public class DummyMapInterfaceConnector implements IMapInterfaceConnector {
 
 	private UIState uiState;
 
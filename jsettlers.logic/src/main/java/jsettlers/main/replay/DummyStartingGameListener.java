@@ -23,6 +23,7 @@ import jsettlers.common.menu.IStartingGameListener;
 class DummyStartingGameListener implements IStartingGameListener {
 	private final Object waitMutex = new Object();
 	private IStartedGame startedGame = null;
+	private IMapInterfaceConnector connector = null;
 
 	@Override
 	public void startProgressChanged(EProgressState state, float progress) {
@@ -31,7 +32,8 @@ class DummyStartingGameListener implements IStartingGameListener {
 	@Override
 	public IMapInterfaceConnector preLoadFinished(IStartedGame game) {
 		startedGame = game;
-		return new DummyMapInterfaceConnector();
+		connector = new DummyMapInterfaceConnector();
+		return connector;
 	}
 
 	@Override
@@ -53,6 +55,10 @@ class DummyStartingGameListener implements IStartingGameListener {
 		return startedGame;
 	}
 
+	public IMapInterfaceConnector getConnector() {
+		return connector;
+	}
+
 	@Override
 	public void startFinished() {
 		synchronized (waitMutex) {
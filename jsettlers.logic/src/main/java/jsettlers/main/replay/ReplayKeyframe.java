@@ -0,0 +1,154 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.main.replay;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import jsettlers.common.map.MapLoadException;
+import jsettlers.input.PlayerState;
+import jsettlers.logic.map.grid.MainGrid;
+import jsettlers.logic.map.loading.MapLoader;
+import jsettlers.logic.map.loading.list.IListedMap;
+import jsettlers.logic.map.loading.newmap.MapFileHeader;
+import jsettlers.logic.map.loading.savegame.SavegameLoader;
+import jsettlers.logic.map.loading.savegame.SavegameSnapshot;
+import jsettlers.main.ReplayStartInformation;
+import jsettlers.main.replay.ReplayUtils.IReplayStreamProvider;
+import jsettlers.network.client.interfaces.IGameClock;
+
+/**
+ * A compressed in-memory savegame of a replay at a certain game time together with the tasks of the replay that have not been executed at that
+ * time. Playing it results in the same game as playing the whole replay, but the game time before the keyframe doesn't need to be simulated.
+ * 
+ * @author agent
+ * 
+ */
+public final class ReplayKeyframe implements IReplayStreamProvider {
+	private final int gameTime;
+	private final MapFileHeader header;
+	private final byte[] compressedSavegame;
+	private final byte[] remainingReplay;
+
+	private ReplayKeyframe(int gameTime, MapFileHeader header, byte[] compressedSavegame, byte[] remainingReplay) {
+		this.gameTime = gameTime;
+		this.header = header;
+		this.compressedSavegame = compressedSavegame;
+		this.remainingReplay = remainingReplay;
+	}
+
+	/**
+	 * Captures a keyframe of the current state of a replayed game. The game logic must not run while this method is called.
+	 * 
+	 * @param replayStartInformation
+	 *            The start information of the replayed game.
+	 * @param grid
+	 *            The grid of the game.
+	 * @param playerStates
+	 *            The states of the players to store in the savegame.
+	 * @param clock
+	 *            The clock of the game containing the remaining tasks of the replay.
+	 * @return The captured keyframe.
+	 * @throws IOException
+	 */
+	static ReplayKeyframe capture(ReplayStartInformation replayStartInformation, MainGrid grid, PlayerState[] playerStates, IGameClock clock)
+			throws IOException {
+		SavegameSnapshot snapshot = SavegameSnapshot.capture(playerStates, grid);
+		MapFileHeader header = snapshot.getHeader();
+
+		ByteArrayOutputStream savegameStream = new ByteArrayOutputStream();
+		try (ZipOutputStream zipStream = new ZipOutputStream(savegameStream)) {
+			zipStream.setLevel(Deflater.BEST_SPEED);
+			zipStream.putNextEntry(new ZipEntry("keyframe" + MapLoader.MAP_EXTENSION));
+			snapshot.writeTo(zipStream);
+			zipStream.closeEntry();
+		}
+
+		ByteArrayOutputStream replayStream = new ByteArrayOutputStream();
+		DataOutputStream dos = new DataOutputStream(replayStream);
+		ReplayStartInformation remainingReplayInformation = new ReplayStartInformation(0, header.getName(), header.getUniqueId(),
+				replayStartInformation.getPlayerId(), replayStartInformation.getPlayerSettings());
+		remainingReplayInformation.serialize(dos);
+		clock.saveRemainingTasks(dos);
+		dos.close();
+
+		return new ReplayKeyframe(clock.getTime(), header, savegameStream.toByteArray(), replayStream.toByteArray());
+	}
+
+	/**
+	 * 
+	 * @return The game time in milliseconds at which this keyframe has been captured.
+	 */
+	public int getGameTime() {
+		return gameTime;
+	}
+
+	/**
+	 * 
+	 * @return The number of bytes needed to store this keyframe.
+	 */
+	public int getSize() {
+		return compressedSavegame.length + remainingReplay.length;
+	}
+
+	@Override
+	public InputStream openStream() {
+		return new ByteArrayInputStream(remainingReplay);
+	}
+
+	@Override
+	public MapLoader getMap(ReplayStartInformation replayStartInformation) throws MapLoadException {
+		return new SavegameLoader(new KeyframeListedMap(), header);
+	}
+
+	@Override
+	public String toString() {
+		return "ReplayKeyframe [gameTime=" + gameTime + ", size=" + getSize() + "]";
+	}
+
+	private final class KeyframeListedMap implements IListedMap {
+		@Override
+		public String getFileName() {
+			return "keyframe-" + gameTime;
+		}
+
+		@Override
+		public InputStream getInputStream() {
+			return new ByteArrayInputStream(compressedSavegame);
+		}
+
+		@Override
+		public void delete() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public boolean isCompressed() {
+			return true;
+		}
+
+		@Override
+		public File getFile() {
+			throw new UnsupportedOperationException();
+		}
+	}
+}
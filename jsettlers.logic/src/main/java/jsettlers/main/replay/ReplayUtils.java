@@ -18,11 +18,13 @@ import jsettlers.common.map.MapLoadException;
 import jsettlers.common.menu.IGameExitListener;
 import jsettlers.common.menu.IStartedGame;
 import jsettlers.common.menu.IStartingGame;
+import jsettlers.common.menu.UIState;
 import jsettlers.common.resources.ResourceManager;
 import jsettlers.common.utils.FileUtils;
 import jsettlers.common.utils.FileUtils.IFileVisitor;
 import jsettlers.common.utils.Tuple;
 import jsettlers.common.utils.mutables.MutableInt;
+import jsettlers.input.PlayerState;
 import jsettlers.input.tasks.EGuiAction;
 import jsettlers.input.tasks.SimpleGuiTask;
 import jsettlers.logic.constants.MatchConstants;
@@ -38,6 +40,7 @@ import jsettlers.network.client.interfaces.IGameClock;
 import jsettlers.network.client.interfaces.INetworkConnector;
 
 import java.io.*;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -78,6 +81,83 @@ public class ReplayUtils {
 		return newSavegame;
 	}
 
+	/**
+	 * Plays the given replay up to the given game time and captures a {@link ReplayKeyframe} every keyframe interval. The returned replay can be
+	 * used to seek to any game time without simulating the game from its start.
+	 * 
+	 * @param replayFile
+	 *            The replay to play.
+	 * @param keyframeIntervalMinutes
+	 *            The game time in minutes between two keyframes.
+	 * @param lengthMinutes
+	 *            The game time in minutes up to which keyframes are captured.
+	 * @return The replay with its keyframes.
+	 * @throws MapLoadException
+	 * @throws IOException
+	 */
+	public static SeekableReplay createSeekableReplay(IReplayStreamProvider replayFile, int keyframeIntervalMinutes, int lengthMinutes)
+			throws MapLoadException, IOException {
+		OfflineNetworkConnector networkConnector = createPausingOfflineNetworkConnector();
+		ReplayStartInformation replayStartInformation = new ReplayStartInformation();
+		JSettlersGame game = loadGameFromReplay(replayFile, networkConnector, replayStartInformation);
+
+		DummyStartingGameListener startingGameListener = new DummyStartingGameListener();
+		game.start().setListener(startingGameListener);
+		GameRunner startedGame = (GameRunner) startingGameListener.waitForGameStartup();
+		IGameClock gameClock = MatchConstants.clock();
+
+		List<ReplayKeyframe> keyframes = new ArrayList<>();
+		int keyframeIntervalMs = keyframeIntervalMinutes * 60 * 1000;
+		for (int keyframeTimeMs = keyframeIntervalMs; keyframeTimeMs <= lengthMinutes * 60 * 1000; keyframeTimeMs += keyframeIntervalMs) {
+			gameClock.fastForwardTo(keyframeTimeMs);
+
+			synchronized (gameClock) {
+				PlayerState[] playerStates = getKeyframePlayerStates(startedGame.getMainGrid().getPartitionsGrid().getNumberOfPlayers(),
+						(byte) replayStartInformation.getPlayerId(), startingGameListener.getConnector().getUIState());
+				keyframes.add(ReplayKeyframe.capture(replayStartInformation, startedGame.getMainGrid(), playerStates, gameClock));
+			}
+		}
+
+		awaitShutdown(startedGame);
+
+		SeekableReplay seekableReplay = new SeekableReplay(replayFile, keyframes);
+		System.out.println("Captured " + keyframes.size() + " keyframes with " + seekableReplay.getKeyframesSize() + " bytes of: " + replayFile);
+		return seekableReplay;
+	}
+
+	private static PlayerState[] getKeyframePlayerStates(byte numberOfPlayers, byte playerId, UIState uiState) {
+		PlayerState[] playerStates = new PlayerState[numberOfPlayers];
+		for (byte i = 0; i < numberOfPlayers; i++) {
+			playerStates[i] = new PlayerState(i, null);
+		}
+		// the fog of war is not stored, as a loaded fog of war is always enabled. A seeked game starts with a new one like the replay does.
+		playerStates[playerId] = new PlayerState(playerId, uiState);
+		return playerStates;
+	}
+
+	/**
+	 * Seeks the given replay to the target game time and creates a savegame at that time. Only the game time since the last keyframe before the
+	 * target time is simulated.
+	 * 
+	 * @param replay
+	 *            The replay created by {@link #createSeekableReplay(IReplayStreamProvider, int, int)}.
+	 * @param targetGameTimeMinutes
+	 *            The game time in minutes to seek to.
+	 * @return The savegame at the target game time.
+	 * @throws MapLoadException
+	 * @throws IOException
+	 */
+	public static MapLoader seekAndCreateSavegame(SeekableReplay replay, int targetGameTimeMinutes) throws MapLoadException, IOException {
+		IReplayStreamProvider start = replay.getStartFor(targetGameTimeMinutes * 60 * 1000);
+		OfflineNetworkConnector networkConnector = createPausingOfflineNetworkConnector();
+		JSettlersGame game = loadGameFromReplay(start, networkConnector, new ReplayStartInformation());
+
+		MapLoader savegame = playGameToTargetTimeAndGetSavegames(game, networkConnector, targetGameTimeMinutes)[0];
+
+		System.out.println("Seeked to minute " + targetGameTimeMinutes + " starting from: " + start + " and created savegame: " + savegame);
+		return savegame;
+	}
+
 	public static OfflineNetworkConnector createPausingOfflineNetworkConnector() {
 		OfflineNetworkConnector networkConnector = new OfflineNetworkConnector();
 		networkConnector.getGameClock().setPausing(true);
@@ -120,6 +200,7 @@ public class ReplayUtils {
 	}
 
 	public static MapLoader getNewestSavegame() {
+		MapList.getDefaultList().awaitBackgroundSaves();
 		List<? extends MapLoader> savedMaps = MapList.getDefaultList().getSavedMaps().getItems();
 		if (savedMaps.isEmpty()) {
 			throw new RuntimeException("No saved games found.");
@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.main.replay;
+
+import java.util.Collections;
+import java.util.List;
+
+import jsettlers.main.replay.ReplayUtils.IReplayStreamProvider;
+
+/**
+ * A replay together with the {@link ReplayKeyframe}s captured while playing it. Seeking to a game time starts at the last keyframe before
+ * that time, so only the remaining game time needs to be simulated.
+ * 
+ * @author agent
+ * 
+ * @see ReplayUtils#createSeekableReplay(IReplayStreamProvider, int, int)
+ */
+public final class SeekableReplay {
+	private final IReplayStreamProvider replayFile;
+	private final List<ReplayKeyframe> keyframes;
+
+	SeekableReplay(IReplayStreamProvider replayFile, List<ReplayKeyframe> keyframes) {
+		this.replayFile = replayFile;
+		this.keyframes = Collections.unmodifiableList(keyframes);
+	}
+
+	public IReplayStreamProvider getReplayFile() {
+		return replayFile;
+	}
+
+	/**
+	 * 
+	 * @return The keyframes sorted by their game time.
+	 */
+	public List<ReplayKeyframe> getKeyframes() {
+		return keyframes;
+	}
+
+	/**
+	 * 
+	 * @param targetGameTime
+	 *            The game time in milliseconds to seek to.
+	 * @return The last keyframe captured before the given game time or the replay itself if there is none.
+	 */
+	public IReplayStreamProvider getStartFor(int targetGameTime) {
+		IReplayStreamProvider start = replayFile;
+		for (ReplayKeyframe keyframe : keyframes) {
+			if (keyframe.getGameTime() >= targetGameTime) { // the tasks of the keyframe's lockstep have already been executed
+				break;
+			}
+			start = keyframe;
+		}
+		return start;
+	}
+
+	/**
+	 * 
+	 * @return The number of bytes needed to store the keyframes.
+	 */
+	public long getKeyframesSize() {
+		long size = 0;
+		for (ReplayKeyframe keyframe : keyframes) {
+			size += keyframe.getSize();
+		}
+		return size;
+	}
+}
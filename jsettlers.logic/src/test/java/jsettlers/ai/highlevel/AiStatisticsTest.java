@@ -0,0 +1,170 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.ai.highlevel;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import jsettlers.common.ai.EPlayerType;
+import jsettlers.common.buildings.EBuildingType;
+import jsettlers.common.landscape.EResourceType;
+import jsettlers.common.map.MapLoadException;
+import jsettlers.common.mapobject.EMapObjectType;
+import jsettlers.common.menu.IStartedGame;
+import jsettlers.common.movable.EMovableType;
+import jsettlers.common.player.ECivilisation;
+import jsettlers.common.position.ShortPoint2D;
+import jsettlers.logic.constants.MatchConstants;
+import jsettlers.logic.map.grid.MainGrid;
+import jsettlers.logic.player.PlayerSetting;
+import jsettlers.main.JSettlersGame;
+import jsettlers.main.replay.ReplayUtils;
+import jsettlers.network.client.OfflineNetworkConnector;
+import jsettlers.testutils.TestUtils;
+import jsettlers.testutils.map.MapUtils;
+
+/**
+ * Checks that the incrementally updated {@link AiStatistics} stay equal to statistics calculated from scratch while a game is running.
+ *
+ * @author agent
+ */
+public class AiStatisticsTest {
+	private static final int MINUTES = 1000 * 60;
+	private static final int JUMP_FORWARD = 3 * MINUTES;
+	private static final int GAME_DURATION = 30 * MINUTES;
+
+	static {
+		TestUtils.setupTempResourceManager();
+	}
+
+	@Test
+	public void testIncrementalUpdatesEqualFullCalculation() throws MapLoadException {
+		PlayerSetting[] playerSettings = new PlayerSetting[12];
+		Arrays.fill(playerSettings, new PlayerSetting());
+		playerSettings[0] = new PlayerSetting(EPlayerType.AI_VERY_HARD, ECivilisation.ROMAN, (byte) 0);
+		playerSettings[7] = new PlayerSetting(EPlayerType.AI_VERY_HARD, ECivilisation.ROMAN, (byte) 1);
+		playerSettings[9] = new PlayerSetting(EPlayerType.AI_HARD, ECivilisation.ROMAN, (byte) 2);
+
+		JSettlersGame game = new JSettlersGame(MapUtils.getSpezialSumpf(), 2L, new OfflineNetworkConnector(), (byte) 0, playerSettings);
+		JSettlersGame.GameRunner startingGame = (JSettlersGame.GameRunner) game.start();
+		IStartedGame startedGame = ReplayUtils.waitForGameStartup(startingGame);
+		MainGrid mainGrid = startingGame.getMainGrid();
+
+		AiStatistics incrementalStatistics = new AiStatistics(mainGrid);
+
+		for (int targetGameTime = JUMP_FORWARD; targetGameTime <= GAME_DURATION; targetGameTime += JUMP_FORWARD) {
+			MatchConstants.clock().fastForwardTo(targetGameTime);
+
+			synchronized (MatchConstants.clock()) {
+				incrementalStatistics.updateStatistics();
+				AiStatistics fullStatistics = new AiStatistics(mainGrid);
+				fullStatistics.updateStatistics();
+
+				assertStatisticsEqual(fullStatistics, incrementalStatistics, playerSettings.length);
+			}
+		}
+
+		ReplayUtils.awaitShutdown(startedGame);
+	}
+
+	@Test
+	public void testNearestPointPrefersFirstOfEqualDistance() {
+		ShortPoint2D reference = new ShortPoint2D(10, 10);
+		ShortPoint2D far = new ShortPoint2D(20, 20);
+		ShortPoint2D first = new ShortPoint2D(12, 10);
+		ShortPoint2D second = new ShortPoint2D(8, 10);
+		List<ShortPoint2D> points = Arrays.asList(far, first, second);
+
+		assertSame(first, AiStatistics.detectNearestPointFromList(reference, points));
+		assertSame(second, AiStatistics.detectNearestPointFromList(reference, Arrays.asList(far, second, first)));
+		assertEquals(Arrays.asList(far, first, second), points); // the list is not sorted in place
+		assertNull(AiStatistics.detectNearestPointFromList(reference, new ArrayList<>()));
+	}
+
+	@Test
+	public void testNearestPointsAreSortedStably() {
+		ShortPoint2D reference = new ShortPoint2D(10, 10);
+		ShortPoint2D far = new ShortPoint2D(20, 20);
+		ShortPoint2D first = new ShortPoint2D(12, 10);
+		ShortPoint2D nearest = new ShortPoint2D(11, 10);
+		ShortPoint2D second = new ShortPoint2D(8, 10);
+		List<ShortPoint2D> points = Arrays.asList(far, first, nearest, second);
+
+		assertEquals(Arrays.asList(nearest, first, second), AiStatistics.detectNearestPointsFromList(reference, points, 3));
+		assertEquals(Arrays.asList(far, first, nearest, second), points);
+	}
+
+	private static void assertStatisticsEqual(AiStatistics expected, AiStatistics actual, int numberOfPlayers) {
+		for (EResourceType resourceType : EResourceType.VALUES) {
+			assertEquals(expected.resourceCountInDefaultPartition(resourceType), actual.resourceCountInDefaultPartition(resourceType));
+			assertEquals(toList(expected.sortedResourceTypes[resourceType.ordinal]), toList(actual.sortedResourceTypes[resourceType.ordinal]));
+		}
+		for (EMapObjectType objectType : EMapObjectType.VALUES) {
+			assertEquals(toList(expected.sortedCuttableObjectsInDefaultPartition.get(objectType)),
+					toList(actual.sortedCuttableObjectsInDefaultPartition.get(objectType)));
+		}
+		assertEquals(toList(expected.sortedRiversInDefaultPartition), toList(actual.sortedRiversInDefaultPartition));
+
+		long[][] expectedResourceAndGrassCount = expected.getAiMapInformation().resourceAndGrassCount;
+		long[][] actualResourceAndGrassCount = actual.getAiMapInformation().resourceAndGrassCount;
+		for (int i = 0; i < expectedResourceAndGrassCount.length; i++) {
+			assertArrayEquals(expectedResourceAndGrassCount[i], actualResourceAndGrassCount[i]);
+		}
+
+		for (byte playerId = 0; playerId < numberOfPlayers; playerId++) {
+			assertEquals(expected.isAlive(playerId), actual.isAlive(playerId));
+			assertEquals(expected.getPositionOfPartition(playerId), actual.getPositionOfPartition(playerId));
+			assertEquals(expected.getTotalWineCountForPlayer(playerId), actual.getTotalWineCountForPlayer(playerId));
+			assertEquals(expected.getNumberOfTotalBuildingsForPlayer(playerId), actual.getNumberOfTotalBuildingsForPlayer(playerId));
+			for (EResourceType resourceType : EResourceType.VALUES) {
+				assertEquals(expected.resourceCountOfPlayer(resourceType, playerId), actual.resourceCountOfPlayer(resourceType, playerId));
+			}
+			for (EBuildingType buildingType : EBuildingType.VALUES) {
+				assertEquals(expected.getBuildingPositionsOfTypeForPlayer(buildingType, playerId),
+						actual.getBuildingPositionsOfTypeForPlayer(buildingType, playerId));
+			}
+			for (EMovableType movableType : EMovableType.VALUES) {
+				assertEquals(expected.getMovablePositionsByTypeForPlayer(movableType, playerId),
+						actual.getMovablePositionsByTypeForPlayer(movableType, playerId));
+			}
+			assertEquals(toList(expected.getLandForPlayer(playerId)), toList(actual.getLandForPlayer(playerId)));
+			assertEquals(toList(expected.getStonesForPlayer(playerId)), toList(actual.getStonesForPlayer(playerId)));
+			assertEquals(toList(expected.getTreesForPlayer(playerId)), toList(actual.getTreesForPlayer(playerId)));
+			assertEquals(toList(expected.getRiversForPlayer(playerId)), toList(actual.getRiversForPlayer(playerId)));
+			assertEquals(toList(expected.getBorderOf(playerId)), toList(actual.getBorderOf(playerId)));
+			assertEquals(toList(expected.getOtherPartitionBorderOf(playerId)), toList(actual.getOtherPartitionBorderOf(playerId)));
+			assertEquals(toList(expected.getEnemiesInTownOf(playerId)), toList(actual.getEnemiesInTownOf(playerId)));
+			assertEquals(toList(expected.getStonesNearBy(playerId)), toList(actual.getStonesNearBy(playerId)));
+		}
+	}
+
+	private static List<ShortPoint2D> toList(AiPositions positions) {
+		List<ShortPoint2D> list = new ArrayList<>();
+		if (positions != null) {
+			for (ShortPoint2D position : positions) {
+				list.add(position);
+			}
+		}
+		return list;
+	}
+}
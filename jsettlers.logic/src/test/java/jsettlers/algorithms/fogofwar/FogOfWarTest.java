@@ -0,0 +1,161 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.algorithms.fogofwar;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.junit.Test;
+
+import jsettlers.common.CommonConstants;
+import jsettlers.common.mapobject.IMapObject;
+import jsettlers.common.movable.IMovable;
+import jsettlers.common.position.ShortPoint2D;
+
+/**
+ * Tests that the incremental updates of the {@link FogOfWar} result in the same sight as dimming down the whole map and stamping the view
+ * circles of all view sources every update.
+ * 
+ * @author agent
+ *
+ */
+public class FogOfWarTest {
+	private static final short WIDTH = 200;
+	private static final short HEIGHT = 150;
+	private static final byte PLAYER = 0;
+
+	private final Random random = new Random(0);
+	private final TestFogOfWarGrid grid = new TestFogOfWarGrid();
+
+	@Test
+	public void testIncrementalUpdatesMatchFullRebuild() {
+		for (int i = 0; i < 20; i++) {
+			grid.buildings.add(new TestViewSource(randomPosition(), (short) (5 + random.nextInt(30)), PLAYER));
+		}
+		for (int i = 0; i < 300; i++) {
+			grid.movables.add(new TestViewSource(randomPosition(), (short) (3 + random.nextInt(10)), (byte) random.nextInt(2)));
+		}
+
+		FogOfWar fogOfWar = new FogOfWar(WIDTH, HEIGHT, PLAYER);
+		byte[] expectedSight = new byte[WIDTH * HEIGHT];
+
+		for (int update = 0; update < 30; update++) {
+			for (TestViewSource movable : grid.movables) {
+				if (movable.pos != null && random.nextInt(3) == 0) { // move some of the movables
+					ShortPoint2D pos = movable.getPos();
+					movable.pos = new ShortPoint2D(clamp(pos.x + random.nextInt(5) - 2, WIDTH), clamp(pos.y + random.nextInt(5) - 2, HEIGHT));
+				}
+			}
+			if (update % 10 == 5) { // some view sources disappear, others are added
+				grid.buildings.poll();
+				grid.movables.poll();
+				grid.movables.add(new TestViewSource(randomPosition(), (short) 6, PLAYER));
+				grid.movables.peek().pos = null;
+			}
+
+			fogOfWar.updateSight(grid);
+			rebuildSight(expectedSight);
+
+			assertArrayEquals("sight after update " + update, expectedSight, fogOfWar.sightValues);
+		}
+	}
+
+	private void rebuildSight(byte[] sight) {
+		for (int i = 0; i < sight.length; i++) {
+			if (sight[i] >= CommonConstants.FOG_OF_WAR_EXPLORED) {
+				sight[i] = (byte) Math.max(sight[i] - 10, CommonConstants.FOG_OF_WAR_EXPLORED);
+			}
+		}
+
+		ConcurrentLinkedQueue<TestViewSource> allSources = new ConcurrentLinkedQueue<TestViewSource>(grid.buildings);
+		allSources.addAll(grid.movables);
+		for (TestViewSource source : allSources) {
+			if (source.playerId != PLAYER || source.pos == null) {
+				continue;
+			}
+
+			CachedViewCircle circle = new CachedViewCircle(Math.min(source.viewDistance + FogOfWar.PADDING, FogOfWar.MAX_VIEWDISTANCE - 1));
+			for (int i = 0; i < circle.size; i++) {
+				int x = circle.x[i] + source.pos.x;
+				int y = circle.y[i] + source.pos.y;
+				if (x >= 0 && x < WIDTH && y > 0 && y < HEIGHT) {
+					sight[x + y * WIDTH] = (byte) Math.max(sight[x + y * WIDTH], circle.sight[i]);
+				}
+			}
+		}
+	}
+
+	private ShortPoint2D randomPosition() {
+		return new ShortPoint2D(random.nextInt(WIDTH), random.nextInt(HEIGHT));
+	}
+
+	private static int clamp(int value, int size) {
+		return Math.max(0, Math.min(size - 1, value));
+	}
+
+	private static class TestViewSource implements IViewDistancable {
+		ShortPoint2D pos;
+		final short viewDistance;
+		final byte playerId;
+
+		TestViewSource(ShortPoint2D pos, short viewDistance, byte playerId) {
+			this.pos = pos;
+			this.viewDistance = viewDistance;
+			this.playerId = playerId;
+		}
+
+		@Override
+		public ShortPoint2D getPos() {
+			return pos;
+		}
+
+		@Override
+		public byte getPlayerId() {
+			return playerId;
+		}
+
+		@Override
+		public short getViewDistance() {
+			return viewDistance;
+		}
+	}
+
+	private static class TestFogOfWarGrid implements IFogOfWarGrid {
+		final ConcurrentLinkedQueue<TestViewSource> buildings = new ConcurrentLinkedQueue<TestViewSource>();
+		final ConcurrentLinkedQueue<TestViewSource> movables = new ConcurrentLinkedQueue<TestViewSource>();
+
+		@Override
+		public IMovable getMovableAt(short x, short y) {
+			return null;
+		}
+
+		@Override
+		public IMapObject getMapObjectsAt(short x, short y) {
+			return null;
+		}
+
+		@Override
+		public ConcurrentLinkedQueue<? extends IViewDistancable> getMovableViewDistancables() {
+			return movables;
+		}
+
+		@Override
+		public ConcurrentLinkedQueue<? extends IViewDistancable> getBuildingViewDistancables() {
+			return buildings;
+		}
+	}
+}
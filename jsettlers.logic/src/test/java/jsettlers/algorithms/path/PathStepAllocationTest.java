@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.algorithms.path;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.Test;
+
+import jsettlers.common.position.ShortPoint2D;
+import jsettlers.common.position.ShortPoint2DTable;
+
+/**
+ * Measures the memory allocated while a movable follows a {@link Path}. Reading the positions as new {@link ShortPoint2D}s is compared to reading
+ * them from the {@link ShortPoint2DTable} of the map.
+ *
+ * @author agent
+ *
+ */
+public class PathStepAllocationTest {
+	private static final short MAP_SIZE = 200;
+	private static final int PATH_LENGTH = MAP_SIZE;
+	private static final int NUMBER_OF_WALKS = 2000;
+	private static final int NUMBER_OF_STEPS = NUMBER_OF_WALKS * PATH_LENGTH;
+
+	@Test
+	public void testStepsAllocateNearlyNothingWithPointTable() {
+		ShortPoint2DTable points = new ShortPoint2DTable(MAP_SIZE, MAP_SIZE);
+		Path path = new Path(PATH_LENGTH);
+		for (int i = 0; i < PATH_LENGTH; i++) {
+			path.insertAt(i, (short) i, (short) (i / 2));
+		}
+
+		walk(path, null); // warm up
+		walk(path, points);
+
+		long allocatedBefore = getAllocatedBytes();
+		long newPointsChecksum = walk(path, null);
+		long newPointsAllocated = getAllocatedBytes() - allocatedBefore;
+
+		allocatedBefore = getAllocatedBytes();
+		long tablePointsChecksum = walk(path, points);
+		long tablePointsAllocated = getAllocatedBytes() - allocatedBefore;
+
+		System.out.println(NUMBER_OF_STEPS + " path steps:");
+		System.out.println("\tnew points:   " + (double) newPointsAllocated / NUMBER_OF_STEPS + " bytes allocated per step");
+		System.out.println("\ttable points: " + (double) tablePointsAllocated / NUMBER_OF_STEPS + " bytes allocated per step");
+
+		assertEquals(newPointsChecksum, tablePointsChecksum);
+		assertTrue(tablePointsAllocated < NUMBER_OF_STEPS / 100); // less than 0.01 bytes per step
+	}
+
+	private static long walk(Path path, ShortPoint2DTable points) {
+		long checksum = 0;
+		for (int walk = 0; walk < NUMBER_OF_WALKS; walk++) {
+			path = Path.reuseOrCreate(path, PATH_LENGTH);
+			while (path.hasNextStep()) {
+				ShortPoint2D nextPos = points == null ? path.getNextPos() : path.getNextPos(points);
+				ShortPoint2D targetPos = points == null ? path.getTargetPos() : path.getTargetPos(points);
+				checksum += nextPos.x + nextPos.y * MAP_SIZE + targetPos.getOnGridDistTo(nextPos);
+				path.goToNextStep();
+			}
+		}
+		return checksum;
+	}
+
+	private static long getAllocatedBytes() {
+		return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+}
@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.algorithms.path;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import jsettlers.common.position.ShortPoint2D;
+import jsettlers.common.position.ShortPoint2DTable;
+
+/**
+ * Tests the reuse of {@link Path} objects.
+ * 
+ * @author agent
+ *
+ */
+public class PathTest {
+
+	@Test
+	public void testReuseOrCreate() {
+		Path path = createPath(5);
+		path.goToNextStep();
+
+		Path reused = Path.reuseOrCreate(path, 3);
+		assertSame(path, reused);
+		assertEquals(3, reused.getLength());
+		assertTrue(reused.hasNextStep());
+
+		Path created = Path.reuseOrCreate(reused, 6);
+		assertNotSame(reused, created);
+		assertEquals(6, created.getLength());
+
+		Path singleStep = Path.reuseOrCreate(created, new ShortPoint2D(7, 8));
+		assertSame(created, singleStep);
+		assertEquals(1, singleStep.getLength());
+		assertEquals(new ShortPoint2D(7, 8), singleStep.getTargetPos());
+		assertEquals(new ShortPoint2D(7, 8), singleStep.getNextPos());
+	}
+
+	@Test
+	public void testReplacePassedSteps() {
+		Path path = createPath(5);
+		path.goToNextStep();
+		path.goToNextStep();
+
+		path.replacePassedSteps(new ShortPoint2D(10, 10), new ShortPoint2D(11, 11));
+		assertPath(path, new ShortPoint2D(10, 10), new ShortPoint2D(11, 11), new ShortPoint2D(2, 2), new ShortPoint2D(3, 3), new ShortPoint2D(4, 4));
+
+	}
+
+	@Test
+	public void testReplacePassedStepsWithLongerPrefix() {
+		Path path = createPath(3);
+		path.goToNextStep();
+
+		path.replacePassedSteps(new ShortPoint2D(20, 20), new ShortPoint2D(21, 21), new ShortPoint2D(22, 22));
+		assertPath(path, new ShortPoint2D(20, 20), new ShortPoint2D(21, 21), new ShortPoint2D(22, 22), new ShortPoint2D(1, 1), new ShortPoint2D(2, 2));
+	}
+
+	@Test
+	public void testPositionsFromPointTable() {
+		ShortPoint2DTable points = new ShortPoint2DTable((short) 10, (short) 10);
+		Path path = createPath(5);
+		path.goToNextStep();
+
+		assertEquals(path.getNextPos(), path.getNextPos(points));
+		assertSame(path.getNextPos(points), path.getNextPos(points));
+		assertSame(points.get(4, 4), path.getTargetPos(points));
+		assertEquals(path.getTargetPos(), path.getTargetPos(points));
+	}
+
+	private static Path createPath(int length) {
+		Path path = new Path(length);
+		for (int i = 0; i < length; i++) {
+			path.insertAt(i, (short) i, (short) i);
+		}
+		return path;
+	}
+
+	private static void assertPath(Path path, ShortPoint2D... expected) {
+		assertEquals(expected.length, path.getLength());
+		assertEquals(expected[expected.length - 1], path.getTargetPos());
+		for (ShortPoint2D position : expected) {
+			assertEquals(position, path.getNextPos());
+			path.goToNextStep();
+		}
+		assertFalse(path.hasNextStep());
+	}
+}
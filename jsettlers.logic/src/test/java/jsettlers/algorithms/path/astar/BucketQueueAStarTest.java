@@ -15,6 +15,7 @@
 package jsettlers.algorithms.path.astar;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 import org.junit.Test;
 
@@ -58,6 +59,73 @@ public class BucketQueueAStarTest {
 		}
 	}
 
+	@Test
+	public void testFindPathToNearest() {
+		DummyEmptyAStarMap map = new DummyEmptyAStarMap(WIDTH, HEIGHT);
+		AbstractAStar aStar = new BucketQueueAStar(map, WIDTH, HEIGHT);
+		map.setBlocked(60, 50, true); // blocked targets are never found
+		for (short x = 46; x <= 48; x++) { // enclose the target at (47|50)
+			for (short y = 49; y <= 51; y++) {
+				map.setBlocked(x, y, !(x == 47 && y == 50));
+			}
+		}
+
+		final ShortPoint2D[] targets = { new ShortPoint2D(60, 50), new ShortPoint2D(47, 50), new ShortPoint2D(50, 56), new ShortPoint2D(55, 50) };
+		IPathTargetFilter targetFilter = new IPathTargetFilter() {
+			@Override
+			public boolean isTarget(int x, int y) {
+				for (ShortPoint2D target : targets) {
+					if (target.x == x && target.y == y) {
+						return true;
+					}
+				}
+				return false;
+			}
+
+			@Override
+			public boolean isInSearchArea(int x, int y) {
+				return true;
+			}
+		};
+
+		Path path = aStar.findPathToNearest(getPathable((short) 50, (short) 50), (short) 50, (short) 50, targetFilter, null);
+		assertEquals(new ShortPoint2D(55, 50), path.getTargetPos());
+		assertEquals(5, path.getLength());
+
+		map.setBlocked(55, 50, true);
+		path = aStar.findPathToNearest(getPathable((short) 50, (short) 50), (short) 50, (short) 50, targetFilter, null);
+		assertEquals(new ShortPoint2D(50, 56), path.getTargetPos());
+		assertEquals(6, path.getLength());
+
+		map.setBlocked(50, 56, true);
+		assertNull(aStar.findPathToNearest(getPathable((short) 50, (short) 50), (short) 50, (short) 50, targetFilter, null));
+	}
+
+	@Test
+	public void testFindPathToNearestOnlySearchesArea() {
+		AbstractAStar aStar = new BucketQueueAStar(new DummyEmptyAStarMap(WIDTH, HEIGHT), WIDTH, HEIGHT);
+
+		assertNull(aStar.findPathToNearest(getPathable((short) 50, (short) 50), (short) 50, (short) 50, createAreaFilter(60, 50, 8), null));
+
+		Path path = aStar.findPathToNearest(getPathable((short) 50, (short) 50), (short) 50, (short) 50, createAreaFilter(60, 50, 11), null);
+		assertEquals(new ShortPoint2D(60, 50), path.getTargetPos());
+		assertEquals(10, path.getLength());
+	}
+
+	private static IPathTargetFilter createAreaFilter(final int targetX, final int targetY, final int areaRadius) {
+		return new IPathTargetFilter() {
+			@Override
+			public boolean isTarget(int x, int y) {
+				return x == targetX && y == targetY;
+			}
+
+			@Override
+			public boolean isInSearchArea(int x, int y) {
+				return ShortPoint2D.getOnGridDist(x - 50, y - 50) < areaRadius;
+			}
+		};
+	}
+
 	private Path findPath(short sx, short sy, short tx, short ty) {
 		return aStar.findPath(getPathable(sx, sy), new ShortPoint2D(tx, ty));
 	}
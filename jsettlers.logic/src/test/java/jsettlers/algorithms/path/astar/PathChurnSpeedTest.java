@@ -0,0 +1,180 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.algorithms.path.astar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import org.junit.Test;
+
+import jsettlers.algorithms.path.IPathCalculatable;
+import jsettlers.algorithms.path.Path;
+import jsettlers.common.Color;
+import jsettlers.common.logging.MilliStopWatch;
+import jsettlers.common.map.MapLoadException;
+import jsettlers.common.position.ShortPoint2D;
+import jsettlers.logic.constants.MatchConstants;
+import jsettlers.logic.map.grid.MainGrid;
+import jsettlers.logic.map.grid.MainGridDataAccessor;
+import jsettlers.logic.map.grid.flags.FlagsGrid;
+import jsettlers.logic.map.grid.landscape.LandscapeGrid;
+import jsettlers.network.synchronic.timer.NetworkTimer;
+import jsettlers.testutils.map.MapUtils;
+
+/**
+ * Measures the memory allocated by the {@link BucketQueueAStar} when many short paths are calculated one after another, like movables
+ * re-pathing around each other do. Calculating the paths with new {@link Path} objects is compared to reusing the previous path.
+ *
+ * @author agent
+ *
+ */
+public class PathChurnSpeedTest {
+	private static final int NUMBER_OF_PATHS = 20000;
+	private static final int MAX_PATH_DISTANCE = 30;
+
+	private static final IPathCalculatable REQUESTER = new IPathCalculatable() {
+		private static final long serialVersionUID = -2893418453367128315L;
+
+		@Override
+		public ShortPoint2D getPos() {
+			return null;
+		}
+
+		@Override
+		public byte getPlayerId() {
+			return 0;
+		}
+
+		@Override
+		public boolean needsPlayersGround() {
+			return false;
+		}
+	};
+
+	@Test
+	public void testPathChurnOnMountainlake() throws MapLoadException {
+		MatchConstants.init(new NetworkTimer(true), 0);
+		MainGrid grid = MapUtils.getMountainlake().loadMainGrid(null).getMainGrid();
+		MainGridDataAccessor gridAccessor = new MainGridDataAccessor(grid);
+		short width = gridAccessor.getWidth();
+		short height = gridAccessor.getHeight();
+
+		BlockingPathMap map = new BlockingPathMap(gridAccessor.getFlagsGrid(), gridAccessor.getLandscapeGrid());
+		AbstractAStar aStar = new BucketQueueAStar(map, width, height);
+		short[] requests = createRequests(map, width, height);
+
+		calculatePaths(aStar, requests, false); // warm up
+		calculatePaths(aStar, requests, true);
+
+		MilliStopWatch watch = new MilliStopWatch();
+		long allocatedBefore = getAllocatedBytes();
+		long newPathsLength = calculatePaths(aStar, requests, false);
+		long newPathsAllocated = getAllocatedBytes() - allocatedBefore;
+		long newPathsTime = watch.getDiff();
+
+		watch.restart();
+		allocatedBefore = getAllocatedBytes();
+		long reusedPathsLength = calculatePaths(aStar, requests, true);
+		long reusedPathsAllocated = getAllocatedBytes() - allocatedBefore;
+		long reusedPathsTime = watch.getDiff();
+
+		System.out.println(NUMBER_OF_PATHS + " short paths on " + width + "x" + height + " map:");
+		System.out.println("\tnew paths:    " + newPathsTime + " ms, " + newPathsAllocated / NUMBER_OF_PATHS + " bytes allocated per path");
+		System.out.println("\treused paths: " + reusedPathsTime + " ms, " + reusedPathsAllocated / NUMBER_OF_PATHS + " bytes allocated per path");
+
+		assertEquals(newPathsLength, reusedPathsLength);
+		assertTrue(reusedPathsAllocated < newPathsAllocated);
+	}
+
+	private static long calculatePaths(AbstractAStar aStar, short[] requests, boolean reusePaths) {
+		long summedLength = 0;
+		Path reusablePath = null;
+		for (int i = 0; i < NUMBER_OF_PATHS; i++) {
+			Path path = aStar.findPath(REQUESTER, requests[4 * i], requests[4 * i + 1], requests[4 * i + 2], requests[4 * i + 3],
+					reusePaths ? reusablePath : null);
+			if (path != null) {
+				summedLength += path.getLength();
+				reusablePath = path; // the path has been followed and is released
+			}
+		}
+		return summedLength;
+	}
+
+	private static long getAllocatedBytes() {
+		return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	private static short[] createRequests(BlockingPathMap map, short width, short height) {
+		Random random = new Random(0);
+		short[] requests = new short[4 * NUMBER_OF_PATHS];
+
+		for (int i = 0; i < NUMBER_OF_PATHS;) {
+			short sx = (short) random.nextInt(width);
+			short sy = (short) random.nextInt(height);
+			short tx = (short) (sx + random.nextInt(2 * MAX_PATH_DISTANCE + 1) - MAX_PATH_DISTANCE);
+			short ty = (short) (sy + random.nextInt(2 * MAX_PATH_DISTANCE + 1) - MAX_PATH_DISTANCE);
+
+			if (tx >= 0 && tx < width && ty >= 0 && ty < height && !map.isBlocked(null, sx, sy) && !map.isBlocked(null, tx, ty)
+					&& map.getBlockedPartition(sx, sy) == map.getBlockedPartition(tx, ty)) {
+				requests[4 * i] = sx;
+				requests[4 * i + 1] = sy;
+				requests[4 * i + 2] = tx;
+				requests[4 * i + 3] = ty;
+				i++;
+			}
+		}
+		return requests;
+	}
+
+	private static class BlockingPathMap implements IAStarPathMap {
+		private final FlagsGrid flagsGrid;
+		private final LandscapeGrid landscapeGrid;
+
+		BlockingPathMap(FlagsGrid flagsGrid, LandscapeGrid landscapeGrid) {
+			this.flagsGrid = flagsGrid;
+			this.landscapeGrid = landscapeGrid;
+		}
+
+		@Override
+		public boolean isBlocked(IPathCalculatable requester, int x, int y) {
+			return flagsGrid.isBlocked(x, y);
+		}
+
+		@Override
+		public float getCost(int sx, int sy, int tx, int ty) {
+			return 1;
+		}
+
+		@Override
+		public void markAsOpen(int x, int y) {
+		}
+
+		@Override
+		public void markAsClosed(int x, int y) {
+		}
+
+		@Override
+		public void setDebugColor(int x, int y, Color color) {
+		}
+
+		@Override
+		public short getBlockedPartition(int x, int y) {
+			return landscapeGrid.getBlockedPartitionAt(x, y);
+		}
+	}
+}
@@ -0,0 +1,193 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.algorithms.path.astar.hierarchical;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import jsettlers.algorithms.path.IPathCalculatable;
+import jsettlers.algorithms.path.Path;
+import jsettlers.algorithms.path.astar.AbstractAStar;
+import jsettlers.algorithms.path.astar.BucketQueueAStar;
+import jsettlers.algorithms.path.astar.IAStarPathMap;
+import jsettlers.common.Color;
+import jsettlers.common.logging.MilliStopWatch;
+import jsettlers.common.map.MapLoadException;
+import jsettlers.common.position.ShortPoint2D;
+import jsettlers.logic.constants.MatchConstants;
+import jsettlers.logic.map.grid.MainGrid;
+import jsettlers.logic.map.grid.MainGridDataAccessor;
+import jsettlers.logic.map.grid.flags.FlagsGrid;
+import jsettlers.logic.map.grid.landscape.LandscapeGrid;
+import jsettlers.logic.map.loading.MapLoader;
+import jsettlers.network.synchronic.timer.NetworkTimer;
+import jsettlers.testutils.map.MapUtils;
+
+/**
+ * Compares the node expansions and the time needed by the {@link HierarchicalAStar} and the {@link BucketQueueAStar} for long paths on the
+ * bundled maps.
+ *
+ * @author agent
+ *
+ */
+public class HierarchicalAStarSpeedTest {
+	private static final int NUMBER_OF_PATHS = 300;
+	private static final int MIN_PATH_DISTANCE = 100;
+
+	private static final IPathCalculatable REQUESTER = new IPathCalculatable() {
+		private static final long serialVersionUID = 5004829461567012837L;
+
+		@Override
+		public ShortPoint2D getPos() {
+			return null;
+		}
+
+		@Override
+		public byte getPlayerId() {
+			return 0;
+		}
+
+		@Override
+		public boolean needsPlayersGround() {
+			return false;
+		}
+	};
+
+	@Test
+	public void testMountainlake() throws MapLoadException {
+		compareOnMap(MapUtils.getMountainlake());
+	}
+
+	@Test
+	public void testSpezialSumpf() throws MapLoadException {
+		compareOnMap(MapUtils.getSpezialSumpf());
+	}
+
+	private void compareOnMap(MapLoader mapLoader) throws MapLoadException {
+		MatchConstants.init(new NetworkTimer(true), 0);
+		MainGrid grid = mapLoader.loadMainGrid(null).getMainGrid();
+		MainGridDataAccessor gridAccessor = new MainGridDataAccessor(grid);
+		short width = gridAccessor.getWidth();
+		short height = gridAccessor.getHeight();
+
+		CountingPathMap map = new CountingPathMap(gridAccessor.getFlagsGrid(), gridAccessor.getLandscapeGrid());
+		AbstractAStar aStar = new BucketQueueAStar(map, width, height);
+		AbstractAStar hierarchicalAStar = new HierarchicalAStar(map, width, height);
+
+		short[] requests = createRequests(map, width, height);
+
+		MilliStopWatch watch = new MilliStopWatch();
+		int[] expectedLengths = new int[NUMBER_OF_PATHS];
+		map.expandedNodes = 0;
+		watch.restart();
+		for (int i = 0; i < NUMBER_OF_PATHS; i++) {
+			Path path = aStar.findPath(REQUESTER, requests[4 * i], requests[4 * i + 1], requests[4 * i + 2], requests[4 * i + 3]);
+			expectedLengths[i] = path == null ? -1 : path.getLength();
+		}
+		long aStarTime = watch.getDiff();
+		long aStarExpansions = map.expandedNodes;
+
+		long hierarchicalLength = 0;
+		long aStarLength = 0;
+		map.expandedNodes = 0;
+		watch.restart();
+		for (int i = 0; i < NUMBER_OF_PATHS; i++) {
+			Path path = hierarchicalAStar.findPath(REQUESTER, requests[4 * i], requests[4 * i + 1], requests[4 * i + 2], requests[4 * i + 3]);
+			assertEquals(expectedLengths[i] < 0, path == null);
+			if (path != null) {
+				hierarchicalLength += path.getLength();
+				aStarLength += expectedLengths[i];
+			}
+		}
+		long hierarchicalColdTime = watch.getDiff();
+
+		map.expandedNodes = 0;
+		watch.restart();
+		for (int i = 0; i < NUMBER_OF_PATHS; i++) {
+			hierarchicalAStar.findPath(REQUESTER, requests[4 * i], requests[4 * i + 1], requests[4 * i + 2], requests[4 * i + 3]);
+		}
+		long hierarchicalTime = watch.getDiff();
+		long hierarchicalExpansions = map.expandedNodes;
+
+		System.out.println(NUMBER_OF_PATHS + " paths on " + width + "x" + height + " map:");
+		System.out.println("\tBucketQueueAStar:  " + aStarTime + " ms, " + aStarExpansions + " expanded nodes");
+		System.out.println("\tHierarchicalAStar: " + hierarchicalTime + " ms (" + hierarchicalColdTime + " ms including the calculation of the graph), "
+				+ hierarchicalExpansions + " expanded nodes, paths " + (100f * hierarchicalLength / aStarLength - 100) + "% longer");
+	}
+
+	private short[] createRequests(CountingPathMap map, short width, short height) {
+		Random random = new Random(0);
+		short[] requests = new short[4 * NUMBER_OF_PATHS];
+
+		for (int i = 0; i < NUMBER_OF_PATHS;) {
+			short sx = (short) random.nextInt(width);
+			short sy = (short) random.nextInt(height);
+			short tx = (short) random.nextInt(width);
+			short ty = (short) random.nextInt(height);
+
+			if (!map.isBlocked(null, sx, sy) && !map.isBlocked(null, tx, ty) && map.getBlockedPartition(sx, sy) == map.getBlockedPartition(tx, ty)
+					&& ShortPoint2D.getOnGridDist(tx - sx, ty - sy) >= MIN_PATH_DISTANCE) {
+				requests[4 * i] = sx;
+				requests[4 * i + 1] = sy;
+				requests[4 * i + 2] = tx;
+				requests[4 * i + 3] = ty;
+				i++;
+			}
+		}
+		return requests;
+	}
+
+	private static class CountingPathMap implements IAStarPathMap {
+		private final FlagsGrid flagsGrid;
+		private final LandscapeGrid landscapeGrid;
+		long expandedNodes = 0;
+
+		CountingPathMap(FlagsGrid flagsGrid, LandscapeGrid landscapeGrid) {
+			this.flagsGrid = flagsGrid;
+			this.landscapeGrid = landscapeGrid;
+		}
+
+		@Override
+		public boolean isBlocked(IPathCalculatable requester, int x, int y) {
+			return flagsGrid.isBlocked(x, y);
+		}
+
+		@Override
+		public float getCost(int sx, int sy, int tx, int ty) {
+			return 1;
+		}
+
+		@Override
+		public void markAsOpen(int x, int y) {
+		}
+
+		@Override
+		public void markAsClosed(int x, int y) {
+			expandedNodes++;
+		}
+
+		@Override
+		public void setDebugColor(int x, int y, Color color) {
+		}
+
+		@Override
+		public short getBlockedPartition(int x, int y) {
+			return landscapeGrid.getBlockedPartitionAt(x, y);
+		}
+	}
+}
@@ -0,0 +1,176 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.algorithms.path.astar.hierarchical;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import jsettlers.algorithms.path.IPathCalculatable;
+import jsettlers.algorithms.path.Path;
+import jsettlers.algorithms.path.astar.AbstractAStar;
+import jsettlers.algorithms.path.astar.BucketQueueAStar;
+import jsettlers.algorithms.path.astar.DummyEmptyAStarMap;
+import jsettlers.common.position.ShortPoint2D;
+
+public class HierarchicalAStarTest {
+
+	private static final short WIDTH = 200;
+	private static final short HEIGHT = 200;
+
+	private final DummyEmptyAStarMap map = new DummyEmptyAStarMap(WIDTH, HEIGHT);
+	private final AbstractAStar aStar = new BucketQueueAStar(map, WIDTH, HEIGHT);
+	private final AbstractAStar hierarchicalAStar = new HierarchicalAStar(map, WIDTH, HEIGHT);
+
+	@Test
+	public void testPathLengthOnEmptyMap() {
+		short sx = 10;
+		short sy = 10;
+		short tx = 150;
+		short ty = 120;
+
+		Path path = hierarchicalAStar.findPath(getPathable(sx, sy), new ShortPoint2D(tx, ty));
+
+		assertValidPath(sx, sy, tx, ty, path);
+		int shortestLength = ShortPoint2D.getOnGridDist(tx - sx, ty - sy);
+		assertTrue(shortestLength <= path.getLength() && path.getLength() <= shortestLength * 1.05f);
+	}
+
+	@Test
+	public void testRandomObstacles() {
+		Random random = new Random(42);
+		addRandomObstacles(random);
+
+		for (int i = 0; i < 500; i++) {
+			comparePaths(random);
+		}
+	}
+
+	@Test
+	public void testBlockingChanges() {
+		Random random = new Random(1337);
+		addRandomObstacles(random);
+
+		for (int i = 0; i < 50; i++) { // build the abstraction graph before changing the map
+			comparePaths(random);
+		}
+
+		// add a wall with a single gap through the whole map
+		for (int y = 0; y < HEIGHT; y++) {
+			setBlocked(100, y, y != 170);
+		}
+
+		Path path = hierarchicalAStar.findPath(getPathable((short) 20, (short) 20), new ShortPoint2D(180, 20));
+		assertValidPath(20, 20, 180, 20, path);
+		assertTrue(path.getLength() > 2 * 150);
+
+		// close the gap
+		setBlocked(100, 170, true);
+		assertNull(hierarchicalAStar.findPath(getPathable((short) 20, (short) 20), new ShortPoint2D(180, 20)));
+
+		// remove the wall
+		for (int y = 0; y < HEIGHT; y++) {
+			setBlocked(100, y, false);
+		}
+		for (int i = 0; i < 200; i++) {
+			comparePaths(random);
+		}
+	}
+
+	private void comparePaths(Random random) {
+		short sx = (short) random.nextInt(WIDTH);
+		short sy = (short) random.nextInt(HEIGHT);
+		short tx = (short) random.nextInt(WIDTH);
+		short ty = (short) random.nextInt(HEIGHT);
+
+		Path expected = aStar.findPath(getPathable(sx, sy), new ShortPoint2D(tx, ty));
+		Path actual = hierarchicalAStar.findPath(getPathable(sx, sy), new ShortPoint2D(tx, ty));
+
+		if (expected == null) {
+			assertNull(actual);
+		} else {
+			assertValidPath(sx, sy, tx, ty, actual);
+			assertTrue("path too long: " + actual.getLength() + " instead of " + expected.getLength(),
+					actual.getLength() <= expected.getLength() * 1.3f + 4);
+		}
+	}
+
+	private void assertValidPath(int sx, int sy, int tx, int ty, Path path) {
+		assertNotNull(path);
+
+		int x = sx;
+		int y = sy;
+		while (path.hasNextStep()) {
+			int nextX = path.nextX();
+			int nextY = path.nextY();
+			assertEquals(1, ShortPoint2D.getOnGridDist(nextX - x, nextY - y));
+			assertTrue(!map.isBlocked(null, nextX, nextY) || map.isBlocked(null, x, y));
+			x = nextX;
+			y = nextY;
+			path.goToNextStep();
+		}
+
+		assertEquals(tx, x);
+		assertEquals(ty, y);
+	}
+
+	private void addRandomObstacles(Random random) {
+		for (int i = 0; i < 300; i++) {
+			int x = random.nextInt(WIDTH);
+			int y = random.nextInt(HEIGHT);
+			int length = random.nextInt(30);
+			boolean horizontal = random.nextBoolean();
+
+			for (int j = 0; j < length; j++) {
+				if (horizontal && x + j < WIDTH) {
+					map.setBlocked(x + j, y, true);
+				} else if (!horizontal && y + j < HEIGHT) {
+					map.setBlocked(x, y + j, true);
+				}
+			}
+		}
+	}
+
+	private void setBlocked(int x, int y, boolean blocked) {
+		map.setBlocked(x, y, blocked);
+		hierarchicalAStar.blockingChangedAt(x, y);
+	}
+
+	private static IPathCalculatable getPathable(final short x, final short y) {
+		return new IPathCalculatable() {
+			private static final long serialVersionUID = 3640359553394474768L;
+
+			@Override
+			public ShortPoint2D getPos() {
+				return new ShortPoint2D(x, y);
+			}
+
+			@Override
+			public byte getPlayerId() {
+				return 0;
+			}
+
+			@Override
+			public boolean needsPlayersGround() {
+				return false;
+			}
+		};
+	}
+}
@@ -0,0 +1,252 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.algorithms.path.dijkstra;
+
+import java.util.BitSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import jsettlers.algorithms.path.IPathCalculatable;
+import jsettlers.algorithms.path.Path;
+import jsettlers.algorithms.path.astar.BucketQueueAStar;
+import jsettlers.algorithms.path.astar.IAStarPathMap;
+import jsettlers.common.Color;
+import jsettlers.common.logging.MilliStopWatch;
+import jsettlers.common.map.MapLoadException;
+import jsettlers.common.material.ESearchType;
+import jsettlers.common.movable.EDirection;
+import jsettlers.common.position.ShortPoint2D;
+import jsettlers.logic.constants.MatchConstants;
+import jsettlers.logic.map.grid.MainGrid;
+import jsettlers.logic.map.grid.MainGridDataAccessor;
+import jsettlers.logic.map.grid.flags.FlagsGrid;
+import jsettlers.logic.map.grid.landscape.LandscapeGrid;
+import jsettlers.logic.map.loading.MapLoader;
+import jsettlers.network.synchronic.timer.NetworkTimer;
+import jsettlers.testutils.map.MapUtils;
+
+/**
+ * Compares the latency and the node expansions of the {@link DijkstraAlgorithm} with a path calculation for every fitting position and with
+ * the single pass search on the bundled maps.
+ * <p>
+ * The searched positions are the free positions with a blocked position at their top left, like the positions a lumberjack cuts a tree
+ * from. Positions enclosed by blocked positions of the map are in another blocked partition and are skipped by both searches. Therefore,
+ * the maps are also searched with additional enclosures, like free positions walled in by buildings. These are unreachable fitting
+ * positions in the blocked partition of the requester.
+ *
+ * @author agent
+ *
+ */
+public class DijkstraAlgorithmSpeedTest {
+	private static final int NUMBER_OF_SEARCHES = 3000;
+	private static final short SEARCH_RADIUS = 30;
+	private static final int POSITIONS_PER_ENCLOSURE = 300;
+
+	@Test
+	public void testMountainlake() throws MapLoadException {
+		compareOnMap(MapUtils.getMountainlake(), false);
+	}
+
+	@Test
+	public void testMountainlakeWithEnclosures() throws MapLoadException {
+		compareOnMap(MapUtils.getMountainlake(), true);
+	}
+
+	@Test
+	public void testSpezialSumpf() throws MapLoadException {
+		compareOnMap(MapUtils.getSpezialSumpf(), false);
+	}
+
+	@Test
+	public void testSpezialSumpfWithEnclosures() throws MapLoadException {
+		compareOnMap(MapUtils.getSpezialSumpf(), true);
+	}
+
+	private void compareOnMap(MapLoader mapLoader, boolean withEnclosures) throws MapLoadException {
+		MatchConstants.init(new NetworkTimer(true), 0);
+		MainGrid grid = mapLoader.loadMainGrid(null).getMainGrid();
+		MainGridDataAccessor gridAccessor = new MainGridDataAccessor(grid);
+		short width = gridAccessor.getWidth();
+		short height = gridAccessor.getHeight();
+
+		CountingSearchMap map = new CountingSearchMap(gridAccessor.getFlagsGrid(), gridAccessor.getLandscapeGrid(), width);
+		if (withEnclosures) {
+			createEnclosures(map, width, height);
+		}
+		DijkstraAlgorithm ringDijkstra = new DijkstraAlgorithm(map, new BucketQueueAStar(map, width, height), width, height, false);
+		DijkstraAlgorithm singlePassDijkstra = new DijkstraAlgorithm(map, new BucketQueueAStar(map, width, height), width, height, true);
+
+		Requester[] requesters = createRequesters(map, width, height);
+
+		SearchResult ringResult = search(ringDijkstra, map, requesters);
+		SearchResult singlePassResult = search(singlePassDijkstra, map, requesters);
+
+		System.out.println(NUMBER_OF_SEARCHES + " searches with radius " + SEARCH_RADIUS + " on " + width + "x" + height + " map"
+				+ (withEnclosures ? " with enclosures:" : ":"));
+		System.out.println("\tpath to every fitting position: " + ringResult);
+		System.out.println("\tsingle pass search:             " + singlePassResult);
+	}
+
+	private static SearchResult search(DijkstraAlgorithm dijkstra, CountingSearchMap map, Requester[] requesters) {
+		for (int i = 0; i < NUMBER_OF_SEARCHES / 10; i++) { // warm up
+			dijkstra.find(requesters[i], requesters[i].pos.x, requesters[i].pos.y, (short) 0, SEARCH_RADIUS, ESearchType.CUTTABLE_TREE);
+		}
+
+		SearchResult result = new SearchResult();
+		map.expandedNodes = 0;
+		MilliStopWatch watch = new MilliStopWatch();
+		for (Requester requester : requesters) {
+			Path path = dijkstra.find(requester, requester.pos.x, requester.pos.y, (short) 0, SEARCH_RADIUS, ESearchType.CUTTABLE_TREE);
+			if (path != null) {
+				result.foundPaths++;
+				result.summedLength += path.getLength();
+			}
+		}
+		result.time = watch.getDiff();
+		result.expandedNodes = map.expandedNodes;
+		return result;
+	}
+
+	private static void createEnclosures(CountingSearchMap map, short width, short height) {
+		Random random = new Random(1);
+
+		for (int i = 0; i < width * height / POSITIONS_PER_ENCLOSURE; i++) {
+			int x = 1 + random.nextInt(width - 2);
+			int y = 1 + random.nextInt(height - 2);
+
+			if (!map.isBlocked(null, x, y)) {
+				for (EDirection direction : EDirection.VALUES) {
+					map.setBlocked(x + direction.gridDeltaX, y + direction.gridDeltaY);
+				}
+			}
+		}
+	}
+
+	private static Requester[] createRequesters(CountingSearchMap map, short width, short height) {
+		Random random = new Random(0);
+		Requester[] requesters = new Requester[NUMBER_OF_SEARCHES];
+
+		for (int i = 0; i < NUMBER_OF_SEARCHES;) {
+			short x = (short) random.nextInt(width);
+			short y = (short) random.nextInt(height);
+
+			if (!map.isBlocked(null, x, y)) {
+				requesters[i] = new Requester(new ShortPoint2D(x, y));
+				i++;
+			}
+		}
+		return requesters;
+	}
+
+	private static class SearchResult {
+		long time;
+		long expandedNodes;
+		int foundPaths;
+		long summedLength;
+
+		@Override
+		public String toString() {
+			return time + " ms, " + expandedNodes + " expanded nodes, " + foundPaths + " paths found with an average length of "
+					+ (float) summedLength / foundPaths;
+		}
+	}
+
+	private static class Requester implements IPathCalculatable {
+		private static final long serialVersionUID = -4392158102683529357L;
+
+		private final ShortPoint2D pos;
+
+		Requester(ShortPoint2D pos) {
+			this.pos = pos;
+		}
+
+		@Override
+		public ShortPoint2D getPos() {
+			return pos;
+		}
+
+		@Override
+		public byte getPlayerId() {
+			return 0;
+		}
+
+		@Override
+		public boolean needsPlayersGround() {
+			return false;
+		}
+	}
+
+	private static class CountingSearchMap implements IAStarPathMap, IDijkstraPathMap {
+		private final FlagsGrid flagsGrid;
+		private final LandscapeGrid landscapeGrid;
+		private final short width;
+		private final BitSet additionallyBlocked = new BitSet();
+		long expandedNodes = 0;
+
+		CountingSearchMap(FlagsGrid flagsGrid, LandscapeGrid landscapeGrid, short width) {
+			this.flagsGrid = flagsGrid;
+			this.landscapeGrid = landscapeGrid;
+			this.width = width;
+		}
+
+		void setBlocked(int x, int y) {
+			additionallyBlocked.set(y * width + x);
+		}
+
+		@Override
+		public boolean isBlocked(IPathCalculatable requester, int x, int y) {
+			return flagsGrid.isBlocked(x, y) || additionallyBlocked.get(y * width + x);
+		}
+
+		@Override
+		public float getCost(int sx, int sy, int tx, int ty) {
+			return 1;
+		}
+
+		@Override
+		public void markAsOpen(int x, int y) {
+		}
+
+		@Override
+		public void markAsClosed(int x, int y) {
+			expandedNodes++;
+		}
+
+		@Override
+		public void setDebugColor(int x, int y, Color color) {
+		}
+
+		@Override
+		public short getBlockedPartition(int x, int y) {
+			return landscapeGrid.getBlockedPartitionAt(x, y);
+		}
+
+		@Override
+		public boolean fitsSearchType(int x, int y, ESearchType type, IPathCalculatable requester) {
+			return x > 0 && y > 0 && !isBlocked(requester, x, y) && isBlocked(requester, x - 1, y - 1);
+		}
+
+		@Override
+		public boolean fitsSearchType(int x, int y, Set<ESearchType> types, IPathCalculatable requester) {
+			return fitsSearchType(x, y, (ESearchType) null, requester);
+		}
+
+		@Override
+		public void setDijkstraSearched(int x, int y) {
+		}
+	}
+}
@@ -0,0 +1,249 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.algorithms.path.flowfield;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import jsettlers.algorithms.path.IPathCalculatable;
+import jsettlers.algorithms.path.Path;
+import jsettlers.algorithms.path.astar.AbstractAStar;
+import jsettlers.algorithms.path.astar.BucketQueueAStar;
+import jsettlers.algorithms.path.astar.IAStarPathMap;
+import jsettlers.common.Color;
+import jsettlers.common.logging.MilliStopWatch;
+import jsettlers.common.map.MapLoadException;
+import jsettlers.common.map.shapes.HexGridArea;
+import jsettlers.common.position.ShortPoint2D;
+import jsettlers.logic.constants.MatchConstants;
+import jsettlers.logic.map.grid.MainGrid;
+import jsettlers.logic.map.grid.MainGridDataAccessor;
+import jsettlers.logic.map.grid.flags.FlagsGrid;
+import jsettlers.logic.map.grid.landscape.LandscapeGrid;
+import jsettlers.network.synchronic.timer.NetworkTimer;
+import jsettlers.testutils.map.MapUtils;
+
+/**
+ * Compares the time needed to calculate the paths of a large army sent to one position. Before, every soldier calculated its own path with the
+ * A*. With a flow field, one reverse search from the target is shared by all soldiers.
+ *
+ * @author agent
+ *
+ */
+public class FlowFieldSpeedTest {
+	private static final int ARMY_SIZE = 300;
+	private static final int NUMBER_OF_ORDERS = 20;
+	private static final int MIN_ORDER_DISTANCE = 60;
+	private static final int MAX_ORDER_DISTANCE = 150;
+
+	@Test
+	public void testLargeArmyOrdersOnMountainlake() throws MapLoadException {
+		MatchConstants.init(new NetworkTimer(true), 0);
+		MainGrid grid = MapUtils.getMountainlake().loadMainGrid(null).getMainGrid();
+		MainGridDataAccessor gridAccessor = new MainGridDataAccessor(grid);
+		short width = gridAccessor.getWidth();
+		short height = gridAccessor.getHeight();
+
+		BlockingPathMap map = new BlockingPathMap(gridAccessor.getFlagsGrid(), gridAccessor.getLandscapeGrid());
+		AbstractAStar aStar = new BucketQueueAStar(map, width, height);
+		FlowFieldCalculator flowFieldCalculator = new FlowFieldCalculator(map, width, height);
+		List<Order> orders = createOrders(map, width, height);
+
+		sendArmiesWithAStar(aStar, orders); // warm up
+		sendArmiesWithFlowFields(flowFieldCalculator, aStar, orders);
+
+		MilliStopWatch watch = new MilliStopWatch();
+		long aStarLength = sendArmiesWithAStar(aStar, orders);
+		long aStarTime = watch.getDiff();
+
+		watch.restart();
+		long flowFieldLength = sendArmiesWithFlowFields(flowFieldCalculator, aStar, orders);
+		long flowFieldTime = watch.getDiff();
+
+		System.out.println(NUMBER_OF_ORDERS + " orders of " + ARMY_SIZE + " soldiers on " + width + "x" + height + " map:");
+		System.out.println("\tA* per soldier: " + aStarTime / NUMBER_OF_ORDERS + " ms per order, average path length: "
+				+ aStarLength / (NUMBER_OF_ORDERS * ARMY_SIZE));
+		System.out.println("\tflow field:     " + flowFieldTime / NUMBER_OF_ORDERS + " ms per order, average path length: "
+				+ flowFieldLength / (NUMBER_OF_ORDERS * ARMY_SIZE));
+	}
+
+	private static long sendArmiesWithAStar(AbstractAStar aStar, List<Order> orders) {
+		long summedLength = 0;
+		for (Order order : orders) {
+			for (int i = 0; i < ARMY_SIZE; i++) {
+				Path path = aStar.findPath(order.soldiers.get(i), order.targets.get(i));
+				assertNotNull(path);
+				summedLength += path.getLength();
+			}
+		}
+		return summedLength;
+	}
+
+	private static long sendArmiesWithFlowFields(FlowFieldCalculator flowFieldCalculator, AbstractAStar aStar, List<Order> orders) {
+		long summedLength = 0;
+		int fallbacks = 0;
+		for (Order order : orders) {
+			List<ShortPoint2D> startPositions = new ArrayList<>();
+			for (Soldier soldier : order.soldiers) {
+				startPositions.add(soldier.getPos());
+			}
+
+			FlowField flowField = flowFieldCalculator.calculate(order.soldiers.get(0), order.center.x, order.center.y, startPositions);
+			for (int i = 0; i < ARMY_SIZE; i++) {
+				Path path = flowField.createPath(order.soldiers.get(i).getPos(), order.targets.get(i), null);
+				if (path == null) {
+					fallbacks++;
+					path = aStar.findPath(order.soldiers.get(i), order.targets.get(i));
+				}
+				assertNotNull(path);
+				summedLength += path.getLength();
+			}
+		}
+		assertEquals(0, fallbacks);
+		return summedLength;
+	}
+
+	private static List<Order> createOrders(BlockingPathMap map, short width, short height) {
+		Random random = new Random(0);
+		List<Order> orders = new ArrayList<>();
+
+		while (orders.size() < NUMBER_OF_ORDERS) {
+			ShortPoint2D center = randomFreePosition(map, random, width, height);
+			int distance = MIN_ORDER_DISTANCE + random.nextInt(MAX_ORDER_DISTANCE - MIN_ORDER_DISTANCE);
+			double angle = random.nextDouble() * 2 * Math.PI;
+			ShortPoint2D armyCenter = new ShortPoint2D(center.x + (int) (Math.cos(angle) * distance), center.y + (int) (Math.sin(angle) * distance));
+
+			Order order = new Order(center);
+			if (order.addTargets(map, width, height) && order.addSoldiers(map, random, armyCenter, width, height)) {
+				orders.add(order);
+			}
+		}
+		return orders;
+	}
+
+	private static ShortPoint2D randomFreePosition(BlockingPathMap map, Random random, short width, short height) {
+		while (true) {
+			short x = (short) random.nextInt(width);
+			short y = (short) random.nextInt(height);
+			if (!map.isBlocked(null, x, y)) {
+				return new ShortPoint2D(x, y);
+			}
+		}
+	}
+
+	private static class Order {
+		final ShortPoint2D center;
+		final List<ShortPoint2D> targets = new ArrayList<>();
+		final List<Soldier> soldiers = new ArrayList<>();
+
+		Order(ShortPoint2D center) {
+			this.center = center;
+		}
+
+		/**
+		 * Spreads the targets on rings around the center like the GuiTaskExecutor does.
+		 */
+		boolean addTargets(BlockingPathMap map, short width, short height) {
+			short partition = map.getBlockedPartition(center.x, center.y);
+			for (int radius = 1; radius < 30 && targets.size() < ARMY_SIZE; radius++) {
+				HexGridArea.streamBorder(center.x, center.y, radius).filterBounds(width, height).getEvery(2).forEach((x, y) -> {
+					if (targets.size() < ARMY_SIZE && !map.isBlocked(null, x, y) && map.getBlockedPartition(x, y) == partition) {
+						targets.add(new ShortPoint2D(x, y));
+					}
+				});
+			}
+			return targets.size() == ARMY_SIZE;
+		}
+
+		boolean addSoldiers(BlockingPathMap map, Random random, ShortPoint2D armyCenter, short width, short height) {
+			short partition = map.getBlockedPartition(center.x, center.y);
+			for (int i = 0; i < 20 * ARMY_SIZE && soldiers.size() < ARMY_SIZE; i++) {
+				int x = armyCenter.x + random.nextInt(31) - 15;
+				int y = armyCenter.y + random.nextInt(31) - 15;
+				if (x >= 0 && x < width && y >= 0 && y < height && !map.isBlocked(null, x, y) && map.getBlockedPartition(x, y) == partition) {
+					soldiers.add(new Soldier(new ShortPoint2D(x, y)));
+				}
+			}
+			return soldiers.size() == ARMY_SIZE;
+		}
+	}
+
+	private static class Soldier implements IPathCalculatable {
+		private static final long serialVersionUID = 1L;
+		private final ShortPoint2D position;
+
+		Soldier(ShortPoint2D position) {
+			this.position = position;
+		}
+
+		@Override
+		public ShortPoint2D getPos() {
+			return position;
+		}
+
+		@Override
+		public byte getPlayerId() {
+			return 0;
+		}
+
+		@Override
+		public boolean needsPlayersGround() {
+			return false;
+		}
+	}
+
+	private static class BlockingPathMap implements IAStarPathMap {
+		private final FlagsGrid flagsGrid;
+		private final LandscapeGrid landscapeGrid;
+
+		BlockingPathMap(FlagsGrid flagsGrid, LandscapeGrid landscapeGrid) {
+			this.flagsGrid = flagsGrid;
+			this.landscapeGrid = landscapeGrid;
+		}
+
+		@Override
+		public boolean isBlocked(IPathCalculatable requester, int x, int y) {
+			return flagsGrid.isBlocked(x, y);
+		}
+
+		@Override
+		public float getCost(int sx, int sy, int tx, int ty) {
+			return 1;
+		}
+
+		@Override
+		public void markAsOpen(int x, int y) {
+		}
+
+		@Override
+		public void markAsClosed(int x, int y) {
+		}
+
+		@Override
+		public void setDebugColor(int x, int y, Color color) {
+		}
+
+		@Override
+		public short getBlockedPartition(int x, int y) {
+			return landscapeGrid.getBlockedPartitionAt(x, y);
+		}
+	}
+}
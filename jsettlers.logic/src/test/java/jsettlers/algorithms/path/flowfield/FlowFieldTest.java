@@ -0,0 +1,166 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.algorithms.path.flowfield;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import jsettlers.algorithms.path.IPathCalculatable;
+import jsettlers.algorithms.path.Path;
+import jsettlers.algorithms.path.astar.BucketQueueAStar;
+import jsettlers.algorithms.path.astar.DummyEmptyAStarMap;
+import jsettlers.common.movable.EDirection;
+import jsettlers.common.position.ShortPoint2D;
+
+public class FlowFieldTest {
+	private static final short WIDTH = 100;
+	private static final short HEIGHT = 100;
+	private static final ShortPoint2D TARGET = new ShortPoint2D(50, 50);
+
+	private final DummyEmptyAStarMap map = new DummyEmptyAStarMap(WIDTH, HEIGHT);
+	private final FlowFieldCalculator calculator = new FlowFieldCalculator(map, WIDTH, HEIGHT);
+	private final BucketQueueAStar aStar = new BucketQueueAStar(map, WIDTH, HEIGHT);
+
+	public FlowFieldTest() {
+		for (int y = 20; y < 80; y++) { // a wall with a gap at its bottom
+			map.setBlocked(40, y, true);
+		}
+	}
+
+	@Test
+	public void testPathsToFieldTargetAreShortest() {
+		List<ShortPoint2D> starts = Arrays.asList(new ShortPoint2D(10, 50), new ShortPoint2D(30, 30), new ShortPoint2D(90, 10),
+				new ShortPoint2D(39, 79));
+		FlowField flowField = calculator.calculate(null, TARGET.x, TARGET.y, starts);
+
+		for (ShortPoint2D start : starts) {
+			Path path = flowField.createPath(start, TARGET, null);
+			assertValidPath(start, TARGET, path);
+			assertEquals(aStar.findPath(new Requester(start), TARGET).getLength(), path.getLength());
+		}
+	}
+
+	@Test
+	public void testPathsToPositionsAroundFieldTarget() {
+		List<ShortPoint2D> starts = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			starts.add(new ShortPoint2D(5 + i, 40 + i));
+		}
+		FlowField flowField = calculator.calculate(null, TARGET.x, TARGET.y, starts);
+
+		for (int i = 0; i < starts.size(); i++) {
+			ShortPoint2D start = starts.get(i);
+			ShortPoint2D target = new ShortPoint2D(TARGET.x + i % 5 - 2, TARGET.y + i / 5 - 2);
+			Path path = flowField.createPath(start, target, null);
+			assertValidPath(start, target, path);
+
+			int shortestLength = aStar.findPath(new Requester(start), target).getLength();
+			int targetDistance = ShortPoint2D.getOnGridDist(target.x - TARGET.x, target.y - TARGET.y);
+			assertTrue(path.getLength() <= shortestLength + 2 * targetDistance);
+		}
+	}
+
+	@Test
+	public void testReusablePath() {
+		ShortPoint2D start = new ShortPoint2D(60, 60);
+		FlowField flowField = calculator.calculate(null, TARGET.x, TARGET.y, Collections.singletonList(start));
+		Path reusablePath = new Path(100);
+
+		assertTrue(reusablePath == flowField.createPath(start, TARGET, reusablePath));
+		assertValidPath(start, TARGET, reusablePath);
+	}
+
+	@Test
+	public void testUnreachableStarts() {
+		map.setBlocked(10, 10, true);
+		assertNull(calculator.calculate(null, TARGET.x, TARGET.y, Collections.singletonList(new ShortPoint2D(10, 10))));
+		assertNull(calculator.calculate(null, (short) 40, (short) 40, Collections.singletonList(new ShortPoint2D(20, 20))));
+	}
+
+	@Test
+	public void testInvalidationOnBlockingChange() {
+		ShortPoint2D start = new ShortPoint2D(60, 50);
+		FlowField flowField = calculator.calculate(null, TARGET.x, TARGET.y, Collections.singletonList(start));
+		assertEquals(1, calculator.getNumberOfActiveFlowFields());
+
+		calculator.blockingChangedAt(10, 90);
+		assertTrue(flowField.isValid());
+
+		calculator.blockingChangedAt(55, 50);
+		assertFalse(flowField.isValid());
+		assertNull(flowField.createPath(start, TARGET, null));
+		assertEquals(0, calculator.getNumberOfActiveFlowFields());
+	}
+
+	@Test
+	public void testOldFieldsAreInvalidated() {
+		List<ShortPoint2D> starts = Collections.singletonList(new ShortPoint2D(60, 50));
+		FlowField first = calculator.calculate(null, TARGET.x, TARGET.y, starts);
+		for (int i = 0; i < FlowFieldCalculator.MAX_ACTIVE_FLOW_FIELDS; i++) {
+			assertNotNull(calculator.calculate(null, TARGET.x, TARGET.y, starts));
+		}
+
+		assertFalse(first.isValid());
+		assertEquals(FlowFieldCalculator.MAX_ACTIVE_FLOW_FIELDS, calculator.getNumberOfActiveFlowFields());
+	}
+
+	private void assertValidPath(ShortPoint2D start, ShortPoint2D target, Path path) {
+		assertNotNull(path);
+		int x = start.x;
+		int y = start.y;
+		while (path.hasNextStep()) {
+			assertNotNull(EDirection.getDirection(path.nextX() - x, path.nextY() - y));
+			x = path.nextX();
+			y = path.nextY();
+			assertFalse(map.isBlocked(null, x, y));
+			path.goToNextStep();
+		}
+		assertEquals(target, new ShortPoint2D(x, y));
+	}
+
+	private static class Requester implements IPathCalculatable {
+		private static final long serialVersionUID = 1L;
+		private final ShortPoint2D position;
+
+		Requester(ShortPoint2D position) {
+			this.position = position;
+		}
+
+		@Override
+		public ShortPoint2D getPos() {
+			return position;
+		}
+
+		@Override
+		public byte getPlayerId() {
+			return 0;
+		}
+
+		@Override
+		public boolean needsPlayersGround() {
+			return false;
+		}
+	}
+}
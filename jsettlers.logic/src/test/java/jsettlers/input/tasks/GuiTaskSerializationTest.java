@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.input.tasks;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import jsettlers.common.position.ShortPoint2D;
+import jsettlers.network.client.task.packets.TaskPacket;
+
+/**
+ * Tests the serialization of the gui tasks in the compact and in the legacy format.
+ * 
+ * @author agent
+ *
+ */
+public class GuiTaskSerializationTest {
+	static {
+		GuiTaskTypes.register();
+	}
+
+	@Test
+	public void testMoveToGuiTaskRoundTrip() throws IOException {
+		MoveToGuiTask task = new MoveToGuiTask((byte) 3, new ShortPoint2D(100, 200), Arrays.asList(20000, 20001, 20005, 19000));
+		assertEquals(task, deserialize(serialize(task)));
+	}
+
+	@Test
+	public void testLegacyMovableGuiTask() throws IOException {
+		ByteArrayOutputStream data = new ByteArrayOutputStream();
+		DataOutputStream dataOut = new DataOutputStream(data);
+		dataOut.writeUTF(MovableGuiTask.class.getName());
+		dataOut.writeInt(EGuiAction.DESTROY_MOVABLES.ordinal());
+		dataOut.writeByte(2);
+		dataOut.writeInt(2);
+		dataOut.writeInt(4711);
+		dataOut.writeInt(42);
+
+		ByteArrayOutputStream legacy = new ByteArrayOutputStream();
+		DataOutputStream legacyOut = new DataOutputStream(legacy);
+		legacyOut.writeInt(data.size());
+		data.writeTo(legacyOut);
+
+		assertEquals(new MovableGuiTask(EGuiAction.DESTROY_MOVABLES, (byte) 2, Arrays.asList(4711, 42)), deserialize(legacy.toByteArray()));
+	}
+
+	@Test
+	public void testCompactSize() throws IOException {
+		MovableGuiTask task = new MovableGuiTask(EGuiAction.DESTROY_MOVABLES, (byte) 2, Arrays.asList(20000, 20001, 20002, 20003));
+		// length, type id, action, player, number of ids, first id (3 bytes) and three deltas
+		assertEquals(4 + 1 + 1 + 1 + 1 + 3 + 3, serialize(task).length);
+	}
+
+	private static byte[] serialize(TaskPacket task) throws IOException {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		task.serialize(new DataOutputStream(buffer));
+		return buffer.toByteArray();
+	}
+
+	private static TaskPacket deserialize(byte[] bytes) throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+		TaskPacket task = TaskPacket.DEFAULT_DESERIALIZER.deserialize(null, in);
+		assertEquals(0, in.available());
+		return task;
+	}
+}
@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.input.tasks;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import jsettlers.common.logging.MilliStopWatch;
+import jsettlers.main.ReplayStartInformation;
+import jsettlers.network.client.task.packets.SyncTasksPacket;
+
+/**
+ * Compares the size and the decoding speed of the tasks of a recorded replay in the old format (class names, full ints) with the compact
+ * encoding.
+ * 
+ * @author agent
+ *
+ */
+public class TaskEncodingSpeedTest {
+	private static final String REPLAY = "/jsettlers/integration/replay/fullproduction/replay.log";
+	private static final int DECODE_RUNS = 20;
+
+	static {
+		GuiTaskTypes.register();
+	}
+
+	@Test
+	public void testEncodingOfRecordedReplay() throws IOException {
+		byte[] legacyBytes = readTasksOfReplay();
+		List<SyncTasksPacket> packets = decode(legacyBytes);
+
+		ByteArrayOutputStream compact = new ByteArrayOutputStream();
+		DataOutputStream compactOut = new DataOutputStream(compact);
+		int tasks = 0;
+		for (SyncTasksPacket packet : packets) {
+			packet.serialize(compactOut);
+			tasks += packet.getTasks().size();
+		}
+		compactOut.flush();
+		byte[] compactBytes = compact.toByteArray();
+
+		assertEquals(packets, decode(compactBytes));
+		assertTrue(compactBytes.length < legacyBytes.length);
+
+		long legacyTime = measureDecoding(legacyBytes);
+		long compactTime = measureDecoding(compactBytes);
+
+		System.out.println("replay with " + packets.size() + " lockstep packets and " + tasks + " tasks:");
+		System.out.println("legacy encoding:  " + legacyBytes.length + " bytes   decoding: " + legacyTime + " ms for " + DECODE_RUNS + " runs");
+		System.out.println("compact encoding: " + compactBytes.length + " bytes   decoding: " + compactTime + " ms for " + DECODE_RUNS + " runs");
+	}
+
+	private long measureDecoding(byte[] bytes) throws IOException {
+		decode(bytes); // warm up
+
+		MilliStopWatch watch = new MilliStopWatch();
+		for (int i = 0; i < DECODE_RUNS; i++) {
+			decode(bytes);
+		}
+		return watch.getDiff();
+	}
+
+	private byte[] readTasksOfReplay() throws IOException {
+		InputStream stream = getClass().getResourceAsStream(REPLAY);
+		try {
+			DataInputStream in = new DataInputStream(stream);
+			new ReplayStartInformation().deserialize(in);
+
+			ByteArrayOutputStream tasks = new ByteArrayOutputStream();
+			byte[] buffer = new byte[8192];
+			int read;
+			while ((read = in.read(buffer)) >= 0) {
+				tasks.write(buffer, 0, read);
+			}
+			return tasks.toByteArray();
+		} finally {
+			stream.close();
+		}
+	}
+
+	private static List<SyncTasksPacket> decode(byte[] bytes) throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+		List<SyncTasksPacket> packets = new ArrayList<>();
+		while (in.available() > 0) {
+			SyncTasksPacket packet = new SyncTasksPacket();
+			try {
+				packet.deserialize(in);
+			} catch (EOFException e) {
+				break;
+			}
+			packets.add(packet);
+		}
+		return packets;
+	}
+}
@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.integration.ai;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import jsettlers.ai.highlevel.AiExecutor;
+import jsettlers.common.CommonConstants;
+import jsettlers.common.ai.EPlayerType;
+import jsettlers.common.map.MapLoadException;
+import jsettlers.common.menu.IStartedGame;
+import jsettlers.common.player.ECivilisation;
+import jsettlers.logic.constants.Constants;
+import jsettlers.logic.constants.MatchConstants;
+import jsettlers.logic.player.PlayerSetting;
+import jsettlers.main.JSettlersGame;
+import jsettlers.main.replay.ReplayUtils;
+import jsettlers.network.client.OfflineNetworkConnector;
+import jsettlers.testutils.TestUtils;
+import jsettlers.testutils.map.MapUtils;
+
+/**
+ * Checks that the KIs schedule exactly the same tasks in the same locksteps when a game is played twice, although they are executed
+ * concurrently.
+ *
+ * @author agent
+ */
+public class AiDeterminismIT {
+	private static final int MINUTES = 1000 * 60;
+	private static final int GAME_DURATION = 30 * MINUTES;
+	private static final byte[] AI_PLAYER_IDS = { 0, 7, 9 };
+
+	static {
+		CommonConstants.ENABLE_CONSOLE_LOGGING = true;
+
+		TestUtils.setupTempResourceManager();
+	}
+
+	@Test
+	public void testReplaysOfTwoGamesWithSameSeedAreEqual() throws MapLoadException {
+		Constants.AI_EXECUTOR_THREADS = AI_PLAYER_IDS.length; // the KIs must run concurrently even on a single core
+		try {
+			byte[] firstReplay = playGameAndGetReplay();
+			byte[] secondReplay = playGameAndGetReplay();
+
+			assertArrayEquals(firstReplay, secondReplay);
+		} finally {
+			Constants.AI_EXECUTOR_THREADS = 0;
+		}
+	}
+
+	private byte[] playGameAndGetReplay() throws MapLoadException {
+		PlayerSetting[] playerSettings = new PlayerSetting[12];
+		Arrays.fill(playerSettings, new PlayerSetting());
+		playerSettings[AI_PLAYER_IDS[0]] = new PlayerSetting(EPlayerType.AI_VERY_HARD, ECivilisation.ROMAN, (byte) 0);
+		playerSettings[AI_PLAYER_IDS[1]] = new PlayerSetting(EPlayerType.AI_VERY_HARD, ECivilisation.ROMAN, (byte) 1);
+		playerSettings[AI_PLAYER_IDS[2]] = new PlayerSetting(EPlayerType.AI_HARD, ECivilisation.ROMAN, (byte) 2);
+
+		final ByteArrayOutputStream replayStream = new ByteArrayOutputStream();
+		JSettlersGame game = new JSettlersGame(MapUtils.getSpezialSumpf(), 2L, new OfflineNetworkConnector(), AI_PLAYER_IDS[0], playerSettings) {
+			@Override
+			protected OutputStream createReplayWriteStream() {
+				return replayStream;
+			}
+		};
+		JSettlersGame.GameRunner startingGame = (JSettlersGame.GameRunner) game.start();
+		IStartedGame startedGame = ReplayUtils.waitForGameStartup(startingGame);
+		int replayHeaderLength = replayStream.size();
+
+		MatchConstants.clock().fastForwardTo(GAME_DURATION);
+		ReplayUtils.awaitShutdown(startedGame);
+
+		AiExecutor aiExecutor = startingGame.getAiExecutor();
+		System.out.println("to update statistics: " + aiExecutor.getUpdateStatisticsStopWatch());
+		System.out.println("game clock blocked to apply rules: " + aiExecutor.getApplyRulesStopWatch());
+		for (byte playerId : AI_PLAYER_IDS) {
+			System.out.println("to apply rules of player " + playerId + ": " + aiExecutor.getApplyRulesStopWatchOf(playerId));
+		}
+
+		assertTrue("The KIs did not schedule any tasks.", replayStream.size() > replayHeaderLength);
+		return replayStream.toByteArray();
+	}
+}
@@ -0,0 +1,83 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.integration.headless;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import jsettlers.common.ai.EPlayerType;
+import jsettlers.common.map.MapLoadException;
+import jsettlers.common.player.ECivilisation;
+import jsettlers.logic.map.loading.MapLoader;
+import jsettlers.logic.player.PlayerSetting;
+import jsettlers.main.headless.HeadlessBatchResult;
+import jsettlers.main.headless.HeadlessMatch;
+import jsettlers.main.headless.HeadlessMatchResult;
+import jsettlers.main.headless.HeadlessMatchRunner;
+import jsettlers.testutils.TestUtils;
+import jsettlers.testutils.map.MapUtils;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * @author agent
+ */
+public class HeadlessMatchRunnerIT {
+	private static final int TARGET_GAME_TIME = 20 * 60 * 1000;
+
+	@BeforeClass
+	public static void setupResources() {
+		TestUtils.setupTempResourceManager();
+	}
+
+	@Test
+	public void testConcurrentMatchesAreIsolated() throws MapLoadException, InterruptedException {
+		HeadlessBatchResult batch = new HeadlessMatchRunner(3).run(Arrays.asList(
+				createMatch("first", 1L),
+				createMatch("second", 1L),
+				createMatch("other seed", 2L)));
+		System.out.println(batch);
+		for (HeadlessMatchResult result : batch.getResults()) {
+			System.out.println(result);
+		}
+		assertTrue(batch.isSuccessful());
+
+		HeadlessBatchResult single = new HeadlessMatchRunner(1).run(Collections.singletonList(createMatch("single", 1L)));
+		System.out.println(single.getResults().get(0));
+		assertTrue(single.isSuccessful());
+
+		HeadlessMatchResult first = batch.getResults().get(0);
+		assertEquals(TARGET_GAME_TIME, first.getSimulatedGameTime());
+		assertTrue(first.getNumberOfMovables() > 0);
+		assertTrue(first.getNumberOfBuildings() > 0);
+		assertTrue(first.hasSameOutcome(batch.getResults().get(1)));
+		assertTrue(first.hasSameOutcome(single.getResults().get(0)));
+		assertTrue(batch.getSimulatedMinutesPerWallSecond() > 0);
+	}
+
+	private static HeadlessMatch createMatch(String name, long randomSeed) throws MapLoadException {
+		MapLoader map = MapUtils.getMountainlake();
+		PlayerSetting[] playerSettings = new PlayerSetting[map.getMaxPlayers()];
+		Arrays.fill(playerSettings, new PlayerSetting());
+		playerSettings[0] = new PlayerSetting(EPlayerType.AI_VERY_HARD, ECivilisation.ROMAN, (byte) 0);
+		playerSettings[1] = new PlayerSetting(EPlayerType.AI_HARD, ECivilisation.ROMAN, (byte) 1);
+
+		return new HeadlessMatch(name, map, randomSeed, (byte) 0, playerSettings, TARGET_GAME_TIME);
+	}
+}
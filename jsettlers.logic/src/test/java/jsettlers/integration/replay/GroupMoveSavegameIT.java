@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.integration.replay;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import jsettlers.common.CommonConstants;
+import jsettlers.common.map.MapLoadException;
+import jsettlers.common.position.ShortPoint2D;
+import jsettlers.common.resources.ResourceManager;
+import jsettlers.input.tasks.EGuiAction;
+import jsettlers.input.tasks.MoveToGuiTask;
+import jsettlers.input.tasks.SimpleGuiTask;
+import jsettlers.logic.constants.Constants;
+import jsettlers.logic.constants.MatchConstants;
+import jsettlers.logic.map.grid.MainGridDataAccessor;
+import jsettlers.logic.map.grid.flags.FlagsGrid;
+import jsettlers.logic.map.loading.MapLoader;
+import jsettlers.logic.movable.Movable;
+import jsettlers.logic.player.PlayerSetting;
+import jsettlers.main.JSettlersGame;
+import jsettlers.main.JSettlersGame.GameRunner;
+import jsettlers.main.replay.ReplayUtils;
+import jsettlers.main.replay.SeekableReplay;
+import jsettlers.network.NetworkConstants;
+import jsettlers.network.client.OfflineNetworkConnector;
+import jsettlers.testutils.TestUtils;
+import jsettlers.testutils.map.MapUtils;
+
+/**
+ * Sends the soldiers of a player to a position with a group move order at the time of a keyframe. The keyframe is saved while most soldiers
+ * haven't started walking yet. The game seeked from the keyframe must be equal to the continuously played game, so the soldiers must take
+ * their paths from the flow field of the order in both games.
+ * 
+ * @author agent
+ */
+public class GroupMoveSavegameIT {
+	private static final int ORDER_TIME_MINUTES = 1;
+	private static final int TARGET_TIME_MINUTES = 3;
+	private static final int ORDER_DISTANCE = 25;
+
+	private static boolean enableGroupFlowFieldsBefore;
+
+	@BeforeClass
+	public static void loadSettings() {
+		CommonConstants.ENABLE_CONSOLE_LOGGING = true;
+		CommonConstants.CONTROL_ALL = true;
+		CommonConstants.USE_SAVEGAME_COMPRESSION = false;
+		CommonConstants.ALL_AI = true;
+		Constants.FOG_OF_WAR_DEFAULT_ENABLED = false;
+		enableGroupFlowFieldsBefore = MatchConstants.ENABLE_GROUP_FLOW_FIELDS;
+		MatchConstants.ENABLE_GROUP_FLOW_FIELDS = true;
+
+		TestUtils.setupTempResourceManager();
+	}
+
+	@AfterClass
+	public static void restoreSettings() {
+		MatchConstants.ENABLE_GROUP_FLOW_FIELDS = enableGroupFlowFieldsBefore;
+	}
+
+	@Test
+	public void testKeyframeWithPendingGroupMoveOrder() throws IOException, MapLoadException {
+		MapLoader map = MapUtils.getMountainlake();
+		ReplayUtils.PlayMapResult replay = playMapWithGroupMoveOrder(map);
+
+		MapLoader replayedSavegame = ReplayUtils.replayAndCreateSavegames(replay, new int[] { TARGET_TIME_MINUTES })[0];
+		SeekableReplay seekableReplay = ReplayUtils.createSeekableReplay(replay, ORDER_TIME_MINUTES, ORDER_TIME_MINUTES);
+		MapLoader seekedSavegame = ReplayUtils.seekAndCreateSavegame(seekableReplay, TARGET_TIME_MINUTES);
+
+		MapUtils.compareMapStates(replayedSavegame, seekedSavegame);
+	}
+
+	private static ReplayUtils.PlayMapResult playMapWithGroupMoveOrder(MapLoader map) throws IOException {
+		OfflineNetworkConnector networkConnector = ReplayUtils.createPausingOfflineNetworkConnector();
+		byte playerId = 0;
+		JSettlersGame game = new JSettlersGame(map, 0L, networkConnector, playerId, PlayerSetting.createDefaultSettings(playerId,
+				(byte) map.getMaxPlayers())) {
+			@Override
+			protected OutputStream createReplayWriteStream() throws IOException {
+				return ResourceManager.writeConfigurationFile("jsettlers.integration.replay");
+			}
+		};
+		GameRunner startedGame = (GameRunner) ReplayUtils.waitForGameStartup(game.start());
+
+		List<Integer> soldiers = new ArrayList<>();
+		for (Movable movable : Movable.getAllMovables()) {
+			if (movable.getPlayerId() == playerId && movable.getMovableType().isSoldier()) {
+				soldiers.add(movable.getID());
+			}
+		}
+		assertTrue(soldiers.size() >= 2);
+		ShortPoint2D target = findFreePositionNear(startedGame, Movable.getMovableByID(soldiers.get(0)).getPos());
+
+		// the order is executed in the last time slice before the keyframe is captured
+		int orderLockstep = ORDER_TIME_MINUTES * 60 * 1000 / NetworkConstants.Client.LOCKSTEP_PERIOD;
+		networkConnector.scheduleTaskAt(orderLockstep, new MoveToGuiTask(playerId, target, soldiers));
+
+		int targetTimeMs = TARGET_TIME_MINUTES * 60 * 1000;
+		networkConnector.scheduleTaskAt(targetTimeMs / NetworkConstants.Client.LOCKSTEP_PERIOD, new SimpleGuiTask(EGuiAction.QUICK_SAVE, playerId));
+		MatchConstants.clock().fastForwardTo(targetTimeMs);
+		MapLoader savegame = ReplayUtils.getNewestSavegame();
+		ReplayUtils.awaitShutdown(startedGame);
+
+		return new ReplayUtils.PlayMapResult(map, new MapLoader[] { savegame });
+	}
+
+	private static ShortPoint2D findFreePositionNear(GameRunner startedGame, ShortPoint2D soldierPosition) {
+		FlagsGrid flagsGrid = new MainGridDataAccessor(startedGame.getMainGrid()).getFlagsGrid();
+		for (int dy = -ORDER_DISTANCE; dy <= ORDER_DISTANCE; dy++) {
+			int x = soldierPosition.x + ORDER_DISTANCE;
+			int y = soldierPosition.y + dy;
+			if (!flagsGrid.isBlocked(x, y)) {
+				return new ShortPoint2D(x, y);
+			}
+		}
+		throw new AssertionError("No free position found near " + soldierPosition);
+	}
+}
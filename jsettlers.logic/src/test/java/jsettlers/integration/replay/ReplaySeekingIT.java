@@ -0,0 +1,83 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.integration.replay;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import jsettlers.common.CommonConstants;
+import jsettlers.common.map.MapLoadException;
+import jsettlers.logic.constants.Constants;
+import jsettlers.logic.map.loading.MapLoader;
+import jsettlers.main.replay.ReplayUtils;
+import jsettlers.main.replay.SeekableReplay;
+import jsettlers.testutils.TestUtils;
+import jsettlers.testutils.map.MapUtils;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Compares seeking a replay with its keyframes to replaying it from the start.
+ * 
+ * @author agent
+ */
+public class ReplaySeekingIT {
+	private static final int KEYFRAME_INTERVAL_MINUTES = 10;
+	private static final int TARGET_TIME_MINUTES = 35;
+
+	@BeforeClass
+	public static void loadSettings() {
+		CommonConstants.ENABLE_CONSOLE_LOGGING = true;
+		CommonConstants.CONTROL_ALL = true;
+		CommonConstants.USE_SAVEGAME_COMPRESSION = false;
+		CommonConstants.ALL_AI = true;
+		Constants.FOG_OF_WAR_DEFAULT_ENABLED = false;
+
+		TestUtils.setupTempResourceManager();
+	}
+
+	@Test
+	public void testSeekingEqualsFullReplay() throws IOException, MapLoadException, ClassNotFoundException {
+		MapLoader map = MapUtils.getMountainlake();
+		ReplayUtils.PlayMapResult replay = ReplayUtils.playMapToTargetTimes(map, TARGET_TIME_MINUTES);
+
+		long start = System.currentTimeMillis();
+		MapLoader replayedSavegame = ReplayUtils.replayAndCreateSavegames(replay, new int[] { TARGET_TIME_MINUTES })[0];
+		long fullReplayTime = System.currentTimeMillis() - start;
+
+		start = System.currentTimeMillis();
+		SeekableReplay seekableReplay = ReplayUtils.createSeekableReplay(replay, KEYFRAME_INTERVAL_MINUTES, TARGET_TIME_MINUTES);
+		long keyframesTime = System.currentTimeMillis() - start;
+
+		assertEquals(TARGET_TIME_MINUTES / KEYFRAME_INTERVAL_MINUTES, seekableReplay.getKeyframes().size());
+		assertSame(replay, seekableReplay.getStartFor(KEYFRAME_INTERVAL_MINUTES * 60 * 1000));
+
+		start = System.currentTimeMillis();
+		MapLoader seekedSavegame = ReplayUtils.seekAndCreateSavegame(seekableReplay, TARGET_TIME_MINUTES);
+		long seekTime = System.currentTimeMillis() - start;
+
+		System.out.println("full replay to minute " + TARGET_TIME_MINUTES + ": " + fullReplayTime + " ms");
+		System.out.println("capturing " + seekableReplay.getKeyframes().size() + " keyframes (" + seekableReplay.getKeyframesSize() + " bytes): "
+				+ keyframesTime + " ms");
+		System.out.println("seeking to minute " + TARGET_TIME_MINUTES + ": " + seekTime + " ms");
+
+		MapUtils.compareMapStates(replayedSavegame, seekedSavegame);
+		assertTrue(seekTime < fullReplayTime);
+	}
+}
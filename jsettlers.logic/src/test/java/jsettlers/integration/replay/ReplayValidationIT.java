@@ -19,17 +19,24 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import jsettlers.testutils.TestUtils;
 import jsettlers.common.CommonConstants;
 import jsettlers.common.map.MapLoadException;
+import jsettlers.input.PlayerState;
 import jsettlers.logic.constants.Constants;
 import jsettlers.logic.constants.MatchConstants;
+import jsettlers.logic.map.grid.MainGrid;
 import jsettlers.logic.map.loading.MapLoader;
 import jsettlers.logic.map.loading.IGameCreator.MainGridWithUiSettings;
+import jsettlers.logic.map.loading.list.MapList;
 import jsettlers.logic.player.PlayerSetting;
 import jsettlers.main.JSettlersGame;
+import jsettlers.main.JSettlersGame.GameRunner;
 import jsettlers.main.replay.ReplayUtils;
+import jsettlers.network.client.OfflineNetworkConnector;
 import jsettlers.network.synchronic.timer.NetworkTimer;
 import jsettlers.testutils.map.MapUtils;
 
@@ -100,6 +107,39 @@ public class ReplayValidationIT {
 		MapUtils.compareMapFiles(savegame, savegameOfSavegame);
 	}
 
+	@Test
+	public void testIfBackgroundSavegameEqualsPausedSavegame() throws IOException, MapLoadException, ClassNotFoundException, InterruptedException,
+			ExecutionException {
+		MapLoader map = MapUtils.getMountainlake();
+		byte playerId = 0;
+		OfflineNetworkConnector networkConnector = ReplayUtils.createPausingOfflineNetworkConnector();
+		JSettlersGame game = new JSettlersGame(map, 0L, networkConnector, playerId, PlayerSetting.createDefaultSettings(playerId, (byte) map.getMaxPlayers()));
+		GameRunner startedGame = (GameRunner) ReplayUtils.waitForGameStartup(game.start());
+		MatchConstants.clock().fastForwardTo(30 * 60 * 1000);
+
+		MainGrid mainGrid = startedGame.getMainGrid();
+		PlayerState[] playerStates = { new PlayerState(playerId, null) };
+		MapList mapList = MapList.getDefaultList();
+
+		MapLoader pausedSavegame;
+		Future<?> backgroundSave;
+		synchronized (MatchConstants.clock()) {
+			// saveMap() serializes the paused game directly into the file, saveMapInBackground() writes a captured snapshot later on
+			mapList.saveMap(playerStates, mainGrid);
+			pausedSavegame = ReplayUtils.getNewestSavegame();
+			backgroundSave = mapList.saveMapInBackground(playerStates, mainGrid);
+		}
+
+		MatchConstants.clock().fastForwardTo(35 * 60 * 1000); // the game continues while the savegame is written
+		backgroundSave.get();
+		MapLoader backgroundSavegame = ReplayUtils.getNewestSavegame();
+		ReplayUtils.awaitShutdown(startedGame);
+
+		System.out.println("capturing savegames: " + mapList.getCaptureStopWatch());
+		System.out.println("writing savegames: " + mapList.getWriteStopWatch());
+		MapUtils.compareMapFiles(pausedSavegame, backgroundSavegame);
+	}
+
 	@Ignore
 	@Test
 	public void testReplayForSavegame() throws IOException, MapLoadException, ClassNotFoundException {
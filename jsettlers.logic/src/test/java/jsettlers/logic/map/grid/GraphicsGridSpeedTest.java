@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.logic.map.grid;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import jsettlers.common.ai.EPlayerType;
+import jsettlers.common.logging.MilliStopWatch;
+import jsettlers.common.map.IGraphicsGrid;
+import jsettlers.common.map.MapLoadException;
+import jsettlers.common.menu.IStartedGame;
+import jsettlers.common.player.ECivilisation;
+import jsettlers.logic.constants.MatchConstants;
+import jsettlers.logic.player.PlayerSetting;
+import jsettlers.main.JSettlersGame;
+import jsettlers.main.replay.ReplayUtils;
+import jsettlers.network.client.OfflineNetworkConnector;
+import jsettlers.testutils.TestUtils;
+import jsettlers.testutils.map.MapUtils;
+
+/**
+ * Measures the time needed to find the objects to draw in a frame showing the whole map. Probing every position of the screen like the
+ * renderer did is compared to skipping the empty positions with {@link IGraphicsGrid#nextDrawableX(int, int, int)}.
+ *
+ * @author agent
+ */
+public class GraphicsGridSpeedTest {
+	private static final int MINUTES = 1000 * 60;
+	private static final int GAME_DURATION = 15 * MINUTES;
+	private static final int FRAMES = 200;
+
+	static {
+		TestUtils.setupTempResourceManager();
+	}
+
+	@Test
+	public void testFindDrawableObjectsOnWholeMap() throws MapLoadException {
+		PlayerSetting[] playerSettings = new PlayerSetting[12];
+		Arrays.fill(playerSettings, new PlayerSetting());
+		playerSettings[0] = new PlayerSetting(EPlayerType.AI_VERY_HARD, ECivilisation.ROMAN, (byte) 0);
+		playerSettings[7] = new PlayerSetting(EPlayerType.AI_VERY_HARD, ECivilisation.ROMAN, (byte) 1);
+
+		JSettlersGame game = new JSettlersGame(MapUtils.getSpezialSumpf(), 2L, new OfflineNetworkConnector(), (byte) 0, playerSettings);
+		JSettlersGame.GameRunner startingGame = (JSettlersGame.GameRunner) game.start();
+		IStartedGame startedGame = ReplayUtils.waitForGameStartup(startingGame);
+		IGraphicsGrid grid = startingGame.getMainGrid().getGraphicsGrid();
+
+		MatchConstants.clock().fastForwardTo(GAME_DURATION);
+
+		synchronized (MatchConstants.clock()) {
+			int probedObjects = visitByProbing(grid);
+			int skippedObjects = visitBySkipping(grid);
+			assertEquals(probedObjects, skippedObjects);
+			assertTrue(probedObjects > 0);
+
+			for (int i = 0; i < FRAMES / 4; i++) { // warm up
+				visitByProbing(grid);
+				visitBySkipping(grid);
+			}
+
+			MilliStopWatch watch = new MilliStopWatch();
+			for (int i = 0; i < FRAMES; i++) {
+				visitByProbing(grid);
+			}
+			float probingTime = (float) watch.getDiff() / FRAMES;
+
+			watch.restart();
+			for (int i = 0; i < FRAMES; i++) {
+				visitBySkipping(grid);
+			}
+			float skippingTime = (float) watch.getDiff() / FRAMES;
+
+			System.out.println(probedObjects + " positions with objects on a " + grid.getWidth() + "x" + grid.getHeight() + " map:");
+			System.out.println("\tprobing every position: " + probingTime + " ms per frame");
+			System.out.println("\tskipping empty positions: " + skippingTime + " ms per frame");
+		}
+
+		ReplayUtils.awaitShutdown(startedGame);
+	}
+
+	private static int visitByProbing(IGraphicsGrid grid) {
+		int found = 0;
+		for (int y = 0; y < grid.getHeight(); y++) {
+			for (int x = 0; x < grid.getWidth(); x++) {
+				found += visit(grid, x, y);
+			}
+		}
+		return found;
+	}
+
+	private static int visitBySkipping(IGraphicsGrid grid) {
+		int found = 0;
+		int maxX = grid.getWidth() - 1;
+		for (int y = 0; y < grid.getHeight(); y++) {
+			for (int x = grid.nextDrawableX(-1, y, maxX); x <= maxX; x = grid.nextDrawableX(x, y, maxX)) {
+				found += visit(grid, x, y);
+			}
+		}
+		return found;
+	}
+
+	private static int visit(IGraphicsGrid grid, int x, int y) {
+		return grid.getMapObjectsAt(x, y) != null || grid.getMovableAt(x, y) != null || grid.isBorder(x, y) ? 1 : 0;
+	}
+}
@@ -0,0 +1,91 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.logic.map.grid;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class PositionBitmapTest {
+	private static final short WIDTH = 150;
+	private static final short HEIGHT = 40;
+
+	private final Random random = new Random(42);
+	private final boolean[] expected = new boolean[WIDTH * HEIGHT];
+	private final PositionBitmap bitmap = new PositionBitmap(WIDTH, HEIGHT);
+
+	@Test
+	public void testSetAndGet() {
+		bitmap.set(63, 3, true);
+		bitmap.set(64, 3, true);
+		bitmap.set(149, 39, true);
+
+		assertTrue(bitmap.get(63, 3));
+		assertTrue(bitmap.get(64, 3));
+		assertTrue(bitmap.get(149, 39));
+		assertFalse(bitmap.get(62, 3));
+		assertFalse(bitmap.get(63, 4));
+		assertFalse(bitmap.get(0, 39));
+
+		bitmap.set(63, 3, false);
+		assertFalse(bitmap.get(63, 3));
+		assertTrue(bitmap.get(64, 3));
+	}
+
+	@Test
+	public void testNextSetXMatchesScan() {
+		for (int i = 0; i < 3000; i++) {
+			int x = random.nextInt(WIDTH);
+			int y = random.nextInt(HEIGHT);
+			boolean value = random.nextInt(3) == 0;
+			expected[x + y * WIDTH] = value;
+			bitmap.set(x, y, value);
+		}
+
+		for (int y = 0; y < HEIGHT; y++) {
+			for (int x = -1; x < WIDTH + 5; x++) {
+				int maxX = x + random.nextInt(WIDTH);
+				assertEquals(nextSetXByScan(x, y, maxX), bitmap.nextSetX(x, y, maxX));
+			}
+		}
+	}
+
+	@Test
+	public void testIterateLine() {
+		bitmap.set(0, 5, true);
+		bitmap.set(70, 5, true);
+		bitmap.set(149, 5, true);
+
+		assertEquals(0, bitmap.nextSetX(-1, 5, 149));
+		assertEquals(70, bitmap.nextSetX(0, 5, 149));
+		assertEquals(149, bitmap.nextSetX(70, 5, 149));
+		assertEquals(150, bitmap.nextSetX(149, 5, 149));
+		assertEquals(101, bitmap.nextSetX(70, 5, 100));
+		assertEquals(300, bitmap.nextSetX(149, 5, 299));
+	}
+
+	private int nextSetXByScan(int x, int y, int maxX) {
+		for (int currX = x + 1; currX <= maxX; currX++) {
+			if (currX >= 0 && currX < WIDTH && expected[currX + y * WIDTH]) {
+				return currX;
+			}
+		}
+		return maxX + 1;
+	}
+}
@@ -0,0 +1,153 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.logic.map.grid;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import jsettlers.common.map.shapes.HexGridArea;
+import jsettlers.common.position.ShortPoint2D;
+
+public class PositionBucketIndexTest {
+	private static final short WIDTH = 150;
+	private static final short HEIGHT = 120;
+	private static final int NUMBER_OF_PLAYERS = 4;
+	private static final int NO_PLAYER = -1;
+
+	private final Random random = new Random(42);
+	private final byte[] players = new byte[WIDTH * HEIGHT];
+	private final PositionBucketIndex index = new PositionBucketIndex(WIDTH, HEIGHT);
+
+	@Test
+	public void testFindMatchesHexGridAreaOrder() {
+		fillRandomly(2000);
+
+		for (int i = 0; i < 300; i++) {
+			int x = random.nextInt(WIDTH);
+			int y = random.nextInt(HEIGHT);
+			byte excludedPlayer = (byte) random.nextInt(NUMBER_OF_PLAYERS);
+
+			assertFindMatchesScan(x, y, 1, 30, excludedPlayer);
+			assertFindMatchesScan(x, y, 29, 29, excludedPlayer);
+			assertFindMatchesScan(x, y, 0, 40, PositionBucketIndex.NO_EXCLUDED_PLAYER);
+			assertFindMatchesScan(x, y, 39, 39, PositionBucketIndex.NO_EXCLUDED_PLAYER);
+		}
+	}
+
+	@Test
+	public void testFindAfterMovingPositions() {
+		fillRandomly(1000);
+
+		for (int i = 0; i < 5000; i++) {
+			int from = random.nextInt(WIDTH * HEIGHT);
+			int to = random.nextInt(WIDTH * HEIGHT);
+			if (players[from] == NO_PLAYER || players[to] != NO_PLAYER) {
+				continue;
+			}
+
+			assertTrue(index.remove(from % WIDTH, from / WIDTH, players[from]));
+			index.add(to % WIDTH, to / WIDTH, players[from]);
+			players[to] = players[from];
+			players[from] = NO_PLAYER;
+		}
+
+		for (int i = 0; i < 100; i++) {
+			assertFindMatchesScan(random.nextInt(WIDTH), random.nextInt(HEIGHT), 1, 30, (byte) random.nextInt(NUMBER_OF_PLAYERS));
+		}
+	}
+
+	@Test
+	public void testRemove() {
+		index.add(10, 20, (byte) 1);
+		index.add(11, 20, (byte) 1);
+		assertEquals(2, index.size());
+
+		assertFalse(index.remove(10, 20, (byte) 2));
+		assertFalse(index.remove(12, 20, (byte) 1));
+		assertTrue(index.remove(10, 20, (byte) 1));
+		assertFalse(index.remove(10, 20, (byte) 1));
+		assertEquals(1, index.size());
+
+		assertArrayEquals(new int[] { 11 + 20 * WIDTH }, findInHexArea(10, 20, 0, 5, PositionBucketIndex.NO_EXCLUDED_PLAYER));
+		assertEquals(0, findInHexArea(10, 20, 0, 5, 1).length);
+	}
+
+	@Test
+	public void testFindWithinVisitorOfAnotherFind() {
+		fillRandomly(1000);
+
+		int[] expectedOuter = findInHexArea(40, 40, 0, 30, PositionBucketIndex.NO_EXCLUDED_PLAYER);
+		int[] expectedInner = findInHexArea(80, 20, 0, 20, PositionBucketIndex.NO_EXCLUDED_PLAYER);
+
+		List<Integer> outer = new ArrayList<>();
+		index.findInHexArea(40, 40, 0, 30, PositionBucketIndex.NO_EXCLUDED_PLAYER, position -> {
+			outer.add(position);
+			assertArrayEquals(expectedInner, findInHexArea(80, 20, 0, 20, PositionBucketIndex.NO_EXCLUDED_PLAYER));
+		});
+
+		assertArrayEquals(expectedOuter, toArray(outer));
+	}
+
+	private int[] findInHexArea(int x, int y, int startRadius, int maxRadius, int excludedPlayer) {
+		List<Integer> found = new ArrayList<>();
+		index.findInHexArea(x, y, startRadius, maxRadius, excludedPlayer, found::add);
+		return toArray(found);
+	}
+
+	private static int[] toArray(List<Integer> list) {
+		int[] array = new int[list.size()];
+		for (int i = 0; i < array.length; i++) {
+			array[i] = list.get(i);
+		}
+		return array;
+	}
+
+	private void fillRandomly(int numberOfPositions) {
+		Arrays.fill(players, (byte) NO_PLAYER);
+		for (int i = 0; i < numberOfPositions; i++) {
+			int position = random.nextInt(WIDTH * HEIGHT);
+			if (players[position] == NO_PLAYER) {
+				players[position] = (byte) random.nextInt(NUMBER_OF_PLAYERS);
+				index.add(position % WIDTH, position / WIDTH, players[position]);
+			}
+		}
+	}
+
+	private void assertFindMatchesScan(int x, int y, int startRadius, int maxRadius, int excludedPlayer) {
+		List<ShortPoint2D> expected = HexGridArea.stream(x, y, startRadius, maxRadius)
+				.filterBounds(WIDTH, HEIGHT)
+				.filter((currX, currY) -> {
+					byte player = players[currX + currY * WIDTH];
+					return player != NO_PLAYER && player != excludedPlayer;
+				})
+				.toList();
+
+		int[] found = findInHexArea(x, y, startRadius, maxRadius, excludedPlayer);
+
+		assertEquals(expected.size(), found.length);
+		for (int i = 0; i < found.length; i++) {
+			assertEquals(expected.get(i).x + expected.get(i).y * WIDTH, found[i]);
+		}
+	}
+}
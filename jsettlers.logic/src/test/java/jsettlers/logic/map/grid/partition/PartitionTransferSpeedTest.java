@@ -0,0 +1,202 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.logic.map.grid.partition;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import jsettlers.algorithms.partitions.IBlockingProvider;
+import jsettlers.common.buildings.EBuildingType;
+import jsettlers.common.logging.MilliStopWatch;
+import jsettlers.common.map.shapes.FreeMapArea;
+import jsettlers.common.map.shapes.MapCircle;
+import jsettlers.common.material.EMaterialType;
+import jsettlers.common.position.ShortPoint2D;
+import jsettlers.logic.map.grid.partition.manager.PartitionManager;
+import jsettlers.logic.map.grid.partition.manager.manageables.IManageableBearer;
+import jsettlers.logic.map.grid.partition.manager.manageables.interfaces.IBarrack;
+import jsettlers.logic.map.grid.partition.manager.materials.interfaces.IMaterialOffer;
+import jsettlers.logic.map.grid.partition.manager.materials.interfaces.IMaterialRequest;
+import jsettlers.logic.map.grid.partition.manager.materials.offers.EOfferPriority;
+import jsettlers.logic.map.grid.partition.manager.objects.WorkerCreationRequest;
+import jsettlers.logic.player.PlayerSetting;
+
+/**
+ * Measures the time needed to move the offers and jobless of a busy economy to new partitions, when a large tower is captured and when capturing
+ * a tower divides a partition.
+ * 
+ * @author agent
+ *
+ */
+public class PartitionTransferSpeedTest {
+	private static final short WIDTH = 400;
+	private static final short HEIGHT = 400;
+
+	private static final ShortPoint2D TOWER_POSITION = new ShortPoint2D(200, 200);
+	private static final int TOWER_RADIUS = 80;
+
+	private static final ShortPoint2D LEFT_TOWER_POSITION = new ShortPoint2D(100, 200);
+	private static final ShortPoint2D RIGHT_TOWER_POSITION = new ShortPoint2D(300, 200);
+	private static final int OUTER_TOWERS_RADIUS = 60;
+	private static final int CONNECTING_TOWER_RADIUS = 50;
+	private static final int ECONOMY_RADIUS = 45; // outside of the area of the connecting tower
+
+	private static final int NUMBER_OF_OFFERS = 10000;
+	private static final int NUMBER_OF_BEARERS = 3000;
+
+	private static final EMaterialType[] OFFERED_MATERIALS = { EMaterialType.PLANK, EMaterialType.STONE, EMaterialType.TRUNK, EMaterialType.COAL,
+			EMaterialType.IRONORE, EMaterialType.BREAD, EMaterialType.FISH, EMaterialType.MEAT, EMaterialType.CROP, EMaterialType.WATER };
+
+	@Test
+	public void testCaptureTowerOfBusyEconomy() {
+		captureTower(createGridWithTower()); // warm up
+
+		PartitionsGrid grid = createGridWithTower();
+		MilliStopWatch watch = new MilliStopWatch();
+		captureTower(grid);
+		long captureTime = watch.getDiff();
+
+		assertEquals(1, grid.getPlayerIdAt(TOWER_POSITION.x, TOWER_POSITION.y));
+		assertEquals(NUMBER_OF_OFFERS, countOffers(grid.getPartitionAt(TOWER_POSITION.x, TOWER_POSITION.y)));
+
+		grid = createGridWithTower();
+		watch.restart();
+		movePositionsOneByOne(grid, grid.createNewPartition((byte) 1));
+		long oneByOneTime = watch.getDiff();
+
+		assertEquals(NUMBER_OF_OFFERS, countOffers(grid.getPartitionAt(TOWER_POSITION.x, TOWER_POSITION.y)));
+
+		System.out.println("capturing a tower with " + NUMBER_OF_OFFERS + " offers and " + NUMBER_OF_BEARERS + " jobless: " + captureTime
+				+ " ms (moving the positions one by one: " + oneByOneTime + " ms)");
+	}
+
+	@Test
+	public void testDivideBusyPartition() {
+		captureTower(createGridWithConnectedTowers()); // warm up
+
+		PartitionsGrid grid = createGridWithConnectedTowers();
+		MilliStopWatch watch = new MilliStopWatch();
+		captureTower(grid); // the connecting tower
+		long time = watch.getDiff();
+
+		Partition leftPartition = grid.getPartitionAt(LEFT_TOWER_POSITION.x, LEFT_TOWER_POSITION.y);
+		Partition rightPartition = grid.getPartitionAt(RIGHT_TOWER_POSITION.x, RIGHT_TOWER_POSITION.y);
+		assertNotSame(leftPartition, rightPartition);
+		assertEquals(NUMBER_OF_OFFERS / 2, countOffers(leftPartition));
+		assertEquals(NUMBER_OF_OFFERS / 2, countOffers(rightPartition));
+
+		System.out.println("dividing a partition with " + NUMBER_OF_OFFERS + " offers and " + NUMBER_OF_BEARERS + " jobless: " + time + " ms");
+	}
+
+	private static void captureTower(PartitionsGrid grid) {
+		grid.changePlayerOfTower(TOWER_POSITION, (byte) 1);
+	}
+
+	private static void movePositionsOneByOne(PartitionsGrid grid, short newPartition) {
+		for (ShortPoint2D position : new MapCircle(TOWER_POSITION, TOWER_RADIUS)) {
+			grid.changePartitionUncheckedAt(position.x, position.y, newPartition);
+		}
+	}
+
+	private static PartitionsGrid createGridWithTower() {
+		PartitionsGrid grid = createGrid();
+		addTower(grid, TOWER_POSITION, TOWER_RADIUS);
+		addEconomy(grid, TOWER_POSITION, TOWER_RADIUS, NUMBER_OF_OFFERS, NUMBER_OF_BEARERS);
+		return grid;
+	}
+
+	private static PartitionsGrid createGridWithConnectedTowers() {
+		PartitionsGrid grid = createGrid();
+		addTower(grid, LEFT_TOWER_POSITION, OUTER_TOWERS_RADIUS);
+		addTower(grid, RIGHT_TOWER_POSITION, OUTER_TOWERS_RADIUS);
+		addTower(grid, TOWER_POSITION, CONNECTING_TOWER_RADIUS);
+		addEconomy(grid, LEFT_TOWER_POSITION, ECONOMY_RADIUS, NUMBER_OF_OFFERS / 2, NUMBER_OF_BEARERS / 2);
+		addEconomy(grid, RIGHT_TOWER_POSITION, ECONOMY_RADIUS, NUMBER_OF_OFFERS / 2, NUMBER_OF_BEARERS / 2);
+		return grid;
+	}
+
+	private static PartitionsGrid createGrid() {
+		return new PartitionsGrid(WIDTH, HEIGHT, PlayerSetting.createDefaultSettings((byte) 0, (byte) 2), IBlockingProvider.DEFAULT_IMPLEMENTATION);
+	}
+
+	private static void addTower(PartitionsGrid grid, ShortPoint2D position, int radius) {
+		grid.addTowerAndOccupyArea((byte) 0, new MapCircle(position, radius), new FreeMapArea(position, EBuildingType.TOWER.getProtectedTiles()));
+	}
+
+	private static void addEconomy(PartitionsGrid grid, ShortPoint2D center, int radius, int numberOfOffers, int numberOfBearers) {
+		List<ShortPoint2D> positions = new ArrayList<>();
+		for (ShortPoint2D position : new MapCircle(center, radius)) {
+			positions.add(position);
+		}
+
+		Random random = new Random(center.x);
+		for (int i = 0; i < numberOfOffers; i++) {
+			ShortPoint2D position = positions.get(random.nextInt(positions.size()));
+			grid.getPartitionAt(position.x, position.y).addOffer(position, OFFERED_MATERIALS[i % OFFERED_MATERIALS.length], EOfferPriority.NORMAL);
+		}
+		for (int i = 0; i < numberOfBearers; i++) {
+			ShortPoint2D position = positions.get(random.nextInt(positions.size()));
+			grid.getPartitionAt(position.x, position.y).addJobless(new TestBearer(position));
+		}
+	}
+
+	private static int countOffers(PartitionManager partition) {
+		int offers = 0;
+		for (EMaterialType material : OFFERED_MATERIALS) {
+			offers += partition.getMaterialCounts().getAmountOf(material);
+		}
+		return offers;
+	}
+
+	private static class TestBearer implements IManageableBearer {
+		private static final long serialVersionUID = 1L;
+
+		private final ShortPoint2D position;
+
+		TestBearer(ShortPoint2D position) {
+			this.position = position;
+		}
+
+		@Override
+		public ShortPoint2D getPos() {
+			return position;
+		}
+
+		@Override
+		public void deliver(EMaterialType materialType, IMaterialOffer offer, IMaterialRequest request) {
+		}
+
+		@Override
+		public boolean becomeWorker(IWorkerRequester requester, WorkerCreationRequest request) {
+			return false;
+		}
+
+		@Override
+		public boolean becomeWorker(IWorkerRequester requester, WorkerCreationRequest request, IMaterialOffer offer) {
+			return false;
+		}
+
+		@Override
+		public boolean becomeSoldier(IBarrack barrack) {
+			return false;
+		}
+	}
+}
@@ -0,0 +1,203 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.logic.map.grid.partition.manager;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import jsettlers.common.buildings.EBuildingType;
+import jsettlers.common.material.EMaterialType;
+import jsettlers.common.position.ShortPoint2D;
+import jsettlers.logic.map.grid.partition.manager.manageables.IManageableBearer;
+import jsettlers.logic.map.grid.partition.manager.manageables.interfaces.IBarrack;
+import jsettlers.logic.map.grid.partition.manager.manageables.interfaces.IDiggerRequester;
+import jsettlers.logic.map.grid.partition.manager.materials.interfaces.IMaterialOffer;
+import jsettlers.logic.map.grid.partition.manager.materials.interfaces.IMaterialRequest;
+import jsettlers.logic.map.grid.partition.manager.materials.offers.EOfferPriority;
+import jsettlers.logic.map.grid.partition.manager.materials.offers.IOffersCountListener;
+import jsettlers.logic.map.grid.partition.manager.objects.WorkerCreationRequest;
+
+/**
+ * Checks that moving positions with a {@link PositionsTransfer} leaves the lists of all managers in exactly the same order as moving the
+ * positions one by one with {@link PartitionManager#removePositionTo(int, int, PartitionManager, boolean)}.
+ *
+ * @author agent
+ */
+public class PositionsTransferTest {
+	private static final int AREA_SIZE = 20;
+	private static final int NUMBER_OF_OFFERS = 400;
+	private static final int NUMBER_OF_BEARERS = 200;
+	private static final int NUMBER_OF_DIGGER_REQUESTS = 50;
+	private static final int NUMBER_OF_MOVED_POSITIONS = AREA_SIZE * AREA_SIZE / 2;
+
+	private static final EMaterialType[] OFFERED_MATERIALS = { EMaterialType.PLANK, EMaterialType.STONE, EMaterialType.TRUNK };
+
+	@Test
+	public void testSameOrderAsMovingOneByOne() throws IOException {
+		for (int seed = 0; seed < 10; seed++) {
+			testSameOrderAsMovingOneByOne(seed, true);
+			testSameOrderAsMovingOneByOne(seed, false);
+		}
+	}
+
+	private void testSameOrderAsMovingOneByOne(int seed, boolean newHasSamePlayer) throws IOException {
+		List<ShortPoint2D> movedPositions = createMovedPositions(new Random(seed));
+
+		PartitionManager[] oneByOneManagers = createManagers(new Random(seed));
+		for (int i = 0; i < movedPositions.size(); i++) {
+			ShortPoint2D position = movedPositions.get(i);
+			oneByOneManagers[i % 2].removePositionTo(position.x, position.y, oneByOneManagers[2], newHasSamePlayer);
+		}
+
+		PartitionManager[] transferManagers = createManagers(new Random(seed));
+		PositionsTransfer transfer = new PositionsTransfer();
+		for (int i = 0; i < movedPositions.size(); i++) {
+			ShortPoint2D position = movedPositions.get(i);
+			transfer.addPosition(position.x, position.y, transferManagers[i % 2], transferManagers[2], newHasSamePlayer);
+		}
+		transfer.execute();
+
+		assertArrayEquals(serialize(oneByOneManagers), serialize(transferManagers));
+	}
+
+	private static List<ShortPoint2D> createMovedPositions(Random random) {
+		List<ShortPoint2D> positions = new ArrayList<>();
+		for (int y = 0; y < AREA_SIZE; y++) {
+			for (int x = 0; x < AREA_SIZE; x++) {
+				positions.add(new ShortPoint2D(x, y));
+			}
+		}
+		Collections.shuffle(positions, random);
+		return positions.subList(0, NUMBER_OF_MOVED_POSITIONS);
+	}
+
+	/**
+	 * Creates two old managers sharing the area and a new manager that already contains some objects. All of them contain several objects per
+	 * position.
+	 */
+	private static PartitionManager[] createManagers(Random random) {
+		PartitionManager[] managers = new PartitionManager[3];
+		for (int i = 0; i < managers.length; i++) {
+			managers[i] = new PartitionManager(IOffersCountListener.DEFAULT_IMPLEMENTATION);
+		}
+
+		for (int i = 0; i < NUMBER_OF_OFFERS; i++) {
+			EOfferPriority priority = EOfferPriority.values()[random.nextInt(EOfferPriority.values().length)];
+			managers[random.nextInt(managers.length)].addOffer(randomPosition(random), OFFERED_MATERIALS[random.nextInt(OFFERED_MATERIALS.length)],
+					priority);
+		}
+		for (int i = 0; i < NUMBER_OF_BEARERS; i++) {
+			managers[random.nextInt(managers.length)].addJobless(new TestBearer(i, randomPosition(random)));
+		}
+		for (int i = 0; i < NUMBER_OF_DIGGER_REQUESTS; i++) {
+			managers[random.nextInt(managers.length)].requestDiggers(new TestDiggerRequester(i, randomPosition(random)), (byte) (1 + random.nextInt(3)));
+		}
+		return managers;
+	}
+
+	private static ShortPoint2D randomPosition(Random random) {
+		return new ShortPoint2D(random.nextInt(AREA_SIZE), random.nextInt(AREA_SIZE));
+	}
+
+	private static byte[] serialize(Object object) throws IOException {
+		ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
+		try (ObjectOutputStream oos = new ObjectOutputStream(byteStream)) {
+			oos.writeObject(object);
+		}
+		return byteStream.toByteArray();
+	}
+
+	private static class TestBearer implements IManageableBearer {
+		private static final long serialVersionUID = 1L;
+
+		private final int id;
+		private final ShortPoint2D position;
+
+		TestBearer(int id, ShortPoint2D position) {
+			this.id = id;
+			this.position = position;
+		}
+
+		@Override
+		public ShortPoint2D getPos() {
+			return position;
+		}
+
+		@Override
+		public void deliver(EMaterialType materialType, IMaterialOffer offer, IMaterialRequest request) {
+		}
+
+		@Override
+		public boolean becomeWorker(IWorkerRequester requester, WorkerCreationRequest request) {
+			return false;
+		}
+
+		@Override
+		public boolean becomeWorker(IWorkerRequester requester, WorkerCreationRequest request, IMaterialOffer offer) {
+			return false;
+		}
+
+		@Override
+		public boolean becomeSoldier(IBarrack barrack) {
+			return false;
+		}
+	}
+
+	private static class TestDiggerRequester implements IDiggerRequester, Serializable {
+		private static final long serialVersionUID = 1L;
+
+		private final int id;
+		private final ShortPoint2D position;
+
+		TestDiggerRequester(int id, ShortPoint2D position) {
+			this.id = id;
+			this.position = position;
+		}
+
+		@Override
+		public ShortPoint2D getPos() {
+			return position;
+		}
+
+		@Override
+		public EBuildingType getBuildingType() {
+			return EBuildingType.LUMBERJACK;
+		}
+
+		@Override
+		public boolean isDiggerRequestActive() {
+			return true;
+		}
+
+		@Override
+		public byte getAverageHeight() {
+			return 0;
+		}
+
+		@Override
+		public void diggerRequestFailed() {
+		}
+	}
+}
@@ -0,0 +1,232 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.logic.map.grid.partition.manager.datastructures;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import jsettlers.common.position.ILocatable;
+import jsettlers.common.position.ShortPoint2D;
+import jsettlers.testutils.TestUtils;
+
+/**
+ * Executes random sequences of operations on a {@link BucketedPositionableList} and a {@link PositionableList} and checks that both always
+ * return the same results.
+ *
+ * @author agent
+ */
+public class BucketedPositionableListTest {
+	private static final int NUMBER_OF_SEQUENCES = 200;
+	private static final int OPERATIONS_PER_SEQUENCE = 400;
+
+	@Test
+	public void testSameResultsAsLinearListInSmallArea() throws IOException, ClassNotFoundException {
+		testSameResultsAsLinearList(12);
+	}
+
+	@Test
+	public void testSameResultsAsLinearListInBigArea() throws IOException, ClassNotFoundException {
+		testSameResultsAsLinearList(300);
+	}
+
+	private void testSameResultsAsLinearList(int areaSize) throws IOException, ClassNotFoundException {
+		for (int seed = 0; seed < NUMBER_OF_SEQUENCES; seed++) {
+			new OperationsSequence(new Random(seed), areaSize).execute();
+		}
+	}
+
+	@Test
+	public void testEmptyList() {
+		BucketedPositionableList<TestObject> list = new BucketedPositionableList<>();
+		ShortPoint2D position = new ShortPoint2D(10, 10);
+
+		assertNull(list.getObjectCloseTo(position));
+		assertNull(list.removeObjectNextTo(position));
+		assertNull(list.getObjectAt(position));
+		assertNull(list.removeObjectAt(position));
+
+		list.insert(new TestObject(0, position));
+		list.removeObjectAt(position);
+		assertNull(list.getObjectCloseTo(position));
+		assertEquals(0, list.size());
+	}
+
+	@Test
+	public void testEqualDistancesReturnFirstInserted() {
+		BucketedPositionableList<TestObject> list = new BucketedPositionableList<>();
+		TestObject first = new TestObject(0, new ShortPoint2D(48, 32)); // bucket right of the searched position
+		TestObject second = new TestObject(1, new ShortPoint2D(32, 48)); // bucket below the searched position
+		list.insert(second);
+		list.insert(first);
+
+		assertSame(second, list.getObjectCloseTo(new ShortPoint2D(40, 40)));
+		assertSame(second, list.removeObjectNextTo(new ShortPoint2D(40, 40)));
+		assertSame(first, list.removeObjectNextTo(new ShortPoint2D(40, 40)));
+	}
+
+	@Test
+	public void testEqualDistanceInNextRingOfBuckets() {
+		BucketedPositionableList<TestObject> list = new BucketedPositionableList<>();
+		TestObject inNextBucket = new TestObject(0, new ShortPoint2D(16, 5));
+		TestObject inSameBucket = new TestObject(1, new ShortPoint2D(14, 5));
+		list.insert(inNextBucket);
+		list.insert(inSameBucket);
+
+		assertSame(inNextBucket, list.getObjectCloseTo(new ShortPoint2D(15, 5)));
+	}
+
+	private static class OperationsSequence {
+		private final Random random;
+		private final int areaSize;
+
+		private PositionableList<TestObject> linearList = new PositionableList<>();
+		private BucketedPositionableList<TestObject> bucketedList = new BucketedPositionableList<>();
+		private PositionableList<TestObject> otherLinearList = new PositionableList<>();
+		private BucketedPositionableList<TestObject> otherBucketedList = new BucketedPositionableList<>();
+
+		private final List<TestObject> insertedObjects = new ArrayList<>();
+		private int nextId;
+
+		OperationsSequence(Random random, int areaSize) {
+			this.random = random;
+			this.areaSize = areaSize;
+		}
+
+		@SuppressWarnings("unchecked")
+		void execute() throws IOException, ClassNotFoundException {
+			for (int i = 0; i < OPERATIONS_PER_SEQUENCE; i++) {
+				ShortPoint2D position = randomPosition();
+
+				switch (random.nextInt(11)) {
+				case 0:
+				case 1:
+				case 2:
+					TestObject object = new TestObject(nextId++, position);
+					insertedObjects.add(object);
+					linearList.insert(object);
+					bucketedList.insert(object);
+					break;
+				case 3:
+					assertSame(linearList.getObjectCloseTo(position), bucketedList.getObjectCloseTo(position));
+					break;
+				case 4:
+					assertSame(linearList.removeObjectNextTo(position), bucketedList.removeObjectNextTo(position));
+					break;
+				case 5:
+					assertSame(linearList.getObjectAt(position), bucketedList.getObjectAt(position));
+					break;
+				case 6:
+					assertSame(linearList.removeObjectAt(position), bucketedList.removeObjectAt(position));
+					break;
+				case 7:
+					if (!insertedObjects.isEmpty()) {
+						TestObject removedObject = insertedObjects.get(random.nextInt(insertedObjects.size()));
+						linearList.remove(removedObject);
+						bucketedList.remove(removedObject);
+					}
+					break;
+				case 8:
+					linearList.moveObjectsAtPositionTo(position, otherLinearList, movedObject -> {
+					});
+					bucketedList.moveObjectsAtPositionTo(position, otherBucketedList, movedObject -> {
+					});
+					break;
+				case 9:
+					BitSet removedPositions = randomPositions();
+					List<String> linearRemoved = new ArrayList<>();
+					List<String> bucketedRemoved = new ArrayList<>();
+					linearList.removeObjectsAt(pos -> removedPositions.get(index(pos)) ? index(pos) : -1, (removedObject, index) -> linearRemoved.add(removedObject + "@" + index));
+					bucketedList.removeObjectsAt(pos -> removedPositions.get(index(pos)) ? index(pos) : -1, (removedObject, index) -> bucketedRemoved.add(removedObject + "@" + index));
+					assertEquals(linearRemoved, bucketedRemoved);
+					break;
+				case 10:
+					if (random.nextBoolean()) {
+						linearList.moveAll(otherLinearList);
+						bucketedList.moveAll(otherBucketedList, movedObject -> {
+						});
+					} else {
+						otherLinearList.moveAll(linearList, movedObject -> {
+						});
+						otherBucketedList.moveAll(bucketedList, movedObject -> {
+						});
+					}
+					break;
+				}
+
+				if (random.nextInt(OPERATIONS_PER_SEQUENCE / 4) == 0) {
+					Object[] lists = TestUtils.serializeAndDeserialize(new Object[] { linearList, bucketedList, otherLinearList, otherBucketedList });
+					linearList = (PositionableList<TestObject>) lists[0];
+					bucketedList = (BucketedPositionableList<TestObject>) lists[1];
+					otherLinearList = (PositionableList<TestObject>) lists[2];
+					otherBucketedList = (BucketedPositionableList<TestObject>) lists[3];
+					insertedObjects.clear(); // the deserialized lists contain copies
+				}
+
+				assertEquals(linearList.toString(), bucketedList.toString());
+				assertEquals(otherLinearList.toString(), otherBucketedList.toString());
+				assertEquals(linearList.size(), bucketedList.size());
+				assertEquals(linearList.isEmpty(), bucketedList.isEmpty());
+			}
+		}
+
+		private ShortPoint2D randomPosition() {
+			return new ShortPoint2D(random.nextInt(areaSize), random.nextInt(areaSize));
+		}
+
+		private BitSet randomPositions() {
+			BitSet positions = new BitSet();
+			for (int i = 0; i < areaSize * areaSize / 10; i++) {
+				positions.set(index(randomPosition()));
+			}
+			return positions;
+		}
+
+		private int index(ShortPoint2D position) {
+			return position.x + position.y * areaSize;
+		}
+	}
+
+	private static class TestObject implements ILocatable, Serializable {
+		private static final long serialVersionUID = 1L;
+
+		private final int id;
+		private final ShortPoint2D position;
+
+		TestObject(int id, ShortPoint2D position) {
+			this.id = id;
+			this.position = position;
+		}
+
+		@Override
+		public ShortPoint2D getPos() {
+			return position;
+		}
+
+		@Override
+		public String toString() {
+			return id + position.toString();
+		}
+	}
+}
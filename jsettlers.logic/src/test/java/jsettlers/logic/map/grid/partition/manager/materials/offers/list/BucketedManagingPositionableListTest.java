@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.logic.map.grid.partition.manager.materials.offers.list;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import jsettlers.common.position.ILocatable;
+import jsettlers.common.position.ShortPoint2D;
+import jsettlers.testutils.TestUtils;
+
+/**
+ * Executes random sequences of operations on a {@link BucketedManagingPositionableList} and a {@link ManagingPositionableList} and checks that
+ * both always find the same active objects.
+ *
+ * @author agent
+ */
+public class BucketedManagingPositionableListTest {
+	private static final int NUMBER_OF_SEQUENCES = 200;
+	private static final int OPERATIONS_PER_SEQUENCE = 400;
+	private static final int AREA_SIZE = 100;
+
+	@Test
+	public void testSameActiveObjectsAsLinearList() throws IOException, ClassNotFoundException {
+		for (int seed = 0; seed < NUMBER_OF_SEQUENCES; seed++) {
+			executeOperationsSequence(new Random(seed));
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void executeOperationsSequence(Random random) throws IOException, ClassNotFoundException {
+		ManagingPositionableList<TestObject> linearList = new ManagingPositionableList<>();
+		BucketedManagingPositionableList<TestObject> bucketedList = new BucketedManagingPositionableList<>();
+		List<TestObject> objects = new ArrayList<>();
+
+		for (int i = 0; i < OPERATIONS_PER_SEQUENCE; i++) {
+			ShortPoint2D position = new ShortPoint2D(random.nextInt(AREA_SIZE), random.nextInt(AREA_SIZE));
+
+			switch (random.nextInt(7)) {
+			case 0:
+			case 1:
+				TestObject object = new TestObject(objects.size(), position);
+				objects.add(object);
+				linearList.insert(object);
+				bucketedList.insert(object);
+				break;
+			case 2:
+				if (!objects.isEmpty()) {
+					TestObject changedObject = objects.get(random.nextInt(objects.size()));
+					changedObject.active = !changedObject.active && !changedObject.removable;
+				}
+				break;
+			case 3:
+				if (!objects.isEmpty()) {
+					TestObject removableObject = objects.get(random.nextInt(objects.size()));
+					removableObject.active = false;
+					removableObject.removable = true;
+				}
+				break;
+			case 4:
+				assertSame(linearList.getObjectCloseTo(position), bucketedList.getObjectCloseTo(position));
+				break;
+			case 5:
+				assertSame(linearList.removeObjectNextTo(position), bucketedList.removeObjectNextTo(position));
+				break;
+			case 6:
+				assertEquals(linearList.hasNoActive(), bucketedList.hasNoActive());
+				break;
+			}
+
+			if (random.nextInt(OPERATIONS_PER_SEQUENCE / 4) == 0) {
+				Object[] lists = TestUtils.serializeAndDeserialize(new Object[] { linearList, bucketedList, objects });
+				linearList = (ManagingPositionableList<TestObject>) lists[0];
+				bucketedList = (BucketedManagingPositionableList<TestObject>) lists[1];
+				objects = (List<TestObject>) lists[2];
+			}
+		}
+	}
+
+	private static class TestObject implements ILocatable, IListManageable, Serializable {
+		private static final long serialVersionUID = 1L;
+
+		private final int id;
+		private final ShortPoint2D position;
+		private boolean active = true;
+		private boolean removable = false;
+
+		TestObject(int id, ShortPoint2D position) {
+			this.id = id;
+			this.position = position;
+		}
+
+		@Override
+		public ShortPoint2D getPos() {
+			return position;
+		}
+
+		@Override
+		public boolean isActive() {
+			return active;
+		}
+
+		@Override
+		public boolean canBeRemoved() {
+			return removable;
+		}
+
+		@Override
+		public String toString() {
+			return id + position.toString();
+		}
+	}
+}
@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.logic.timer;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import jsettlers.common.logging.MilliStopWatch;
+
+/**
+ * Measures the time the {@link RescheduleTimer} needs to fire and reschedule 100k movables every time slice, as well as the time needed to
+ * schedule and cancel them.
+ * 
+ * @author agent
+ *
+ */
+public class RescheduleTimerSpeedTest {
+	private static final int NUMBER_OF_TIMERABLES = 100000;
+	private static final int TIME_SLICE = 25;
+	private static final int SLICES = 200;
+
+	@Test
+	public void testFireEverySlice() {
+		CountingTimerable[] timerables = createTimerables(TIME_SLICE);
+		RescheduleTimer timer = new RescheduleTimer();
+
+		runSlices(timer, timerables, 10); // warm up
+		timer = new RescheduleTimer();
+		resetCalls(timerables);
+
+		MilliStopWatch watch = new MilliStopWatch();
+		runSlices(timer, timerables, SLICES);
+		long time = watch.getDiff();
+
+		assertEquals((long) NUMBER_OF_TIMERABLES * (SLICES - 1), countCalls(timerables));
+		System.out.println(NUMBER_OF_TIMERABLES + " timerables fired every slice: " + time + " ms for " + SLICES + " slices, "
+				+ (float) time / SLICES + " ms per slice");
+	}
+
+	@Test
+	public void testScheduleAndCancel() {
+		CountingTimerable[] timerables = createTimerables(TIME_SLICE);
+		RescheduleTimer timer = new RescheduleTimer();
+		long[] handles = new long[NUMBER_OF_TIMERABLES];
+
+		scheduleAndCancel(timer, timerables, handles); // warm up
+
+		MilliStopWatch watch = new MilliStopWatch();
+		for (int i = 0; i < SLICES; i++) {
+			scheduleAndCancel(timer, timerables, handles);
+		}
+		long time = watch.getDiff();
+
+		assertEquals(0, timer.size());
+		System.out.println(NUMBER_OF_TIMERABLES + " timerables scheduled and canceled: " + (float) time / SLICES + " ms per round");
+	}
+
+	private static void scheduleAndCancel(RescheduleTimer timer, CountingTimerable[] timerables, long[] handles) {
+		for (int i = 0; i < timerables.length; i++) {
+			handles[i] = timer.addTimerable(timerables[i], TIME_SLICE * (1 + i % 2000));
+		}
+		for (int i = 0; i < timerables.length; i++) {
+			timer.cancelTimerable(handles[i]);
+		}
+	}
+
+	private static void runSlices(RescheduleTimer timer, CountingTimerable[] timerables, int slices) {
+		for (CountingTimerable timerable : timerables) {
+			timer.addTimerable(timerable, TIME_SLICE);
+		}
+		for (int i = 0; i < slices; i++) {
+			timer.timerEvent();
+		}
+	}
+
+	private static CountingTimerable[] createTimerables(int delay) {
+		CountingTimerable[] timerables = new CountingTimerable[NUMBER_OF_TIMERABLES];
+		for (int i = 0; i < NUMBER_OF_TIMERABLES; i++) {
+			timerables[i] = new CountingTimerable(delay);
+		}
+		return timerables;
+	}
+
+	private static void resetCalls(CountingTimerable[] timerables) {
+		for (CountingTimerable timerable : timerables) {
+			timerable.calls = 0;
+		}
+	}
+
+	private static long countCalls(CountingTimerable[] timerables) {
+		long calls = 0;
+		for (CountingTimerable timerable : timerables) {
+			calls += timerable.calls;
+		}
+		return calls;
+	}
+
+	private static class CountingTimerable implements IScheduledTimerable {
+		private static final long serialVersionUID = 1L;
+
+		private final int delay;
+		int calls;
+
+		CountingTimerable(int delay) {
+			this.delay = delay;
+		}
+
+		@Override
+		public int timerEvent() {
+			calls++;
+			return delay;
+		}
+
+		@Override
+		public void kill() {
+		}
+	}
+}
@@ -0,0 +1,301 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.logic.timer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for the {@link RescheduleTimer}.
+ * 
+ * @author agent
+ *
+ */
+public class RescheduleTimerTest {
+	private static final int TIME_SLICE = 25;
+
+	private static final List<String> calls = new ArrayList<String>();
+	private static int currentSlice;
+
+	private RescheduleTimer timer;
+
+	@Before
+	public void setUp() {
+		calls.clear();
+		currentSlice = 0;
+		timer = new RescheduleTimer();
+	}
+
+	@Test
+	public void testOrderOfTimerablesInSameSlice() {
+		timer.addTimerable(new TestTimerable("a"), 100);
+		timer.addTimerable(new TestTimerable("b"), 110);
+		timer.addTimerable(new TestTimerable("c"), 50);
+		timer.addTimerable(new TestTimerable("d"), 100);
+
+		runSlices(10);
+
+		assertEquals(list("c@2", "a@4", "b@4", "d@4"), calls);
+		assertEquals(0, timer.size());
+	}
+
+	@Test
+	public void testRescheduledByReturnValue() {
+		timer.addTimerable(new TestTimerable("a", 50, 75), 25);
+
+		runSlices(10);
+
+		assertEquals(list("a@1", "a@3", "a@6"), calls);
+		assertEquals(0, timer.size());
+	}
+
+	@Test
+	public void testNotScheduledWithoutPositiveDelay() {
+		assertEquals(RescheduleTimer.NO_HANDLE, timer.addTimerable(new TestTimerable("a"), 0));
+		assertEquals(RescheduleTimer.NO_HANDLE, timer.addTimerable(new TestTimerable("b"), -1));
+		runSlices(5);
+
+		assertEquals(list(), calls);
+	}
+
+	@Test
+	public void testLongDelays() {
+		Random random = new Random(1);
+		List<String> expected = new ArrayList<String>();
+		int maxSlices = 0;
+
+		for (int i = 0; i < 2000; i++) {
+			int delay = random.nextInt(4) == 0 ? random.nextInt(4000000) + 1 : random.nextInt(100000) + 1;
+			int slices = Math.max(1, delay / TIME_SLICE);
+			timer.addTimerable(new TestTimerable("t" + i), delay);
+			expected.add("t" + i + "@" + slices);
+			maxSlices = Math.max(maxSlices, slices);
+		}
+
+		runSlices(maxSlices + 1);
+
+		assertEquals(sortBySlice(expected), sortBySlice(calls));
+		assertEquals(0, timer.size());
+	}
+
+	@Test
+	public void testMaximumDelay() {
+		timer.addTimerable(new TestTimerable("a"), Integer.MAX_VALUE);
+		runSlices(Integer.MAX_VALUE / TIME_SLICE);
+		assertEquals(list(), calls);
+
+		runSlices(1);
+		assertEquals(list("a@" + Integer.MAX_VALUE / TIME_SLICE), calls);
+	}
+
+	@Test
+	public void testCancel() {
+		long a = timer.addTimerable(new TestTimerable("a"), 50);
+		long b = timer.addTimerable(new TestTimerable("b"), 50000);
+		timer.addTimerable(new TestTimerable("c"), 50);
+
+		assertTrue(timer.cancelTimerable(a));
+		assertTrue(timer.cancelTimerable(b));
+		assertFalse(timer.cancelTimerable(a));
+		assertFalse(timer.cancelTimerable(RescheduleTimer.NO_HANDLE));
+
+		runSlices(3000);
+
+		assertEquals(list("c@2"), calls);
+	}
+
+	@Test
+	public void testHandleOfFinishedTimerableIsInvalid() {
+		long a = timer.addTimerable(new TestTimerable("a"), 25);
+		runSlices(2);
+
+		long b = timer.addTimerable(new TestTimerable("b"), 25); // reuses the entry of a
+		assertNotEquals(a, b);
+		assertFalse(timer.cancelTimerable(a));
+		assertFalse(timer.rescheduleTimerable(a, 25));
+
+		runSlices(2);
+		assertEquals(list("a@1", "b@3"), calls);
+	}
+
+	@Test
+	public void testReschedule() {
+		long a = timer.addTimerable(new TestTimerable("a", 25), 50);
+		timer.addTimerable(new TestTimerable("b"), 100);
+
+		assertTrue(timer.rescheduleTimerable(a, 200));
+		runSlices(9);
+		assertTrue(timer.rescheduleTimerable(a, 40000)); // the handle stays valid when rescheduled by the return value
+		runSlices(2000);
+
+		assertEquals(list("b@4", "a@8", "a@1609"), calls);
+		assertFalse(timer.rescheduleTimerable(a, 25));
+	}
+
+	@Test
+	public void testCancelAndRescheduleDuringTimerEvent() {
+		final long[] handles = new long[2];
+		handles[0] = timer.addTimerable(new TestTimerable("a", 25) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public int timerEvent() {
+				super.timerEvent();
+				timer.cancelTimerable(handles[0]);
+				return 25;
+			}
+		}, 25);
+		handles[1] = timer.addTimerable(new TestTimerable("b", 25) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public int timerEvent() {
+				super.timerEvent();
+				timer.rescheduleTimerable(handles[1], 100);
+				return 25;
+			}
+		}, 25);
+
+		runSlices(7);
+
+		assertEquals(list("a@1", "b@1", "b@5"), calls);
+	}
+
+	@Test
+	public void testKillOnException() {
+		TestTimerable a = new TestTimerable("a", 25) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public int timerEvent() {
+				super.timerEvent();
+				throw new IllegalStateException("test exception");
+			}
+		};
+		timer.addTimerable(a, 25);
+
+		runSlices(5);
+
+		assertEquals(list("a@1"), calls);
+		assertTrue(a.killed);
+		assertEquals(0, timer.size());
+	}
+
+	@Test
+	public void testSerialization() throws IOException, ClassNotFoundException {
+		Random random = new Random(2);
+		List<Long> handles = new ArrayList<Long>();
+		for (int i = 0; i < 500; i++) {
+			int[] delays = new int[random.nextInt(5)];
+			for (int d = 0; d < delays.length; d++) {
+				delays[d] = random.nextInt(100000) + 1;
+			}
+			handles.add(timer.addTimerable(new TestTimerable("t" + i, delays), random.nextInt(100000) + 1));
+		}
+
+		runSlices(1000);
+		for (int i = 0; i < 100; i++) {
+			timer.cancelTimerable(handles.get(random.nextInt(handles.size())));
+		}
+
+		RescheduleTimer loadedTimer = copy(timer);
+		calls.clear();
+		int slice = currentSlice;
+		runSlices(30000);
+		List<String> expected = new ArrayList<String>(calls);
+
+		calls.clear();
+		currentSlice = slice;
+		timer = loadedTimer;
+		runSlices(30000);
+
+		assertEquals(expected, calls);
+	}
+
+	private static RescheduleTimer copy(RescheduleTimer timer) throws IOException, ClassNotFoundException {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		ObjectOutputStream oos = new ObjectOutputStream(buffer);
+		oos.writeObject(timer);
+		oos.close();
+		return (RescheduleTimer) new ObjectInputStream(new ByteArrayInputStream(buffer.toByteArray())).readObject();
+	}
+
+	private void runSlices(int slices) {
+		for (int i = 0; i < slices; i++) {
+			timer.timerEvent();
+			currentSlice++;
+		}
+	}
+
+	private static List<String> sortBySlice(List<String> calls) {
+		List<String> sorted = new ArrayList<String>(calls);
+		java.util.Collections.sort(sorted, new java.util.Comparator<String>() {
+			@Override
+			public int compare(String a, String b) {
+				int slicesA = Integer.parseInt(a.substring(a.indexOf('@') + 1));
+				int slicesB = Integer.parseInt(b.substring(b.indexOf('@') + 1));
+				return slicesA != slicesB ? Integer.compare(slicesA, slicesB) : a.compareTo(b);
+			}
+		});
+		return sorted;
+	}
+
+	private static List<String> list(String... elements) {
+		List<String> list = new ArrayList<String>();
+		for (String element : elements) {
+			list.add(element);
+		}
+		return list;
+	}
+
+	private static class TestTimerable implements IScheduledTimerable {
+		private static final long serialVersionUID = 1L;
+
+		private final String name;
+		private final int[] delays;
+		private int nextDelay = 0;
+		boolean killed = false;
+
+		TestTimerable(String name, int... delays) {
+			this.name = name;
+			this.delays = delays;
+		}
+
+		@Override
+		public int timerEvent() {
+			calls.add(name + "@" + currentSlice);
+			return nextDelay < delays.length ? delays[nextDelay++] : -1;
+		}
+
+		@Override
+		public void kill() {
+			killed = true;
+		}
+	}
+}
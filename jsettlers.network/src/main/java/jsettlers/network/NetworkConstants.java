@@ -52,6 +52,15 @@ public final class NetworkConstants {
 		public static final int BROADCAST_BUFFER_LENGTH = BROADCAST_MESSAGE.length();
 
 		public static final long OPEN_MATCHES_SEND_INTERVAL_MS = 5 * 1000;
+
+		public static final int SELECTOR_THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+		public static final int MATCH_SCHEDULER_THREADS = 2;
+		public static final int NIO_BUFFER_SIZE = 8 * 1024;
+		public static final int NIO_MAX_POOLED_BUFFERS = 1024;
+		/**
+		 * Packets announcing a longer length are rejected and their channel is closed, so a client can't make the server allocate huge buffers.
+		 */
+		public static final int NIO_MAX_PACKET_LENGTH = 16 * 1024 * 1024;
 	}
 
 	public final static class Client {
@@ -158,11 +167,19 @@ public final class NetworkConstants {
 		}
 
 		public static ENetworkKey readFrom(DataInputStream dis) throws IOException {
+			return fromOrdinal(dis.readByte());
+		}
+
+		public static ENetworkKey fromOrdinal(byte ordinal) throws IOException {
 			try {
-				return values[dis.readByte()];
+				return values[ordinal];
 			} catch (Exception ex) {
 				throw new IOException(ex);
 			}
 		}
+
+		public byte getOrdinal() {
+			return ordinal;
+		}
 	}
 }
@@ -0,0 +1,82 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.network.client;
+
+import jsettlers.network.synchronic.timer.TickDurationHistogram;
+
+/**
+ * Read-only view on the counters a {@link INetworkClientClock} collects while executing locksteps. The counters are written by the clock's thread
+ * only, so they can be polled from any other thread (e.g. a debug overlay or a benchmark) without influencing the game.
+ *
+ * @author agent
+ *
+ */
+public interface ILockstepStatistics {
+
+	/**
+	 * @return Number of locksteps the clock has completed.
+	 */
+	long getExecutedLocksteps();
+
+	/**
+	 * @return Number of sync tasks packets that have been executed.
+	 */
+	long getExecutedPackets();
+
+	/**
+	 * @return Number of tasks that have been executed.
+	 */
+	long getExecutedTasks();
+
+	/**
+	 * @return Highest number of sync tasks packets executed in a single lockstep.
+	 */
+	int getMaxPacketsPerLockstep();
+
+	/**
+	 * @return Highest number of tasks executed in a single lockstep.
+	 */
+	int getMaxTasksPerLockstep();
+
+	/**
+	 * @return Number of times the clock had to wait for a lockstep to be unlocked.
+	 */
+	long getLockstepWaits();
+
+	/**
+	 * @return Total time in nanoseconds the clock waited for locksteps to be unlocked.
+	 */
+	long getLockstepWaitTimeNanos();
+
+	/**
+	 * @return Longest single wait for a lockstep in nanoseconds.
+	 */
+	long getMaxLockstepWaitTimeNanos();
+
+	/**
+	 * @return Number of time slices that were executed right after the previous one, because the clock was behind the wall clock.
+	 */
+	long getCatchUpSlices();
+
+	/**
+	 * @return Number of times the clock was too far behind to catch up and dropped its backlog.
+	 */
+	long getCatchUpLimitHits();
+
+	/**
+	 * @return Histogram of the durations of the executed time slices (excluding the time waited for locksteps).
+	 */
+	TickDurationHistogram getTickDurations();
+}
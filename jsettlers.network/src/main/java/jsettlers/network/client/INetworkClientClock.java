@@ -26,4 +26,8 @@ import jsettlers.network.client.time.ISynchronizableClock;
  */
 public interface INetworkClientClock extends IGameClock, ISynchronizableClock, ISyncTasksPacketScheduler {
 
+	/**
+	 * @return The counters collected while executing the locksteps.
+	 */
+	ILockstepStatistics getLockstepStatistics();
 }
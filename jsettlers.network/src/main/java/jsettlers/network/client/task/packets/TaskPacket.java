@@ -22,8 +22,16 @@ import java.io.IOException;
 import jsettlers.network.NetworkConstants.ENetworkKey;
 import jsettlers.network.infrastructure.channel.IDeserializingable;
 import jsettlers.network.infrastructure.channel.packet.Packet;
+import jsettlers.network.infrastructure.utils.VarIntUtils;
 
 /**
+ * Base class of all tasks executed synchronously on all clients.
+ * <p />
+ * A serialized task consists of the length of the following data, the type id of the task (see {@link TaskPacketRegistry}) and the data written
+ * by {@link #serializeTask(DataOutputStream)}. Tasks of types that are not registered are written with their class name.
+ * <p />
+ * Older replays contain tasks that always start with their class name. These tasks are still read; {@link #isLegacyEncoded()} tells the task that
+ * its data has been written by an older version.
  * 
  * @author Andreas Eberle
  * 
@@ -33,26 +41,61 @@ public abstract class TaskPacket extends Packet {
 
 		@Override
 		public TaskPacket deserialize(ENetworkKey key, DataInputStream dis) throws IOException {
+			dis.readInt(); // read the length in bytes from the stream. We don't need it here, only the server needs it.
+
+			int firstByte = dis.readUnsignedByte();
+			TaskPacket packet;
+			if (firstByte == 0) { // legacy format: the high byte of the length of the class name
+				byte[] className = new byte[dis.readUnsignedByte()];
+				dis.readFully(className);
+				packet = createByClassName(new String(className, "UTF-8"));
+				packet.legacyEncoded = true;
+			} else {
+				int typeId = VarIntUtils.readUnsignedVarInt(dis, firstByte);
+				if (typeId == TaskPacketRegistry.CLASS_NAME_TYPE_ID) {
+					packet = createByClassName(dis.readUTF());
+				} else {
+					packet = TaskPacketRegistry.createTaskPacket(typeId);
+				}
+			}
+
+			packet.deserializeTask(dis);
+			return packet;
+		}
+
+		private TaskPacket createByClassName(String className) throws IOException {
 			try {
-				dis.readInt(); // read the length in bytes from the stream. We don't need it here, only the server needs it.
-				String className = dis.readUTF();
 				@SuppressWarnings("unchecked")
 				Class<? extends TaskPacket> taskClass = (Class<? extends TaskPacket>) Class.forName(className);
-				TaskPacket packet = taskClass.newInstance();
-				packet.deserializeTask(dis);
-				return packet;
+				return taskClass.newInstance();
 			} catch (Exception e) {
 				throw new IOException(e);
 			}
 		}
 	};
 
+	private static final ThreadLocal<ByteArrayOutputStream> SERIALIZATION_BUFFERS = new ThreadLocal<ByteArrayOutputStream>() {
+		@Override
+		protected ByteArrayOutputStream initialValue() {
+			return new ByteArrayOutputStream();
+		}
+	};
+
+	private boolean legacyEncoded;
+
 	@Override
 	public final void serialize(DataOutputStream dos) throws IOException {
-		ByteArrayOutputStream bufferOutStream = new ByteArrayOutputStream();
+		ByteArrayOutputStream bufferOutStream = SERIALIZATION_BUFFERS.get();
+		bufferOutStream.reset();
 		DataOutputStream bufferDataOutStream = new DataOutputStream(bufferOutStream);
 
-		bufferDataOutStream.writeUTF(this.getClass().getName());
+		int typeId = TaskPacketRegistry.getTypeId(getClass());
+		if (typeId == TaskPacketRegistry.NO_TYPE_ID) {
+			VarIntUtils.writeUnsignedVarInt(bufferDataOutStream, TaskPacketRegistry.CLASS_NAME_TYPE_ID);
+			bufferDataOutStream.writeUTF(this.getClass().getName());
+		} else {
+			VarIntUtils.writeUnsignedVarInt(bufferDataOutStream, typeId);
+		}
 		serializeTask(bufferDataOutStream);
 		bufferDataOutStream.flush();
 
@@ -68,4 +111,11 @@ public abstract class TaskPacket extends Packet {
 
 	protected abstract void deserializeTask(DataInputStream dis) throws IOException;
 
+	/**
+	 * 
+	 * @return <code>true</code> if this task has been read from data written by a version that always serialized tasks with their class name.
+	 */
+	protected final boolean isLegacyEncoded() {
+		return legacyEncoded;
+	}
 }
@@ -0,0 +1,105 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.network.client.task.packets;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Table of the {@link TaskPacket} types with their compact numeric ids. Registered tasks are serialized with their id instead of their class name
+ * and are created by their {@link ITaskPacketFactory} instead of reflection.
+ * <p />
+ * The ids are part of the network protocol and the replay files, so they must never be changed or reused for another type.
+ * 
+ * @author agent
+ * 
+ */
+public final class TaskPacketRegistry {
+	/**
+	 * Type id used for tasks that are not registered. They are serialized with their class name and created by reflection.
+	 */
+	public static final int CLASS_NAME_TYPE_ID = 1;
+	public static final int FIRST_TYPE_ID = 2;
+	public static final int NO_TYPE_ID = -1;
+
+	private static final ConcurrentHashMap<Class<? extends TaskPacket>, Integer> typeIds = new ConcurrentHashMap<Class<? extends TaskPacket>, Integer>();
+	private static volatile ITaskPacketFactory[] factories = new ITaskPacketFactory[0];
+
+	private TaskPacketRegistry() {
+	}
+
+	/**
+	 * Registers a task type. Registering the same type with the same id again has no effect.
+	 * 
+	 * @param typeId
+	 *            The id of the type. Must be at least {@link #FIRST_TYPE_ID}.
+	 * @param type
+	 *            The class of the task.
+	 * @param factory
+	 *            The factory creating empty instances of the task.
+	 * @throws IllegalArgumentException
+	 *             If the id is invalid or already used by another type or the type is already registered with another id.
+	 */
+	public static synchronized <T extends TaskPacket> void register(int typeId, Class<T> type, ITaskPacketFactory factory) {
+		if (typeId < FIRST_TYPE_ID) {
+			throw new IllegalArgumentException("Task type ids must be at least " + FIRST_TYPE_ID + ": " + typeId);
+		}
+
+		Integer registeredId = typeIds.get(type);
+		if (registeredId != null) {
+			if (registeredId != typeId) {
+				throw new IllegalArgumentException(type + " is already registered with id " + registeredId);
+			}
+			return;
+		}
+		if (typeId < factories.length && factories[typeId] != null) {
+			throw new IllegalArgumentException("Task type id " + typeId + " is already used.");
+		}
+
+		ITaskPacketFactory[] newFactories = Arrays.copyOf(factories, Math.max(factories.length, typeId + 1));
+		newFactories[typeId] = factory;
+		factories = newFactories;
+		typeIds.put(type, typeId);
+	}
+
+	/**
+	 * 
+	 * @param type
+	 *            The class of a task.
+	 * @return The id of the given type or {@link #NO_TYPE_ID} if it is not registered.
+	 */
+	public static int getTypeId(Class<? extends TaskPacket> type) {
+		Integer typeId = typeIds.get(type);
+		return typeId != null ? typeId : NO_TYPE_ID;
+	}
+
+	/**
+	 * Creates an empty task of the given type.
+	 * 
+	 * @param typeId
+	 *            The id of the type.
+	 * @return A new task to be deserialized.
+	 * @throws IOException
+	 *             If no type is registered with the given id.
+	 */
+	public static TaskPacket createTaskPacket(int typeId) throws IOException {
+		ITaskPacketFactory[] factories = TaskPacketRegistry.factories;
+		if (typeId < FIRST_TYPE_ID || typeId >= factories.length || factories[typeId] == null) {
+			throw new IOException("Unknown task type id: " + typeId);
+		}
+		return factories[typeId].createTaskPacket();
+	}
+}
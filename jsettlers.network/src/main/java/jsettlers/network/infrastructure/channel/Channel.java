@@ -25,6 +25,7 @@ import java.util.HashMap;
 
 import jsettlers.network.NetworkConstants;
 import jsettlers.network.NetworkConstants.ENetworkKey;
+import jsettlers.network.infrastructure.channel.packet.EncodedPacket;
 import jsettlers.network.infrastructure.channel.packet.Packet;
 import jsettlers.network.infrastructure.channel.ping.IPingUpdateListener;
 import jsettlers.network.infrastructure.channel.ping.IRoundTripTimeSupplier;
@@ -92,6 +93,26 @@ public class Channel implements Runnable, IRoundTripTimeSupplier {
 		thread = new Thread(this, "ChannelForSocket_" + socket);
 	}
 
+	/**
+	 * Creates a {@link Channel} that does not use an {@link ISocket} and a receiving thread. Subclasses using this constructor have to override
+	 * {@link #startReceiving()}, {@link #sendPacket(ENetworkKey, Packet)}, {@link #close()} and {@link #isClosed()} and pass received packets to
+	 * {@link #receivePacket(ENetworkKey, int, DataInputStream)}.
+	 * 
+	 * @param logger
+	 *            The logger of the channel.
+	 */
+	protected Channel(Logger logger) {
+		this.logger = new SwitchableLogger(logger);
+		this.socket = null;
+		this.outStream = null;
+		this.inStream = null;
+
+		pingPacketListener = new PingPacketListener(this.logger, this);
+		registerListener(pingPacketListener);
+
+		thread = null;
+	}
+
 	/**
 	 * Starts the message receiving of this {@link Channel}.
 	 * <p />
@@ -104,6 +125,13 @@ public class Channel implements Runnable, IRoundTripTimeSupplier {
 	 */
 	public void start() {
 		started = true;
+		startReceiving();
+	}
+
+	/**
+	 * Starts receiving packets.
+	 */
+	protected void startReceiving() {
 		thread.start();
 	}
 
@@ -117,6 +145,25 @@ public class Channel implements Runnable, IRoundTripTimeSupplier {
 		}
 	}
 
+	/**
+	 * Sends an already encoded packet. This channel takes over one reference of the packet and releases it when the packet has been sent.
+	 * 
+	 * @param packet
+	 *            The packet to be sent.
+	 */
+	public synchronized void sendEncodedPacket(EncodedPacket packet) {
+		try {
+			if (socket.isClosed())
+				return;
+
+			packet.writeTo(outStream);
+			outStream.flush();
+		} catch (IOException e) {
+		} finally {
+			packet.release();
+		}
+	}
+
 	private void sendPacketData(ENetworkKey key, Packet packet) throws IOException {
 		bufferDataOutStream.flush();
 		byteBufferOutStream.reset();
@@ -132,6 +179,10 @@ public class Channel implements Runnable, IRoundTripTimeSupplier {
 		outStream.flush();
 	}
 
+	protected final Logger getLogger() {
+		return logger;
+	}
+
 	/**
 	 * Registers the given listener to receive data of the type it specifies with it's getKeys() method.
 	 * 
@@ -157,26 +208,7 @@ public class Channel implements Runnable, IRoundTripTimeSupplier {
 				int length = inStream.readInt();
 
 				DataInputStream bufferIn = readBytesToBuffer(inStream, length);
-
-				IChannelListener listener = listenerRegistry.get(key);
-
-				if (listener != null) {
-					try {
-						listener.receive(key, length, bufferIn);
-						if (bufferIn.available() > 0) {
-							logger.warn("Deserialization did not read all bytes of input: " + key + " " + length + " " + bufferIn.available());
-						}
-					} catch (Exception e) { // ignore exceptions thrown in receive
-						e.printStackTrace();
-					}
-				} else {
-					logger.warn("NO LISTENER FOUND for key: " + key + "   (" + socket + ")");
-
-					if (key != NetworkConstants.ENetworkKey.REJECT_PACKET) { // prevent endless loop
-						sendPacket(NetworkConstants.ENetworkKey.REJECT_PACKET,
-								new RejectPacket(NetworkConstants.ENetworkMessage.NO_LISTENER_FOUND, key));
-					}
-				}
+				receivePacket(key, length, bufferIn);
 
 			} catch (Exception e) {
 				try {
@@ -187,11 +219,49 @@ public class Channel implements Runnable, IRoundTripTimeSupplier {
 		}
 
 		close(); // release the resources
+		channelClosed();
+	}
+
+	/**
+	 * Passes a received packet to the listener registered for its key.
+	 * 
+	 * @param key
+	 *            The key of the packet.
+	 * @param length
+	 *            The length of the packet data.
+	 * @param bufferIn
+	 *            Stream containing the packet data.
+	 */
+	protected final void receivePacket(ENetworkKey key, int length, DataInputStream bufferIn) throws IOException {
+		IChannelListener listener = listenerRegistry.get(key);
+
+		if (listener != null) {
+			try {
+				listener.receive(key, length, bufferIn);
+				if (bufferIn.available() > 0) {
+					logger.warn("Deserialization did not read all bytes of input: " + key + " " + length + " " + bufferIn.available());
+				}
+			} catch (Exception e) { // ignore exceptions thrown in receive
+				e.printStackTrace();
+			}
+		} else {
+			logger.warn("NO LISTENER FOUND for key: " + key + "   (" + this + ")");
+
+			if (key != NetworkConstants.ENetworkKey.REJECT_PACKET) { // prevent endless loop
+				sendPacket(NetworkConstants.ENetworkKey.REJECT_PACKET,
+						new RejectPacket(NetworkConstants.ENetworkMessage.NO_LISTENER_FOUND, key));
+			}
+		}
+	}
 
+	/**
+	 * Informs the {@link IChannelClosedListener} that this channel has been shut down. This must be called only once.
+	 */
+	protected final void channelClosed() {
 		if (channelClosedListener != null) {
 			channelClosedListener.channelClosed();
 		}
-		logger.info("Channel listener shut down: " + socket);
+		logger.info("Channel listener shut down: " + this);
 	}
 
 	private DataInputStream readBytesToBuffer(DataInputStream inStream, int length) throws IOException {
@@ -278,4 +348,9 @@ public class Channel implements Runnable, IRoundTripTimeSupplier {
 	public void setLogger(Logger newLogger) {
 		this.logger.setLogger(newLogger);
 	}
+
+	@Override
+	public String toString() {
+		return String.valueOf(socket);
+	}
 }
@@ -0,0 +1,82 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.network.infrastructure.channel.nio;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+/**
+ * A pool of direct {@link ByteBuffer}s. Direct buffers are expensive to allocate, so the buffers of closed channels and sent packets are reused.
+ * <p />
+ * Only buffers with the default capacity of the pool are pooled. Bigger buffers are allocated on demand and dropped when they are released.
+ * 
+ * @author agent
+ * 
+ */
+public final class ByteBufferPool {
+	private final ArrayDeque<ByteBuffer> buffers = new ArrayDeque<ByteBuffer>();
+	private final int bufferSize;
+	private final int maxPooledBuffers;
+
+	public ByteBufferPool(int bufferSize, int maxPooledBuffers) {
+		this.bufferSize = bufferSize;
+		this.maxPooledBuffers = maxPooledBuffers;
+	}
+
+	/**
+	 * Gets a cleared buffer with at least the given capacity.
+	 * 
+	 * @param minCapacity
+	 *            The minimum capacity of the buffer.
+	 * @return A buffer that must be given back with {@link #release(ByteBuffer)} when it is not needed any more.
+	 */
+	public ByteBuffer acquire(int minCapacity) {
+		if (minCapacity > bufferSize) {
+			return ByteBuffer.allocateDirect(minCapacity);
+		}
+
+		ByteBuffer buffer;
+		synchronized (buffers) {
+			buffer = buffers.pollLast();
+		}
+		if (buffer == null) {
+			buffer = ByteBuffer.allocateDirect(bufferSize);
+		}
+		buffer.clear();
+		return buffer;
+	}
+
+	public void release(ByteBuffer buffer) {
+		if (buffer.capacity() != bufferSize) {
+			return;
+		}
+
+		synchronized (buffers) {
+			if (buffers.size() < maxPooledBuffers) {
+				buffers.addLast(buffer);
+			}
+		}
+	}
+
+	public int getBufferSize() {
+		return bufferSize;
+	}
+
+	public int getNumberOfPooledBuffers() {
+		synchronized (buffers) {
+			return buffers.size();
+		}
+	}
+}
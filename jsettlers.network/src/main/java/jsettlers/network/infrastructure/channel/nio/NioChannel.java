@@ -0,0 +1,298 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.network.infrastructure.channel.nio;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import jsettlers.network.NetworkConstants;
+import jsettlers.network.NetworkConstants.ENetworkKey;
+import jsettlers.network.infrastructure.channel.Channel;
+import jsettlers.network.infrastructure.channel.packet.EncodedPacket;
+import jsettlers.network.infrastructure.channel.packet.Packet;
+import jsettlers.network.infrastructure.channel.packet.PacketEncoder;
+import jsettlers.network.infrastructure.log.Logger;
+
+/**
+ * A {@link Channel} using a non blocking {@link SocketChannel} instead of a socket with an own receiving thread. The IO of the channel is done by a
+ * {@link SelectorThread} shared with many other channels. Received packets are dispatched to the listeners on that thread, so listeners must not
+ * block.
+ * <p />
+ * The wire format is the same as the one of the stream based {@link Channel}: the key byte, the length of the data and the serialized packet. Packets
+ * are sent as {@link EncodedPacket}s, so a packet broadcasted to many channels is only serialized once.
+ * 
+ * @author agent
+ * 
+ */
+public final class NioChannel extends Channel {
+	private static final int HEADER_LENGTH = PacketEncoder.HEADER_LENGTH;
+	private static final int MAX_PACKET_LENGTH = NetworkConstants.Server.NIO_MAX_PACKET_LENGTH;
+
+	private final SocketChannel socketChannel;
+	private final SelectorThread selectorThread;
+	private final ByteBufferPool bufferPool;
+
+	private final PacketEncoder encoder;
+	private final ArrayDeque<EncodedPacket> writeQueue = new ArrayDeque<EncodedPacket>();
+	private final AtomicBoolean closed = new AtomicBoolean(false);
+
+	private final Runnable enableWritingTask = new Runnable() {
+		@Override
+		public void run() {
+			if (selectionKey != null && selectionKey.isValid()) {
+				selectionKey.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+			}
+		}
+	};
+	private final Runnable releaseTask = new Runnable() {
+		@Override
+		public void run() {
+			releaseResources();
+		}
+	};
+
+	private SelectionKey selectionKey;
+	private ByteBuffer readBuffer;
+	private ByteBuffer currentWriteFrame; // view of the first packet of the write queue, guarded by writeQueue
+
+	NioChannel(Logger logger, SocketChannel socketChannel, SelectorThread selectorThread, ByteBufferPool bufferPool) throws IOException {
+		super(logger);
+		this.socketChannel = socketChannel;
+		this.selectorThread = selectorThread;
+		this.bufferPool = bufferPool;
+		this.encoder = new PacketEncoder(bufferPool);
+
+		socketChannel.configureBlocking(false);
+		socketChannel.socket().setTcpNoDelay(true);
+		readBuffer = bufferPool.acquire(bufferPool.getBufferSize());
+	}
+
+	SocketChannel getSocketChannel() {
+		return socketChannel;
+	}
+
+	@Override
+	protected void startReceiving() {
+		selectorThread.register(this);
+	}
+
+	/**
+	 * Called by the {@link SelectorThread} when this channel has been registered at its selector.
+	 * 
+	 * @param selectionKey
+	 *            The key of the registration.
+	 */
+	void registered(SelectionKey selectionKey) {
+		this.selectionKey = selectionKey;
+
+		if (closed.get()) {
+			selectionKey.cancel();
+			return;
+		}
+
+		synchronized (writeQueue) {
+			if (!writeQueue.isEmpty()) {
+				selectionKey.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+			}
+		}
+	}
+
+	@Override
+	public synchronized void sendPacket(ENetworkKey key, Packet packet) {
+		if (closed.get()) {
+			return;
+		}
+
+		EncodedPacket encodedPacket;
+		try {
+			encodedPacket = encoder.encode(key, packet);
+		} catch (IOException e) {
+			getLogger().error(e);
+			close();
+			return;
+		}
+
+		sendEncodedPacket(encodedPacket);
+	}
+
+	@Override
+	public void sendEncodedPacket(EncodedPacket packet) {
+		try {
+			synchronized (writeQueue) {
+				if (closed.get()) {
+					packet.release();
+				} else if (writeQueue.isEmpty()) {
+					ByteBuffer frame = packet.getFrame();
+					socketChannel.write(frame);
+					if (frame.hasRemaining()) {
+						currentWriteFrame = frame;
+						writeQueue.addLast(packet);
+						selectorThread.execute(enableWritingTask);
+					} else {
+						packet.release();
+					}
+				} else {
+					writeQueue.addLast(packet);
+				}
+			}
+		} catch (IOException e) { // the packet has not been queued when writing failed
+			packet.release();
+			getLogger().error(e);
+			close();
+		}
+	}
+
+	/**
+	 * Called by the {@link SelectorThread} when the socket channel can take more data.
+	 */
+	void handleWritable() {
+		try {
+			synchronized (writeQueue) {
+				EncodedPacket packet;
+				while ((packet = writeQueue.peekFirst()) != null) {
+					if (currentWriteFrame == null) {
+						currentWriteFrame = packet.getFrame();
+					}
+					socketChannel.write(currentWriteFrame);
+					if (currentWriteFrame.hasRemaining()) {
+						return;
+					}
+					currentWriteFrame = null;
+					writeQueue.pollFirst();
+					packet.release();
+				}
+				selectionKey.interestOps(SelectionKey.OP_READ);
+			}
+		} catch (IOException e) {
+			close();
+		}
+	}
+
+	/**
+	 * Called by the {@link SelectorThread} when data can be read from the socket channel. All complete packets in the read buffer are dispatched
+	 * to their listeners.
+	 */
+	void handleReadable() {
+		try {
+			if (socketChannel.read(readBuffer) < 0) {
+				close();
+				return;
+			}
+
+			readBuffer.flip();
+			int requiredCapacity = dispatchReceivedPackets();
+			if (closed.get()) {
+				return;
+			}
+			readBuffer.compact();
+
+			if (requiredCapacity > readBuffer.capacity()) {
+				replaceReadBuffer(bufferPool.acquire(requiredCapacity));
+			} else if (readBuffer.position() == 0 && readBuffer.capacity() > bufferPool.getBufferSize()) {
+				replaceReadBuffer(bufferPool.acquire(bufferPool.getBufferSize()));
+			}
+		} catch (IOException e) {
+			close();
+		}
+	}
+
+	/**
+	 * Dispatches all complete packets in the read buffer.
+	 * 
+	 * @return The capacity needed to receive the next packet.
+	 */
+	private int dispatchReceivedPackets() throws IOException {
+		while (readBuffer.remaining() >= HEADER_LENGTH) {
+			int packetStart = readBuffer.position();
+			ENetworkKey key = ENetworkKey.fromOrdinal(readBuffer.get());
+			int length = readBuffer.getInt();
+			if (length < 0 || length > MAX_PACKET_LENGTH) {
+				throw new IOException("Invalid packet length: " + length);
+			}
+
+			if (readBuffer.remaining() < length) {
+				readBuffer.position(packetStart);
+				return HEADER_LENGTH + length;
+			}
+
+			byte[] data = new byte[length];
+			readBuffer.get(data);
+			receivePacket(key, length, new DataInputStream(new ByteArrayInputStream(data)));
+
+			if (closed.get()) {
+				return 0;
+			}
+		}
+		return HEADER_LENGTH;
+	}
+
+	private void replaceReadBuffer(ByteBuffer newBuffer) {
+		readBuffer.flip();
+		newBuffer.put(readBuffer);
+		bufferPool.release(readBuffer);
+		readBuffer = newBuffer;
+	}
+
+	@Override
+	public void close() {
+		if (!closed.compareAndSet(false, true)) {
+			return;
+		}
+
+		try {
+			socketChannel.close();
+		} catch (IOException e) {
+		}
+
+		if (selectorThread.isSelectorThread()) {
+			releaseResources();
+		} else {
+			selectorThread.execute(releaseTask);
+		}
+	}
+
+	private void releaseResources() {
+		if (readBuffer != null) {
+			bufferPool.release(readBuffer);
+			readBuffer = null;
+		}
+
+		synchronized (writeQueue) {
+			for (EncodedPacket packet : writeQueue) {
+				packet.release();
+			}
+			writeQueue.clear();
+			currentWriteFrame = null;
+		}
+
+		channelClosed();
+	}
+
+	@Override
+	public boolean isClosed() {
+		return closed.get();
+	}
+
+	@Override
+	public String toString() {
+		return "NioChannel(" + socketChannel.socket().getRemoteSocketAddress() + ")";
+	}
+}
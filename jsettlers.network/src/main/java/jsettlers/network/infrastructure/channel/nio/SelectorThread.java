@@ -0,0 +1,142 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.network.infrastructure.channel.nio;
+
+import java.io.IOException;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * A thread multiplexing the IO of many {@link NioChannel}s with one {@link Selector}. All reads, all deferred writes and all dispatches to the
+ * channel listeners of its channels happen on this thread.
+ * 
+ * @author agent
+ * 
+ */
+final class SelectorThread extends Thread {
+	private final Selector selector;
+	private final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<Runnable>();
+
+	private volatile boolean canceled = false;
+
+	SelectorThread(String name) throws IOException {
+		super(name);
+		this.selector = Selector.open();
+		setDaemon(true);
+	}
+
+	/**
+	 * Executes the given task on this thread. The task is executed the next time the thread wakes up.
+	 * 
+	 * @param task
+	 *            The task to be executed.
+	 */
+	void execute(Runnable task) {
+		tasks.add(task);
+		selector.wakeup();
+	}
+
+	boolean isSelectorThread() {
+		return Thread.currentThread() == this;
+	}
+
+	void register(final NioChannel channel) {
+		execute(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					channel.registered(channel.getSocketChannel().register(selector, SelectionKey.OP_READ, channel));
+				} catch (IOException e) {
+					channel.close();
+				}
+			}
+		});
+	}
+
+	int getNumberOfChannels() {
+		return selector.keys().size();
+	}
+
+	@Override
+	public void run() {
+		while (!canceled) {
+			try {
+				selector.select();
+			} catch (IOException e) {
+				e.printStackTrace();
+				break;
+			}
+
+			runTasks();
+			handleSelectedKeys();
+		}
+
+		closeAllChannels();
+		runTasks();
+
+		try {
+			selector.close();
+		} catch (IOException e) {
+		}
+	}
+
+	private void runTasks() {
+		Runnable task;
+		while ((task = tasks.poll()) != null) {
+			try {
+				task.run();
+			} catch (Exception e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	private void handleSelectedKeys() {
+		Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+		while (iterator.hasNext()) {
+			SelectionKey key = iterator.next();
+			iterator.remove();
+
+			NioChannel channel = (NioChannel) key.attachment();
+			try {
+				if (key.isWritable()) {
+					channel.handleWritable();
+				}
+				if (key.isReadable()) {
+					channel.handleReadable();
+				}
+			} catch (CancelledKeyException e) {
+				channel.close();
+			} catch (RuntimeException | Error e) { // a failing channel must not stop the other channels of this thread
+				e.printStackTrace();
+				channel.close();
+			}
+		}
+	}
+
+	private void closeAllChannels() {
+		for (SelectionKey key : selector.keys()) {
+			((NioChannel) key.attachment()).close();
+		}
+	}
+
+	void shutdown() {
+		canceled = true;
+		selector.wakeup();
+	}
+}
@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.network.infrastructure.channel.nio;
+
+import java.io.IOException;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jsettlers.network.NetworkConstants;
+import jsettlers.network.infrastructure.log.Logger;
+
+/**
+ * A small, fixed set of {@link SelectorThread}s serving the IO of any number of {@link NioChannel}s. New channels are distributed round robin over
+ * the threads.
+ * 
+ * @author agent
+ * 
+ */
+public final class SelectorThreadPool {
+	private final SelectorThread[] threads;
+	private final ByteBufferPool bufferPool;
+	private final AtomicInteger nextThread = new AtomicInteger();
+
+	public SelectorThreadPool(int numberOfThreads) throws IOException {
+		this(numberOfThreads, new ByteBufferPool(NetworkConstants.Server.NIO_BUFFER_SIZE, NetworkConstants.Server.NIO_MAX_POOLED_BUFFERS));
+	}
+
+	public SelectorThreadPool(int numberOfThreads, ByteBufferPool bufferPool) throws IOException {
+		this.bufferPool = bufferPool;
+		this.threads = new SelectorThread[numberOfThreads];
+		for (int i = 0; i < numberOfThreads; i++) {
+			threads[i] = new SelectorThread("NioSelectorThread-" + i);
+		}
+	}
+
+	public void start() {
+		for (SelectorThread thread : threads) {
+			thread.start();
+		}
+	}
+
+	/**
+	 * Creates a new {@link NioChannel} for the given connected {@link SocketChannel}. The channel does not receive packets until it is started.
+	 * 
+	 * @param logger
+	 *            The logger of the new channel.
+	 * @param socketChannel
+	 *            The connected socket channel.
+	 * @return The new channel.
+	 * @throws IOException
+	 *             If the socket channel can not be switched to non blocking mode.
+	 */
+	public NioChannel createChannel(Logger logger, SocketChannel socketChannel) throws IOException {
+		SelectorThread thread = threads[(nextThread.getAndIncrement() & Integer.MAX_VALUE) % threads.length];
+		return new NioChannel(logger, socketChannel, thread, bufferPool);
+	}
+
+	public int getNumberOfThreads() {
+		return threads.length;
+	}
+
+	public int getNumberOfChannels() {
+		int channels = 0;
+		for (SelectorThread thread : threads) {
+			channels += thread.getNumberOfChannels();
+		}
+		return channels;
+	}
+
+	public ByteBufferPool getBufferPool() {
+		return bufferPool;
+	}
+
+	/**
+	 * Stops all selector threads and closes all their channels.
+	 */
+	public void shutdown() {
+		for (SelectorThread thread : threads) {
+			thread.shutdown();
+		}
+	}
+}
@@ -0,0 +1,125 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.network.infrastructure.channel.packet;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jsettlers.network.NetworkConstants.ENetworkKey;
+import jsettlers.network.infrastructure.channel.Channel;
+import jsettlers.network.infrastructure.channel.nio.ByteBufferPool;
+
+/**
+ * An immutable, already serialized {@link Packet} including the key and length header, ready to be written to any number of {@link Channel}s.
+ * <p />
+ * The frame is reference counted: It is created with one reference, every {@link Channel} it is given to via
+ * {@link Channel#sendEncodedPacket(EncodedPacket)} takes over one reference and releases it when the bytes have been written. When the last
+ * reference is released, the buffer is given back to its {@link ByteBufferPool}.
+ * 
+ * @author agent
+ * 
+ */
+public final class EncodedPacket {
+	private final ENetworkKey key;
+	private final ByteBuffer frame;
+	private final ByteBufferPool pool;
+	private final AtomicInteger references = new AtomicInteger(1);
+
+	EncodedPacket(ENetworkKey key, ByteBuffer frame, ByteBufferPool pool) {
+		this.key = key;
+		this.frame = frame;
+		this.pool = pool;
+	}
+
+	public ENetworkKey getKey() {
+		return key;
+	}
+
+	/**
+	 * 
+	 * @return The number of bytes of the frame including the header.
+	 */
+	public int getLength() {
+		return frame.limit();
+	}
+
+	/**
+	 * 
+	 * @return A new read only view of the frame. The position of the view can be changed without affecting other users of this packet.
+	 */
+	public ByteBuffer getFrame() {
+		return frame.asReadOnlyBuffer();
+	}
+
+	/**
+	 * Writes the whole frame to the given stream.
+	 * 
+	 * @param out
+	 *            The stream to write to.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	public void writeTo(OutputStream out) throws IOException {
+		if (frame.hasArray()) {
+			out.write(frame.array(), frame.arrayOffset(), frame.limit());
+		} else {
+			ByteBuffer view = frame.duplicate();
+			byte[] chunk = new byte[Math.min(4096, view.remaining())];
+			while (view.hasRemaining()) {
+				int length = Math.min(chunk.length, view.remaining());
+				view.get(chunk, 0, length);
+				out.write(chunk, 0, length);
+			}
+		}
+	}
+
+	/**
+	 * Adds a reference to this packet.
+	 * 
+	 * @return This packet.
+	 * @throws IllegalStateException
+	 *             If the packet has already been released completely.
+	 */
+	public EncodedPacket retain() {
+		int current;
+		do {
+			current = references.get();
+			if (current <= 0) {
+				throw new IllegalStateException("EncodedPacket has already been released.");
+			}
+		} while (!references.compareAndSet(current, current + 1));
+		return this;
+	}
+
+	/**
+	 * Releases a reference to this packet. When the last reference is released, the frame buffer is given back to the pool.
+	 */
+	public void release() {
+		int remaining = references.decrementAndGet();
+		if (remaining == 0) {
+			if (pool != null) {
+				pool.release(frame);
+			}
+		} else if (remaining < 0) {
+			throw new IllegalStateException("EncodedPacket has been released too often.");
+		}
+	}
+
+	public int getReferenceCount() {
+		return references.get();
+	}
+}
@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.network.infrastructure.channel.packet;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import jsettlers.network.NetworkConstants.ENetworkKey;
+import jsettlers.network.infrastructure.channel.nio.ByteBufferPool;
+
+/**
+ * Serializes {@link Packet}s into {@link EncodedPacket}s and keeps statistics about the work done.
+ * <p />
+ * NOTE: This class is not thread safe.
+ * 
+ * @author agent
+ * 
+ */
+public final class PacketEncoder {
+	public static final int HEADER_LENGTH = 1 + 4;
+
+	private final ByteArrayOutputStream byteBufferOutStream = new ByteArrayOutputStream();
+	private final DataOutputStream bufferDataOutStream = new DataOutputStream(byteBufferOutStream);
+	private final ByteBufferPool pool;
+
+	private long encodedPackets;
+	private long encodedBytes;
+	private long encodeTimeNanos;
+
+	/**
+	 * 
+	 * @param pool
+	 *            The pool the frame buffers are taken from. If <code>null</code>, heap buffers are used.
+	 */
+	public PacketEncoder(ByteBufferPool pool) {
+		this.pool = pool;
+	}
+
+	public EncodedPacket encode(ENetworkKey key, Packet packet) throws IOException {
+		long start = System.nanoTime();
+
+		byteBufferOutStream.reset();
+		packet.serialize(bufferDataOutStream);
+		bufferDataOutStream.flush();
+		int length = byteBufferOutStream.size();
+
+		int frameLength = HEADER_LENGTH + length;
+		ByteBuffer frame = pool != null ? pool.acquire(frameLength) : ByteBuffer.allocate(frameLength);
+		frame.put(key.getOrdinal());
+		frame.putInt(length);
+		frame.put(byteBufferOutStream.toByteArray(), 0, length);
+		frame.flip();
+
+		encodedPackets++;
+		encodedBytes += frameLength;
+		encodeTimeNanos += System.nanoTime() - start;
+
+		return new EncodedPacket(key, frame, pool);
+	}
+
+	public long getEncodedPackets() {
+		return encodedPackets;
+	}
+
+	public long getEncodedBytes() {
+		return encodedBytes;
+	}
+
+	public long getEncodeTimeNanos() {
+		return encodeTimeNanos;
+	}
+}
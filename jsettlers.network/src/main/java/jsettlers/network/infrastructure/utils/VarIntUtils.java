@@ -0,0 +1,112 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.network.infrastructure.utils;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Utility methods to write integers with a variable number of bytes. Small values need less bytes: values up to 127 need one byte, values up to
+ * 16383 two bytes.
+ * 
+ * @author agent
+ * 
+ */
+public final class VarIntUtils {
+	private VarIntUtils() {
+	}
+
+	public static void writeUnsignedVarInt(DataOutput out, int value) throws IOException {
+		while ((value & ~0x7F) != 0) {
+			out.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte(value);
+	}
+
+	public static int readUnsignedVarInt(DataInput in) throws IOException {
+		return readUnsignedVarInt(in, in.readUnsignedByte());
+	}
+
+	/**
+	 * Reads a var int of which the first byte has already been read.
+	 * 
+	 * @param in
+	 *            The input supplying the remaining bytes.
+	 * @param firstByte
+	 *            The first byte of the var int.
+	 * @return The value.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	public static int readUnsignedVarInt(DataInput in, int firstByte) throws IOException {
+		int value = 0;
+		int currentByte = firstByte;
+		for (int shift = 0; shift < 35; shift += 7) {
+			value |= (currentByte & 0x7F) << shift;
+			if ((currentByte & 0x80) == 0) {
+				return value;
+			}
+			currentByte = in.readUnsignedByte();
+		}
+		throw new IOException("VarInt is too long.");
+	}
+
+	/**
+	 * Writes the given value zig zag encoded, so that negative values with a small absolute value need few bytes, too.
+	 */
+	public static void writeSignedVarInt(DataOutput out, int value) throws IOException {
+		writeUnsignedVarInt(out, (value << 1) ^ (value >> 31));
+	}
+
+	public static int readSignedVarInt(DataInput in) throws IOException {
+		int encoded = readUnsignedVarInt(in);
+		return (encoded >>> 1) ^ -(encoded & 1);
+	}
+
+	/**
+	 * Writes the given list of ids. Every id is written as the difference to its predecessor, so lists of ids close to each other need one or two
+	 * bytes per id. The order of the list is kept.
+	 * 
+	 * @param out
+	 *            The output to write to.
+	 * @param ids
+	 *            The ids to be written.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	public static void writeDeltaEncodedIds(DataOutput out, List<Integer> ids) throws IOException {
+		writeUnsignedVarInt(out, ids.size());
+		int previous = 0;
+		for (Integer id : ids) {
+			writeSignedVarInt(out, id - previous);
+			previous = id;
+		}
+	}
+
+	public static List<Integer> readDeltaEncodedIds(DataInput in) throws IOException {
+		int size = readUnsignedVarInt(in);
+		List<Integer> ids = new ArrayList<Integer>(Math.min(size, 1024));
+		int previous = 0;
+		for (int i = 0; i < size; i++) {
+			previous += readSignedVarInt(in);
+			ids.add(previous);
+		}
+		return ids;
+	}
+}
@@ -15,13 +15,14 @@
 package jsettlers.network.server;
 
 import java.io.IOException;
-import java.net.ServerSocket;
-import java.net.Socket;
-import java.net.SocketException;
+import java.net.InetSocketAddress;
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
 
 import jsettlers.network.NetworkConstants;
 import jsettlers.network.infrastructure.channel.Channel;
-import jsettlers.network.infrastructure.channel.socket.ISocketFactory;
+import jsettlers.network.infrastructure.channel.nio.SelectorThreadPool;
 import jsettlers.network.infrastructure.log.Logger;
 import jsettlers.network.infrastructure.log.LoggerManager;
 import jsettlers.network.server.db.IDBFacade;
@@ -30,6 +31,8 @@ import jsettlers.network.server.lan.LanServerAddressBroadcastListener;
 import jsettlers.network.server.lan.LanServerBroadcastThread;
 
 /**
+ * Thread accepting new clients of the game server. The IO of all accepted clients is done by a small {@link SelectorThreadPool} instead of a
+ * thread per client.
  * 
  * @author Andreas Eberle
  * 
@@ -38,7 +41,8 @@ public final class GameServerThread extends Thread {
 
 	private static final Logger LOGGER = LoggerManager.ROOT_LOGGER;
 
-	private final ServerSocket serverSocket;
+	private final ServerSocketChannel serverSocketChannel;
+	private final SelectorThreadPool selectorThreads;
 	private final ServerManager manager;
 	private final LanServerBroadcastThread lanBroadcastThread;
 
@@ -46,9 +50,23 @@ public final class GameServerThread extends Thread {
 	private boolean canceled = false;
 
 	public GameServerThread(boolean lan) throws IOException {
+		this(lan, NetworkConstants.Server.SERVER_PORT);
+	}
+
+	/**
+	 * 
+	 * @param lan
+	 *            If <code>true</code>, the server's address is broadcasted in the local network.
+	 * @param port
+	 *            The port to listen on. If 0, a free port is chosen (see {@link #getPort()}).
+	 * @throws IOException
+	 */
+	public GameServerThread(boolean lan, int port) throws IOException {
 		super("GameServer");
-		this.serverSocket = new ServerSocket(NetworkConstants.Server.SERVER_PORT);
-		this.manager = new ServerManager(new InMemoryDB());
+		this.serverSocketChannel = ServerSocketChannel.open();
+		this.serverSocketChannel.socket().bind(new InetSocketAddress(port));
+		this.selectorThreads = new SelectorThreadPool(NetworkConstants.Server.SELECTOR_THREADS);
+		this.manager = new ServerManager(new InMemoryDB(), selectorThreads.getBufferPool());
 
 		this.setDaemon(true);
 
@@ -66,14 +84,14 @@ public final class GameServerThread extends Thread {
 		System.out.println("Server up and running!");
 		while (!canceled) {
 			try {
-				Socket clientSocket = serverSocket.accept();
+				SocketChannel clientSocket = serverSocketChannel.accept();
 
-				Channel clientChannel = new Channel(LOGGER, ISocketFactory.DEFAULT_FACTORY.generateSocket(clientSocket));
+				Channel clientChannel = selectorThreads.createChannel(LOGGER, clientSocket);
 				manager.identifyNewChannel(clientChannel);
 				clientChannel.start();
 
-				LOGGER.log("accepted new client (" + ++counter + "): " + clientSocket);
-			} catch (SocketException e) {
+				LOGGER.log("accepted new client (" + ++counter + "): " + clientChannel);
+			} catch (AsynchronousCloseException e) {
 			} catch (IOException e) {
 				e.printStackTrace();
 			}
@@ -114,6 +132,7 @@ public final class GameServerThread extends Thread {
 
 	@Override
 	public synchronized void start() {
+		selectorThreads.start();
 		super.start();
 		manager.start();
 	}
@@ -121,9 +140,10 @@ public final class GameServerThread extends Thread {
 	public synchronized void shutdown() {
 		canceled = true;
 		try {
-			serverSocket.close();
+			serverSocketChannel.close();
 		} catch (IOException e) {
 		}
+		selectorThreads.shutdown();
 
 		if (lanBroadcastThread != null)
 			lanBroadcastThread.shutdown();
@@ -135,6 +155,14 @@ public final class GameServerThread extends Thread {
 		return lanBroadcastThread != null ? lanBroadcastThread.isAlive() : false;
 	}
 
+	public int getPort() {
+		return serverSocketChannel.socket().getLocalPort();
+	}
+
+	public int getNumberOfConnectedChannels() {
+		return selectorThreads.getNumberOfChannels();
+	}
+
 	public IDBFacade getDatabase() {
 		return manager.getDatabase();
 	}
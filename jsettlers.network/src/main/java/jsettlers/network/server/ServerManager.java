@@ -15,12 +15,17 @@
 package jsettlers.network.server;
 
 import java.util.Timer;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import jsettlers.network.NetworkConstants;
 import jsettlers.network.common.packets.ChatMessagePacket;
 import jsettlers.network.common.packets.OpenNewMatchPacket;
 import jsettlers.network.common.packets.TimeSyncPacket;
 import jsettlers.network.infrastructure.channel.Channel;
+import jsettlers.network.infrastructure.channel.nio.ByteBufferPool;
 import jsettlers.network.infrastructure.channel.reject.RejectPacket;
 import jsettlers.network.server.db.IDBFacade;
 import jsettlers.network.server.exceptions.NotAllPlayersReadyException;
@@ -48,11 +53,34 @@ public class ServerManager implements IServerManager {
 
 	private final IDBFacade database;
 	private final Timer sendMatchesListTimer = new Timer("SendMatchesListTimer", true);
-	private final Timer matchesTaskDistributionTimer = new Timer("MatchesTaskDistributionTimer", true);
+	private final ScheduledExecutorService matchesTaskDistributionScheduler = Executors.newScheduledThreadPool(
+			NetworkConstants.Server.MATCH_SCHEDULER_THREADS, new ThreadFactory() {
+				private final AtomicInteger counter = new AtomicInteger();
+
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "MatchesTaskDistribution-" + counter.getAndIncrement());
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
 	private final MatchesListSendingTimerTask matchSendingTask;
+	private final ByteBufferPool bufferPool;
 
 	public ServerManager(IDBFacade db) {
+		this(db, null);
+	}
+
+	/**
+	 * 
+	 * @param db
+	 *            The database of the server.
+	 * @param bufferPool
+	 *            The pool the buffers of packets broadcasted in matches are taken from. If <code>null</code>, heap buffers are used.
+	 */
+	public ServerManager(IDBFacade db, ByteBufferPool bufferPool) {
 		this.database = db;
+		this.bufferPool = bufferPool;
 		matchSendingTask = new MatchesListSendingTimerTask(db);
 	}
 
@@ -62,7 +90,7 @@ public class ServerManager implements IServerManager {
 
 	public synchronized void shutdown() {
 		sendMatchesListTimer.cancel();
-		matchesTaskDistributionTimer.cancel();
+		matchesTaskDistributionScheduler.shutdownNow();
 	}
 
 	public void identifyNewChannel(Channel channel) {
@@ -108,7 +136,8 @@ public class ServerManager implements IServerManager {
 
 	@Override
 	public void createNewMatch(OpenNewMatchPacket matchInfo, Player player) {
-		Match match = new Match(matchInfo.getMatchName(), matchInfo.getMaxPlayers(), matchInfo.getMapInfo(), matchInfo.getRandomSeed());
+		Match match = new Match(matchInfo.getMatchName(), matchInfo.getMaxPlayers(), matchInfo.getMapInfo(), matchInfo.getRandomSeed(),
+				bufferPool);
 		database.storeMatch(match);
 
 		joinMatch(match, player);
@@ -132,7 +161,7 @@ public class ServerManager implements IServerManager {
 	@Override
 	public void startMatch(Player player) {
 		try {
-			player.startMatch(matchesTaskDistributionTimer);
+			player.startMatch(matchesTaskDistributionScheduler);
 		} catch (IllegalStateException e) {
 			e.printStackTrace();
 			player.sendPacket(NetworkConstants.ENetworkKey.REJECT_PACKET,
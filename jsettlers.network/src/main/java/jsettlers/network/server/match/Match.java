@@ -14,9 +14,12 @@
  *******************************************************************************/
 package jsettlers.network.server.match;
 
+import java.io.IOException;
 import java.util.Date;
 import java.util.LinkedList;
-import java.util.Timer;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.UUID;
 
 import jsettlers.network.NetworkConstants;
@@ -28,7 +31,10 @@ import jsettlers.network.common.packets.MatchInfoUpdatePacket;
 import jsettlers.network.common.packets.MatchStartPacket;
 import jsettlers.network.common.packets.PlayerInfoPacket;
 import jsettlers.network.common.packets.TimeSyncPacket;
+import jsettlers.network.infrastructure.channel.nio.ByteBufferPool;
+import jsettlers.network.infrastructure.channel.packet.EncodedPacket;
 import jsettlers.network.infrastructure.channel.packet.Packet;
+import jsettlers.network.infrastructure.channel.packet.PacketEncoder;
 import jsettlers.network.infrastructure.log.Logger;
 import jsettlers.network.infrastructure.log.LoggerManager;
 import jsettlers.network.server.exceptions.NotAllPlayersReadyException;
@@ -51,12 +57,26 @@ public class Match {
 	private final MapInfoPacket map;
 	private final String name;
 	private final long randomSeed;
+	private final ByteBufferPool bufferPool;
+	private final PacketEncoder encoder; // guarded by players
 
 	private EMatchState state = EMatchState.OPENED;
 	private TaskCollectingListener taskCollectingListener;
 	private TaskSendingTimerTask taskSendingTimerTask;
+	private ScheduledFuture<?> taskSendingFuture;
 
 	public Match(String name, int maxPlayers, MapInfoPacket map, long randomSeed) {
+		this(name, maxPlayers, map, randomSeed, null);
+	}
+
+	/**
+	 * 
+	 * @param bufferPool
+	 *            The pool the buffers of broadcasted packets are taken from. If <code>null</code>, heap buffers are used.
+	 */
+	public Match(String name, int maxPlayers, MapInfoPacket map, long randomSeed, ByteBufferPool bufferPool) {
+		this.bufferPool = bufferPool;
+		this.encoder = new PacketEncoder(bufferPool);
 		this.maxPlayers = maxPlayers;
 		this.map = map;
 		this.name = name;
@@ -163,11 +183,39 @@ public class Match {
 	 */
 	public void sendMessage(Player sendingPlayer, ENetworkKey key, Packet packet) {
 		synchronized (players) {
-			for (Player curr : players) {
-				if (sendingPlayer == null || !curr.getId().equals(sendingPlayer.getId())) {
-					curr.sendPacket(key, packet);
+			EncodedPacket encodedPacket;
+			try {
+				encodedPacket = encoder.encode(key, packet);
+			} catch (IOException e) {
+				logger.error(e);
+				return;
+			}
+
+			sendEncodedPacket(sendingPlayer, encodedPacket);
+		}
+	}
+
+	/**
+	 * Sends the given packet to all players. The packet is serialized only once and the same bytes are written to every player.
+	 * 
+	 * @param encodedPacket
+	 *            The packet to be sent. The reference of the caller is released by this method.
+	 */
+	public void broadcastEncodedPacket(EncodedPacket encodedPacket) {
+		sendEncodedPacket(null, encodedPacket);
+	}
+
+	private void sendEncodedPacket(Player sendingPlayer, EncodedPacket encodedPacket) {
+		try {
+			synchronized (players) {
+				for (Player curr : players) {
+					if (sendingPlayer == null || !curr.getId().equals(sendingPlayer.getId())) {
+						curr.sendEncodedPacket(encodedPacket.retain());
+					}
 				}
 			}
+		} finally {
+			encodedPacket.release();
 		}
 	}
 
@@ -203,7 +251,7 @@ public class Match {
 		}
 	}
 
-	public synchronized void startMatch(Timer timer) throws NotAllPlayersReadyException {
+	public synchronized void startMatch(ScheduledExecutorService scheduler) throws NotAllPlayersReadyException {
 		if (state == EMatchState.RUNNING || state == EMatchState.FINISHED) {
 			return; // match already started
 		}
@@ -219,8 +267,9 @@ public class Match {
 		state = EMatchState.RUNNING;
 
 		this.taskCollectingListener = new TaskCollectingListener();
-		this.taskSendingTimerTask = new TaskSendingTimerTask(logger, taskCollectingListener, this);
-		timer.schedule(taskSendingTimerTask, NetworkConstants.Client.LOCKSTEP_PERIOD, NetworkConstants.Client.LOCKSTEP_PERIOD / 2 - 2);
+		this.taskSendingTimerTask = new TaskSendingTimerTask(logger, taskCollectingListener, this, bufferPool);
+		this.taskSendingFuture = scheduler.scheduleWithFixedDelay(taskSendingTimerTask, NetworkConstants.Client.LOCKSTEP_PERIOD,
+				NetworkConstants.Client.LOCKSTEP_PERIOD / 2 - 2, TimeUnit.MILLISECONDS);
 
 		synchronized (players) {
 			int i = 0;
@@ -250,7 +299,9 @@ public class Match {
 
 	private void shutdownMatch() {
 		if (state == EMatchState.RUNNING) {
-			taskSendingTimerTask.cancel();
+			taskSendingFuture.cancel(false);
+			taskSendingFuture = null;
+			taskSendingTimerTask.logStatistics();
 			taskSendingTimerTask = null;
 
 			synchronized (players) {
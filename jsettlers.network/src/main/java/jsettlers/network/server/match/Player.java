@@ -14,7 +14,7 @@
  *******************************************************************************/
 package jsettlers.network.server.match;
 
-import java.util.Timer;
+import java.util.concurrent.ScheduledExecutorService;
 
 import jsettlers.network.NetworkConstants;
 import jsettlers.network.NetworkConstants.ENetworkKey;
@@ -23,6 +23,7 @@ import jsettlers.network.common.packets.ChatMessagePacket;
 import jsettlers.network.common.packets.PlayerInfoPacket;
 import jsettlers.network.common.packets.TimeSyncPacket;
 import jsettlers.network.infrastructure.channel.Channel;
+import jsettlers.network.infrastructure.channel.packet.EncodedPacket;
 import jsettlers.network.infrastructure.channel.packet.Packet;
 import jsettlers.network.infrastructure.log.LoggerManager;
 import jsettlers.network.server.exceptions.NotAllPlayersReadyException;
@@ -81,13 +82,17 @@ public class Player {
 		channel.sendPacket(key, packet);
 	}
 
+	public void sendEncodedPacket(EncodedPacket packet) {
+		channel.sendEncodedPacket(packet);
+	}
+
 	public synchronized boolean isInMatch() {
 		return state == EPlayerState.IN_MATCH || state == EPlayerState.IN_RUNNING_MATCH;
 	}
 
-	public void startMatch(Timer timer) throws IllegalStateException, NotAllPlayersReadyException {
+	public void startMatch(ScheduledExecutorService scheduler) throws IllegalStateException, NotAllPlayersReadyException {
 		EPlayerState.assertState(state, EPlayerState.IN_MATCH);
-		match.startMatch(timer);
+		match.startMatch(scheduler);
 	}
 
 	void matchStarted(TaskCollectingListener taskListener) {
@@ -14,10 +14,12 @@
  *******************************************************************************/
 package jsettlers.network.server.match.lockstep;
 
+import java.io.IOException;
 import java.util.List;
-import java.util.TimerTask;
 
 import jsettlers.network.NetworkConstants;
+import jsettlers.network.infrastructure.channel.nio.ByteBufferPool;
+import jsettlers.network.infrastructure.channel.packet.PacketEncoder;
 import jsettlers.network.infrastructure.channel.ping.IPingUpdateListener;
 import jsettlers.network.infrastructure.channel.ping.RoundTripTime;
 import jsettlers.network.infrastructure.log.Logger;
@@ -27,25 +29,29 @@ import jsettlers.network.server.packets.ServersideSyncTasksPacket;
 import jsettlers.network.server.packets.ServersideTaskPacket;
 
 /**
+ * Periodically sends the tasks collected for a match to all its players. The task is scheduled per match on the shared match scheduler of the
+ * server. Every lockstep packet is serialized only once for all players of the match.
  * 
  * @author Andreas Eberle
  * 
  */
-public class TaskSendingTimerTask extends TimerTask {
+public class TaskSendingTimerTask implements Runnable {
 	private final Logger logger;
 	private final TaskCollectingListener taskCollectingListener;
 	private final Match match;
+	private final PacketEncoder encoder;
 
 	private int lockstepCounter = 0;
-	private int currentLockstepMax = NetworkConstants.Client.LOCKSTEP_DEFAULT_LEAD_STEPS;
+	private volatile int currentLockstepMax = NetworkConstants.Client.LOCKSTEP_DEFAULT_LEAD_STEPS;
 
 	private int minimumLeadTimeMs = NetworkConstants.Client.LOCKSTEP_DEFAULT_LEAD_STEPS * NetworkConstants.Client.LOCKSTEP_PERIOD;
 	private int leadSteps = minimumLeadTimeMs / NetworkConstants.Client.LOCKSTEP_PERIOD;
 
-	public TaskSendingTimerTask(Logger logger, TaskCollectingListener taskCollectingListener, Match match) {
+	public TaskSendingTimerTask(Logger logger, TaskCollectingListener taskCollectingListener, Match match, ByteBufferPool bufferPool) {
 		this.logger = logger;
 		this.taskCollectingListener = taskCollectingListener;
 		this.match = match;
+		this.encoder = new PacketEncoder(bufferPool);
 	}
 
 	@Override
@@ -56,7 +62,41 @@ public class TaskSendingTimerTask extends TimerTask {
 
 		List<ServersideTaskPacket> tasksList = taskCollectingListener.getAndResetTasks();
 		ServersideSyncTasksPacket syncTasksPacket = new ServersideSyncTasksPacket(lockstepCounter++, tasksList);
-		match.broadcastMessage(NetworkConstants.ENetworkKey.SYNCHRONOUS_TASK, syncTasksPacket);
+		try {
+			match.broadcastEncodedPacket(encoder.encode(NetworkConstants.ENetworkKey.SYNCHRONOUS_TASK, syncTasksPacket));
+		} catch (IOException e) {
+			logger.error(e);
+		}
+	}
+
+	/**
+	 * 
+	 * @return The number of lockstep packets sent.
+	 */
+	public long getSentLocksteps() {
+		return encoder.getEncodedPackets();
+	}
+
+	/**
+	 * 
+	 * @return The number of bytes serialized for all lockstep packets. Every packet is serialized once, independent of the number of players.
+	 */
+	public long getSerializedBytes() {
+		return encoder.getEncodedBytes();
+	}
+
+	/**
+	 * 
+	 * @return The time in nanoseconds spent serializing the lockstep packets.
+	 */
+	public long getEncodeTimeNanos() {
+		return encoder.getEncodeTimeNanos();
+	}
+
+	public void logStatistics() {
+		long locksteps = Math.max(1, getSentLocksteps());
+		logger.info(String.format("sent lockstep packets: %d   serialized bytes per lockstep: %d   encode time per lockstep: %d us",
+				getSentLocksteps(), getSerializedBytes() / locksteps, getEncodeTimeNanos() / locksteps / 1000));
 	}
 
 	public void receivedLockstepAcknowledge(int acknowledgedLockstep) {
@@ -0,0 +1,136 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.network.synchronic.timer;
+
+import jsettlers.network.client.ILockstepStatistics;
+
+/**
+ * Counters of the {@link NetworkTimer}. All update methods must only be called by the thread executing the locksteps, the getters can be used by any
+ * thread.
+ *
+ * @author agent
+ *
+ */
+public final class LockstepStatistics implements ILockstepStatistics {
+	// single writer: volatile is enough to publish the values to readers
+	private volatile long executedLocksteps;
+	private volatile long executedPackets;
+	private volatile long executedTasks;
+	private volatile int maxPacketsPerLockstep;
+	private volatile int maxTasksPerLockstep;
+
+	private volatile long lockstepWaits;
+	private volatile long lockstepWaitTimeNanos;
+	private volatile long maxLockstepWaitTimeNanos;
+
+	private volatile long catchUpSlices;
+	private volatile long catchUpLimitHits;
+	private final TickDurationHistogram tickDurations = new TickDurationHistogram();
+
+	void lockstepCompleted(int packets, int tasks) {
+		executedLocksteps++;
+		executedPackets += packets;
+		executedTasks += tasks;
+		if (packets > maxPacketsPerLockstep) {
+			maxPacketsPerLockstep = packets;
+		}
+		if (tasks > maxTasksPerLockstep) {
+			maxTasksPerLockstep = tasks;
+		}
+	}
+
+	void waitedForLockstep(long waitTimeNanos) {
+		lockstepWaits++;
+		lockstepWaitTimeNanos += waitTimeNanos;
+		if (waitTimeNanos > maxLockstepWaitTimeNanos) {
+			maxLockstepWaitTimeNanos = waitTimeNanos;
+		}
+	}
+
+	void caughtUpSlice() {
+		catchUpSlices++;
+	}
+
+	void catchUpLimitReached() {
+		catchUpLimitHits++;
+	}
+
+	void tickExecuted(long durationNanos) {
+		tickDurations.record(durationNanos);
+	}
+
+	@Override
+	public long getExecutedLocksteps() {
+		return executedLocksteps;
+	}
+
+	@Override
+	public long getExecutedPackets() {
+		return executedPackets;
+	}
+
+	@Override
+	public long getExecutedTasks() {
+		return executedTasks;
+	}
+
+	@Override
+	public int getMaxPacketsPerLockstep() {
+		return maxPacketsPerLockstep;
+	}
+
+	@Override
+	public int getMaxTasksPerLockstep() {
+		return maxTasksPerLockstep;
+	}
+
+	@Override
+	public long getLockstepWaits() {
+		return lockstepWaits;
+	}
+
+	@Override
+	public long getLockstepWaitTimeNanos() {
+		return lockstepWaitTimeNanos;
+	}
+
+	@Override
+	public long getMaxLockstepWaitTimeNanos() {
+		return maxLockstepWaitTimeNanos;
+	}
+
+	@Override
+	public long getCatchUpSlices() {
+		return catchUpSlices;
+	}
+
+	@Override
+	public long getCatchUpLimitHits() {
+		return catchUpLimitHits;
+	}
+
+	@Override
+	public TickDurationHistogram getTickDurations() {
+		return tickDurations;
+	}
+
+	@Override
+	public String toString() {
+		return "LockstepStatistics [locksteps=" + executedLocksteps + ", packets=" + executedPackets + ", tasks=" + executedTasks
+				+ ", maxPacketsPerLockstep=" + maxPacketsPerLockstep + ", maxTasksPerLockstep=" + maxTasksPerLockstep + ", waits=" + lockstepWaits
+				+ ", waitTime=" + lockstepWaitTimeNanos / 1000000 + "ms, maxWaitTime=" + maxLockstepWaitTimeNanos / 1000000 + "ms, catchUpSlices=" + catchUpSlices + ", catchUpLimitHits="
+				+ catchUpLimitHits + ", " + tickDurations + "]";
+	}
+}
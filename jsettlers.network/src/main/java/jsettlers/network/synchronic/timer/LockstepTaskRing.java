@@ -0,0 +1,151 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.network.synchronic.timer;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+import jsettlers.network.client.task.packets.SyncTasksPacket;
+
+/**
+ * Ring of {@link SyncTasksPacket}s indexed by their lockstep number. Slot {@code lockstep & mask} holds the packets of one lockstep in the order
+ * they were added, so neither adding nor polling needs to sort. Packets that are too far in the future for the ring (e.g. a whole replay that is
+ * loaded at once) are kept in an overflow map and moved into the ring as soon as it has advanced far enough.
+ * <p />
+ * This class is not thread safe, it is owned by the thread executing the locksteps.
+ *
+ * @author agent
+ *
+ */
+final class LockstepTaskRing {
+	static final int DEFAULT_CAPACITY = 1024;
+
+	private final List<SyncTasksPacket>[] slots;
+	private final int mask;
+	private final TreeMap<Integer, List<SyncTasksPacket>> overflow = new TreeMap<Integer, List<SyncTasksPacket>>();
+
+	private int firstLockstep = 0;
+	private int size = 0;
+
+	LockstepTaskRing() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	@SuppressWarnings("unchecked")
+	LockstepTaskRing(int capacity) {
+		if (Integer.bitCount(capacity) != 1) {
+			throw new IllegalArgumentException("capacity must be a power of two: " + capacity);
+		}
+		this.slots = (List<SyncTasksPacket>[]) new List<?>[capacity];
+		this.mask = capacity - 1;
+		for (int i = 0; i < capacity; i++) {
+			slots[i] = new ArrayList<SyncTasksPacket>(1);
+		}
+	}
+
+	/**
+	 * Adds the given packet. Packets for locksteps that have already been passed are added to the oldest lockstep still in the ring, so they will be
+	 * returned by the next call to {@link #pollDue(int, List)}.
+	 *
+	 * @param packet
+	 *            The packet to be added.
+	 */
+	void add(SyncTasksPacket packet) {
+		int lockstep = Math.max(packet.getLockstepNumber(), firstLockstep);
+
+		if (lockstep - firstLockstep <= mask) {
+			slots[lockstep & mask].add(packet);
+		} else {
+			List<SyncTasksPacket> packets = overflow.get(lockstep);
+			if (packets == null) {
+				packets = new ArrayList<SyncTasksPacket>(1);
+				overflow.put(lockstep, packets);
+			}
+			packets.add(packet);
+		}
+		size++;
+	}
+
+	/**
+	 * Moves all packets with a lockstep number lower or equal to the given lockstep to the given list, ordered by lockstep number and insertion
+	 * order.
+	 *
+	 * @param lockstep
+	 *            The current lockstep.
+	 * @param due
+	 *            The list receiving the due packets.
+	 */
+	void pollDue(int lockstep, List<SyncTasksPacket> due) {
+		if (lockstep < firstLockstep) {
+			return;
+		}
+
+		if (size > 0) {
+			int lastRingLockstep = Math.min(lockstep, firstLockstep + mask);
+			for (int curr = firstLockstep; curr <= lastRingLockstep; curr++) {
+				List<SyncTasksPacket> slot = slots[curr & mask];
+				if (!slot.isEmpty()) {
+					due.addAll(slot);
+					size -= slot.size();
+					slot.clear();
+				}
+			}
+
+			while (!overflow.isEmpty() && overflow.firstKey() <= lockstep) {
+				List<SyncTasksPacket> packets = overflow.pollFirstEntry().getValue();
+				due.addAll(packets);
+				size -= packets.size();
+			}
+		}
+
+		firstLockstep = lockstep;
+
+		while (!overflow.isEmpty() && overflow.firstKey() - firstLockstep <= mask) {
+			Entry<Integer, List<SyncTasksPacket>> entry = overflow.pollFirstEntry();
+			slots[entry.getKey() & mask].addAll(entry.getValue());
+		}
+	}
+
+	/**
+	 * @return Number of packets that have not been polled yet.
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Serializes all packets that have not been polled yet in the order they will be executed.
+	 *
+	 * @param dos
+	 *            The stream to write to.
+	 * @throws IOException
+	 */
+	void serialize(DataOutputStream dos) throws IOException {
+		for (int i = 0; i <= mask; i++) {
+			for (SyncTasksPacket packet : slots[(firstLockstep + i) & mask]) {
+				packet.serialize(dos);
+			}
+		}
+		for (List<SyncTasksPacket> packets : overflow.values()) {
+			for (SyncTasksPacket packet : packets) {
+				packet.serialize(dos);
+			}
+		}
+	}
+}
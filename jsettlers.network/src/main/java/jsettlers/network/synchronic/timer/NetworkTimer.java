@@ -18,15 +18,15 @@ import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 
 import jsettlers.network.NetworkConstants;
+import jsettlers.network.client.ILockstepStatistics;
 import jsettlers.network.client.INetworkClientClock;
 import jsettlers.network.client.task.packets.SyncTasksPacket;
 import jsettlers.network.client.task.packets.TaskPacket;
@@ -34,44 +34,59 @@ import jsettlers.network.client.task.packets.TaskPacket;
 /**
  * This is a basic game timer. All synchronous actions must be based on this clock. The {@link NetworkTimer} also triggers the execution of
  * synchronous tasks in the network game.
+ * <p />
+ * Received {@link SyncTasksPacket}s are handed over to the timer's thread with a lock free queue and are then kept in a {@link LockstepTaskRing}
+ * indexed by their lockstep number. Therefore neither the receiving threads nor the timer's thread block each other.
+ * <p />
+ * The time slices are executed by a dedicated thread using the monotonic {@link System#nanoTime()} clock. The game speed stretches or shrinks the
+ * wall clock period of a time slice. If the timer falls behind (e.g. because of a slow slice), it executes up to {@value #MAX_CATCH_UP_SLICES}
+ * slices back to back to catch up. In headless mode and while fast forwarding, the slices are executed as fast as possible.
  *
  * @author Andreas Eberle
  *
  */
-public final class NetworkTimer extends TimerTask implements INetworkClientClock {
+public final class NetworkTimer implements Runnable, INetworkClientClock {
 	public static final short TIME_SLICE = 50;
-	private Comparator<SyncTasksPacket> tasksByTimeComperator = new Comparator<SyncTasksPacket>() {
-		@Override
-		public int compare(SyncTasksPacket o1, SyncTasksPacket o2) {
-			return o1.getLockstepNumber() - o2.getLockstepNumber();
-		}
-	};
-
-	private final Timer timer;
-	private final Object lockstepLock = new Object();
+	/**
+	 * Maximum backlog of time slices the timer catches up. If it is even further behind, the backlog is dropped and the game simply continues from
+	 * the current point in time.
+	 */
+	public static final int MAX_CATCH_UP_SLICES = 10;
+	private static final long TIME_SLICE_NANOS = TimeUnit.MILLISECONDS.toNanos(TIME_SLICE);
+	private static final int NO_FAST_FORWARD = -1;
 
 	private final List<ScheduledTimerable> timerables = new ArrayList<ScheduledTimerable>();
 	private final List<ScheduledTimerable> newTimerables = new LinkedList<ScheduledTimerable>();
 	private final List<INetworkTimerable> timerablesToBeRemoved = new LinkedList<INetworkTimerable>();
 
-	private final LinkedList<SyncTasksPacket> tasks = new LinkedList<SyncTasksPacket>();
+	private final ConcurrentLinkedQueue<SyncTasksPacket> receivedTasks = new ConcurrentLinkedQueue<SyncTasksPacket>();
+	private final LockstepTaskRing tasks = new LockstepTaskRing();
+	private final List<SyncTasksPacket> dueTasks = new ArrayList<SyncTasksPacket>();
+	private final LockstepStatistics statistics = new LockstepStatistics();
+
+	private volatile int time = 0;
+	private volatile int maxAllowedLockstep = -1;
+	private volatile Thread waitingThread;
+
+	private int currentLockstep = -1;
+	private int currentLockstepPackets;
+	private int currentLockstepTasks;
 
-	private int time = 0;
-	private int maxAllowedLockstep = -1;
+	private volatile boolean isPausing;
+	private volatile int pauseTime;
+	private volatile float speedFactor = 1.0f;
 
-	private boolean isPausing;
-	private int pauseTime;
-	private float speedFactor = 1.0f;
-	private float progress = 0.0f;
+	private final Object fastForwardLock = new Object();
+	private volatile int fastForwardTargetTime = NO_FAST_FORWARD;
+	private volatile boolean headless;
 
-	private boolean scheduled = false;
+	private volatile Thread schedulerThread;
+	private volatile boolean stopped;
 
 	private ITaskExecutor taskExecutor;
 	private DataOutputStream replayLogStream;
 
 	public NetworkTimer() {
-		super();
-		this.timer = new Timer("NetworkTimer");
 	}
 
 	public NetworkTimer(boolean disableLockstepWaiting) {
@@ -84,71 +99,140 @@ public final class NetworkTimer extends TimerTask implements INetworkClientClock
 
 	@Override
 	public synchronized void startExecution() {
-		if (!scheduled) {
-			scheduled = true;
-			timer.schedule(this, 0, TIME_SLICE);
+		if (schedulerThread == null) {
+			schedulerThread = new Thread(this, "NetworkTimer");
+			schedulerThread.start();
 		}
 	}
 
 	@Override
 	public void stopExecution() {
 		setPausing(true);
-		timer.cancel();
+		stopped = true;
+		wakeUpScheduler();
+		synchronized (fastForwardLock) {
+			fastForwardLock.notifyAll();
+		}
 
 		closeReplayLogStreamIfNeeded();
 	}
 
+	/**
+	 * The scheduling loop of the timer's thread.
+	 */
 	@Override
 	public void run() {
-		if (!isPausing) {
-			if (pauseTime <= 0) { // this is used for synchronizing the network clients
-				progress += speedFactor;
+		long lastSliceTime = System.nanoTime();
+		boolean sliceExecutedWithoutWaiting = false;
+
+		while (!stopped) {
+			long now = System.nanoTime();
+
+			if (fastForwardTargetTime != NO_FAST_FORWARD) {
+				executeFastForwardSlice();
+				lastSliceTime = now;
+
+			} else if (isPausing) {
+				LockSupport.parkNanos(this, TIME_SLICE_NANOS);
+				lastSliceTime = System.nanoTime();
+
+			} else if (headless) {
+				executeTimeSlice();
+				lastSliceTime = now;
 
-				while (progress >= 1) {
-					executeRun();
-					progress--;
-				}
 			} else {
-				pauseTime -= TIME_SLICE;
+				long period = (long) (TIME_SLICE_NANOS / speedFactor);
+				long delay = lastSliceTime + period - now;
+
+				if (delay > 0) {
+					sliceExecutedWithoutWaiting = false;
+					LockSupport.parkNanos(this, Math.min(delay, TIME_SLICE_NANOS)); // wake up regularly to react on speed changes
+				} else {
+					if (-delay > MAX_CATCH_UP_SLICES * period) {
+						statistics.catchUpLimitReached();
+						lastSliceTime = now;
+					} else {
+						lastSliceTime += period;
+					}
+
+					if (sliceExecutedWithoutWaiting) {
+						statistics.caughtUpSlice();
+					}
+					sliceExecutedWithoutWaiting = true;
+
+					executeTimeSlice();
+				}
+			}
+		}
+	}
+
+	private void executeTimeSlice() {
+		if (pauseTime > 0) { // this is used for synchronizing the network clients
+			pauseTime -= TIME_SLICE;
+		} else {
+			executeRun();
+		}
+	}
+
+	private void executeFastForwardSlice() {
+		int targetTime = fastForwardTargetTime;
+		if (time < targetTime) {
+			executeRun();
+		}
+
+		if (time >= targetTime) {
+			synchronized (fastForwardLock) {
+				if (fastForwardTargetTime == targetTime) {
+					fastForwardTargetTime = NO_FAST_FORWARD;
+				}
+				fastForwardLock.notifyAll();
 			}
 		}
 	}
 
+	private void wakeUpScheduler() {
+		Thread thread = schedulerThread;
+		if (thread != null) {
+			LockSupport.unpark(thread);
+		}
+	}
+
 	private synchronized void executeRun() {
 		try {
 			time += TIME_SLICE;
 			final int lockstep = time / NetworkConstants.Client.LOCKSTEP_PERIOD;
 
 			// check if the lockstep is allowed
-			synchronized (lockstepLock) {
-				while (lockstep > maxAllowedLockstep) {
-					System.out.println("WAITING for lockstep!");
-					lockstepLock.wait();
-				}
+			if (lockstep > maxAllowedLockstep) {
+				waitForLockstep(lockstep);
 			}
+			final long sliceStart = System.nanoTime();
 
-			SyncTasksPacket tasksPacket;
-			synchronized (tasks) {
-				tasksPacket = tasks.peekFirst();
+			if (lockstep != currentLockstep) {
+				if (currentLockstep >= 0) {
+					statistics.lockstepCompleted(currentLockstepPackets, currentLockstepTasks);
+				}
+				currentLockstep = lockstep;
+				currentLockstepPackets = 0;
+				currentLockstepTasks = 0;
 			}
 
-			while (tasksPacket != null && tasksPacket.getLockstepNumber() <= lockstep) {
-				assert tasksPacket.getLockstepNumber() == lockstep : "FOUND TasksPacket FOR older lockstep!";
+			takeReceivedTasks();
+			tasks.pollDue(lockstep, dueTasks);
 
-				System.out.println("Executing SyncTaskPacket(" + tasksPacket + ") in " + getLockstepText(lockstep));
+			for (SyncTasksPacket tasksPacket : dueTasks) {
+				assert tasksPacket.getLockstepNumber() == lockstep : "FOUND TasksPacket FOR older lockstep!";
 
 				try {
 					executeTasksPacket(tasksPacket);
 				} catch (Throwable t) {
-					System.err.println("Error during execution of scheduled task:");
+					System.err.println("Error during execution of scheduled task in " + getLockstepText(lockstep) + ":");
 					t.printStackTrace();
 				}
-
-				synchronized (tasks) {// remove the executed tasksPacket and retrieve the next one to check it.
-					tasks.pollFirst();
-					tasksPacket = tasks.peekFirst();
-				}
+				currentLockstepPackets++;
+				currentLockstepTasks += tasksPacket.getTasks().size();
 			}
+			dueTasks.clear();
 
 			addNewTimerables();
 			handleRemovedTimerables();
@@ -156,12 +240,42 @@ public final class NetworkTimer extends TimerTask implements INetworkClientClock
 			for (ScheduledTimerable curr : timerables) {
 				curr.checkExecution(TIME_SLICE);
 			}
+
+			statistics.tickExecuted(System.nanoTime() - sliceStart);
 		} catch (Throwable t) {
 			System.err.println("WARNING: Networking Timer catched Throwable!!!");
 			t.printStackTrace();
 		}
 	}
 
+	private void waitForLockstep(int lockstep) throws InterruptedException {
+		long start = System.nanoTime();
+		waitingThread = Thread.currentThread();
+		try {
+			while (lockstep > maxAllowedLockstep) {
+				LockSupport.park(this);
+				if (Thread.interrupted()) {
+					throw new InterruptedException();
+				}
+			}
+		} finally {
+			waitingThread = null;
+			statistics.waitedForLockstep(System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * Moves the packets received since the last call into the {@link LockstepTaskRing}. This must only be called by the thread executing the
+	 * locksteps.
+	 */
+	private void takeReceivedTasks() {
+		SyncTasksPacket tasksPacket;
+		while ((tasksPacket = receivedTasks.poll()) != null) {
+			saveReplayIfNeeded(tasksPacket);
+			tasks.add(tasksPacket);
+		}
+	}
+
 	private void executeTasksPacket(SyncTasksPacket tasksPacket) {
 		if (taskExecutor != null) {
 			for (TaskPacket currTask : tasksPacket.getTasks()) {
@@ -224,31 +338,81 @@ public final class NetworkTimer extends TimerTask implements INetworkClientClock
 	}
 
 	/**
-	 * Goes 60 * 1000 milliseconds forward as fast as possible
+	 * Goes 60 * 1000 milliseconds forward as fast as possible. If the timer's thread is running, the time slices are executed by it and this method
+	 * returns immediately.
 	 */
 	@Override
-	public synchronized void fastForward() {
-		this.setPausing(true);
+	public void fastForward() {
+		final int targetTime = time + 60 * 1000;
 
-		final int runs = 60 * 1000 / TIME_SLICE;
-		for (int i = 0; i < runs; i++) {
-			executeRun();
+		if (isSchedulerThreadAvailable()) {
+			fastForwardTargetTime = targetTime;
+			setPausing(false);
+			wakeUpScheduler();
+		} else {
+			synchronized (this) {
+				this.setPausing(true);
+				while (time < targetTime) {
+					executeRun();
+				}
+				this.setPausing(false);
+			}
 		}
-
-		this.setPausing(false);
 	}
 
+	/**
+	 * Plays the game as fast as possible to the given game time and pauses it. If the timer's thread is running, the time slices are executed by it
+	 * and the calling thread waits until the target time is reached.
+	 */
 	@Override
-	public synchronized void fastForwardTo(int targetGameTime) {
+	public void fastForwardTo(int targetGameTime) {
 		this.setPausing(true);
 
 		System.out.println("Playing game forward to game time: " + targetGameTime);
 
-		while (time < targetGameTime) {
-			executeRun();
+		if (isSchedulerThreadAvailable()) {
+			synchronized (fastForwardLock) {
+				fastForwardTargetTime = targetGameTime;
+				wakeUpScheduler();
+
+				try {
+					while (fastForwardTargetTime != NO_FAST_FORWARD && !stopped) {
+						fastForwardLock.wait();
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		} else {
+			synchronized (this) {
+				while (time < targetGameTime) {
+					executeRun();
+				}
+			}
 		}
 	}
 
+	private boolean isSchedulerThreadAvailable() {
+		Thread thread = schedulerThread;
+		return thread != null && !stopped && thread != Thread.currentThread();
+	}
+
+	/**
+	 * In headless mode, the timer's thread executes the time slices as fast as possible instead of following the wall clock. This can be used to run
+	 * games without a user interface, e.g. for replays and AI tests.
+	 *
+	 * @param headless
+	 *            true to run the time slices as fast as possible.
+	 */
+	public void setHeadless(boolean headless) {
+		this.headless = headless;
+		wakeUpScheduler();
+	}
+
+	public boolean isHeadless() {
+		return headless;
+	}
+
 	// methods for pausing
 
 	@Override
@@ -294,17 +458,16 @@ public final class NetworkTimer extends TimerTask implements INetworkClientClock
 						+ maxAllowedLockstep + " new: " + tasksPacket.getLockstepNumber();
 
 		if (!tasksPacket.getTasks().isEmpty()) {
-			synchronized (tasks) {
-				System.out.println("Scheduled SyncTasksPacket(" + tasksPacket + " for " + getLockstepText(tasksPacket.getLockstepNumber()));
-				tasks.addLast(tasksPacket);
-				Collections.sort(tasks, tasksByTimeComperator);
-				saveReplayIfNeeded(tasksPacket);
-			}
+			receivedTasks.offer(tasksPacket);
 		}
-		maxAllowedLockstep = Math.max(maxAllowedLockstep, tasksPacket.getLockstepNumber());
 
-		synchronized (lockstepLock) {
-			lockstepLock.notifyAll();
+		if (tasksPacket.getLockstepNumber() > maxAllowedLockstep) {
+			maxAllowedLockstep = tasksPacket.getLockstepNumber();
+
+			Thread waiting = waitingThread;
+			if (waiting != null) {
+				LockSupport.unpark(waiting);
+			}
 		}
 	}
 
@@ -344,12 +507,16 @@ public final class NetworkTimer extends TimerTask implements INetworkClientClock
 
 	@Override
 	public synchronized void saveRemainingTasks(DataOutputStream dos) throws IOException {
-		for (SyncTasksPacket task : tasks) {
-			task.serialize(dos);
-		}
+		takeReceivedTasks();
+		tasks.serialize(dos);
 		dos.flush();
 	}
 
+	@Override
+	public ILockstepStatistics getLockstepStatistics() {
+		return statistics;
+	}
+
 	private void closeReplayLogStreamIfNeeded() {
 		if (replayLogStream != null) {
 			try {
@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.network.synchronic.timer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of tick durations with exponentially growing buckets. Bucket 0 counts durations below {@value #FIRST_BUCKET_MICROS}µs, bucket i counts
+ * durations up to {@value #FIRST_BUCKET_MICROS}µs * 2^i and the last bucket counts everything longer.
+ * <p />
+ * Recording is meant to be done by a single thread, reading is possible from any thread.
+ *
+ * @author agent
+ *
+ */
+public final class TickDurationHistogram {
+	public static final int FIRST_BUCKET_MICROS = 250;
+	public static final int NUMBER_OF_BUCKETS = 12;
+
+	private final AtomicLongArray counts = new AtomicLongArray(NUMBER_OF_BUCKETS);
+	private final AtomicLong totalCount = new AtomicLong();
+	private final AtomicLong maxNanos = new AtomicLong();
+
+	public void record(long durationNanos) {
+		long buckets = TimeUnit.NANOSECONDS.toMicros(durationNanos) / FIRST_BUCKET_MICROS;
+		int bucket = Math.min(64 - Long.numberOfLeadingZeros(buckets), NUMBER_OF_BUCKETS - 1);
+
+		counts.incrementAndGet(bucket);
+		totalCount.incrementAndGet();
+		if (durationNanos > maxNanos.get()) {
+			maxNanos.set(durationNanos);
+		}
+	}
+
+	/**
+	 * @param bucket
+	 *            Index of the bucket.
+	 * @return The exclusive upper bound of the given bucket in nanoseconds or {@link Long#MAX_VALUE} for the last bucket.
+	 */
+	public static long getBucketUpperBoundNanos(int bucket) {
+		if (bucket >= NUMBER_OF_BUCKETS - 1) {
+			return Long.MAX_VALUE;
+		}
+		return TimeUnit.MICROSECONDS.toNanos((long) FIRST_BUCKET_MICROS << bucket);
+	}
+
+	public long getCount(int bucket) {
+		return counts.get(bucket);
+	}
+
+	public long getTotalCount() {
+		return totalCount.get();
+	}
+
+	public long getMaxNanos() {
+		return maxNanos.get();
+	}
+
+	/**
+	 * @param percentile
+	 *            Percentile between 0 and 1.
+	 * @return Upper bound of the bucket containing the given percentile of the recorded durations. For the last bucket, the maximum recorded
+	 *         duration is returned.
+	 */
+	public long getPercentileUpperBoundNanos(double percentile) {
+		long total = totalCount.get();
+		long threshold = (long) Math.ceil(total * percentile);
+		long sum = 0;
+		for (int bucket = 0; bucket < NUMBER_OF_BUCKETS - 1; bucket++) {
+			sum += counts.get(bucket);
+			if (sum >= threshold && sum > 0) {
+				return getBucketUpperBoundNanos(bucket);
+			}
+		}
+		return maxNanos.get();
+	}
+
+	@Override
+	public String toString() {
+		return "ticks: " + totalCount.get() + ", p50 < " + toMillis(getPercentileUpperBoundNanos(0.5)) + "ms, p99 < "
+				+ toMillis(getPercentileUpperBoundNanos(0.99)) + "ms, max: " + toMillis(maxNanos.get()) + "ms";
+	}
+
+	private static float toMillis(long nanos) {
+		return nanos / 1000000f;
+	}
+}
@@ -23,6 +23,7 @@ import jsettlers.network.client.task.packets.SyncTasksPacket;
 import jsettlers.network.client.task.packets.TaskPacket;
 import jsettlers.network.synchronic.timer.INetworkTimerable;
 import jsettlers.network.synchronic.timer.ITaskExecutor;
+import jsettlers.network.synchronic.timer.LockstepStatistics;
 
 /**
  * This class is a mock of the {@link INetworkClientClock} interface.
@@ -36,6 +37,7 @@ public class NetworkClientClockMock implements INetworkClientClock {
 	private LinkedList<TaskPacket> bufferedTasks = new LinkedList<TaskPacket>();
 	private int time;
 	private int maxAllowedLockstep;
+	private final LockstepStatistics statistics = new LockstepStatistics();
 
 	public NetworkClientClockMock() {
 		this(0);
@@ -154,4 +156,9 @@ public class NetworkClientClockMock implements INetworkClientClock {
 		time = targetGameTime;
 	}
 
+	@Override
+	public ILockstepStatistics getLockstepStatistics() {
+		return statistics;
+	}
+
 }
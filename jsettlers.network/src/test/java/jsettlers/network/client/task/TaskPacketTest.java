@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.network.client.task;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.junit.Test;
+
+import jsettlers.network.client.task.packets.ITaskPacketFactory;
+import jsettlers.network.client.task.packets.TaskPacket;
+import jsettlers.network.client.task.packets.TaskPacketRegistry;
+
+/**
+ * Tests the serialization formats of {@link TaskPacket}.
+ * 
+ * @author agent
+ * 
+ */
+public class TaskPacketTest {
+	private static final int REGISTERED_TYPE_ID = 1000;
+
+	public static class RegisteredTestTaskPacket extends TestTaskPacket {
+		public RegisteredTestTaskPacket() {
+		}
+
+		public RegisteredTestTaskPacket(String testString, int testInt, byte testByte) {
+			super(testString, testInt, testByte);
+		}
+	}
+
+	static {
+		TaskPacketRegistry.register(REGISTERED_TYPE_ID, RegisteredTestTaskPacket.class, new ITaskPacketFactory() {
+			@Override
+			public TaskPacket createTaskPacket() {
+				return new RegisteredTestTaskPacket();
+			}
+		});
+	}
+
+	@Test
+	public void testUnregisteredTaskRoundTrip() throws IOException {
+		TestTaskPacket task = new TestTaskPacket("test", 42, (byte) -3);
+		assertEquals(task, roundTrip(task));
+	}
+
+	@Test
+	public void testRegisteredTaskRoundTrip() throws IOException {
+		RegisteredTestTaskPacket task = new RegisteredTestTaskPacket("test", 42, (byte) -3);
+		TaskPacket deserialized = roundTrip(task);
+
+		assertEquals(RegisteredTestTaskPacket.class, deserialized.getClass());
+		assertEquals(task, deserialized);
+		assertTrue(serialize(task).length < serialize(new TestTaskPacket("test", 42, (byte) -3)).length);
+	}
+
+	@Test
+	public void testReadLegacyFormat() throws IOException {
+		ByteArrayOutputStream data = new ByteArrayOutputStream();
+		DataOutputStream dataOut = new DataOutputStream(data);
+		dataOut.writeUTF(TestTaskPacket.class.getName());
+		dataOut.writeUTF("legacy");
+		dataOut.writeInt(4711);
+		dataOut.writeByte(7);
+
+		ByteArrayOutputStream legacy = new ByteArrayOutputStream();
+		DataOutputStream legacyOut = new DataOutputStream(legacy);
+		legacyOut.writeInt(data.size());
+		data.writeTo(legacyOut);
+
+		TaskPacket deserialized = TaskPacket.DEFAULT_DESERIALIZER.deserialize(null, new DataInputStream(new ByteArrayInputStream(legacy.toByteArray())));
+		assertEquals(new TestTaskPacket("legacy", 4711, (byte) 7), deserialized);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testRegisterIdTwice() {
+		TaskPacketRegistry.register(REGISTERED_TYPE_ID, TestTaskPacket.class, new ITaskPacketFactory() {
+			@Override
+			public TaskPacket createTaskPacket() {
+				return new TestTaskPacket();
+			}
+		});
+	}
+
+	private static byte[] serialize(TaskPacket task) throws IOException {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		task.serialize(new DataOutputStream(buffer));
+		return buffer.toByteArray();
+	}
+
+	private static TaskPacket roundTrip(TaskPacket task) throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(serialize(task)));
+		TaskPacket deserialized = TaskPacket.DEFAULT_DESERIALIZER.deserialize(null, in);
+		assertEquals(0, in.available());
+		return deserialized;
+	}
+}
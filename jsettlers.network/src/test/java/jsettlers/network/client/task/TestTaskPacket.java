@@ -40,6 +40,10 @@ public class TestTaskPacket extends TaskPacket {
 		this.testByte = testByte;
 	}
 
+	public String getTestString() {
+		return testString;
+	}
+
 	@Override
 	protected void serializeTask(DataOutputStream dos) throws IOException {
 		dos.writeUTF(testString);
@@ -0,0 +1,298 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.network.infrastructure.channel.nio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import jsettlers.network.NetworkConstants;
+import jsettlers.network.NetworkConstants.ENetworkKey;
+import jsettlers.network.infrastructure.channel.Channel;
+import jsettlers.network.infrastructure.channel.IChannelClosedListener;
+import jsettlers.network.infrastructure.channel.TestPacket;
+import jsettlers.network.infrastructure.channel.TestPacketListener;
+import jsettlers.network.infrastructure.channel.packet.EncodedPacket;
+import jsettlers.network.infrastructure.channel.packet.PacketEncoder;
+import jsettlers.network.infrastructure.channel.socket.ISocketFactory;
+import jsettlers.network.infrastructure.log.LoggerManager;
+
+/**
+ * Test for class {@link NioChannel}.
+ * 
+ * @author agent
+ * 
+ */
+public class NioChannelTest {
+	private SelectorThreadPool selectorThreads;
+	private ServerSocketChannel serverSocketChannel;
+
+	private Channel c1;
+	private Channel c2;
+
+	@Before
+	public void setUp() throws IOException {
+		selectorThreads = new SelectorThreadPool(2, new ByteBufferPool(256, 16));
+		selectorThreads.start();
+
+		serverSocketChannel = ServerSocketChannel.open();
+		serverSocketChannel.socket().bind(new InetSocketAddress("localhost", 0));
+
+		c1 = selectorThreads.createChannel(LoggerManager.ROOT_LOGGER, SocketChannel.open(serverSocketChannel.socket().getLocalSocketAddress()));
+		c2 = selectorThreads.createChannel(LoggerManager.ROOT_LOGGER, serverSocketChannel.accept());
+		c1.start();
+		c2.start();
+		c1.initPinging();
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		c1.close();
+		c2.close();
+		serverSocketChannel.close();
+		selectorThreads.shutdown();
+	}
+
+	@Test
+	public void testConnection() throws Exception {
+		TestPacketListener listener1 = new TestPacketListener(ENetworkKey.TEST_PACKET);
+		TestPacketListener listener2 = new TestPacketListener(ENetworkKey.TEST_PACKET);
+		c1.registerListener(listener1);
+		c2.registerListener(listener2);
+		TestPacket testPackage = new TestPacket("dlkfjs", -23423);
+		c1.sendPacket(ENetworkKey.TEST_PACKET, testPackage);
+		c2.sendPacket(ENetworkKey.TEST_PACKET, testPackage);
+
+		Thread.sleep(80);
+
+		assertEquals(1, listener1.packets.size());
+		assertEquals(testPackage, listener1.packets.get(0));
+
+		assertEquals(1, listener2.packets.size());
+		assertEquals(testPackage, listener2.packets.get(0));
+	}
+
+	@Test
+	public void testMultiPackets() throws Exception {
+		TestPacketListener listener = new TestPacketListener(ENetworkKey.TEST_PACKET);
+		c2.registerListener(listener);
+
+		final int NUMBER_OF_PACKETS = 2000;
+
+		for (int i = 0; i < NUMBER_OF_PACKETS; i++) {
+			c1.sendPacket(ENetworkKey.TEST_PACKET, new TestPacket(i));
+		}
+
+		Thread.sleep(200);
+
+		assertEquals(NUMBER_OF_PACKETS, listener.packets.size());
+
+		for (int i = 0; i < NUMBER_OF_PACKETS; i++) {
+			assertEquals(i, listener.packets.get(i).getTestInt());
+		}
+	}
+
+	@Test
+	public void testPacketsBiggerThanBuffers() throws Exception {
+		TestPacketListener listener = new TestPacketListener(ENetworkKey.TEST_PACKET);
+		c2.registerListener(listener);
+
+		char[] chars = new char[30000];
+		Arrays.fill(chars, 'x');
+		TestPacket bigPacket = new TestPacket(new String(chars), 42);
+
+		c1.sendPacket(ENetworkKey.TEST_PACKET, bigPacket);
+		c1.sendPacket(ENetworkKey.TEST_PACKET, new TestPacket("small", 1));
+		c1.sendPacket(ENetworkKey.TEST_PACKET, bigPacket);
+
+		Thread.sleep(200);
+
+		assertEquals(3, listener.packets.size());
+		assertEquals(bigPacket, listener.packets.get(0));
+		assertEquals(1, listener.packets.get(1).getTestInt());
+		assertEquals(bigPacket, listener.packets.get(2));
+	}
+
+	@Test
+	public void testInteroperabilityWithStreamChannel() throws Exception {
+		Socket socket = new Socket();
+		socket.connect(serverSocketChannel.socket().getLocalSocketAddress());
+		Channel streamChannel = new Channel(ISocketFactory.DEFAULT_FACTORY.generateSocket(socket));
+		Channel nioChannel = selectorThreads.createChannel(LoggerManager.ROOT_LOGGER, serverSocketChannel.accept());
+		streamChannel.start();
+		nioChannel.start();
+
+		try {
+			TestPacketListener streamListener = new TestPacketListener(ENetworkKey.TEST_PACKET);
+			TestPacketListener nioListener = new TestPacketListener(ENetworkKey.TEST_PACKET);
+			streamChannel.registerListener(streamListener);
+			nioChannel.registerListener(nioListener);
+
+			streamChannel.sendPacket(ENetworkKey.TEST_PACKET, new TestPacket("stream", 1));
+			nioChannel.sendPacket(ENetworkKey.TEST_PACKET, new TestPacket("nio", 2));
+
+			Thread.sleep(80);
+
+			assertEquals(1, nioListener.packets.size());
+			assertEquals(new TestPacket("stream", 1), nioListener.packets.get(0));
+			assertEquals(1, streamListener.packets.size());
+			assertEquals(new TestPacket("nio", 2), streamListener.packets.get(0));
+		} finally {
+			streamChannel.close();
+			nioChannel.close();
+		}
+	}
+
+	@Test
+	public void testEncodedPacketToSeveralChannels() throws Exception {
+		Socket socket = new Socket();
+		socket.connect(serverSocketChannel.socket().getLocalSocketAddress());
+		Channel streamChannel = new Channel(ISocketFactory.DEFAULT_FACTORY.generateSocket(socket));
+		Channel c3 = selectorThreads.createChannel(LoggerManager.ROOT_LOGGER, serverSocketChannel.accept());
+		streamChannel.start();
+		c3.start();
+
+		try {
+			TestPacketListener listener1 = new TestPacketListener(ENetworkKey.TEST_PACKET);
+			TestPacketListener streamListener = new TestPacketListener(ENetworkKey.TEST_PACKET);
+			c1.registerListener(listener1);
+			streamChannel.registerListener(streamListener);
+
+			TestPacket testPacket = new TestPacket("broadcast", 42);
+			EncodedPacket encodedPacket = new PacketEncoder(selectorThreads.getBufferPool()).encode(ENetworkKey.TEST_PACKET, testPacket);
+			c2.sendEncodedPacket(encodedPacket.retain());
+			c3.sendEncodedPacket(encodedPacket.retain());
+			encodedPacket.release();
+
+			Thread.sleep(80);
+
+			assertEquals(0, encodedPacket.getReferenceCount());
+			assertEquals(1, listener1.packets.size());
+			assertEquals(testPacket, listener1.packets.get(0));
+			assertEquals(1, streamListener.packets.size());
+			assertEquals(testPacket, streamListener.packets.get(0));
+		} finally {
+			streamChannel.close();
+			c3.close();
+		}
+	}
+
+	@Test
+	public void testTooLongPacketClosesChannel() throws Exception {
+		assertInvalidLengthClosesChannel(NetworkConstants.Server.NIO_MAX_PACKET_LENGTH + 1);
+		assertInvalidLengthClosesChannel(Integer.MAX_VALUE);
+	}
+
+	@Test
+	public void testNegativePacketLengthClosesChannel() throws Exception {
+		assertInvalidLengthClosesChannel(-1);
+	}
+
+	private void assertInvalidLengthClosesChannel(int length) throws Exception {
+		Socket socket = new Socket();
+		socket.connect(serverSocketChannel.socket().getLocalSocketAddress());
+		Channel nioChannel = selectorThreads.createChannel(LoggerManager.ROOT_LOGGER, serverSocketChannel.accept());
+		nioChannel.start();
+
+		try {
+			DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+			out.writeByte(ENetworkKey.TEST_PACKET.ordinal());
+			out.writeInt(length);
+			out.flush();
+
+			Thread.sleep(80);
+
+			assertTrue(nioChannel.isClosed());
+		} finally {
+			nioChannel.close();
+			socket.close();
+		}
+	}
+
+	@Test
+	public void testRoundTripTime() throws InterruptedException {
+		Thread.sleep(100);
+
+		assertTrue(System.currentTimeMillis() - c1.getRoundTripTime().getLastUpdated() < 100);
+		assertTrue(System.currentTimeMillis() - c2.getRoundTripTime().getLastUpdated() < 100);
+	}
+
+	@Test
+	public void testCloseOneSide() throws InterruptedException {
+		assertFalse(c1.isClosed());
+		assertFalse(c2.isClosed());
+
+		c1.close();
+		assertTrue(c1.isClosed());
+
+		Thread.sleep(40);
+		assertTrue(c2.isClosed());
+	}
+
+	@Test
+	public void testChannelClosedListener() throws InterruptedException {
+		final int[] closed = new int[2];
+
+		c1.setChannelClosedListener(new IChannelClosedListener() {
+			@Override
+			public void channelClosed() {
+				closed[0]++;
+			}
+		});
+		c2.setChannelClosedListener(new IChannelClosedListener() {
+			@Override
+			public void channelClosed() {
+				closed[1]++;
+			}
+		});
+
+		c1.close();
+		c1.close();
+
+		Thread.sleep(50);
+		assertEquals(1, closed[0]);
+		assertEquals(1, closed[1]);
+	}
+
+	@Test
+	public void testSendingOnClosedChannel() {
+		c1.close();
+		c2.close();
+
+		c1.sendPacket(ENetworkKey.TEST_PACKET, new TestPacket("sdfsdf", 1434));
+		c2.sendPacket(ENetworkKey.TEST_PACKET, new TestPacket("dsfsw", 32423));
+	}
+
+	@Test
+	public void testBuffersAreReturnedToPool() throws InterruptedException {
+		c1.close();
+		c2.close();
+		Thread.sleep(50);
+
+		assertTrue(selectorThreads.getBufferPool().getNumberOfPooledBuffers() >= 2); // at least both read buffers
+	}
+}
@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.network.infrastructure.channel.packet;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.junit.Test;
+
+import jsettlers.network.NetworkConstants.ENetworkKey;
+import jsettlers.network.infrastructure.channel.TestPacket;
+import jsettlers.network.infrastructure.channel.nio.ByteBufferPool;
+
+/**
+ * Test for the classes {@link PacketEncoder} and {@link EncodedPacket}.
+ * 
+ * @author agent
+ * 
+ */
+public class EncodedPacketTest {
+
+	@Test
+	public void testFrameFormat() throws IOException {
+		TestPacket packet = new TestPacket("test", 4711);
+
+		ByteArrayOutputStream expected = new ByteArrayOutputStream();
+		DataOutputStream expectedOut = new DataOutputStream(expected);
+		ByteArrayOutputStream data = new ByteArrayOutputStream();
+		packet.serialize(new DataOutputStream(data));
+		ENetworkKey.TEST_PACKET.writeTo(expectedOut);
+		expectedOut.writeInt(data.size());
+		data.writeTo(expectedOut);
+
+		assertFrame(expected.toByteArray(), new PacketEncoder(null).encode(ENetworkKey.TEST_PACKET, packet));
+		assertFrame(expected.toByteArray(), new PacketEncoder(new ByteBufferPool(64, 2)).encode(ENetworkKey.TEST_PACKET, packet));
+	}
+
+	private static void assertFrame(byte[] expected, EncodedPacket encodedPacket) throws IOException {
+		assertEquals(expected.length, encodedPacket.getLength());
+
+		ByteArrayOutputStream written = new ByteArrayOutputStream();
+		encodedPacket.writeTo(written);
+		encodedPacket.writeTo(written);
+		byte[] twice = new byte[2 * expected.length];
+		System.arraycopy(expected, 0, twice, 0, expected.length);
+		System.arraycopy(expected, 0, twice, expected.length, expected.length);
+		assertArrayEquals(twice, written.toByteArray());
+	}
+
+	@Test
+	public void testBufferIsReleasedWithLastReference() throws IOException {
+		ByteBufferPool pool = new ByteBufferPool(64, 2);
+		EncodedPacket packet = new PacketEncoder(pool).encode(ENetworkKey.TEST_PACKET, new TestPacket("test", 1));
+
+		packet.retain();
+		packet.retain();
+		packet.release();
+		packet.release();
+		assertEquals(0, pool.getNumberOfPooledBuffers());
+
+		packet.release();
+		assertEquals(0, packet.getReferenceCount());
+		assertEquals(1, pool.getNumberOfPooledBuffers());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testRetainAfterRelease() throws IOException {
+		EncodedPacket packet = new PacketEncoder(null).encode(ENetworkKey.TEST_PACKET, new TestPacket("test", 1));
+		packet.release();
+		packet.retain();
+	}
+
+	@Test
+	public void testStatistics() throws IOException {
+		PacketEncoder encoder = new PacketEncoder(null);
+		EncodedPacket first = encoder.encode(ENetworkKey.TEST_PACKET, new TestPacket("test", 1));
+		EncodedPacket second = encoder.encode(ENetworkKey.TEST_PACKET, new TestPacket("test2", 2));
+
+		assertEquals(2, encoder.getEncodedPackets());
+		assertEquals(first.getLength() + second.getLength(), encoder.getEncodedBytes());
+	}
+}
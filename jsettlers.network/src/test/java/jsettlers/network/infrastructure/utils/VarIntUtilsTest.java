@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.network.infrastructure.utils;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Test for class {@link VarIntUtils}.
+ * 
+ * @author agent
+ * 
+ */
+public class VarIntUtilsTest {
+	private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+	private final DataOutputStream out = new DataOutputStream(buffer);
+
+	private DataInputStream getInput() {
+		return new DataInputStream(new ByteArrayInputStream(buffer.toByteArray()));
+	}
+
+	@Test
+	public void testUnsignedRoundTrip() throws IOException {
+		int[] values = { 0, 1, 127, 128, 16383, 16384, 1 << 21, Integer.MAX_VALUE, -1, Integer.MIN_VALUE };
+		for (int value : values) {
+			VarIntUtils.writeUnsignedVarInt(out, value);
+		}
+
+		DataInputStream in = getInput();
+		for (int value : values) {
+			assertEquals(value, VarIntUtils.readUnsignedVarInt(in));
+		}
+		assertEquals(0, in.available());
+	}
+
+	@Test
+	public void testSignedRoundTrip() throws IOException {
+		int[] values = { 0, 1, -1, 63, -64, 64, -65, Integer.MAX_VALUE, Integer.MIN_VALUE };
+		for (int value : values) {
+			VarIntUtils.writeSignedVarInt(out, value);
+		}
+
+		DataInputStream in = getInput();
+		for (int value : values) {
+			assertEquals(value, VarIntUtils.readSignedVarInt(in));
+		}
+		assertEquals(0, in.available());
+	}
+
+	@Test
+	public void testEncodedSizes() throws IOException {
+		VarIntUtils.writeUnsignedVarInt(out, 127);
+		assertEquals(1, buffer.size());
+		VarIntUtils.writeUnsignedVarInt(out, 128);
+		assertEquals(3, buffer.size());
+		VarIntUtils.writeSignedVarInt(out, -64);
+		assertEquals(4, buffer.size());
+	}
+
+	@Test
+	public void testDeltaEncodedIds() throws IOException {
+		List<Integer> ids = Arrays.asList(100000, 100001, 100003, 99990, 5, 2000000);
+		VarIntUtils.writeDeltaEncodedIds(out, ids);
+
+		assertEquals(ids, VarIntUtils.readDeltaEncodedIds(getInput()));
+		assertEquals(1 + 3 + 1 + 1 + 1 + 3 + 4, buffer.size());
+	}
+}
@@ -0,0 +1,210 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.network.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import jsettlers.network.NetworkConstants;
+import jsettlers.network.NetworkConstants.ENetworkKey;
+import jsettlers.network.common.packets.BooleanMessagePacket;
+import jsettlers.network.common.packets.IdPacket;
+import jsettlers.network.common.packets.MapInfoPacket;
+import jsettlers.network.common.packets.MatchInfoUpdatePacket;
+import jsettlers.network.common.packets.OpenNewMatchPacket;
+import jsettlers.network.common.packets.PlayerInfoPacket;
+import jsettlers.network.common.packets.TimeSyncPacket;
+import jsettlers.network.infrastructure.channel.Channel;
+import jsettlers.network.infrastructure.channel.IChannelListener;
+import jsettlers.network.infrastructure.channel.packet.EmptyPacket;
+import jsettlers.network.server.packets.ServersideTaskPacket;
+
+/**
+ * Load test of the {@link GameServerThread}. Hundreds of loopback clients log in, play in matches of {@link #PLAYERS_PER_MATCH} players and send
+ * time syncs and tasks like real clients do. The test checks that every client keeps receiving the lockstep packets of its match and that the
+ * server does not need a thread per client.
+ * 
+ * @author agent
+ * 
+ */
+public class GameServerLoadIT {
+	private static final int NUMBER_OF_MATCHES = 64;
+	private static final int PLAYERS_PER_MATCH = 4;
+	private static final int TEST_DURATION_MS = 10000;
+
+	private GameServerThread server;
+	private final List<LoadTestClient> clients = new ArrayList<LoadTestClient>();
+
+	@Before
+	public void setUp() throws IOException {
+		server = new GameServerThread(false, 0);
+		server.start();
+	}
+
+	@After
+	public void tearDown() {
+		for (LoadTestClient client : clients) {
+			client.channel.close();
+		}
+		server.shutdown();
+	}
+
+	@Test
+	public void testManyClients() throws Exception {
+		int threadsBefore = countServerThreads();
+
+		for (int match = 0; match < NUMBER_OF_MATCHES; match++) {
+			setUpMatch(match);
+		}
+		assertEquals(NUMBER_OF_MATCHES * PLAYERS_PER_MATCH, server.getNumberOfConnectedChannels());
+		int serverThreads = countServerThreads() - threadsBefore;
+
+		long start = System.currentTimeMillis();
+		long elapsed;
+		int sentTasks = 0;
+		while ((elapsed = System.currentTimeMillis() - start) < TEST_DURATION_MS) {
+			for (LoadTestClient client : clients) {
+				client.channel.sendPacket(ENetworkKey.TIME_SYNC, new TimeSyncPacket((int) elapsed));
+				client.channel.sendPacket(ENetworkKey.SYNCHRONOUS_TASK, new ServersideTaskPacket(new byte[16]));
+				sentTasks++;
+			}
+			Thread.sleep(NetworkConstants.Client.TIME_SYNC_SEND_INTERVALL);
+		}
+
+		Thread.sleep(500);
+
+		int minLocksteps = Integer.MAX_VALUE;
+		long receivedLocksteps = 0;
+		for (LoadTestClient client : clients) {
+			int locksteps = client.receivedLocksteps.get();
+			minLocksteps = Math.min(minLocksteps, locksteps);
+			receivedLocksteps += locksteps;
+		}
+		int expectedLocksteps = TEST_DURATION_MS / NetworkConstants.Client.LOCKSTEP_PERIOD;
+
+		System.out.println("clients: " + clients.size() + "   server threads for clients: " + serverThreads + "   sent tasks: " + sentTasks);
+		System.out.println("lockstep packets per client: min " + minLocksteps + "   avg " + receivedLocksteps / clients.size() + "   expected about "
+				+ expectedLocksteps);
+
+		assertTrue(serverThreads <= NetworkConstants.Server.SELECTOR_THREADS + NetworkConstants.Server.MATCH_SCHEDULER_THREADS);
+		assertTrue(minLocksteps >= expectedLocksteps * 0.8f);
+	}
+
+	private void setUpMatch(int match) throws Exception {
+		LoadTestClient host = new LoadTestClient("m" + match + "-p0");
+		host.channel.sendPacket(ENetworkKey.REQUEST_OPEN_NEW_MATCH,
+				new OpenNewMatchPacket("match" + match, PLAYERS_PER_MATCH, new MapInfoPacket("map", "map", "author", "author", PLAYERS_PER_MATCH), match));
+		String matchId = host.awaitMatchId();
+
+		for (int player = 1; player < PLAYERS_PER_MATCH; player++) {
+			LoadTestClient client = new LoadTestClient("m" + match + "-p" + player);
+			client.channel.sendPacket(ENetworkKey.REQUEST_JOIN_MATCH, new IdPacket(matchId));
+			client.channel.sendPacket(ENetworkKey.CHANGE_READY_STATE, new BooleanMessagePacket(true));
+		}
+
+		host.awaitAllPlayersReady();
+		host.channel.sendPacket(ENetworkKey.REQUEST_START_MATCH, new EmptyPacket());
+
+		for (LoadTestClient client : clients.subList(clients.size() - PLAYERS_PER_MATCH, clients.size())) {
+			assertTrue(client.matchStarted.await(10, TimeUnit.SECONDS));
+		}
+	}
+
+	private static int countServerThreads() {
+		int threads = 0;
+		Set<Thread> allThreads = Thread.getAllStackTraces().keySet();
+		for (Thread thread : allThreads) {
+			if (!thread.getName().startsWith("ChannelForSocket")) { // the receiver threads of the clients
+				threads++;
+			}
+		}
+		return threads;
+	}
+
+	private class LoadTestClient implements IChannelListener {
+		private final Channel channel;
+		private final AtomicInteger receivedLocksteps = new AtomicInteger();
+		private final CountDownLatch matchStarted = new CountDownLatch(1);
+		private final CountDownLatch allPlayersReady = new CountDownLatch(1);
+		private final CountDownLatch matchOpened = new CountDownLatch(1);
+		private volatile String matchId;
+
+		LoadTestClient(String id) throws IOException {
+			channel = new Channel("localhost", server.getPort());
+			channel.registerListener(this);
+			channel.start();
+			channel.sendPacket(ENetworkKey.IDENTIFY_USER, new PlayerInfoPacket(id, id, true));
+			clients.add(this);
+		}
+
+		String awaitMatchId() throws InterruptedException {
+			assertTrue(matchOpened.await(10, TimeUnit.SECONDS));
+			return matchId;
+		}
+
+		void awaitAllPlayersReady() throws InterruptedException {
+			assertTrue(allPlayersReady.await(10, TimeUnit.SECONDS));
+		}
+
+		@Override
+		public ENetworkKey[] getKeys() {
+			return new ENetworkKey[] { ENetworkKey.ARRAY_OF_MATCHES, ENetworkKey.MATCH_INFO_UPDATE, ENetworkKey.MATCH_STARTED, ENetworkKey.TIME_SYNC,
+					ENetworkKey.SYNCHRONOUS_TASK, ENetworkKey.REJECT_PACKET };
+		}
+
+		@Override
+		public void receive(ENetworkKey key, int length, DataInputStream stream) throws Exception {
+			switch (key) {
+			case MATCH_INFO_UPDATE:
+				MatchInfoUpdatePacket update = new MatchInfoUpdatePacket();
+				update.deserialize(stream);
+				matchId = update.getMatchInfo().getId();
+				matchOpened.countDown();
+
+				PlayerInfoPacket[] players = update.getMatchInfo().getPlayers();
+				boolean allReady = players.length == PLAYERS_PER_MATCH;
+				for (PlayerInfoPacket player : players) {
+					allReady &= player.isReady();
+				}
+				if (allReady) {
+					allPlayersReady.countDown();
+				}
+				return;
+			case MATCH_STARTED:
+				matchStarted.countDown();
+				break;
+			case SYNCHRONOUS_TASK:
+				receivedLocksteps.incrementAndGet();
+				break;
+			default:
+				break;
+			}
+			stream.skipBytes(length);
+		}
+	}
+}
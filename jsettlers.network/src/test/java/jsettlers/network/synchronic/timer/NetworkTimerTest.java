@@ -0,0 +1,224 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.network.synchronic.timer;
+
+import static jsettlers.network.synchronic.timer.NetworkTimer.TIME_SLICE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import jsettlers.network.NetworkConstants;
+import jsettlers.network.client.ILockstepStatistics;
+import jsettlers.network.client.task.TestTaskPacket;
+import jsettlers.network.client.task.packets.SyncTasksPacket;
+import jsettlers.network.client.task.packets.TaskPacket;
+
+/**
+ * Tests the scheduling of {@link SyncTasksPacket}s in the {@link NetworkTimer}.
+ *
+ * @author agent
+ *
+ */
+public class NetworkTimerTest {
+
+	private final NetworkTimer timer = new NetworkTimer(true);
+	private final List<String> executions = Collections.synchronizedList(new ArrayList<String>());
+	private final List<String> executingThreads = Collections.synchronizedList(new ArrayList<String>());
+	private long slowTaskDuration = 0;
+
+	public NetworkTimerTest() {
+		timer.setTaskExecutor(new ITaskExecutor() {
+			@Override
+			public void executeTask(TaskPacket task) {
+				executions.add(((TestTaskPacket) task).getTestString() + "@" + timer.getTime() / NetworkConstants.Client.LOCKSTEP_PERIOD);
+				executingThreads.add(Thread.currentThread().getName());
+				sleep(slowTaskDuration);
+			}
+		});
+	}
+
+	@After
+	public void tearDown() {
+		timer.stopExecution();
+	}
+
+	@Test
+	public void testExecutionOrder() {
+		timer.scheduleSyncTasksPacket(createPacket(5, "a"));
+		timer.scheduleSyncTasksPacket(createPacket(3, "b"));
+		timer.scheduleSyncTasksPacket(createPacket(5, "c", "d"));
+		timer.scheduleSyncTasksPacket(createPacket(5000, "e")); // beyond the ring
+		timer.scheduleSyncTasksPacket(createPacket(LockstepTaskRing.DEFAULT_CAPACITY + 6, "f"));
+		timer.scheduleSyncTasksPacket(createPacket(5000, "g"));
+
+		timer.fastForwardTo(5001 * NetworkConstants.Client.LOCKSTEP_PERIOD);
+
+		assertEquals(Arrays.asList("b@3", "a@5", "c@5", "d@5", "f@" + (LockstepTaskRing.DEFAULT_CAPACITY + 6), "e@5000", "g@5000"), executions);
+
+		ILockstepStatistics statistics = timer.getLockstepStatistics();
+		assertEquals(5001, statistics.getExecutedLocksteps());
+		assertEquals(6, statistics.getExecutedPackets());
+		assertEquals(7, statistics.getExecutedTasks());
+		assertEquals(2, statistics.getMaxPacketsPerLockstep());
+		assertEquals(3, statistics.getMaxTasksPerLockstep());
+		assertEquals(0, statistics.getLockstepWaits());
+	}
+
+	@Test
+	public void testTasksScheduledDuringExecution() {
+		timer.scheduleSyncTasksPacket(createPacket(2, "a"));
+		timer.fastForwardTo(3 * NetworkConstants.Client.LOCKSTEP_PERIOD);
+		timer.scheduleSyncTasksPacket(createPacket(4, "b"));
+		timer.scheduleSyncTasksPacket(createPacket(3, "c"));
+		timer.fastForwardTo(5 * NetworkConstants.Client.LOCKSTEP_PERIOD);
+
+		assertEquals(Arrays.asList("a@2", "c@3", "b@4"), executions);
+	}
+
+	@Test
+	public void testSaveRemainingTasks() throws IOException {
+		timer.scheduleSyncTasksPacket(createPacket(1, "a"));
+		timer.scheduleSyncTasksPacket(createPacket(5000, "b"));
+		timer.scheduleSyncTasksPacket(createPacket(20, "c"));
+		timer.scheduleSyncTasksPacket(createPacket(20, "d"));
+		timer.fastForwardTo(10 * NetworkConstants.Client.LOCKSTEP_PERIOD);
+		timer.scheduleSyncTasksPacket(createPacket(15, "e"));
+
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		timer.saveRemainingTasks(new DataOutputStream(buffer));
+
+		DataInputStream dis = new DataInputStream(new ByteArrayInputStream(buffer.toByteArray()));
+		List<String> savedTasks = new ArrayList<String>();
+		while (dis.available() > 0) {
+			SyncTasksPacket packet = new SyncTasksPacket();
+			packet.deserialize(dis);
+			savedTasks.add(((TestTaskPacket) packet.getTasks().get(0)).getTestString() + "@" + packet.getLockstepNumber());
+		}
+
+		assertEquals(Arrays.asList("e@15", "c@20", "d@20", "b@5000"), savedTasks);
+		assertEquals(Arrays.asList("a@1"), executions);
+	}
+
+	@Test(timeout = 10000)
+	public void testWaitingForLockstep() throws InterruptedException {
+		final NetworkTimer lockstepTimer = new NetworkTimer();
+		Thread clockThread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				lockstepTimer.fastForwardTo(3 * NetworkConstants.Client.LOCKSTEP_PERIOD);
+			}
+		});
+		clockThread.start();
+
+		for (int lockstep = 0; lockstep <= 3; lockstep++) {
+			Thread.sleep(20);
+			lockstepTimer.scheduleSyncTasksPacket(new SyncTasksPacket(lockstep, Collections.<TaskPacket> emptyList()));
+		}
+		clockThread.join();
+
+		ILockstepStatistics statistics = lockstepTimer.getLockstepStatistics();
+		assertEquals(3 * NetworkConstants.Client.LOCKSTEP_PERIOD, lockstepTimer.getTime());
+		assertTrue(statistics.getLockstepWaits() > 0);
+		assertTrue(statistics.getLockstepWaitTimeNanos() >= statistics.getMaxLockstepWaitTimeNanos());
+		assertTrue(statistics.getMaxLockstepWaitTimeNanos() > 0);
+	}
+
+	@Test(timeout = 10000)
+	public void testFastForwardToIsExecutedByTimerThread() {
+		timer.setPausing(true);
+		timer.startExecution();
+		timer.scheduleSyncTasksPacket(createPacket(50, "a"));
+
+		timer.fastForwardTo(100 * NetworkConstants.Client.LOCKSTEP_PERIOD);
+
+		assertEquals(100 * NetworkConstants.Client.LOCKSTEP_PERIOD, timer.getTime());
+		assertTrue(timer.isPausing());
+		assertEquals(Arrays.asList("a@50"), executions);
+		assertEquals(Arrays.asList("NetworkTimer"), executingThreads);
+	}
+
+	@Test(timeout = 10000)
+	public void testCatchUpAfterSlowTimeSlice() throws InterruptedException {
+		slowTaskDuration = 4 * TIME_SLICE;
+		timer.scheduleSyncTasksPacket(createPacket(1, "slow"));
+		timer.startExecution();
+
+		while (timer.getTime() < 10 * TIME_SLICE) {
+			Thread.sleep(TIME_SLICE);
+		}
+
+		ILockstepStatistics statistics = timer.getLockstepStatistics();
+		assertTrue(statistics.getCatchUpSlices() > 0);
+		assertEquals(0, statistics.getCatchUpLimitHits());
+		assertTrue(statistics.getTickDurations().getMaxNanos() >= TimeUnit.MILLISECONDS.toNanos(slowTaskDuration));
+	}
+
+	@Test(timeout = 10000)
+	public void testCatchUpLimit() throws InterruptedException {
+		slowTaskDuration = 3 * NetworkTimer.MAX_CATCH_UP_SLICES * TIME_SLICE;
+		timer.scheduleSyncTasksPacket(createPacket(1, "slow"));
+		timer.startExecution();
+
+		while (executions.isEmpty() || timer.getTime() < 5 * TIME_SLICE) {
+			Thread.sleep(TIME_SLICE);
+		}
+
+		assertEquals(1, timer.getLockstepStatistics().getCatchUpLimitHits());
+	}
+
+	@Test(timeout = 10000)
+	public void testHeadlessMode() throws InterruptedException {
+		timer.setHeadless(true);
+		timer.startExecution();
+
+		while (timer.getTime() < 1000 * TIME_SLICE) {
+			Thread.sleep(10);
+		}
+		timer.setPausing(true);
+
+		assertTrue(timer.getLockstepStatistics().getTickDurations().getTotalCount() >= 1000);
+	}
+
+	private static void sleep(long millis) {
+		if (millis > 0) {
+			try {
+				Thread.sleep(millis);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	private static SyncTasksPacket createPacket(int lockstep, String... names) {
+		List<TaskPacket> tasks = new ArrayList<TaskPacket>();
+		for (String name : names) {
+			tasks.add(new TestTaskPacket(name, lockstep, (byte) 0));
+		}
+		return new SyncTasksPacket(lockstep, tasks);
+	}
+}
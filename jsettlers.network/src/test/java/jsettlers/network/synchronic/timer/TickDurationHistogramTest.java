@@ -0,0 +1,60 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.network.synchronic.timer;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Tests the buckets of the {@link TickDurationHistogram}.
+ *
+ * @author agent
+ *
+ */
+public class TickDurationHistogramTest {
+
+	@Test
+	public void testBuckets() {
+		TickDurationHistogram histogram = new TickDurationHistogram();
+		histogram.record(TimeUnit.MICROSECONDS.toNanos(100));
+		histogram.record(TimeUnit.MICROSECONDS.toNanos(300));
+		histogram.record(TimeUnit.MILLISECONDS.toNanos(3));
+		histogram.record(TimeUnit.MILLISECONDS.toNanos(3));
+		histogram.record(TimeUnit.SECONDS.toNanos(10));
+
+		assertEquals(5, histogram.getTotalCount());
+		assertEquals(1, histogram.getCount(0));
+		assertEquals(1, histogram.getCount(1));
+		assertEquals(2, histogram.getCount(4));
+		assertEquals(1, histogram.getCount(TickDurationHistogram.NUMBER_OF_BUCKETS - 1));
+		assertEquals(TimeUnit.SECONDS.toNanos(10), histogram.getMaxNanos());
+	}
+
+	@Test
+	public void testPercentiles() {
+		TickDurationHistogram histogram = new TickDurationHistogram();
+		for (int i = 0; i < 99; i++) {
+			histogram.record(TimeUnit.MICROSECONDS.toNanos(600));
+		}
+		histogram.record(TimeUnit.MILLISECONDS.toNanos(100));
+
+		assertEquals(TimeUnit.MILLISECONDS.toNanos(1), histogram.getPercentileUpperBoundNanos(0.5));
+		assertEquals(TimeUnit.MILLISECONDS.toNanos(1), histogram.getPercentileUpperBoundNanos(0.99));
+		assertEquals(TimeUnit.MILLISECONDS.toNanos(128), histogram.getPercentileUpperBoundNanos(1));
+	}
+}
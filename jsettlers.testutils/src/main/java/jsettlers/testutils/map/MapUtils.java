@@ -16,6 +16,7 @@ package jsettlers.testutils.map;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -25,11 +26,15 @@ import jsettlers.common.map.MapLoadException;
 import jsettlers.input.PlayerState;
 import jsettlers.logic.constants.ExtendedRandom;
 import jsettlers.logic.constants.MatchConstants;
+import jsettlers.logic.constants.MatchContext;
+import jsettlers.logic.map.loading.IGameCreator.MainGridWithUiSettings;
 import jsettlers.logic.map.loading.MapLoader;
 import jsettlers.logic.map.grid.MainGrid;
 import jsettlers.logic.map.loading.newmap.MapFileHeader;
 import jsettlers.logic.map.loading.list.MapList;
 import jsettlers.logic.map.loading.newmap.RemakeMapLoader;
+import jsettlers.logic.player.PlayerSetting;
+import jsettlers.main.JSettlersGame;
 import jsettlers.main.ReplayStartInformation;
 import jsettlers.main.replay.ReplayUtils;
 import jsettlers.network.synchronic.timer.NetworkTimer;
@@ -78,6 +83,50 @@ public final class MapUtils {
 		}
 	}
 
+	/**
+	 * Loads both savegames and compares the state of the games by value. In contrast to {@link #compareMapFiles(MapLoader, MapLoader)}, savegames
+	 * of games that have been restored from a savegame in between can be compared, as differently shared equal objects are ignored.
+	 */
+	public static void compareMapStates(MapLoader expectedSavegame, MapLoader actualSavegame) throws MapLoadException {
+		System.out.println("Comparing state of expected '" + expectedSavegame + "' with actual '" + actualSavegame + "'");
+
+		MatchContext expectedContext = new MatchContext();
+		MatchContext actualContext = new MatchContext();
+		try {
+			Object[] expectedState = loadState(expectedSavegame, expectedContext);
+			Object[] actualState = loadState(actualSavegame, actualContext);
+
+			String difference = ObjectGraphComparator.findDifference(expectedState, actualState);
+			assertNull(difference, difference);
+		} finally {
+			clearState(expectedContext);
+			clearState(actualContext);
+		}
+	}
+
+	private static Object[] loadState(MapLoader savegame, MatchContext context) throws MapLoadException {
+		MatchContext.bind(context);
+		try {
+			MatchConstants.init(new NetworkTimer(true), 0L);
+			MainGridWithUiSettings loaded = savegame.loadMainGrid(PlayerSetting.createDefaultSettings((byte) 0, (byte) savegame.getMaxPlayers()));
+			loaded.getMainGrid().stopThreads();
+
+			return new Object[] { MatchConstants.clock().getTime(), MatchConstants.random(), MatchConstants.aiRandom(), context.getRescheduleTimer(),
+					loaded.getMainGrid(), loaded.getPlayerStates() };
+		} finally {
+			MatchContext.unbind();
+		}
+	}
+
+	private static void clearState(MatchContext context) {
+		MatchContext.bind(context);
+		try {
+			JSettlersGame.clearState();
+		} finally {
+			MatchContext.unbind();
+		}
+	}
+
 	public static MapLoader saveMainGrid(MainGrid mainGrid, PlayerState[] playerStates) {
 		try {
 			System.out.println("Writing savegame with final state of failed test.");
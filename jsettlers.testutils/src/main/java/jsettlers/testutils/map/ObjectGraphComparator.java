@@ -0,0 +1,275 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.testutils.map;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import jsettlers.common.position.ShortPoint2D;
+
+/**
+ * Compares the serialized state of two object graphs by value.
+ * <p>
+ * In contrast to comparing the serialized bytes, it doesn't matter if equal immutable objects are shared in one graph but not in the other, or in
+ * which order hash based collections store their elements. Transient and static fields are ignored.
+ * 
+ * @author agent
+ * 
+ */
+public final class ObjectGraphComparator {
+	private static final HashMap<Class<?>, Field[]> FIELDS_CACHE = new HashMap<>();
+
+	private final IdentityHashMap<Object, Object> comparedPairs = new IdentityHashMap<>();
+	private final ArrayDeque<ComparedPair> pairsToCompare = new ArrayDeque<>();
+
+	private ObjectGraphComparator() {
+	}
+
+	/**
+	 * Compares the given object graphs.
+	 * 
+	 * @param expected
+	 * @param actual
+	 * @return null if the graphs are equal, otherwise a description of the first found difference.
+	 */
+	public static String findDifference(Object expected, Object actual) {
+		return new ObjectGraphComparator().compare(new ComparedPair(null, "root", expected, actual));
+	}
+
+	private String compare(ComparedPair root) {
+		pairsToCompare.push(root);
+
+		while (!pairsToCompare.isEmpty()) {
+			ComparedPair pair = pairsToCompare.pop();
+			String difference = compareValues(pair);
+			if (difference != null) {
+				return difference + " at " + pair.getPath();
+			}
+		}
+		return null;
+	}
+
+	private String compareValues(ComparedPair pair) {
+		Object expected = pair.expected;
+		Object actual = pair.actual;
+
+		if (expected == null || actual == null) {
+			return expected == actual ? null : "expected " + expected + " but was " + actual;
+		}
+		if (expected.getClass() != actual.getClass()) {
+			return "expected class " + expected.getClass().getName() + " but was " + actual.getClass().getName();
+		}
+		if (isValue(expected)) {
+			return expected.equals(actual) ? null : "expected " + expected + " but was " + actual;
+		}
+		if (!markCompared(expected, actual)) {
+			return null;
+		}
+
+		Class<?> type = expected.getClass();
+		if (type.isArray()) {
+			return compareArrays(pair, expected, actual);
+		} else if (expected instanceof Map) {
+			return compareMaps(pair, (Map<?, ?>) expected, (Map<?, ?>) actual);
+		} else if (expected instanceof Set) {
+			return compareSets(pair, (Set<?>) expected, (Set<?>) actual);
+		} else if (expected instanceof Collection) {
+			return compareInOrder(pair, ((Collection<?>) expected).iterator(), ((Collection<?>) actual).iterator(),
+					((Collection<?>) expected).size(), ((Collection<?>) actual).size());
+		} else {
+			return compareFields(pair, expected, actual);
+		}
+	}
+
+	/**
+	 * @return true if the given pair has not been compared before.
+	 */
+	private boolean markCompared(Object expected, Object actual) {
+		Object comparedActual = comparedPairs.get(expected);
+		if (comparedActual == null) {
+			comparedPairs.put(expected, actual);
+			return true;
+		}
+		return comparedActual != actual; // an expected object shared in the graph is compared again with every different actual object
+	}
+
+	private static boolean isValue(Object object) {
+		return object instanceof String || object instanceof Integer || object instanceof Long || object instanceof Short || object instanceof Byte
+				|| object instanceof Float || object instanceof Double || object instanceof Boolean || object instanceof Character
+				|| object instanceof Enum || object instanceof ShortPoint2D || object instanceof Class;
+	}
+
+	private String compareArrays(ComparedPair pair, Object expected, Object actual) {
+		int length = Array.getLength(expected);
+		if (length != Array.getLength(actual)) {
+			return "expected array length " + length + " but was " + Array.getLength(actual);
+		}
+
+		Class<?> componentType = expected.getClass().getComponentType();
+		if (componentType.isPrimitive()) {
+			for (int i = 0; i < length; i++) {
+				if (!Array.get(expected, i).equals(Array.get(actual, i))) {
+					return "expected " + Array.get(expected, i) + " but was " + Array.get(actual, i) + " at index " + i;
+				}
+			}
+		} else {
+			Object[] expectedArray = (Object[]) expected;
+			Object[] actualArray = (Object[]) actual;
+			for (int i = length - 1; i >= 0; i--) {
+				pairsToCompare.push(new ComparedPair(pair, "[" + i + "]", expectedArray[i], actualArray[i]));
+			}
+		}
+		return null;
+	}
+
+	private String compareMaps(ComparedPair pair, Map<?, ?> expected, Map<?, ?> actual) {
+		if (expected.size() != actual.size()) {
+			return "expected map size " + expected.size() + " but was " + actual.size();
+		}
+
+		List<Object> expectedValues = new ArrayList<>();
+		List<Object> actualValues = new ArrayList<>();
+		for (Map.Entry<?, ?> entry : expected.entrySet()) {
+			if (!isValue(entry.getKey())) {
+				return compareInOrder(pair, expected.entrySet().iterator(), actual.entrySet().iterator(), expected.size(), actual.size());
+			}
+			if (!actual.containsKey(entry.getKey())) {
+				return "missing key " + entry.getKey();
+			}
+			expectedValues.add(entry.getValue());
+			actualValues.add(actual.get(entry.getKey()));
+		}
+		return compareInOrder(pair, expectedValues.iterator(), actualValues.iterator(), expectedValues.size(), actualValues.size());
+	}
+
+	private String compareSets(ComparedPair pair, Set<?> expected, Set<?> actual) {
+		if (expected.size() != actual.size()) {
+			return "expected set size " + expected.size() + " but was " + actual.size();
+		}
+
+		List<Object> remainingActual = new ArrayList<>(actual);
+		for (Object expectedElement : expected) {
+			boolean found = false;
+			for (Iterator<Object> iterator = remainingActual.iterator(); iterator.hasNext();) {
+				if (findDifference(expectedElement, iterator.next()) == null) {
+					iterator.remove();
+					found = true;
+					break;
+				}
+			}
+			if (!found) {
+				return "no equal element found for " + expectedElement + " in set at " + pair.getPath();
+			}
+		}
+		return null;
+	}
+
+	private String compareInOrder(ComparedPair pair, Iterator<?> expected, Iterator<?> actual, int expectedSize, int actualSize) {
+		if (expectedSize != actualSize) {
+			return "expected size " + expectedSize + " but was " + actualSize;
+		}
+
+		List<ComparedPair> elements = new ArrayList<>(expectedSize);
+		for (int i = 0; expected.hasNext() && actual.hasNext(); i++) {
+			Object expectedElement = expected.next();
+			Object actualElement = actual.next();
+			if (expectedElement instanceof Map.Entry) {
+				elements.add(new ComparedPair(pair, "{key " + i + "}", ((Map.Entry<?, ?>) expectedElement).getKey(),
+						((Map.Entry<?, ?>) actualElement).getKey()));
+				elements.add(new ComparedPair(pair, "{value " + i + "}", ((Map.Entry<?, ?>) expectedElement).getValue(),
+						((Map.Entry<?, ?>) actualElement).getValue()));
+			} else {
+				elements.add(new ComparedPair(pair, "[" + i + "]", expectedElement, actualElement));
+			}
+		}
+		for (int i = elements.size() - 1; i >= 0; i--) {
+			pairsToCompare.push(elements.get(i));
+		}
+		return null;
+	}
+
+	private String compareFields(ComparedPair pair, Object expected, Object actual) {
+		Field[] fields = getSerializedFields(expected.getClass());
+		try {
+			for (int i = fields.length - 1; i >= 0; i--) {
+				Field field = fields[i];
+				Class<?> fieldType = field.getType();
+				if (fieldType.isPrimitive()) {
+					Object expectedValue = field.get(expected);
+					Object actualValue = field.get(actual);
+					if (!expectedValue.equals(actualValue)) {
+						return "expected " + expectedValue + " but was " + actualValue + " in field " + field.getName();
+					}
+				} else {
+					pairsToCompare.push(new ComparedPair(pair, field.getName(), field.get(expected), field.get(actual)));
+				}
+			}
+		} catch (IllegalAccessException e) {
+			throw new RuntimeException(e);
+		}
+		return null;
+	}
+
+	private static synchronized Field[] getSerializedFields(Class<?> type) {
+		Field[] fields = FIELDS_CACHE.get(type);
+		if (fields == null) {
+			List<Field> serializedFields = new ArrayList<>();
+			for (Class<?> currentType = type; currentType != null; currentType = currentType.getSuperclass()) {
+				for (Field field : currentType.getDeclaredFields()) {
+					int modifiers = field.getModifiers();
+					if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers)) {
+						field.setAccessible(true);
+						serializedFields.add(field);
+					}
+				}
+			}
+			fields = serializedFields.toArray(new Field[serializedFields.size()]);
+			FIELDS_CACHE.put(type, fields);
+		}
+		return fields;
+	}
+
+	private static final class ComparedPair {
+		private final ComparedPair parent;
+		private final String name;
+		private final Object expected;
+		private final Object actual;
+
+		ComparedPair(ComparedPair parent, String name, Object expected, Object actual) {
+			this.parent = parent;
+			this.name = name;
+			this.expected = expected;
+			this.actual = actual;
+		}
+
+		String getPath() {
+			StringBuilder path = new StringBuilder(name);
+			for (ComparedPair current = parent; current != null; current = current.parent) {
+				path.insert(0, current.name + (current.expected != null ? "(" + current.expected.getClass().getSimpleName() + ")" : "") + ".");
+			}
+			return path.toString();
+		}
+	}
+}
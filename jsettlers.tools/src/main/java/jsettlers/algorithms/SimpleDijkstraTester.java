@@ -30,6 +30,9 @@ public class SimpleDijkstraTester {
 	private static final short HEIGHT = (short) 200;
 
 	public static void main(String args[]) {
+		final DummyEmptyAStarMap aStarMap = new DummyEmptyAStarMap(WIDTH, HEIGHT);
+		aStarMap.setBlocked(120, 100, true);
+
 		IDijkstraPathMap map = new IDijkstraPathMap() {
 			@Override
 			public boolean fitsSearchType(int x, int y, ESearchType type, IPathCalculatable requester) {
@@ -51,9 +54,17 @@ public class SimpleDijkstraTester {
 			@Override
 			public void setDijkstraSearched(int x, int y) {
 			}
+
+			@Override
+			public boolean isBlocked(IPathCalculatable requester, int x, int y) {
+				return aStarMap.isBlocked(requester, x, y);
+			}
+
+			@Override
+			public short getBlockedPartition(int x, int y) {
+				return aStarMap.getBlockedPartition(x, y);
+			}
 		};
-		DummyEmptyAStarMap aStarMap = new DummyEmptyAStarMap(WIDTH, HEIGHT);
-		aStarMap.setBlocked(120, 100, true);
 
 		DijkstraAlgorithm dijkstra = new DijkstraAlgorithm(map, new BucketQueueAStar(aStarMap, WIDTH, HEIGHT), WIDTH, HEIGHT);
 
@@ -0,0 +1,251 @@
+/*******************************************************************************
+ * Copyright (c) 2017
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.graphics.test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+
+import go.graphics.GLDrawContext;
+import go.graphics.GLDrawContext.GLBuffer;
+import go.graphics.GeometryHandle;
+import go.graphics.TextureHandle;
+import go.graphics.text.EFontSize;
+import go.graphics.text.TextDrawer;
+import jsettlers.GraphicsGridAdapter;
+import jsettlers.common.landscape.ELandscapeType;
+import jsettlers.common.position.FloatRectangle;
+import jsettlers.graphics.map.MapDrawContext;
+import jsettlers.graphics.map.draw.Background;
+
+/**
+ * Measures how long the {@link Background} needs to regenerate the geometry of a whole screen. The geometry is written to a stub
+ * {@link GLDrawContext}, so no opengl is needed.
+ * 
+ * @author agent
+ */
+public class BackgroundBenchmark {
+	private static final int MAP_SIZE = 1024;
+	private static final float SCREEN_WIDTH = 3840;
+	private static final float SCREEN_HEIGHT = 2160;
+
+	private static final int WARMUP_FRAMES = 50;
+	private static final int MEASURED_FRAMES = 200;
+
+	public static void main(String[] args) {
+		MapDrawContext context = new MapDrawContext(new VariedGrid(MAP_SIZE, MAP_SIZE));
+		context.setSize(SCREEN_WIDTH, SCREEN_HEIGHT);
+		context.begin(new StubDrawContext());
+
+		int maxWorkers = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+		for (int workers : new int[] { 0, maxWorkers }) {
+			Background.GEOMETRY_WORKER_THREADS = workers;
+			Background background = new Background();
+
+			drawFrames(context, background, WARMUP_FRAMES);
+			long start = System.nanoTime();
+			drawFrames(context, background, MEASURED_FRAMES);
+			double millisPerFrame = (System.nanoTime() - start) / 1e6 / MEASURED_FRAMES;
+
+			System.out.printf("%d worker threads: %.3f ms per full screen regeneration%n", workers, millisPerFrame);
+		}
+
+		context.end();
+	}
+
+	/**
+	 * Draws the given number of frames. The screen jumps between two far away positions every frame, so that the whole geometry needs to be
+	 * regenerated.
+	 */
+	private static void drawFrames(MapDrawContext context, Background background, int frames) {
+		for (int i = 0; i < frames; i++) {
+			float left = i % 2 == 0 ? 1000 : 8000;
+			float bottom = i % 2 == 0 ? 1000 : 5000;
+			background.drawMapContent(context, new FloatRectangle(left, bottom, left + SCREEN_WIDTH, bottom + SCREEN_HEIGHT));
+		}
+	}
+
+	private static class VariedGrid extends GraphicsGridAdapter {
+		private static final ELandscapeType[] LANDSCAPES = { ELandscapeType.GRASS, ELandscapeType.SAND, ELandscapeType.WATER1,
+				ELandscapeType.MOUNTAIN, ELandscapeType.DESERT };
+
+		VariedGrid(int width, int height) {
+			super(width, height);
+		}
+
+		@Override
+		public byte getHeightAt(int x, int y) {
+			return (byte) ((x * 7 + y * 3) % 20);
+		}
+
+		@Override
+		public ELandscapeType getLandscapeTypeAt(int x, int y) {
+			return LANDSCAPES[(x / 13 + y / 7) % LANDSCAPES.length];
+		}
+	}
+
+	private static class StubHandle implements GeometryHandle, TextureHandle {
+		@Override
+		public boolean isValid() {
+			return true;
+		}
+
+		@Override
+		public void delete() {
+		}
+
+		@Override
+		public int getInternalId() {
+			return 0;
+		}
+	}
+
+	private static class StubBuffer implements GLBuffer {
+		private final ByteBuffer buffer;
+
+		StubBuffer(int bytes) {
+			buffer = ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+		}
+
+		@Override
+		public void putFloat(float f) {
+			buffer.putFloat(f);
+		}
+
+		@Override
+		public void putByte(byte b) {
+			buffer.put(b);
+		}
+
+		@Override
+		public void put(ByteBuffer data) {
+			buffer.put(data);
+		}
+
+		@Override
+		public void position(int position) {
+			buffer.position(position);
+		}
+	}
+
+	private static class StubDrawContext implements GLDrawContext {
+		private StubBuffer geometry;
+
+		@Override
+		public void fillQuad(float x1, float y1, float x2, float y2) {
+		}
+
+		@Override
+		public void drawLine(float[] points, boolean loop) {
+		}
+
+		@Override
+		public void glPushMatrix() {
+		}
+
+		@Override
+		public void glTranslatef(float x, float y, float z) {
+		}
+
+		@Override
+		public void glScalef(float x, float y, float z) {
+		}
+
+		@Override
+		public void glPopMatrix() {
+		}
+
+		@Override
+		public void color(float red, float green, float blue, float alpha) {
+		}
+
+		@Override
+		public TextureHandle generateTexture(int width, int height, ShortBuffer data) {
+			return new StubHandle();
+		}
+
+		@Override
+		public void drawQuadWithTexture(TextureHandle textureid, float[] geometry) {
+		}
+
+		@Override
+		public void drawQuadWithTexture(TextureHandle textureid, GeometryHandle geometryindex) {
+		}
+
+		@Override
+		public void drawTrianglesWithTexture(TextureHandle textureid, float[] geometry) {
+		}
+
+		@Override
+		public void drawTrianglesWithTexture(TextureHandle textureid, GeometryHandle geometryindex, int triangleCount) {
+		}
+
+		@Override
+		public void drawTrianglesWithTextureColored(TextureHandle textureid, float[] geometry) {
+		}
+
+		@Override
+		public void drawTrianglesWithTextureColored(TextureHandle textureid, GeometryHandle geometryindex, int triangleCount) {
+		}
+
+		@Override
+		public void drawTrianglesWithTextureColored(TextureHandle textureid, ByteBuffer byteBuffer, int currentTriangles) {
+		}
+
+		@Override
+		public int makeWidthValid(int width) {
+			return width;
+		}
+
+		@Override
+		public int makeHeightValid(int height) {
+			return height;
+		}
+
+		@Override
+		public void glMultMatrixf(float[] matrix, int offset) {
+		}
+
+		@Override
+		public void updateTexture(TextureHandle textureIndex, int left, int bottom, int width, int height, ShortBuffer data) {
+		}
+
+		@Override
+		public TextDrawer getTextDrawer(EFontSize size) {
+			return null;
+		}
+
+		@Override
+		public GeometryHandle storeGeometry(float[] geometry) {
+			return new StubHandle();
+		}
+
+		@Override
+		public GLBuffer startWriteGeometry(GeometryHandle geometryindex) {
+			geometry.buffer.clear();
+			return geometry;
+		}
+
+		@Override
+		public void endWriteGeometry(GeometryHandle geometryindex) {
+		}
+
+		@Override
+		public GeometryHandle generateGeometry(int bytes) {
+			geometry = new StubBuffer(bytes);
+			return new StubHandle();
+		}
+	}
+}
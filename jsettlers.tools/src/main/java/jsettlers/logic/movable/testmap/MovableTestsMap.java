@@ -35,6 +35,7 @@ import jsettlers.common.material.ESearchType;
 import jsettlers.common.movable.EDirection;
 import jsettlers.common.movable.IMovable;
 import jsettlers.common.position.ShortPoint2D;
+import jsettlers.common.position.ShortPoint2DTable;
 import jsettlers.logic.constants.MatchConstants;
 import jsettlers.logic.map.grid.partition.manager.manageables.IManageableBearer;
 import jsettlers.logic.map.grid.partition.manager.manageables.IManageableBricklayer;
@@ -60,6 +61,7 @@ public class MovableTestsMap implements IGraphicsGrid, IAStarPathMap {
 	private final EMaterialType    materialTypeMap[][];
 	private final byte             materialAmountMap[][];
 	private final BucketQueueAStar aStar;
+	private final ShortPoint2DTable points;
 
 	public MovableTestsMap(int width, int height, Player defaultPlayer) {
 		this.width = (short) width;
@@ -71,6 +73,7 @@ public class MovableTestsMap implements IGraphicsGrid, IAStarPathMap {
 		this.materialAmountMap = new byte[width][height];
 
 		aStar = new BucketQueueAStar(this, this.width, this.height);
+		points = new ShortPoint2DTable(this.width, this.height);
 	}
 
 	@Override
@@ -165,8 +168,8 @@ public class MovableTestsMap implements IGraphicsGrid, IAStarPathMap {
 		}
 
 		@Override
-		public Path calculatePathTo(IPathCalculatable pathRequester, ShortPoint2D targetPos) {
-			return aStar.findPath(pathRequester, targetPos);
+		public Path calculatePathTo(IPathCalculatable pathRequester, ShortPoint2D targetPos, Path reusablePath) {
+			return aStar.findPath(pathRequester, targetPos, reusablePath);
 		}
 
 		@Override
@@ -328,12 +331,14 @@ public class MovableTestsMap implements IGraphicsGrid, IAStarPathMap {
 		}
 
 		@Override
-		public Path searchDijkstra(IPathCalculatable pathCalculateable, short centerX, short centerY, short radius, ESearchType searchType) {
+		public Path searchDijkstra(IPathCalculatable pathCalculateable, short centerX, short centerY, short radius, ESearchType searchType,
+				Path reusablePath) {
 			return null;
 		}
 
 		@Override
-		public Path searchInArea(IPathCalculatable pathCalculateable, short centerX, short centerY, short radius, ESearchType searchType) {
+		public Path searchInArea(IPathCalculatable pathCalculateable, short centerX, short centerY, short radius, ESearchType searchType,
+				Path reusablePath) {
 			return null;
 		}
 
@@ -418,6 +423,11 @@ public class MovableTestsMap implements IGraphicsGrid, IAStarPathMap {
 			return new ShortPoint2D(0, 0);
 		}
 
+		@Override
+		public ShortPoint2DTable getPoints() {
+			return points;
+		}
+
 		@Override
 		public void addArrowObject(ShortPoint2D attackedPos, ShortPoint2D shooterPos, byte shooterPlayerId, float hitStrength) {
 		}